@@ -0,0 +1,209 @@
+package com.example.gymmembershipgui;
+
+import java.util.Random;
+
+/**
+ * BenchmarkData generates realistic member data for the benchmarks.
+ * Members are built from a small pool of common first and last names, so
+ * names repeat the way they do in a real gym, while each combination of name
+ * and date of birth stays unique.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class BenchmarkData {
+    private static final String[] FIRST_NAMES = {"John", "Jane", "Mary",
+            "Kate", "Roy", "Carl", "Bill", "Paul", "April", "Duke", "Emma",
+            "Liam", "Olivia", "Noah", "Ava", "James", "Sophia", "Lucas", "Mia",
+            "Henry", "Ella", "Jack", "Grace", "Owen", "Chloe", "Ryan", "Zoe",
+            "Adam", "Nora", "Eli", "Ruby", "Sam", "Ivy", "Leo", "Lily", "Max",
+            "Anna", "Ben", "Rose", "Dan"};
+    private static final String[] LAST_NAMES = {"Doe", "Lindsey", "Brooks",
+            "Brown", "Scanlan", "Siegel", "March", "Ellington", "Smith",
+            "Johnson", "Williams", "Jones", "Garcia", "Miller", "Davis",
+            "Rodriguez", "Martinez", "Hernandez", "Lopez", "Wilson", "Anderson",
+            "Thomas", "Taylor", "Moore", "Jackson", "Martin", "Lee", "Perez",
+            "Thompson", "White", "Harris", "Sanchez", "Clark", "Ramirez",
+            "Lewis", "Robinson", "Walker", "Young", "Allen", "King"};
+    private static final String[] LOCATIONS = {"Edison", "Piscataway",
+            "Bridgewater", "Franklin", "Somerville"};
+    private static final int DAYS_PER_MONTH = 28;
+    private static final int MONTHS = 12;
+    private static final int YEARS = 50;
+    private static final int FIRST_BIRTH_YEAR = 1950;
+    private static final int FIRST_EXPIRE_YEAR = 2022;
+    private static final int EXPIRE_YEARS = 4;
+    private static final String[] SYLLABLES = {"an", "bel", "cor", "dan",
+            "el", "fin", "gar", "hol", "is", "jor", "kel", "lan", "mor", "nel",
+            "or", "par", "quin", "ros", "sel", "tor", "ul", "ven", "wil",
+            "yor", "zan"};
+    private static final String[] SURNAME_ENDINGS = {"", "son", "ley",
+            "ton"};
+    private static final int RARE_FIRST_NAMES = 5_000;
+    private static final int RARE_LAST_NAMES = 60_000;
+    private static final double COMMON_FIRST_NAME_SHARE = 0.8;
+    private static final double COMMON_LAST_NAME_SHARE = 0.4;
+    private static final long SEED = 42;
+
+    private BenchmarkData() {}
+
+    /**
+     * Creates the given number of distinct members.
+     * Every third member has a Family plan and every fifth a Premium plan.
+     * @param count the number of members to create.
+     * @return the members as an array.
+     */
+    public static Member[] members(int count) {
+        Member[] members = new Member[count];
+        for (int i = 0; i < count; i++) {
+            String fname = FIRST_NAMES[i % FIRST_NAMES.length];
+            String lname = LAST_NAMES[(i / FIRST_NAMES.length) %
+                    LAST_NAMES.length];
+            String dob = dob(i / (FIRST_NAMES.length * LAST_NAMES.length));
+            String expire = expire(i);
+            String location = LOCATIONS[i % LOCATIONS.length];
+            if (i % 5 == 0)
+                members[i] = new Premium(fname, lname, dob, expire, location);
+            else if (i % 3 == 0)
+                members[i] = new Family(fname, lname, dob, expire, location);
+            else
+                members[i] = new Member(fname, lname, dob, expire, location);
+        }
+        return members;
+    }
+
+    /**
+     * Creates the given number of distinct Family members joining today.
+     * Their memberships have not expired and they can check in to a class
+     * at any location, so every check-in of one of them succeeds.
+     * @param count the number of members to create.
+     * @return the members as an array.
+     */
+    public static Family[] newFamilies(int count) {
+        Family[] families = new Family[count];
+        for (int i = 0; i < count; i++) {
+            families[i] = new Family(FIRST_NAMES[i % FIRST_NAMES.length],
+                    LAST_NAMES[(i / FIRST_NAMES.length) % LAST_NAMES.length],
+                    dob(i / (FIRST_NAMES.length * LAST_NAMES.length)),
+                    LOCATIONS[i % LOCATIONS.length]);
+        }
+        return families;
+    }
+
+    /**
+     * Creates dates in mm/dd/yyyy format, as they appear in commands.
+     * Dates repeat once there are more than the birth dates generated.
+     * @param count the number of dates to create.
+     * @return the dates as an array.
+     */
+    public static String[] dates(int count) {
+        String[] dates = new String[count];
+        for (int i = 0; i < count; i++)
+            dates[i] = dob(i);
+        return dates;
+    }
+
+    /**
+     * Creates the lines of a memberList file whose names follow a census-like
+     * distribution: most first names and a large share of last names come
+     * from the common names, weighted towards the first ones, and the rest
+     * come from a long tail of thousands of rarer names. The same lines are
+     * created for the same count every time.
+     * @param count the number of lines to create.
+     * @return the lines in memberList format, one per member.
+     */
+    public static String[] censusMemberListLines(int count) {
+        Random random = new Random(SEED);
+        String[] lines = new String[count];
+        for (int i = 0; i < count; i++) {
+            String fname = random.nextDouble() < COMMON_FIRST_NAME_SHARE
+                    ? FIRST_NAMES[skewed(random, FIRST_NAMES.length)]
+                    : rareName(random.nextInt(RARE_FIRST_NAMES));
+            String lname = random.nextDouble() < COMMON_LAST_NAME_SHARE
+                    ? LAST_NAMES[skewed(random, LAST_NAMES.length)]
+                    : rareName(random.nextInt(RARE_LAST_NAMES));
+            lines[i] = fname + " " + lname + " " + dob(i) + " " +
+                    expire(i) + " " + LOCATIONS[i % LOCATIONS.length];
+        }
+        return lines;
+    }
+
+    /**
+     * Picks an index that is more likely the closer it is to the start.
+     * @param random the source of random numbers.
+     * @param bound the number of indices to pick from.
+     * @return an index from 0 to bound - 1.
+     */
+    private static int skewed(Random random, int bound) {
+        return (int) (bound * random.nextDouble() * random.nextDouble());
+    }
+
+    /**
+     * Creates a rare name from syllables.
+     * @param sequence the sequence number of the name.
+     * @return the name, capitalized.
+     */
+    private static String rareName(int sequence) {
+        int syllables = SYLLABLES.length;
+        String name = SYLLABLES[sequence % syllables] +
+                SYLLABLES[(sequence / syllables) % syllables] +
+                SYLLABLES[(sequence / (syllables * syllables)) % syllables] +
+                SURNAME_ENDINGS[(sequence / (syllables * syllables *
+                        syllables)) % SURNAME_ENDINGS.length];
+        return Character.toUpperCase(name.charAt(0)) + name.substring(1);
+    }
+
+    /**
+     * Creates lookup probes holding only the name and DOB of each member.
+     * These mirror the members built by the front desk to find a member.
+     * @param members the members to create probes for.
+     * @return the probes as an array, in the same order as the members.
+     */
+    public static Member[] probes(Member[] members) {
+        Member[] probes = new Member[members.length];
+        for (int i = 0; i < members.length; i++) {
+            probes[i] = new Member(members[i].getFirstName(),
+                    members[i].getLastName(), members[i].getDOB().toString());
+        }
+        return probes;
+    }
+
+    /**
+     * Creates the lines of a memberList file for the given members.
+     * @param members the members to write as lines.
+     * @return the lines in memberList format, one per member.
+     */
+    public static String[] memberListLines(Member[] members) {
+        String[] lines = new String[members.length];
+        for (int i = 0; i < members.length; i++) {
+            Member member = members[i];
+            lines[i] = member.getFirstName() + " " + member.getLastName() +
+                    " " + member.getDOB() + " " + member.getExpire() + " " +
+                    member.getLocation().name();
+        }
+        return lines;
+    }
+
+    /**
+     * Creates a unique date of birth for the given sequence number.
+     * @param sequence the sequence number of the date.
+     * @return the date in mm/dd/yyyy format.
+     */
+    private static String dob(int sequence) {
+        int month = sequence % MONTHS + 1;
+        int day = (sequence / MONTHS) % DAYS_PER_MONTH + 1;
+        int year = FIRST_BIRTH_YEAR + (sequence / (MONTHS * DAYS_PER_MONTH)) %
+                YEARS;
+        return month + "/" + day + "/" + year;
+    }
+
+    /**
+     * Creates an expiration date spread over a few years.
+     * @param sequence the sequence number of the date.
+     * @return the date in mm/dd/yyyy format.
+     */
+    private static String expire(int sequence) {
+        int month = (sequence * 7) % MONTHS + 1;
+        int day = (sequence * 13) % DAYS_PER_MONTH + 1;
+        int year = FIRST_EXPIRE_YEAR + sequence % EXPIRE_YEARS;
+        return month + "/" + day + "/" + year;
+    }
+}
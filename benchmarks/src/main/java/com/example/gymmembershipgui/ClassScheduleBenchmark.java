@@ -0,0 +1,108 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding classes on the schedule and looking for time conflicts
+ * with the classes a member is checked in to.
+ * Run with: java -jar target/benchmarks.jar ClassScheduleBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ClassScheduleBenchmark {
+    private static final String[] INSTRUCTORS = {"Jennifer", "Kim", "Denise",
+            "Davis", "Emma"};
+    private static final String[] TIMES = {"morning", "afternoon",
+            "evening"};
+    private static final String[] LOCATIONS = {"Bridgewater", "Edison",
+            "Franklin", "Piscataway", "Somerville"};
+    private static final int PARTICIPANTS = 20;
+
+    @Param({"15", "150", "1500"})
+    private int size;
+
+    private ClassSchedule schedule;
+    private FitnessClass[] probes;
+    private String[] classNames;
+    private Member[] members;
+    private int next;
+
+    /**
+     * Creates a schedule with the given number of classes, each holding a
+     * few participants, and probes for each class on it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        schedule = new ClassSchedule();
+        probes = new FitnessClass[size];
+        classNames = new String[size];
+        members = BenchmarkData.newFamilies(size + PARTICIPANTS);
+        for (int i = 0; i < size; i++) {
+            String className = "Class" + i;
+            classNames[i] = className;
+            String instructor = INSTRUCTORS[i % INSTRUCTORS.length];
+            String location = LOCATIONS[i % LOCATIONS.length];
+            schedule.addFitnessClass(className, instructor,
+                    TIMES[i % TIMES.length], location);
+            probes[i] = new FitnessClass(instructor, className, location);
+            FitnessClass fitnessClass = schedule.findFitnessClass(probes[i]);
+            for (int j = 0; j < PARTICIPANTS; j++)
+                fitnessClass.checkInMember(members[i + j]);
+        }
+    }
+
+    /**
+     * Finds one class on the schedule by name, instructor, and location.
+     * @return the class found.
+     */
+    @Benchmark
+    public FitnessClass findFitnessClass() {
+        FitnessClass probe = probes[next];
+        next = (next + 1) % size;
+        return schedule.findFitnessClass(probe);
+    }
+
+    /**
+     * Finds one class on the schedule from the names chosen in the GUI,
+     * without a FitnessClass to search for.
+     * @return the class found.
+     */
+    @Benchmark
+    public FitnessClass findFitnessClassByNames() {
+        int i = next;
+        next = (next + 1) % size;
+        return schedule.findFitnessClass(classNames[i],
+                INSTRUCTORS[i % INSTRUCTORS.length],
+                LOCATIONS[i % LOCATIONS.length]);
+    }
+
+    /**
+     * Looks for a class at the same time that a member is checked in to.
+     * @return the conflicting class, null if there is none.
+     */
+    @Benchmark
+    public FitnessClass findTimeConflict() {
+        Member member = members[next];
+        String time = TIMES[next % TIMES.length];
+        next = (next + 1) % size;
+        return schedule.findTimeConflict(time, member);
+    }
+}
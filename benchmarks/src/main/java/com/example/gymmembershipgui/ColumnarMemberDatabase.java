@@ -0,0 +1,605 @@
+package com.example.gymmembershipgui;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * ColumnarMemberDatabase is a MemberDatabase that keeps its members in
+ * columns of primitives instead of as Member objects. Each member is a row
+ * across parallel arrays: the ids of their first and last name in a
+ * NameDictionary shared by every member, their DOB and expiration date
+ * packed into ints, the ordinal of their location, their plan, and their
+ * guest passes.
+ * Members are found through an open-addressing table of row numbers keyed on
+ * their name and DOB. A Member is only created for a row when it is found,
+ * and is then kept so the same member is always returned and changes to it,
+ * such as using guest passes, are seen by the database. Scans such as
+ * finding the expired members at a location read the columns directly.
+ * The rows are also kept in RowIndexes in order of expiration date, and in
+ * order of last name, first name, and DOB, so the members expiring in a
+ * range and the members whose last names start with what has been typed
+ * are found without scanning.
+ * Removed rows are left empty, so the other members keep the order they
+ * were added in, until more than half of the rows are empty.
+ * It is kept with the benchmarks, to measure against MemberDatabase; the
+ * Gym Manager does not use it.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class ColumnarMemberDatabase extends MemberDatabase {
+    private int[] firstNames;
+    private int[] lastNames;
+    private int[] dobs;
+    private int[] expires;
+    private int[] hashes;
+    private byte[] locations;
+    private byte[] plans;
+    private short[] guestPasses;
+    private Member[] views;
+    private int size;
+    private int used;
+    private NameDictionary names;
+    private int[] slots;
+    private RowIndex<Integer> byExpiration;
+    private RowIndex<FullName> byName;
+    private final static byte REMOVED = -1;
+    private final static int EMPTY = 0;
+    private final static int NOT_FOUND = -1;
+    private final static int INITIAL_LENGTH = 4;
+    private final static int GROWTH_FACTOR = 2;
+    private final static int HASH_SPREAD = 0x9E3779B9;
+    private final static Location[] LOCATIONS = Location.values();
+
+    /**
+     * Creates an instance of ColumnarMemberDatabase with no members.
+     */
+    public ColumnarMemberDatabase() {
+        resize(INITIAL_LENGTH);
+        size = 0;
+        used = 0;
+        names = new NameDictionary();
+        slots = new int[INITIAL_LENGTH * GROWTH_FACTOR];
+        byExpiration = new RowIndex<>(Comparator.naturalOrder(),
+                Integer::compare);
+        byName = new RowIndex<>(FullName.ORDER,
+                (row, other) -> Integer.compare(dobs[row], dobs[other]));
+    }
+
+    /**
+     * Copies the columns to new arrays of the given length.
+     * @param length the number of rows the columns should hold.
+     */
+    private void resize(int length) {
+        firstNames = firstNames == null ? new int[length]
+                : Arrays.copyOf(firstNames, length);
+        lastNames = lastNames == null ? new int[length]
+                : Arrays.copyOf(lastNames, length);
+        dobs = dobs == null ? new int[length] : Arrays.copyOf(dobs, length);
+        expires = expires == null ? new int[length]
+                : Arrays.copyOf(expires, length);
+        hashes = hashes == null ? new int[length]
+                : Arrays.copyOf(hashes, length);
+        locations = locations == null ? new byte[length]
+                : Arrays.copyOf(locations, length);
+        plans = plans == null ? new byte[length]
+                : Arrays.copyOf(plans, length);
+        guestPasses = guestPasses == null ? new short[length]
+                : Arrays.copyOf(guestPasses, length);
+        views = views == null ? new Member[length]
+                : Arrays.copyOf(views, length);
+    }
+
+    /**
+     * Finds the slot a hash starts probing from in the table of rows.
+     * @param hash the hash of the member's name and DOB.
+     * @return the first slot to look in.
+     */
+    private int home(int hash) {
+        return (hash * HASH_SPREAD) & (slots.length - 1);
+    }
+
+    /**
+     * Checks if a row holds the given member.
+     * Names are compared ignoring case, as Member.equals() does.
+     * @param row the row to check.
+     * @param member the member to compare against.
+     * @return true if the row holds the member, false otherwise.
+     */
+    private boolean holds(int row, Member member) {
+        return dobs[row] == member.getDOB().toPacked()
+                && names.name(lastNames[row])
+                        .equalsIgnoreCase(member.getLastName())
+                && names.name(firstNames[row])
+                        .equalsIgnoreCase(member.getFirstName());
+    }
+
+    /**
+     * Finds the slot in the table of rows that points to a member's row.
+     * @param member the member that must be found.
+     * @return the slot pointing to the member's row, -1 if not found.
+     */
+    private int findSlot(Member member) {
+        int hash = member.hashCode();
+        int mask = slots.length - 1;
+        for (int slot = home(hash); slots[slot] != EMPTY;
+                slot = (slot + 1) & mask) {
+            int row = slots[slot] - 1;
+            if (hashes[row] == hash && holds(row, member))
+                return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Points an empty slot in the table of rows to a row.
+     * @param row the row to add to the table.
+     */
+    private void addSlot(int row) {
+        int mask = slots.length - 1;
+        int slot = home(hashes[row]);
+        while (slots[slot] != EMPTY)
+            slot = (slot + 1) & mask;
+        slots[slot] = row + 1;
+    }
+
+    /**
+     * Empties a slot in the table of rows.
+     * The rows after it that probed past the slot are moved back, so no
+     * lookup stops early at the empty slot.
+     * @param slot the slot to empty.
+     */
+    private void removeSlot(int slot) {
+        int mask = slots.length - 1;
+        slots[slot] = EMPTY;
+        for (int next = (slot + 1) & mask; slots[next] != EMPTY;
+                next = (next + 1) & mask) {
+            int home = home(hashes[slots[next] - 1]);
+            boolean movable = slot <= next ? home <= slot || home > next
+                    : home <= slot && home > next;
+            if (movable) {
+                slots[slot] = slots[next];
+                slots[next] = EMPTY;
+                slot = next;
+            }
+        }
+    }
+
+    /**
+     * Rebuilds the table of rows with room for the given number of rows.
+     * The table is kept at most half full.
+     * @param capacity the number of rows the table should hold.
+     */
+    private void rebuildSlots(int capacity) {
+        int length = INITIAL_LENGTH * GROWTH_FACTOR;
+        while (length < capacity * GROWTH_FACTOR)
+            length <<= 1;
+        slots = new int[length];
+        for (int row = 0; row < used; row++)
+            if (plans[row] != REMOVED)
+                addSlot(row);
+    }
+
+    /**
+     * Gets the name of the member in a row, as the name index orders it.
+     * @param row the row holding the member.
+     * @return the member's last and first name.
+     */
+    private FullName fullName(int row) {
+        return new FullName(names.name(lastNames[row]),
+                names.name(firstNames[row]));
+    }
+
+    /**
+     * Adds every row to the expiration date and name indexes again, once
+     * rows have moved or many rows have been added at once. Rows are added
+     * in order, so members expiring on the same date stay in the order they
+     * were added, and the rows sharing a name are sorted by DOB once at the
+     * end.
+     */
+    private void rebuildRowIndexes() {
+        byExpiration.clear();
+        byName.clear();
+        for (int row = 0; row < used; row++) {
+            if (plans[row] == REMOVED)
+                continue;
+            byExpiration.append(expires[row], row);
+            byName.append(fullName(row), row);
+        }
+        byName.sort();
+    }
+
+    /**
+     * Moves the rows left over any removed rows, keeping their order.
+     * The indexes of rows are rebuilt if any row moved.
+     * @param length the number of rows the columns should hold afterwards.
+     */
+    private void relocate(int length) {
+        int next = 0;
+        for (int row = 0; row < used; row++) {
+            if (plans[row] == REMOVED)
+                continue;
+            if (next != row) {
+                firstNames[next] = firstNames[row];
+                lastNames[next] = lastNames[row];
+                dobs[next] = dobs[row];
+                expires[next] = expires[row];
+                hashes[next] = hashes[row];
+                locations[next] = locations[row];
+                plans[next] = plans[row];
+                guestPasses[next] = guestPasses[row];
+                views[next] = views[row];
+            }
+            next++;
+        }
+        Arrays.fill(views, next, used, null);
+        boolean moved = next != used;
+        used = next;
+        if (length != plans.length)
+            resize(length);
+        rebuildSlots(Math.max(length, size));
+        if (moved)
+            rebuildRowIndexes();
+    }
+
+    /**
+     * Makes room in the database for at least the given number of members.
+     * @param capacity the number of members the database should hold.
+     */
+    @Override
+    public void ensureCapacity(int capacity) {
+        if (capacity > plans.length)
+            relocate(capacity);
+    }
+
+    /**
+     * Adds a member to the database.
+     * The member is split into the columns of a new row; the Member itself
+     * is not kept, and finding the member later creates a new one.
+     * @param member the member that is being added to the database.
+     * @return true if member is added, false if member in database already.
+     */
+    @Override
+    public boolean add(Member member) {
+        int row = addRow(member);
+        if (row == NOT_FOUND)
+            return false;
+        byExpiration.add(expires[row], row);
+        byName.add(fullName(row), row);
+        return true;
+    }
+
+    /**
+     * Adds a member to a new row without adding the row to the expiration
+     * date and name indexes, for adding many members before building the
+     * indexes once.
+     * @param member the member that is being added to the database.
+     * @return the new row, -1 if member in database already.
+     */
+    private int addRow(Member member) {
+        if (findSlot(member) != NOT_FOUND)
+            return NOT_FOUND;
+        if (used == plans.length)
+            relocate(plans.length * GROWTH_FACTOR);
+        int row = used++;
+        firstNames[row] = names.id(member.getFirstName());
+        lastNames[row] = names.id(member.getLastName());
+        dobs[row] = member.getDOB().toPacked();
+        expires[row] = member.getExpire().toPacked();
+        hashes[row] = member.hashCode();
+        locations[row] = (byte) member.getLocation().ordinal();
+        plans[row] = (byte) member.getPlan();
+        guestPasses[row] = member instanceof Family
+                ? (short) ((Family) member).getNumberOfPasses() : 0;
+        size++;
+        if (size * GROWTH_FACTOR > slots.length)
+            rebuildSlots(size);
+        else
+            addSlot(row);
+        return row;
+    }
+
+    /**
+     * Removes a member from the database.
+     * The member's row is emptied, and once more than half of the rows are
+     * empty the rows are compacted.
+     * @param member the member that must be removed.
+     * @return true if member removed, false if the member is not in database.
+     */
+    @Override
+    public boolean remove(Member member) {
+        int slot = findSlot(member);
+        if (slot == NOT_FOUND)
+            return false;
+        int row = slots[slot] - 1;
+        removeSlot(slot);
+        byExpiration.remove(expires[row], row);
+        byName.remove(fullName(row), row);
+        plans[row] = REMOVED;
+        views[row] = null;
+        size--;
+        if (row == used - 1)
+            used--;
+        if (used - size > size)
+            relocate(plans.length);
+        return true;
+    }
+
+    /**
+     * Creates a Member from the columns of a row.
+     * @param row the row holding the member.
+     * @return a new Member, Family, or Premium holding the row's values.
+     */
+    private Member materialize(int row) {
+        String fname = names.name(firstNames[row]);
+        String lname = names.name(lastNames[row]);
+        Date dob = Date.fromPacked(dobs[row]);
+        Date expire = Date.fromPacked(expires[row]);
+        Location location = LOCATIONS[locations[row]];
+        switch (plans[row]) {
+            case Member.FAMILY_PLAN:
+                return new Family(fname, lname, dob, expire, location,
+                        guestPasses[row]);
+            case Member.PREMIUM_PLAN:
+                return new Premium(fname, lname, dob, expire, location,
+                        guestPasses[row]);
+            default:
+                return new Member(fname, lname, dob, expire, location);
+        }
+    }
+
+    /**
+     * Gets the Member for a row, creating and keeping it the first time.
+     * @param row the row holding the member.
+     * @return the Member for the row.
+     */
+    private Member view(int row) {
+        if (views[row] == null)
+            views[row] = materialize(row);
+        return views[row];
+    }
+
+    /**
+     * Finds a member in database given a member.
+     * @param member the member that is being searched for.
+     * @return the matching member in the database if found, null otherwise.
+     * The same Member is returned each time the member is found.
+     */
+    @Override
+    public Member findMember(Member member) {
+        int slot = findSlot(member);
+        if (slot == NOT_FOUND)
+            return null;
+        return view(slots[slot] - 1);
+    }
+
+    /**
+     * Finds the members at a location whose memberships have expired.
+     * Scans the location and expiration date columns, and only creates a
+     * Member for the rows that match.
+     * @param location the location to look at.
+     * @return the expired members at the location in the order they were
+     * added.
+     */
+    public Member[] findExpired(Location location) {
+        int today = Date.today().toPacked();
+        byte ordinal = (byte) location.ordinal();
+        int count = 0;
+        for (int row = 0; row < used; row++)
+            if (locations[row] == ordinal && expires[row] < today
+                    && plans[row] != REMOVED)
+                count++;
+        Member[] expired = new Member[count];
+        int next = 0;
+        for (int row = 0; row < used && next < count; row++)
+            if (locations[row] == ordinal && expires[row] < today
+                    && plans[row] != REMOVED)
+                expired[next++] = view(row);
+        return expired;
+    }
+
+    /**
+     * Finds the members whose memberships expire on or after one date and
+     * before another, in order of expiration date.
+     * Only the dates in the range are visited in the expiration date index,
+     * so finding k members takes O(log n + k) time, and a Member is only
+     * created for the rows found. Members expiring on the same date are in
+     * the order they were added.
+     * @param from the first expiration date to include.
+     * @param to the expiration date to stop before.
+     * @return the members found, empty if from is not before to.
+     */
+    @Override
+    public Member[] expiringBetween(Date from, Date to) {
+        if (from.compareTo(to) >= 0)
+            return new Member[0];
+        int[] rows = byExpiration.rows(from.toPacked(), to.toPacked(),
+                Integer.MAX_VALUE);
+        Member[] expiring = new Member[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            expiring[i] = view(rows[i]);
+        return expiring;
+    }
+
+    /**
+     * Suggests the members whose last names start with what has been typed,
+     * ordered by last and first name and DOB, for completing a name.
+     * The last names with the prefix sit together in the name index, so
+     * they are found by seeking to the first of them, in O(log n + limit)
+     * time, and a Member is only created for the rows suggested.
+     * @param prefix the start of the last name, as typed.
+     * @param limit the most members to suggest.
+     * @return the members suggested, empty if the prefix is empty.
+     */
+    @Override
+    public Member[] suggest(String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0)
+            return new Member[0];
+        int[] rows = byName.rows(FullName.first(prefix),
+                name -> name.hasPrefix(prefix), limit);
+        Member[] suggested = new Member[rows.length];
+        for (int i = 0; i < rows.length; i++)
+            suggested[i] = view(rows[i]);
+        return suggested;
+    }
+
+    /**
+     * Gets the number of members in the database.
+     * @return the size as an integer.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Copies the members into a MemberDatabase in the order they were added.
+     * Members that have not been found are created just for the copy and
+     * are not kept. The copy builds its sorted views only if a report needs
+     * them.
+     * @return a MemberDatabase holding the members.
+     */
+    private MemberDatabase copy() {
+        MemberDatabase copy = new MemberDatabase();
+        copy.ensureCapacity(size);
+        copy.dropSortedViews();
+        for (int row = 0; row < used; row++) {
+            if (plans[row] == REMOVED)
+                continue;
+            copy.add(views[row] != null ? views[row] : materialize(row));
+        }
+        return copy;
+    }
+
+    /**
+     * Writes the list of members in database to the given output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void print(Appendable out) throws IOException {
+        copy().print(out);
+    }
+
+    /**
+     * Writes the list of members ordered by county and zipcode to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByCounty(Appendable out) throws IOException {
+        copy().printByCounty(out);
+    }
+
+    /**
+     * Writes the list of members ordered by expiration date to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByExpirationDate(Appendable out) throws IOException {
+        copy().printByExpirationDate(out);
+    }
+
+    /**
+     * Writes the list of members ordered by last and first name to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByName(Appendable out) throws IOException {
+        copy().printByName(out);
+    }
+
+    /**
+     * Writes the list of members with their membership fees to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByMembershipFee(Appendable out) throws IOException {
+        copy().printByMembershipFee(out);
+    }
+
+    /**
+     * Lists the members in the database in the order a report lists them in.
+     * The members are listed from a copy of the database.
+     * @param order the order to list the members in.
+     * @return the members, in order.
+     */
+    @Override
+    public Iterable<Member> members(Order order) {
+        return copy().members(order);
+    }
+
+    /**
+     * Writes each member in the database to the output, one per line.
+     * Members are written in the order they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printMembers(Appendable out) throws IOException {
+        for (int row = 0; row < used; row++) {
+            if (plans[row] == REMOVED)
+                continue;
+            Member member = views[row] != null ? views[row]
+                    : materialize(row);
+            out.append(member.toString()).append('\n');
+        }
+    }
+
+    /**
+     * Writes the members in the database to a snapshot.
+     * Writes the number of members, followed by each member in the order
+     * they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void save(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int row = 0; row < used; row++) {
+            if (plans[row] == REMOVED)
+                continue;
+            Member member = views[row] != null ? views[row]
+                    : materialize(row);
+            member.writeTo(out);
+        }
+    }
+
+    /**
+     * Replaces the members in the database with those in a snapshot.
+     * The members are read into a new database sized for all of them, which
+     * only replaces this one once every member has been read. The indexes
+     * of rows are then built once for all of them, so they are ready for
+     * the first query.
+     * @param in the input the members are read from.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    @Override
+    public void load(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of members in snapshot.");
+        ColumnarMemberDatabase restored = new ColumnarMemberDatabase();
+        restored.ensureCapacity(count);
+        for (int i = 0; i < count; i++)
+            restored.addRow(Member.readFrom(in));
+        firstNames = restored.firstNames;
+        lastNames = restored.lastNames;
+        dobs = restored.dobs;
+        expires = restored.expires;
+        hashes = restored.hashes;
+        locations = restored.locations;
+        plans = restored.plans;
+        guestPasses = restored.guestPasses;
+        views = restored.views;
+        size = restored.size;
+        used = restored.used;
+        names = restored.names;
+        slots = restored.slots;
+        rebuildRowIndexes();
+    }
+}
@@ -0,0 +1,90 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures finding the expired members at a location by scanning the
+ * columns of a ColumnarMemberDatabase, against checking each Member object
+ * in turn, and finding one member by name and DOB in the columns.
+ * The memory each database takes is measured by MemberFootprint.
+ * Run with: java -jar target/benchmarks.jar ColumnarMemberDatabaseBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class ColumnarMemberDatabaseBenchmark {
+    @Param({"100000", "1000000"})
+    private int size;
+
+    private Member[] members;
+    private Member[] probes;
+    private ColumnarMemberDatabase database;
+    private int next;
+
+    /**
+     * Creates the members and a columnar database holding all of them.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        members = BenchmarkData.members(size);
+        probes = BenchmarkData.probes(members);
+        database = new ColumnarMemberDatabase();
+        for (Member member : members)
+            database.add(member);
+    }
+
+    /**
+     * Finds the expired members at Edison by checking each Member object.
+     * @return the number of expired members found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public int expiredAtEdisonObjects() {
+        int expired = 0;
+        for (Member member : members)
+            if (member.getLocation() == Location.EDISON
+                    && member.membershipExpired())
+                expired++;
+        return expired;
+    }
+
+    /**
+     * Finds the expired members at Edison by scanning the columns.
+     * @return the expired members found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Member[] expiredAtEdisonColumns() {
+        return database.findExpired(Location.EDISON);
+    }
+
+    /**
+     * Finds one member by name and DOB, as a front-desk check-in does.
+     * @return the member found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Member findMember() {
+        Member probe = probes[next];
+        next = (next + 1) % probes.length;
+        return database.findMember(probe);
+    }
+}
@@ -0,0 +1,143 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures parsing a Gym Manager command and decoding its arguments, apart
+ * from handling it. Compares the substring, switch, and String.split the
+ * commands used to be parsed with, along with the Dates, Locations, and
+ * instructor checks made from the pieces, against CommandParser. The
+ * commands are a front desk mix of check-ins, guest check-ins, check-outs,
+ * adds, and removes. Run with -prof gc to see what each parse allocates.
+ * Run with: java -jar target/benchmarks.jar CommandParserBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class CommandParserBenchmark {
+    private String[] lines;
+    private CommandParser parser;
+    private NameDictionary names;
+    private int next;
+
+    private static final int COMMANDS = 1 << 12;
+    private static final String[] CLASSES = {"Pilates Jennifer Bridgewater",
+            "Spinning Kim Franklin", "Cardio Davis Bridgewater",
+            "Spinning Denise Edison", "Pilates Emma Edison"};
+    private static final String[] OPCODES = {"C", "C", "C", "CG", "D", "D",
+            "DG", "A", "AF", "R"};
+    private static final String[] LOCATIONS = {"Edison", "Piscataway",
+            "Bridgewater", "Franklin", "Somerville"};
+
+    /**
+     * Creates the command lines, and a dictionary already holding the names
+     * of the members, as a running Gym Manager's would.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Member[] members = BenchmarkData.members(COMMANDS);
+        lines = new String[COMMANDS];
+        names = new NameDictionary();
+        for (int i = 0; i < COMMANDS; i++) {
+            Member member = members[i];
+            names.intern(member.getFirstName());
+            names.intern(member.getLastName());
+            String opcode = OPCODES[i % OPCODES.length];
+            String who = member.getFirstName() + " " + member.getLastName()
+                    + " " + member.getDOB();
+            if (opcode.startsWith("A"))
+                lines[i] = opcode + " " + who + " "
+                        + LOCATIONS[i % LOCATIONS.length];
+            else if (opcode.equals("R"))
+                lines[i] = opcode + " " + who;
+            else
+                lines[i] = opcode + " " + CLASSES[i % CLASSES.length] + " "
+                        + who;
+        }
+        parser = new CommandParser();
+    }
+
+    /**
+     * Parses a command the way inputCommand and its handlers used to: the
+     * opcode is cut out with substring and switched on, the line is split,
+     * and the DOB, location, and instructor are made from the pieces.
+     * @return a value depending on everything decoded.
+     */
+    @Benchmark
+    public int split() {
+        String input = lines[next];
+        next = (next + 1) % lines.length;
+        String command = input.length() == 1 ? input : input.substring(0, 2);
+        String[] arrInput = input.split(" ", 0);
+        switch (command) {
+            case "A ":
+            case "AF":
+            case "AP":
+                return arrInput[1].length() + arrInput[2].length()
+                        + new Date(arrInput[3]).hashCode()
+                        + Location.getLocation(arrInput[4]).ordinal();
+            case "R ":
+                return arrInput[1].length() + arrInput[2].length()
+                        + new Date(arrInput[3]).hashCode();
+            case "C ":
+            case "CG":
+            case "D ":
+            case "DG":
+                return arrInput[1].length()
+                        + (Instructors.isInstructor(arrInput[2]) ? 1 : 0)
+                        + Location.getLocation(arrInput[3]).ordinal()
+                        + arrInput[4].length() + arrInput[5].length()
+                        + new Date(arrInput[6]).hashCode();
+            default:
+                return 0;
+        }
+    }
+
+    /**
+     * Parses a command with CommandParser, decoding the same arguments and
+     * finding the names in the dictionary.
+     * @return a value depending on everything decoded.
+     */
+    @Benchmark
+    public int commandParser() {
+        String input = lines[next];
+        next = (next + 1) % lines.length;
+        switch (parser.parse(input)) {
+            case ADD:
+            case ADD_FAMILY:
+            case ADD_PREMIUM:
+                return parser.name(1, names).length()
+                        + parser.name(2, names).length() + parser.date(3)
+                        + parser.location(4).ordinal();
+            case REMOVE:
+                return parser.name(1, names).length()
+                        + parser.name(2, names).length() + parser.date(3);
+            case CHECK_IN:
+            case CHECK_IN_GUEST:
+            case DONE:
+            case DONE_GUEST:
+                return parser.instructor(2).ordinal()
+                        + parser.location(3).ordinal()
+                        + parser.name(4, names).length()
+                        + parser.name(5, names).length() + parser.date(6);
+            default:
+                return 0;
+        }
+    }
+}
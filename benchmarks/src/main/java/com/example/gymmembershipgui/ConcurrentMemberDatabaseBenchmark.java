@@ -0,0 +1,197 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many front-desk operations per second a database shared by
+ * one to sixteen threads can handle. Each operation finds a member, and one
+ * in eight removes a member and adds them back. The striped database is
+ * compared against a MemberDatabase behind a single lock. The reporting
+ * group runs three desks while a fourth thread prints the members by name
+ * over and over, to show whether reports hold up the desks.
+ * Run with: java -jar target/benchmarks.jar ConcurrentMemberDatabaseBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ConcurrentMemberDatabaseBenchmark {
+    private static final int MEMBERS = 1 << 16;
+    private static final int UPDATE_EVERY = 8;
+
+    @Param({"striped", "single-lock"})
+    private String database;
+
+    private MemberDatabase members;
+    private Member[] added;
+    private Member[] probes;
+    private Object lock;
+
+    /**
+     * Holds the position of each thread in the members, each thread starting
+     * in a different part of them.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+
+        /**
+         * Starts the thread at its own part of the members.
+         * @param thread the number of this thread and how many there are.
+         */
+        @Setup(Level.Trial)
+        public void setUp(ThreadParams thread) {
+            next = thread.getThreadIndex()
+                    * (MEMBERS / thread.getThreadCount());
+        }
+    }
+
+    /**
+     * Creates a database holding all of the members.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        added = BenchmarkData.members(MEMBERS);
+        probes = BenchmarkData.probes(added);
+        members = database.equals("striped") ? new ConcurrentMemberDatabase()
+                : new MemberDatabase();
+        lock = database.equals("striped") ? null : new Object();
+        for (Member member : added)
+            members.add(member);
+    }
+
+    /**
+     * Finds a member, or every eighth time removes one and adds them back.
+     * Takes the single lock first unless the database is striped.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    private Member desk(Cursor cursor) {
+        int i = cursor.next++ & (MEMBERS - 1);
+        if (lock == null)
+            return operate(i);
+        synchronized (lock) {
+            return operate(i);
+        }
+    }
+
+    /**
+     * Finds a member, or every eighth time removes one and adds them back.
+     * @param i the position of the member in the members.
+     * @return the member found.
+     */
+    private Member operate(int i) {
+        if (i % UPDATE_EVERY == 0) {
+            members.remove(probes[i]);
+            members.add(added[i]);
+        }
+        return members.findMember(probes[i]);
+    }
+
+    /**
+     * Runs the desk operations from one thread.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Threads(1)
+    public Member oneThread(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Runs the desk operations from two threads at once.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Threads(2)
+    public Member twoThreads(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Runs the desk operations from four threads at once.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Threads(4)
+    public Member fourThreads(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Runs the desk operations from eight threads at once.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Threads(8)
+    public Member eightThreads(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Runs the desk operations from sixteen threads at once.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Threads(16)
+    public Member sixteenThreads(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Runs the desk operations from three threads while a report runs.
+     * @param cursor the position of this thread in the members.
+     * @return the member found.
+     */
+    @Benchmark
+    @Group("reporting")
+    @GroupThreads(3)
+    public Member desksDuringReport(Cursor cursor) {
+        return desk(cursor);
+    }
+
+    /**
+     * Prints the members by name while three desks run.
+     * Takes the single lock first unless the database is striped.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @Group("reporting")
+    @GroupThreads(1)
+    public void report() throws IOException {
+        if (lock == null) {
+            members.printByName(Writer.nullWriter());
+            return;
+        }
+        synchronized (lock) {
+            members.printByName(Writer.nullWriter());
+        }
+    }
+}
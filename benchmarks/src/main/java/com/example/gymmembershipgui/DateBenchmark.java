@@ -0,0 +1,110 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating, parsing, comparing, and sorting dates.
+ * Run with: java -jar target/benchmarks.jar DateBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class DateBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private String[] strings;
+    private Date[] dates;
+    private int next;
+
+    /**
+     * Creates the dates as Strings and as Dates, in a scrambled order.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        strings = BenchmarkData.dates(size);
+        Member[] members = BenchmarkData.members(size);
+        dates = new Date[size];
+        for (int i = 0; i < size; i++)
+            dates[i] = members[i].getExpire();
+    }
+
+    /**
+     * Creates today's date.
+     * @return today's date.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Date today() {
+        return new Date();
+    }
+
+    /**
+     * Parses one date in mm/dd/yyyy format.
+     * @return the parsed date.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Date parse() {
+        String date = strings[next];
+        next = (next + 1) % size;
+        return new Date(date);
+    }
+
+    /**
+     * Parses a date and checks that it is a valid calendar date.
+     * @return true if the date is valid.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean parseAndValidate() {
+        String date = strings[next];
+        next = (next + 1) % size;
+        return new Date(date).isValid();
+    }
+
+    /**
+     * Compares one date with the date after it.
+     * @return the result of the comparison.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public int compareTo() {
+        Date date = dates[next];
+        next = (next + 1) % size;
+        return date.compareTo(dates[next]);
+    }
+
+    /**
+     * Sorts a copy of all the dates.
+     * @return the sorted dates.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public Date[] sort() {
+        Date[] sorted = dates.clone();
+        Arrays.sort(sorted);
+        return sorted;
+    }
+}
@@ -0,0 +1,113 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures checking members and guests in to a class with a full roster,
+ * with and without printing the roster as a check-in does for its response.
+ * Each check-in is undone right after, so the roster size stays constant.
+ * Run with: java -jar target/benchmarks.jar FitnessClassBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class FitnessClassBenchmark {
+    private static final int NEWCOMERS = 1024;
+
+    @Param({"10", "100", "10000"})
+    private int size;
+
+    private FitnessClass fitnessClass;
+    private Family[] newcomers;
+    private int next;
+
+    /**
+     * Creates a class with the given number of participants and guests,
+     * and the members who will check in to it.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Family[] families = BenchmarkData.newFamilies(size + NEWCOMERS);
+        fitnessClass = new FitnessClass("Pilates", "Jennifer", "morning",
+                "Bridgewater");
+        for (int i = 0; i < size; i++) {
+            fitnessClass.checkInMember(families[i]);
+            fitnessClass.checkInGuest(families[i]);
+        }
+        newcomers = new Family[NEWCOMERS];
+        System.arraycopy(families, size, newcomers, 0, NEWCOMERS);
+    }
+
+    /**
+     * Checks a member in to the class and then out of it.
+     * @return true if the member was checked in.
+     */
+    @Benchmark
+    public boolean checkInMember() {
+        Family member = newcomers[next];
+        next = (next + 1) % NEWCOMERS;
+        boolean checkedIn = fitnessClass.checkInMember(member);
+        fitnessClass.removeMember(member);
+        return checkedIn;
+    }
+
+    /**
+     * Checks a guest in to the class and then out of it.
+     * @return true if the guest was checked in.
+     */
+    @Benchmark
+    public boolean checkInGuest() {
+        Family member = newcomers[next];
+        next = (next + 1) % NEWCOMERS;
+        boolean checkedIn = fitnessClass.checkInGuest(member);
+        fitnessClass.removeGuest(member);
+        return checkedIn;
+    }
+
+    /**
+     * Checks a member in to the class, prints the class, and checks the
+     * member out of it.
+     * @throws IOException if the class cannot be printed.
+     */
+    @Benchmark
+    public void checkInMemberAndPrint() throws IOException {
+        Family member = newcomers[next];
+        next = (next + 1) % NEWCOMERS;
+        fitnessClass.checkInMember(member);
+        fitnessClass.print(Writer.nullWriter());
+        fitnessClass.removeMember(member);
+    }
+
+    /**
+     * Checks a guest in to the class, prints its participants and guests,
+     * and checks the guest out of it.
+     * @throws IOException if the roster cannot be printed.
+     */
+    @Benchmark
+    public void checkInGuestAndPrint() throws IOException {
+        Family member = newcomers[next];
+        next = (next + 1) % NEWCOMERS;
+        fitnessClass.checkInGuest(member);
+        fitnessClass.printClassParticipantsAndGuests(Writer.nullWriter());
+        fitnessClass.removeGuest(member);
+    }
+}
@@ -0,0 +1,182 @@
+package com.example.gymmembershipgui;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Measures garbage collection pauses while front desks look up members in a
+ * MemberDatabase and in a MappedMemberDatabase holding the same members.
+ * Each lookup also creates the short-lived objects a check-in does, so the
+ * young collections run as they would at a busy gym; then a few full
+ * collections are forced. The members of a MappedMemberDatabase are kept
+ * outside the heap, so there is nothing of theirs for a collection to mark.
+ * Run with: java -Xmx4g -cp target/benchmarks.jar
+ *           com.example.gymmembershipgui.GcPauseComparison [members]
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class GcPauseComparison {
+    private static final int DEFAULT_MEMBERS = 2_000_000;
+    private static final int LOOKUPS = 20_000_000;
+    private static final int PROBES = 1 << 16;
+    private static final int FULL_COLLECTIONS = 3;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private static final List<Long> pauses = new ArrayList<>();
+
+    private GcPauseComparison() {}
+
+    /**
+     * Loads the members into each kind of database, runs the lookups and
+     * full collections, and prints the pauses each one saw.
+     * @param args the number of members to load, two million by default.
+     * @throws IOException if the mapped database cannot be written.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_MEMBERS;
+        listenForPauses();
+        Member[] members = BenchmarkData.members(count);
+        Member[] probes = BenchmarkData.probes(sample(members));
+        System.out.printf("%,d members, %,d lookups%n", count, LOOKUPS);
+
+        MemberDatabase heap = new MemberDatabase();
+        heap.ensureCapacity(count);
+        for (Member member : members)
+            heap.add(member);
+        members = null;
+        run("MemberDatabase", heap, probes);
+        heap = null;
+
+        Path file = Files.createTempFile("members", ".db");
+        Path index = Path.of(file + ".index");
+        try (MappedMemberDatabase mapped =
+                     new MappedMemberDatabase(file.toString())) {
+            mapped.ensureCapacity(count);
+            for (Member member : BenchmarkData.members(count))
+                mapped.addDeferred(member);
+            mapped.sync();
+            run("MappedMemberDatabase", mapped, probes);
+        } finally {
+            Files.deleteIfExists(file);
+            Files.deleteIfExists(index);
+        }
+    }
+
+    /**
+     * Picks members spread evenly through the database to look up, so the
+     * lookups reach all of it without keeping a second copy of every member
+     * on the heap.
+     * @param members the members in the database.
+     * @return the members to look up.
+     */
+    private static Member[] sample(Member[] members) {
+        Member[] sample = new Member[Math.min(PROBES, members.length)];
+        for (int i = 0; i < sample.length; i++)
+            sample[i] = members[(int) ((long) i * members.length
+                    / sample.length)];
+        return sample;
+    }
+
+    /**
+     * Records the duration of every collection as it finishes.
+     */
+    private static void listenForPauses() {
+        NotificationListener listener = (Notification notification,
+                                         Object handback) -> {
+            if (!notification.getType().equals(GarbageCollectionNotificationInfo
+                    .GARBAGE_COLLECTION_NOTIFICATION))
+                return;
+            GarbageCollectionNotificationInfo info =
+                    GarbageCollectionNotificationInfo.from(
+                            (CompositeData) notification.getUserData());
+            synchronized (pauses) {
+                pauses.add(info.getGcInfo().getDuration());
+            }
+        };
+        for (GarbageCollectorMXBean collector :
+                ManagementFactory.getGarbageCollectorMXBeans())
+            ((NotificationEmitter) collector).addNotificationListener(
+                    listener, null, null);
+    }
+
+    /**
+     * Takes the durations recorded so far, clearing them.
+     * Notifications arrive shortly after a collection, so this waits for
+     * them to settle first.
+     * @return the durations of the collections in milliseconds.
+     */
+    private static long[] takePauses() {
+        try {
+            Thread.sleep(500);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (pauses) {
+            long[] taken = pauses.stream().mapToLong(Long::longValue)
+                    .toArray();
+            pauses.clear();
+            return taken;
+        }
+    }
+
+    /**
+     * Runs the lookups against a database and then forces full collections,
+     * printing the pauses seen during each.
+     * @param name the kind of database.
+     * @param database the database holding the members.
+     * @param probes the members to look up.
+     */
+    private static void run(String name, MemberDatabase database,
+                            Member[] probes) {
+        System.gc();
+        takePauses();
+        long found = 0;
+        long start = System.nanoTime();
+        for (int i = 0; i < LOOKUPS; i++) {
+            Member probe = probes[i % probes.length];
+            Member member = database.findMember(
+                    new Member(probe.getFirstName(), probe.getLastName(),
+                            probe.getDOB().toString(), "Edison"));
+            if (member != null)
+                found++;
+        }
+        long elapsed = System.nanoTime() - start;
+        long[] young = takePauses();
+        for (int i = 0; i < FULL_COLLECTIONS; i++)
+            System.gc();
+        long[] full = takePauses();
+        Reference.reachabilityFence(database);
+        System.out.printf("%s (%d found, %.0f ms)%n", name, found,
+                elapsed / NANOS_PER_MILLI);
+        print("  collections during lookups", young);
+        print("  full collections", full);
+    }
+
+    /**
+     * Prints the number, total, and longest of a set of pauses.
+     * @param label what the pauses were for.
+     * @param pauses the durations of the pauses in milliseconds.
+     */
+    private static void print(String label, long[] pauses) {
+        long total = 0;
+        long longest = 0;
+        for (long pause : pauses) {
+            total += pause;
+            longest = Math.max(longest, pause);
+        }
+        System.out.printf("%-30s %5d pauses %7d ms total %5d ms longest%n",
+                label, pauses.length, total, longest);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the latency of the GymHttpApi while many kiosks send requests at
+ * once. Each kiosk sends its requests one after another over a shared
+ * HttpClient, checking its own family member in to a class, looking the
+ * member up, checking them out, and listing the schedule, in turn, so half
+ * the requests change the gym and half only read it. The schedule is loaded
+ * and the members added through the desk port before the kiosks start, so
+ * start the server from the project directory, where it finds
+ * src/classSchedule.txt.
+ * Run with: java -cp target/benchmarks.jar
+ *           com.example.gymmembershipgui.GymHttpLoadTest
+ *           [httpPort] [kiosks] [requestsPerKiosk] [deskPort]
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class GymHttpLoadTest {
+    private static final int DEFAULT_KIOSKS = 50;
+    private static final int DEFAULT_REQUESTS = 1000;
+    private static final int STEPS = 4;
+    private static final String FORM = "application/x-www-form-urlencoded";
+
+    private GymHttpLoadTest() {}
+
+    /**
+     * Sets up the gym, runs the kiosks, and prints the requests per second
+     * and the latency percentiles.
+     * @param args the HTTP port of the server, the number of kiosks, the
+     *             number of requests each kiosk sends, and the desk port of
+     *             the server.
+     * @throws Exception if the server cannot be reached, or a kiosk fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int httpPort = args.length > 0 ? Integer.parseInt(args[0])
+                : GymServer.DEFAULT_HTTP_PORT;
+        int kiosks = args.length > 1 ? Integer.parseInt(args[1])
+                : DEFAULT_KIOSKS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2])
+                : DEFAULT_REQUESTS;
+        int deskPort = args.length > 3 ? Integer.parseInt(args[3])
+                : GymServer.DEFAULT_PORT;
+        GymLoadGenerator.setUp(deskPort, kiosks);
+
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1).build();
+        String base = "http://127.0.0.1:" + httpPort;
+        long[][] latencies = new long[kiosks][requests];
+        Exception[] failures = new Exception[kiosks];
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[kiosks];
+        for (int i = 0; i < kiosks; i++) {
+            int kiosk = i;
+            threads[i] = new Thread(() -> {
+                try {
+                    go.await();
+                    run(client, base, kiosk, latencies[kiosk]);
+                } catch (Exception e) {
+                    failures[kiosk] = e;
+                }
+            }, "kiosk-" + i);
+            threads[i].start();
+        }
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        long elapsed = System.nanoTime() - start;
+        for (Exception failure : failures)
+            if (failure != null)
+                throw failure;
+        GymLoadGenerator.report(kiosks + " kiosks", elapsed, latencies);
+    }
+
+    /**
+     * Sends a kiosk's requests, recording how long each takes.
+     * @param client the client the requests are sent with.
+     * @param base the address of the API.
+     * @param kiosk the number of the kiosk.
+     * @param latencies where the time each request takes is recorded, in
+     *                  nanoseconds.
+     * @throws Exception if a request fails or is answered with an error.
+     */
+    private static void run(HttpClient client, String base, int kiosk,
+                            long[] latencies) throws Exception {
+        String[] member = GymLoadGenerator.member(kiosk).split(" ");
+        String who = "first=" + encode(member[0]) + "&last="
+                + encode(member[1]) + "&dob=" + encode(member[2]);
+        URI find = URI.create(base + "/members?" + who);
+        URI checkIns = URI.create(base + "/checkins");
+        URI schedule = URI.create(base + "/schedule");
+        for (int i = 0; i < latencies.length; i++) {
+            String[] fitnessClass = GymLoadGenerator.CLASSES[
+                    (kiosk + i / STEPS) % GymLoadGenerator.CLASSES.length]
+                    .split(" ");
+            String checkIn = "class=" + fitnessClass[0] + "&instructor="
+                    + fitnessClass[1] + "&location=" + fitnessClass[2] + "&"
+                    + who;
+            HttpRequest request;
+            switch (i % STEPS) {
+                case 0:
+                    request = HttpRequest.newBuilder(checkIns)
+                            .header("Content-Type", FORM)
+                            .POST(HttpRequest.BodyPublishers.ofString(
+                                    checkIn)).build();
+                    break;
+                case 1:
+                    request = HttpRequest.newBuilder(find).GET().build();
+                    break;
+                case 2:
+                    request = HttpRequest.newBuilder(URI.create(
+                            checkIns + "?" + checkIn)).DELETE().build();
+                    break;
+                default:
+                    request = HttpRequest.newBuilder(schedule).GET().build();
+            }
+            long start = System.nanoTime();
+            HttpResponse<byte[]> response = client.send(request,
+                    HttpResponse.BodyHandlers.ofByteArray());
+            latencies[i] = System.nanoTime() - start;
+            if (response.statusCode() != 200)
+                throw new IOException(request.method() + " " + request.uri()
+                        + " answered " + response.statusCode() + ": "
+                        + new String(response.body(),
+                        StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Encodes a parameter for a URL.
+     * @param value the parameter.
+     * @return the encoded parameter.
+     */
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
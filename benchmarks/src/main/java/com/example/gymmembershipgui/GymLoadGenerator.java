@@ -0,0 +1,221 @@
+package com.example.gymmembershipgui;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.Arrays;
+import java.util.concurrent.CountDownLatch;
+
+/**
+ * Measures the requests per second a GymServer handles, and how long each
+ * request takes, while many front desks send commands at once. Each desk
+ * has its own connection and its own family member, and checks the member
+ * in to and out of the classes on the schedule in turn, waiting for each
+ * response before sending the next command, as a desk would. Every request
+ * changes the gym, so each one waits for its change to be saved to the
+ * mutation log. The schedule is loaded and the members added before the
+ * desks start, so start the server from the project directory, where it
+ * finds src/classSchedule.txt.
+ * Run with: java -cp target/benchmarks.jar
+ *           com.example.gymmembershipgui.GymLoadGenerator
+ *           [port] [desks] [requestsPerDesk]
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class GymLoadGenerator {
+    private static final int DEFAULT_DESKS = 200;
+    private static final int DEFAULT_REQUESTS = 500;
+    static final String[] CLASSES = {
+            "Pilates Jennifer Bridgewater", "Spinning Jennifer Piscataway",
+            "Cardio Jennifer Somerville", "Pilates Kim Franklin",
+            "Spinning Kim Franklin", "Cardio Kim Piscataway",
+            "Pilates Davis Piscataway", "Pilates Davis Edison",
+            "Cardio Davis Bridgewater", "Spinning Denise Bridgewater",
+            "Cardio Denise Somerville", "Spinning Denise Edison",
+            "Spinning Emma Franklin", "Pilates Emma Edison",
+            "Cardio Emma Edison"};
+    private static final double[] PERCENTILES = {50, 90, 99, 99.9};
+    private static final double NANOS_PER_MICRO = 1_000.0;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
+
+    private GymLoadGenerator() {}
+
+    /**
+     * Sets up the gym, runs the desks, and prints the requests per second
+     * and the latency percentiles.
+     * @param args the port of the server, the number of desks, and the
+     *             number of requests each desk sends.
+     * @throws Exception if the server cannot be reached, or a desk fails.
+     */
+    public static void main(String[] args) throws Exception {
+        int port = args.length > 0 ? Integer.parseInt(args[0])
+                : GymServer.DEFAULT_PORT;
+        int desks = args.length > 1 ? Integer.parseInt(args[1])
+                : DEFAULT_DESKS;
+        int requests = args.length > 2 ? Integer.parseInt(args[2])
+                : DEFAULT_REQUESTS;
+        setUp(port, desks);
+
+        long[][] latencies = new long[desks][requests];
+        Exception[] failures = new Exception[desks];
+        CountDownLatch ready = new CountDownLatch(desks);
+        CountDownLatch go = new CountDownLatch(1);
+        Thread[] threads = new Thread[desks];
+        for (int i = 0; i < desks; i++) {
+            int desk = i;
+            threads[i] = new Thread(() -> {
+                try (Desk connection = new Desk(port)) {
+                    ready.countDown();
+                    go.await();
+                    run(connection, desk, latencies[desk]);
+                } catch (Exception e) {
+                    failures[desk] = e;
+                    ready.countDown();
+                }
+            }, "desk-" + i);
+            threads[i].start();
+        }
+        ready.await();
+        long start = System.nanoTime();
+        go.countDown();
+        for (Thread thread : threads)
+            thread.join();
+        long elapsed = System.nanoTime() - start;
+        for (Exception failure : failures)
+            if (failure != null)
+                throw failure;
+        report(desks + " desks", elapsed, latencies);
+    }
+
+    /**
+     * Loads the schedule and adds a family member for each desk.
+     * @param port the port of the server.
+     * @param desks the number of desks.
+     * @throws IOException if the server cannot be reached.
+     */
+    static void setUp(int port, int desks) throws IOException {
+        try (Desk desk = new Desk(port)) {
+            desk.send("LS");
+            for (int i = 0; i < desks; i++)
+                desk.send("AF " + member(i) + " Edison");
+        }
+    }
+
+    /**
+     * Sends a desk's requests, checking its member in to a class and then
+     * out of it, and moving on to the next class, recording how long each
+     * request takes.
+     * @param desk the desk's connection.
+     * @param number the number of the desk.
+     * @param latencies where the time each request takes is recorded, in
+     *                  nanoseconds.
+     * @throws IOException if the connection fails.
+     */
+    private static void run(Desk desk, int number, long[] latencies)
+            throws IOException {
+        String member = member(number);
+        for (int i = 0; i < latencies.length; i++) {
+            String fitnessClass = CLASSES[(number + i / 2) % CLASSES.length];
+            String command = (i % 2 == 0 ? "C " : "D ") + fitnessClass + " "
+                    + member;
+            long start = System.nanoTime();
+            desk.send(command);
+            latencies[i] = System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Gets the name and DOB of a desk's member.
+     * @param desk the number of the desk.
+     * @return the first name, last name, and DOB.
+     */
+    static String member(int desk) {
+        return "Desk" + desk + " Member 1/1/1980";
+    }
+
+    /**
+     * Prints the requests per second and the latency percentiles.
+     * @param clients how many desks or other clients sent the requests.
+     * @param elapsed how long the clients took, in nanoseconds.
+     * @param latencies the time each client's requests took, in
+     *                  nanoseconds.
+     */
+    static void report(String clients, long elapsed, long[][] latencies) {
+        int requests = latencies[0].length;
+        long[] all = new long[latencies.length * requests];
+        for (int i = 0; i < latencies.length; i++)
+            System.arraycopy(latencies[i], 0, all, i * requests, requests);
+        Arrays.sort(all);
+        System.out.printf("%s, %,d requests in %.3f seconds, "
+                        + "%,.0f requests/sec%n", clients, all.length,
+                elapsed / NANOS_PER_SECOND,
+                all.length / (elapsed / NANOS_PER_SECOND));
+        for (double percentile : PERCENTILES) {
+            int index = (int) Math.ceil(percentile / 100 * all.length) - 1;
+            System.out.printf("p%-5s %10.0f us%n", format(percentile),
+                    all[Math.max(index, 0)] / NANOS_PER_MICRO);
+        }
+        System.out.printf("max    %10.0f us%n",
+                all[all.length - 1] / NANOS_PER_MICRO);
+    }
+
+    /**
+     * Formats a percentile without a fraction if it is a whole number.
+     * @param percentile the percentile.
+     * @return the percentile as text.
+     */
+    private static String format(double percentile) {
+        return percentile == Math.rint(percentile)
+                ? String.valueOf((int) percentile) : String.valueOf(percentile);
+    }
+
+    /**
+     * Desk is a connection to the server that sends a command and waits for
+     * the whole response.
+     */
+    private static final class Desk implements AutoCloseable {
+        private final Socket socket;
+        private final BufferedReader in;
+        private final PrintWriter out;
+
+        /**
+         * Connects to the server on the local host.
+         * @param port the port of the server.
+         * @throws IOException if the server cannot be reached.
+         */
+        private Desk(int port) throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(), port);
+            socket.setTcpNoDelay(true);
+            in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream()));
+            out = new PrintWriter(socket.getOutputStream(), true);
+        }
+
+        /**
+         * Sends a command and reads its response.
+         * @param command the command to send.
+         * @throws IOException if the connection fails before the whole
+         * response is read.
+         */
+        private void send(String command) throws IOException {
+            out.println(command);
+            String line;
+            while ((line = in.readLine()) != null)
+                if (line.equals(GymServer.END_OF_RESPONSE))
+                    return;
+            throw new IOException("The server closed the connection.");
+        }
+
+        /**
+         * Says goodbye to the server and closes the connection.
+         * @throws IOException if the connection cannot be closed.
+         */
+        @Override
+        public void close() throws IOException {
+            out.println("Q");
+            socket.close();
+        }
+    }
+}
@@ -0,0 +1,1001 @@
+package com.example.gymmembershipgui;
+
+import java.io.Closeable;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.WeakHashMap;
+
+/**
+ * MappedMemberDatabase is a MemberDatabase that keeps its members outside
+ * the Java heap, in a memory-mapped file of fixed-width records, so tens of
+ * millions of members neither grow the heap nor lengthen garbage collection.
+ * Each record holds a member's plan, location, guest passes, the hash of
+ * their name and DOB, their DOB and expiration date packed into ints, and
+ * their first and last name, in the order members were added. Members are
+ * found through a hash index kept in a second memory-mapped file, an
+ * open-addressing table of record numbers. Both files are the data itself,
+ * so opening a database that already exists is instant. A record is forced
+ * out to disk before the header counts it, so after a crash the header
+ * never counts a record that was not written. The index is marked out of
+ * date on disk before it is first changed, and only marked up to date again
+ * once it has been written out by flush() or close(), so if the index does
+ * not match the records when the database is opened, it is rebuilt from
+ * them, dropping any record left twice by a compaction that did not finish.
+ * Adding many members at once with addDeferred() and a single sync() forces
+ * the records out once rather than once per member.
+ * A Member is only created for a record when it is found. A family's guest
+ * passes change through the Member, so the same Family is returned while
+ * something else, such as a class roster, still holds it; its passes only
+ * differ from its record while it is checked in to a class, so it is always
+ * held then, and flush() and close() write them back to its record. Other
+ * members are created each time they are found, so lookups do not fill the
+ * heap with members. Removed records are marked and left in place, so the
+ * other members keep their order, until more than half of them are removed.
+ * The records are also kept in RowIndexes on the heap, in order of
+ * expiration date, and in order of last name, first name, and DOB, built by
+ * one pass over the records when the database is opened, so the members
+ * expiring in a range and the members whose last names start with what has
+ * been typed are found without scanning.
+ * It is kept with the benchmarks, to measure against MemberDatabase; the
+ * Gym Manager does not use it.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class MappedMemberDatabase extends MemberDatabase implements Closeable {
+    private final Path path;
+    private final Path indexPath;
+    private FileChannel data;
+    private FileChannel indexData;
+    private MappedByteBuffer header;
+    private MappedByteBuffer index;
+    private ArrayList<MappedByteBuffer> chunks;
+    private Map<Member, WeakReference<Member>> views;
+    private RowIndex<Integer> byExpiration;
+    private RowIndex<FullName> byName;
+    private int size;
+    private int used;
+    private int capacity;
+    private int dirtyFrom;
+    private int dirtyTo;
+    private boolean indexDirty;
+
+    private final static int MAGIC = 0x47594D31;
+    private final static int HEADER_BYTES = 64;
+    private final static int MAGIC_AT = 0;
+    private final static int RECORD_BYTES_AT = 4;
+    private final static int USED_AT = 8;
+    private final static int SIZE_AT = 12;
+    private final static int INDEX_MAGIC_AT = 0;
+    private final static int INDEX_CAPACITY_AT = 4;
+    private final static int INDEX_USED_AT = 8;
+    private final static int INDEX_SIZE_AT = 12;
+    private final static int OUT_OF_DATE = -1;
+
+    private final static int RECORD_BYTES = 80;
+    private final static int PLAN = 0;
+    private final static int LOCATION = 1;
+    private final static int PASSES = 2;
+    private final static int HASH = 4;
+    private final static int DOB = 8;
+    private final static int EXPIRE = 12;
+    private final static int FIRST_NAME = 16;
+    private final static int LAST_NAME = 46;
+    private final static int NAME_BYTES = 30;
+    private final static int MAX_NAME_LENGTH = NAME_BYTES - 1;
+
+    private final static int CHUNK_SHIFT = 20;
+    private final static int CHUNK_RECORDS = 1 << CHUNK_SHIFT;
+    private final static int CHUNK_MASK = CHUNK_RECORDS - 1;
+    private final static long CHUNK_BYTES = (long) CHUNK_RECORDS * RECORD_BYTES;
+    private final static int MIN_CAPACITY = 16;
+    private final static int MAX_CAPACITY = 1 << 28;
+    private final static int GROWTH_FACTOR = 2;
+    private final static int HASH_SPREAD = 0x9E3779B9;
+    private final static int EMPTY = 0;
+    private final static int NOT_FOUND = -1;
+    private final static byte REMOVED = -1;
+    private final static Location[] LOCATIONS = Location.values();
+
+    /**
+     * Opens the database stored in the given file, creating it if it does
+     * not exist. The hash index is kept next to it, in the same file name
+     * ending in ".index".
+     * @param fileName the name of the file holding the members.
+     * @throws IOException if the files cannot be opened or are not a
+     * database of members.
+     */
+    public MappedMemberDatabase(String fileName) throws IOException {
+        path = Paths.get(fileName);
+        indexPath = Paths.get(fileName + ".index");
+        open();
+    }
+
+    /**
+     * Maps the records and the hash index.
+     * The index is rebuilt from the records if it is missing or was not
+     * written for the records as they are, and the number of members is
+     * counted again as it is.
+     * @throws IOException if the files cannot be opened or are not valid.
+     */
+    private void open() throws IOException {
+        data = FileChannel.open(path, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        boolean created = data.size() == 0;
+        header = data.map(FileChannel.MapMode.READ_WRITE, 0, HEADER_BYTES);
+        if (created) {
+            header.putInt(MAGIC_AT, MAGIC);
+            header.putInt(RECORD_BYTES_AT, RECORD_BYTES);
+        } else if (header.getInt(MAGIC_AT) != MAGIC
+                || header.getInt(RECORD_BYTES_AT) != RECORD_BYTES) {
+            data.close();
+            throw new IOException(path + " is not a database of members.");
+        }
+        used = header.getInt(USED_AT);
+        size = header.getInt(SIZE_AT);
+        chunks = new ArrayList<>();
+        views = new WeakHashMap<>();
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+        indexDirty = false;
+        boolean indexed = Files.exists(indexPath);
+        indexData = FileChannel.open(indexPath, StandardOpenOption.CREATE,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+        if (indexed && indexData.size() >= HEADER_BYTES) {
+            MappedByteBuffer indexHeader = indexData.map(
+                    FileChannel.MapMode.READ_ONLY, 0, HEADER_BYTES);
+            int length = indexHeader.getInt(INDEX_CAPACITY_AT);
+            if (indexHeader.getInt(INDEX_MAGIC_AT) == MAGIC
+                    && indexHeader.getInt(INDEX_USED_AT) == used
+                    && indexHeader.getInt(INDEX_SIZE_AT) == size
+                    && Integer.bitCount(length) == 1
+                    && indexData.size() == indexBytes(length)) {
+                capacity = length;
+                index = indexData.map(FileChannel.MapMode.READ_WRITE, 0,
+                        indexBytes(length));
+                buildRowIndexes();
+                return;
+            }
+        }
+        rebuildIndex(Math.max(used, MIN_CAPACITY));
+        sync();
+        buildRowIndexes();
+    }
+
+    /**
+     * Builds the expiration date and name indexes from the records. Records
+     * are added in order, so members expiring on the same date stay in the
+     * order they were added, and the records sharing a name are sorted by
+     * DOB once at the end.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private void buildRowIndexes() throws IOException {
+        byExpiration = new RowIndex<>(Comparator.naturalOrder(),
+                Integer::compare);
+        byName = new RowIndex<>(FullName.ORDER, this::compareByDob);
+        for (int row = 0; row < used; row++) {
+            MappedByteBuffer record = chunk(row);
+            int at = offset(row);
+            if (record.get(at + PLAN) == REMOVED)
+                continue;
+            byExpiration.append(record.getInt(at + EXPIRE), row);
+            byName.append(new FullName(getName(record, at + LAST_NAME),
+                    getName(record, at + FIRST_NAME)), row);
+        }
+        byName.sort();
+    }
+
+    /**
+     * Compares two records holding members with the same name by DOB, as
+     * Member.compareTo() does.
+     * @param row the number of one record.
+     * @param other the number of the other record.
+     * @return less than 0 if row comes first, more than 0 if other does.
+     */
+    private int compareByDob(int row, int other) {
+        try {
+            return Integer.compare(chunk(row).getInt(offset(row) + DOB),
+                    chunk(other).getInt(offset(other) + DOB));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the size of the index file for the given number of slots.
+     * @param length the number of slots in the index.
+     * @return the size of the file in bytes.
+     */
+    private static long indexBytes(int length) {
+        return HEADER_BYTES + (long) length * Integer.BYTES;
+    }
+
+    /**
+     * Gets the mapped chunk holding a record, mapping it if needed.
+     * @param row the number of the record.
+     * @return the chunk of the file holding the record.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private MappedByteBuffer chunk(int row) throws IOException {
+        int chunk = row >>> CHUNK_SHIFT;
+        while (chunks.size() <= chunk) {
+            chunks.add(data.map(FileChannel.MapMode.READ_WRITE,
+                    HEADER_BYTES + chunks.size() * CHUNK_BYTES, CHUNK_BYTES));
+        }
+        return chunks.get(chunk);
+    }
+
+    /**
+     * Gets the offset of a record within its chunk.
+     * @param row the number of the record.
+     * @return the offset in bytes.
+     */
+    private static int offset(int row) {
+        return (row & CHUNK_MASK) * RECORD_BYTES;
+    }
+
+    /**
+     * Notes that a record has changed since the records were last synced.
+     * @param row the number of the record.
+     */
+    private void touch(int row) {
+        dirtyFrom = Math.min(dirtyFrom, row);
+        dirtyTo = Math.max(dirtyTo, row + 1);
+    }
+
+    /**
+     * Forces the records changed since the last sync out to disk, and only
+     * then writes the number of records used and members to the header and
+     * forces it out too, so the header never counts a record that is not
+     * on disk.
+     * @throws IOException if the file cannot be written.
+     */
+    public void sync() throws IOException {
+        int row = dirtyFrom;
+        while (row < dirtyTo) {
+            int end = Math.min(dirtyTo, (row | CHUNK_MASK) + 1);
+            chunk(row).force(offset(row), (end - row) * RECORD_BYTES);
+            row = end;
+        }
+        dirtyFrom = Integer.MAX_VALUE;
+        dirtyTo = 0;
+        header.putInt(USED_AT, used);
+        header.putInt(SIZE_AT, size);
+        header.force();
+    }
+
+    /**
+     * Marks the index on disk as out of date before it is first changed
+     * after being written out, so it is rebuilt if the database is opened
+     * again before the index is next written out.
+     */
+    private void touchIndex() {
+        if (indexDirty)
+            return;
+        index.putInt(INDEX_USED_AT, OUT_OF_DATE);
+        index.force(0, HEADER_BYTES);
+        indexDirty = true;
+    }
+
+    /**
+     * Forces the slots of the index out to disk, then writes the number of
+     * records used and members to its header, marking it up to date.
+     */
+    private void writeIndex() {
+        index.force();
+        index.putInt(INDEX_USED_AT, used);
+        index.putInt(INDEX_SIZE_AT, size);
+        index.force(0, HEADER_BYTES);
+        indexDirty = false;
+    }
+
+    /**
+     * Finds the slot a hash starts probing from in the index.
+     * @param hash the hash of the member's name and DOB.
+     * @return the first slot to look in.
+     */
+    private int home(int hash) {
+        return (hash * HASH_SPREAD) & (capacity - 1);
+    }
+
+    /**
+     * Gets the record number a slot in the index points to.
+     * @param slot the slot in the index.
+     * @return the record number plus one, or 0 if the slot is empty.
+     */
+    private int slot(int slot) {
+        return index.getInt(HEADER_BYTES + slot * Integer.BYTES);
+    }
+
+    /**
+     * Points a slot in the index to a record.
+     * @param slot the slot in the index.
+     * @param value the record number plus one, or 0 to empty the slot.
+     */
+    private void setSlot(int slot, int value) {
+        index.putInt(HEADER_BYTES + slot * Integer.BYTES, value);
+    }
+
+    /**
+     * Writes a name into a record.
+     * @param record the chunk holding the record.
+     * @param at the offset of the name within the chunk.
+     * @param name the name to write.
+     */
+    private static void putName(MappedByteBuffer record, int at,
+                                String name) {
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        record.put(at, (byte) bytes.length);
+        record.put(at + 1, bytes);
+    }
+
+    /**
+     * Reads a name from a record.
+     * @param record the chunk holding the record.
+     * @param at the offset of the name within the chunk.
+     * @return the name.
+     */
+    private static String getName(MappedByteBuffer record, int at) {
+        byte[] bytes = new byte[record.get(at)];
+        record.get(at + 1, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Checks if a record holds the given member.
+     * The hash and DOB are compared first, so names are only read from the
+     * record when they are almost certain to match.
+     * @param row the number of the record.
+     * @param member the member to compare against.
+     * @param hash the hash of the member's name and DOB.
+     * @return true if the record holds the member, false otherwise.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private boolean holds(int row, Member member, int hash)
+            throws IOException {
+        MappedByteBuffer record = chunk(row);
+        int at = offset(row);
+        return record.getInt(at + HASH) == hash
+                && record.getInt(at + DOB) == member.getDOB().toPacked()
+                && getName(record, at + LAST_NAME)
+                        .equalsIgnoreCase(member.getLastName())
+                && getName(record, at + FIRST_NAME)
+                        .equalsIgnoreCase(member.getFirstName());
+    }
+
+    /**
+     * Finds the slot in the index that points to a member's record.
+     * @param member the member that must be found.
+     * @return the slot pointing to the member's record, -1 if not found.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private int findSlot(Member member) throws IOException {
+        int hash = member.hashCode();
+        int mask = capacity - 1;
+        for (int slot = home(hash); slot(slot) != EMPTY;
+                slot = (slot + 1) & mask) {
+            if (holds(slot(slot) - 1, member, hash))
+                return slot;
+        }
+        return NOT_FOUND;
+    }
+
+    /**
+     * Points an empty slot in the index to a record, unless the index
+     * already points to a record of the same member.
+     * @param row the number of the record.
+     * @return true if the record was added, false if its member already
+     * has a record in the index.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private boolean addSlot(int row) throws IOException {
+        int mask = capacity - 1;
+        int slot = home(chunk(row).getInt(offset(row) + HASH));
+        for (; slot(slot) != EMPTY; slot = (slot + 1) & mask) {
+            if (sameMember(slot(slot) - 1, row))
+                return false;
+        }
+        setSlot(slot, row + 1);
+        return true;
+    }
+
+    /**
+     * Checks if two records hold the same member.
+     * @param row the number of one record.
+     * @param other the number of the other record.
+     * @return true if both hold the same member, false otherwise.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private boolean sameMember(int row, int other) throws IOException {
+        MappedByteBuffer record = chunk(row);
+        MappedByteBuffer otherRecord = chunk(other);
+        int at = offset(row);
+        int otherAt = offset(other);
+        return record.getInt(at + HASH) == otherRecord.getInt(otherAt + HASH)
+                && record.getInt(at + DOB)
+                        == otherRecord.getInt(otherAt + DOB)
+                && getName(record, at + LAST_NAME).equalsIgnoreCase(
+                        getName(otherRecord, otherAt + LAST_NAME))
+                && getName(record, at + FIRST_NAME).equalsIgnoreCase(
+                        getName(otherRecord, otherAt + FIRST_NAME));
+    }
+
+    /**
+     * Empties a slot in the index.
+     * The records after it that probed past the slot are moved back, so no
+     * lookup stops early at the empty slot.
+     * @param slot the slot to empty.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private void removeSlot(int slot) throws IOException {
+        int mask = capacity - 1;
+        setSlot(slot, EMPTY);
+        for (int next = (slot + 1) & mask; slot(next) != EMPTY;
+                next = (next + 1) & mask) {
+            int row = slot(next) - 1;
+            int home = home(chunk(row).getInt(offset(row) + HASH));
+            boolean movable = slot <= next ? home <= slot || home > next
+                    : home <= slot && home > next;
+            if (movable) {
+                setSlot(slot, slot(next));
+                setSlot(next, EMPTY);
+                slot = next;
+            }
+        }
+    }
+
+    /**
+     * Writes a new index with room for the given number of members, and
+     * adds every member in the records to it, counting them as it goes.
+     * A record of a member who already has one is marked removed, as only
+     * a compaction that did not finish leaves one behind.
+     * The index is written to a new file that replaces the old one once it
+     * is complete. The old index is closed and no longer referred to first,
+     * so its file is not replaced while this database still maps it. The
+     * index is kept at most half full.
+     * @param members the number of members the index should hold.
+     * @throws IOException if the index cannot be written.
+     */
+    private void rebuildIndex(int members) throws IOException {
+        int length = MIN_CAPACITY;
+        while (length < members * GROWTH_FACTOR && length < MAX_CAPACITY)
+            length <<= 1;
+        if (members * GROWTH_FACTOR > length)
+            throw new IOException("Too many members for the index.");
+        Path rebuilt = Paths.get(indexPath + ".tmp");
+        Files.deleteIfExists(rebuilt);
+        FileChannel channel = FileChannel.open(rebuilt,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        index = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                indexBytes(length));
+        indexData.close();
+        indexData = channel;
+        capacity = length;
+        index.putInt(INDEX_MAGIC_AT, MAGIC);
+        index.putInt(INDEX_CAPACITY_AT, length);
+        size = 0;
+        for (int row = 0; row < used; row++) {
+            MappedByteBuffer record = chunk(row);
+            if (record.get(offset(row) + PLAN) == REMOVED)
+                continue;
+            if (addSlot(row)) {
+                size++;
+            } else {
+                record.put(offset(row) + PLAN, REMOVED);
+                touch(row);
+            }
+        }
+        writeIndex();
+        Files.move(rebuilt, indexPath, StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Moves the records left over any removed records, keeping their order,
+     * and rebuilds the index for where they are now.
+     * @throws IOException if the files cannot be written.
+     */
+    private void compact() throws IOException {
+        byte[] record = new byte[RECORD_BYTES];
+        int next = 0;
+        for (int row = 0; row < used; row++) {
+            MappedByteBuffer from = chunk(row);
+            if (from.get(offset(row) + PLAN) == REMOVED)
+                continue;
+            if (next != row) {
+                from.get(offset(row), record);
+                chunk(next).put(offset(next), record);
+                touch(next);
+            }
+            next++;
+        }
+        used = next;
+        rebuildIndex(Math.max(size, MIN_CAPACITY));
+        buildRowIndexes();
+    }
+
+    /**
+     * Makes room in the index for at least the given number of members.
+     * @param capacity the number of members the database should hold.
+     */
+    @Override
+    public void ensureCapacity(int capacity) {
+        try {
+            if (capacity * GROWTH_FACTOR > this.capacity)
+                rebuildIndex(capacity);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a member to the database.
+     * The member is written to a new record at the end of the file, which
+     * is synced before the member is counted; the Member itself is not
+     * kept, and finding the member later creates a new one.
+     * @param member the member that is being added to the database.
+     * @return true if member is added, false if member in database already.
+     * @throws IllegalArgumentException if a name is too long for a record.
+     */
+    @Override
+    public boolean add(Member member) {
+        try {
+            if (!addDeferred(member))
+                return false;
+            sync();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Adds a member to the database without syncing the records, for
+     * adding many members at once. The members added are only counted in
+     * the header, and so only found again after a crash, once sync(),
+     * flush(), or close() is called.
+     * @param member the member that is being added to the database.
+     * @return true if member is added, false if member in database already.
+     * @throws IllegalArgumentException if a name is too long for a record.
+     * @throws IOException if the files cannot be written.
+     */
+    public boolean addDeferred(Member member) throws IOException {
+        int row = addRecord(member);
+        if (row == NOT_FOUND)
+            return false;
+        MappedByteBuffer record = chunk(row);
+        int at = offset(row);
+        byExpiration.add(record.getInt(at + EXPIRE), row);
+        byName.add(new FullName(member.getLastName(),
+                member.getFirstName()), row);
+        return true;
+    }
+
+    /**
+     * Adds a member to a new record without adding it to the expiration
+     * date and name indexes, for filling a database whose indexes are built
+     * when it is next opened.
+     * @param member the member that is being added to the database.
+     * @return the number of the new record, -1 if member in database
+     * already.
+     * @throws IllegalArgumentException if a name is too long for a record.
+     * @throws IOException if the files cannot be written.
+     */
+    private int addRecord(Member member) throws IOException {
+        if (findSlot(member) != NOT_FOUND)
+            return NOT_FOUND;
+        String fname = member.getFirstName();
+        String lname = member.getLastName();
+        if (fname.getBytes(StandardCharsets.UTF_8).length > MAX_NAME_LENGTH
+                || lname.getBytes(StandardCharsets.UTF_8).length
+                > MAX_NAME_LENGTH)
+            throw new IllegalArgumentException(fname + " " + lname +
+                    ": name is too long to be stored.");
+        int row = used;
+        MappedByteBuffer record = chunk(row);
+        int at = offset(row);
+        record.put(at + PLAN, (byte) member.getPlan());
+        record.put(at + LOCATION, (byte) member.getLocation().ordinal());
+        record.putShort(at + PASSES, member instanceof Family
+                ? (short) ((Family) member).getNumberOfPasses() : 0);
+        record.putInt(at + HASH, member.hashCode());
+        record.putInt(at + DOB, member.getDOB().toPacked());
+        record.putInt(at + EXPIRE, member.getExpire().toPacked());
+        putName(record, at + FIRST_NAME, fname);
+        putName(record, at + LAST_NAME, lname);
+        touch(row);
+        used++;
+        size++;
+        if (size * GROWTH_FACTOR > capacity) {
+            rebuildIndex(size);
+        } else {
+            touchIndex();
+            addSlot(row);
+        }
+        return row;
+    }
+
+    /**
+     * Removes a member from the database.
+     * The member's record is marked as removed and synced before the member
+     * stops being counted, and once more than half of the records are
+     * removed the records are compacted.
+     * @param member the member that must be removed.
+     * @return true if member removed, false if the member is not in database.
+     */
+    @Override
+    public boolean remove(Member member) {
+        try {
+            int slot = findSlot(member);
+            if (slot == NOT_FOUND)
+                return false;
+            int row = slot(slot) - 1;
+            touchIndex();
+            removeSlot(slot);
+            MappedByteBuffer record = chunk(row);
+            byExpiration.remove(record.getInt(offset(row) + EXPIRE), row);
+            byName.remove(new FullName(member.getLastName(),
+                    member.getFirstName()), row);
+            record.put(offset(row) + PLAN, REMOVED);
+            touch(row);
+            views.remove(member);
+            size--;
+            if (row == used - 1)
+                used--;
+            if (used - size > size)
+                compact();
+            sync();
+            return true;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Creates a Member from a record.
+     * @param row the number of the record.
+     * @return a new Member, Family, or Premium holding the record's values.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private Member materialize(int row) throws IOException {
+        MappedByteBuffer record = chunk(row);
+        int at = offset(row);
+        String fname = getName(record, at + FIRST_NAME);
+        String lname = getName(record, at + LAST_NAME);
+        Date dob = Date.fromPacked(record.getInt(at + DOB));
+        Date expire = Date.fromPacked(record.getInt(at + EXPIRE));
+        Location location = LOCATIONS[record.get(at + LOCATION)];
+        short passes = record.getShort(at + PASSES);
+        switch (record.get(at + PLAN)) {
+            case Member.FAMILY_PLAN:
+                return new Family(fname, lname, dob, expire, location,
+                        passes);
+            case Member.PREMIUM_PLAN:
+                return new Premium(fname, lname, dob, expire, location,
+                        passes);
+            default:
+                return new Member(fname, lname, dob, expire, location);
+        }
+    }
+
+    /**
+     * Gets the Family already created for a member, if it is still held.
+     * @param member the member to look for.
+     * @return the Member created for it, or null if there is none.
+     */
+    private Member view(Member member) {
+        WeakReference<Member> reference = views.get(member);
+        return reference != null ? reference.get() : null;
+    }
+
+    /**
+     * Gets the Member for a record, using the Family already created for the
+     * member if it is still held.
+     * @param row the number of the record.
+     * @return the Member for the record.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private Member member(int row) throws IOException {
+        Member member = materialize(row);
+        Member view = view(member);
+        return view != null ? view : member;
+    }
+
+    /**
+     * Finds a member in database given a member.
+     * @param member the member that is being searched for.
+     * @return the matching member in the database if found, null otherwise.
+     * The same Family is returned each time the family is found, as long as
+     * it is still held from the last time.
+     */
+    @Override
+    public Member findMember(Member member) {
+        Member view = view(member);
+        if (view != null)
+            return view;
+        try {
+            int slot = findSlot(member);
+            if (slot == NOT_FOUND)
+                return null;
+            view = materialize(slot(slot) - 1);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (view instanceof Family)
+            views.put(view, new WeakReference<>(view));
+        return view;
+    }
+
+    /**
+     * Finds the members whose memberships expire on or after one date and
+     * before another, in order of expiration date.
+     * Only the dates in the range are visited in the expiration date index,
+     * so finding k members takes O(log n + k) time, and a Member is only
+     * created for the records found. Members expiring on the same date are
+     * in the order they were added.
+     * @param from the first expiration date to include.
+     * @param to the expiration date to stop before.
+     * @return the members found, empty if from is not before to.
+     */
+    @Override
+    public Member[] expiringBetween(Date from, Date to) {
+        if (from.compareTo(to) >= 0)
+            return new Member[0];
+        int[] rows = byExpiration.rows(from.toPacked(), to.toPacked(),
+                Integer.MAX_VALUE);
+        try {
+            Member[] expiring = new Member[rows.length];
+            for (int i = 0; i < rows.length; i++)
+                expiring[i] = member(rows[i]);
+            return expiring;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Suggests the members whose last names start with what has been typed,
+     * ordered by last and first name and DOB, for completing a name.
+     * The last names with the prefix sit together in the name index, so
+     * they are found by seeking to the first of them, in O(log n + limit)
+     * time, and a Member is only created for the records suggested.
+     * @param prefix the start of the last name, as typed.
+     * @param limit the most members to suggest.
+     * @return the members suggested, empty if the prefix is empty.
+     */
+    @Override
+    public Member[] suggest(String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0)
+            return new Member[0];
+        int[] rows = byName.rows(FullName.first(prefix),
+                name -> name.hasPrefix(prefix), limit);
+        try {
+            Member[] suggested = new Member[rows.length];
+            for (int i = 0; i < rows.length; i++)
+                suggested[i] = member(rows[i]);
+            return suggested;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Gets the number of members in the database.
+     * @return the size as an integer.
+     */
+    @Override
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Copies the members into a MemberDatabase in the order they were added.
+     * Members that have not been found are created just for the copy and
+     * are not kept. The copy builds its sorted views only if a report needs
+     * them.
+     * @return a MemberDatabase holding the members.
+     * @throws IOException if the file cannot be mapped.
+     */
+    private MemberDatabase copy() throws IOException {
+        MemberDatabase copy = new MemberDatabase();
+        copy.ensureCapacity(size);
+        copy.dropSortedViews();
+        for (int row = 0; row < used; row++)
+            if (chunk(row).get(offset(row) + PLAN) != REMOVED)
+                copy.add(member(row));
+        return copy;
+    }
+
+    /**
+     * Writes the list of members in database to the given output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void print(Appendable out) throws IOException {
+        copy().print(out);
+    }
+
+    /**
+     * Writes the list of members ordered by county and zipcode to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByCounty(Appendable out) throws IOException {
+        copy().printByCounty(out);
+    }
+
+    /**
+     * Writes the list of members ordered by expiration date to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByExpirationDate(Appendable out) throws IOException {
+        copy().printByExpirationDate(out);
+    }
+
+    /**
+     * Writes the list of members ordered by last and first name to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByName(Appendable out) throws IOException {
+        copy().printByName(out);
+    }
+
+    /**
+     * Writes the list of members with their membership fees to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByMembershipFee(Appendable out) throws IOException {
+        copy().printByMembershipFee(out);
+    }
+
+    /**
+     * Lists the members in the database in the order a report lists them in.
+     * The members are listed from a copy of the database.
+     * @param order the order to list the members in.
+     * @return the members, in order.
+     */
+    @Override
+    public Iterable<Member> members(Order order) {
+        try {
+            return copy().members(order);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes each member in the database to the output, one per line.
+     * Members are written in the order they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printMembers(Appendable out) throws IOException {
+        for (int row = 0; row < used; row++)
+            if (chunk(row).get(offset(row) + PLAN) != REMOVED)
+                out.append(member(row).toString()).append('\n');
+    }
+
+    /**
+     * Writes the members in the database to a snapshot.
+     * Writes the number of members, followed by each member in the order
+     * they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void save(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for (int row = 0; row < used; row++)
+            if (chunk(row).get(offset(row) + PLAN) != REMOVED)
+                member(row).writeTo(out);
+    }
+
+    /**
+     * Replaces the members in the database with those in a snapshot.
+     * The members are read into new files, synced once at the end, which
+     * replace this database's files once every member has been read and
+     * this database's files are no longer mapped. The expiration date and
+     * name indexes are built once, as the new files are opened.
+     * @param in the input the members are read from.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    @Override
+    public void load(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of members in snapshot.");
+        String restoring = path + ".restore";
+        Files.deleteIfExists(Paths.get(restoring));
+        Files.deleteIfExists(Paths.get(restoring + ".index"));
+        MappedMemberDatabase restored = new MappedMemberDatabase(restoring);
+        try {
+            restored.ensureCapacity(count);
+            for (int i = 0; i < count; i++)
+                restored.addRecord(Member.readFrom(in));
+        } finally {
+            restored.close();
+        }
+        unmap();
+        Files.move(Paths.get(restoring + ".index"), indexPath,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        Files.move(Paths.get(restoring), path,
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+        open();
+    }
+
+    /**
+     * Writes the guest passes of the members that have been found back to
+     * their records, syncs the records, and writes the index out to disk.
+     * @throws IOException if the files cannot be written.
+     */
+    public void flush() throws IOException {
+        for (WeakReference<Member> reference : views.values()) {
+            Member view = reference.get();
+            if (!(view instanceof Family))
+                continue;
+            int slot = findSlot(view);
+            if (slot == NOT_FOUND)
+                continue;
+            int row = slot(slot) - 1;
+            chunk(row).putShort(offset(row) + PASSES,
+                    (short) ((Family) view).getNumberOfPasses());
+            touch(row);
+        }
+        sync();
+        if (indexDirty)
+            writeIndex();
+    }
+
+    /**
+     * Flushes the database and closes its files.
+     * @throws IOException if the files cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            unmap();
+        }
+    }
+
+    /**
+     * Closes the files and stops referring to their mappings, so each
+     * mapping is released once nothing else holds a buffer of it.
+     * @throws IOException if the files cannot be closed.
+     */
+    private void unmap() throws IOException {
+        header = null;
+        index = null;
+        chunks.clear();
+        try {
+            data.close();
+        } finally {
+            indexData.close();
+        }
+    }
+}
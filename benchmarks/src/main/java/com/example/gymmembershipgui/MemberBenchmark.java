@@ -0,0 +1,102 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures creating members and the checks made on them at the front desk.
+ * Run with: java -jar target/benchmarks.jar MemberBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class MemberBenchmark {
+    @Param({"1000", "100000", "1000000"})
+    private int size;
+
+    private Member[] members;
+    private String[] lines;
+    private int next;
+
+    /**
+     * Creates the members and the member list lines they are created from.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        members = BenchmarkData.members(size);
+        lines = BenchmarkData.memberListLines(members);
+    }
+
+    /**
+     * Creates a member from a member list line, as loading a list does.
+     * @return the member created.
+     */
+    @Benchmark
+    public Member createFromLine() {
+        String[] fields = lines[next].split("\\s+", 0);
+        next = (next + 1) % size;
+        return new Member(fields[0], fields[1], fields[2], fields[3],
+                fields[4]);
+    }
+
+    /**
+     * Creates a new member, setting their expiration date from today.
+     * @return the member created.
+     */
+    @Benchmark
+    public Member createNew() {
+        Member member = members[next];
+        next = (next + 1) % size;
+        return new Member(member.getFirstName(), member.getLastName(),
+                member.getDOB().toString(), member.getLocation().name());
+    }
+
+    /**
+     * Checks whether one membership has expired.
+     * @return true if the membership has expired.
+     */
+    @Benchmark
+    public boolean membershipExpired() {
+        Member member = members[next];
+        next = (next + 1) % size;
+        return member.membershipExpired();
+    }
+
+    /**
+     * Checks whether one member is 18 or older.
+     * @return true if the member is 18 or older.
+     */
+    @Benchmark
+    public boolean aboveEighteen() {
+        Member member = members[next];
+        next = (next + 1) % size;
+        return member.aboveEighteen();
+    }
+
+    /**
+     * Formats one member as a line of a report.
+     * @return the member as a String.
+     */
+    @Benchmark
+    public String memberToString() {
+        Member member = members[next];
+        next = (next + 1) % size;
+        return member.toString();
+    }
+}
@@ -0,0 +1,196 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading members into a MemberDatabase, looking them up, finding
+ * the members expiring in a week-long window, suggesting members by the
+ * start of their last name, and printing the database in each of the sorted
+ * orders. Reports are written to a Writer that discards
+ * them, so only building the report is measured.
+ * Run with: java -jar target/benchmarks.jar MemberDatabaseBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+public class MemberDatabaseBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private Member[] members;
+    private Member[] probes;
+    private MemberDatabase database;
+    private int next;
+
+    private static final Date WINDOW_START = new Date("8/1/2023");
+    private static final Date WINDOW_END = WINDOW_START.plusDays(7);
+    private static final int SUGGESTIONS = 10;
+
+    /**
+     * Creates the members and a database already holding all of them.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        members = BenchmarkData.members(size);
+        probes = BenchmarkData.probes(members);
+        database = new MemberDatabase();
+        for (Member member : members)
+            database.add(member);
+    }
+
+    /**
+     * Adds every member to an empty database, as loading a member list does.
+     * @return the loaded database.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public MemberDatabase load() {
+        MemberDatabase loaded = new MemberDatabase();
+        for (Member member : members)
+            loaded.add(member);
+        return loaded;
+    }
+
+    /**
+     * Finds one member by name and DOB, as a front-desk check-in does.
+     * @return the member found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Member findMember() {
+        Member probe = probes[next];
+        next = (next + 1) % probes.length;
+        return database.findMember(probe);
+    }
+
+    /**
+     * Finds the members expiring in a 7-day window through the expiration
+     * date index, visiting only the dates in the window.
+     * @return the members found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Member[] expiringBetween() {
+        return database.expiringBetween(WINDOW_START, WINDOW_END);
+    }
+
+    /**
+     * Finds the members expiring in the same window by checking every member,
+     * as had to be done before the index could be queried by range.
+     * @return the number of members found.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public int expiringBetweenScan() {
+        int found = 0;
+        for (Member member : members)
+            if (member.getExpire().compareTo(WINDOW_START) >= 0
+                    && member.getExpire().compareTo(WINDOW_END) < 0)
+                found++;
+        return found;
+    }
+
+    /**
+     * Suggests members for the first two letters of a last name, as typing
+     * into the GUI's last name field does.
+     * @return the members suggested.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public Member[] suggest() {
+        String lastName = probes[next].getLastName();
+        next = (next + 1) % probes.length;
+        return database.suggest(lastName.substring(0, 2), SUGGESTIONS);
+    }
+
+    /**
+     * Removes one member and adds them back, keeping the size constant.
+     * @return true if the member was added back.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public boolean removeAndAdd() {
+        Member member = members[next];
+        next = (next + 1) % members.length;
+        database.remove(member);
+        return database.add(member);
+    }
+
+    /**
+     * Prints the database in the order members were added.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void print() throws IOException {
+        database.print(Writer.nullWriter());
+    }
+
+    /**
+     * Prints the database sorted by county and zip code.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void printByCounty() throws IOException {
+        database.printByCounty(Writer.nullWriter());
+    }
+
+    /**
+     * Prints the database sorted by expiration date.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void printByExpirationDate() throws IOException {
+        database.printByExpirationDate(Writer.nullWriter());
+    }
+
+    /**
+     * Prints the database sorted by last name and then first name.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void printByName() throws IOException {
+        database.printByName(Writer.nullWriter());
+    }
+
+    /**
+     * Prints the database with the membership fee of each member.
+     * @throws IOException if the report cannot be written.
+     */
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void printByMembershipFee() throws IOException {
+        database.printByMembershipFee(Writer.nullWriter());
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Measures the heap taken by a MemberDatabase and a ColumnarMemberDatabase
+ * holding the same members, loaded from the same member list file. The heap
+ * in use is measured after a full collection before and after each load, so
+ * the difference is what the database itself keeps alive.
+ * Run with: java -Xmx4g -cp target/benchmarks.jar
+ *           com.example.gymmembershipgui.MemberFootprint [members]
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class MemberFootprint {
+    private static final int DEFAULT_MEMBERS = 1_000_000;
+    private static final int COLLECTIONS = 5;
+    private static final double MEGABYTE = 1024 * 1024;
+
+    private MemberFootprint() {}
+
+    /**
+     * Writes a member list file, loads it into each kind of database, and
+     * prints the heap each one takes in total and per member.
+     * @param args the number of members to load, one million by default.
+     * @throws IOException if the member list file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_MEMBERS;
+        Path memberList = Files.createTempFile("memberList", ".txt");
+        try {
+            Files.writeString(memberList, String.join("\n", Arrays.asList(
+                    BenchmarkData.memberListLines(
+                            BenchmarkData.members(count)))));
+            long rowBytes = footprint(new MemberDatabase(), memberList);
+            long columnBytes = footprint(new ColumnarMemberDatabase(),
+                    memberList);
+            System.out.printf("%,d members%n", count);
+            print("MemberDatabase", rowBytes, count);
+            print("ColumnarMemberDatabase", columnBytes, count);
+            System.out.printf("saved: %.1f MB per million members%n",
+                    (rowBytes - columnBytes) / MEGABYTE * 1_000_000 / count);
+        } finally {
+            Files.deleteIfExists(memberList);
+        }
+    }
+
+    /**
+     * Loads a member list file into a database and measures the heap the
+     * database keeps alive.
+     * The sorted views are built first, as the first report would.
+     * @param database the empty database to load into.
+     * @param memberList the member list file.
+     * @return the bytes of heap the loaded database takes.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long footprint(MemberDatabase database, Path memberList)
+            throws IOException {
+        long before = usedHeap();
+        new MemberListLoader(database).load(memberList.toString());
+        database.printByName(Writer.nullWriter());
+        long after = usedHeap();
+        Reference.reachabilityFence(database);
+        return after - before;
+    }
+
+    /**
+     * Gets the heap in use after collecting garbage a few times.
+     * @return the bytes of heap in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < COLLECTIONS; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Prints the heap a database takes in total and per member.
+     * @param name the kind of database.
+     * @param bytes the bytes of heap it takes.
+     * @param count the number of members in it.
+     */
+    private static void print(String name, long bytes, int count) {
+        System.out.printf("%-24s %8.1f MB %6.1f bytes per member%n", name,
+                bytes / MEGABYTE, (double) bytes / count);
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Scanner;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures loading a member list file into an empty MemberDatabase.
+ * Compares the Scanner and split loop the member list used to be loaded with
+ * against MemberListLoader on one thread and on the common ForkJoinPool, and
+ * MemberListLoader sharing names through a NameDictionary against giving
+ * each member their own copy of their name.
+ * Run with: java -jar target/benchmarks.jar MemberListLoaderBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class MemberListLoaderBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private Path file;
+
+    /**
+     * Writes a member list file with the given number of members, using
+     * CRLF line endings like the member list shipped with the project.
+     * @throws IOException if the file cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("memberList", ".txt");
+        String[] lines =
+                BenchmarkData.memberListLines(BenchmarkData.members(size));
+        Files.writeString(file, String.join("\r\n", Arrays.asList(lines)));
+    }
+
+    /**
+     * Deletes the member list file.
+     * @throws IOException if the file cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Loads the file a line at a time with Scanner and String.split.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase scanner() throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        try (Scanner infile = new Scanner(new File(file.toString()))) {
+            while (infile.hasNextLine()) {
+                String[] arrInput = infile.nextLine().split("\\s+", 0);
+                database.add(new Member(arrInput[0], arrInput[1],
+                        arrInput[2], arrInput[3], arrInput[4]));
+            }
+        }
+        return database;
+    }
+
+    /**
+     * Loads the file with MemberListLoader on the calling thread.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase loader() throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        new MemberListLoader(database).load(file.toString());
+        return database;
+    }
+
+    /**
+     * Loads the file with MemberListLoader on the calling thread, creating a
+     * new String for every name instead of sharing names.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase loaderCopyingNames() throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        new MemberListLoader(database, null).load(file.toString());
+        return database;
+    }
+
+    /**
+     * Loads the file with MemberListLoader, parsing on the common pool.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase parallelLoader() throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        new MemberListLoader(database).load(file.toString(),
+                ForkJoinPool.commonPool());
+        return database;
+    }
+}
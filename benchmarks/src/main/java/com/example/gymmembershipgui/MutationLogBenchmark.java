@@ -0,0 +1,113 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how many changes per second MutationLog can make durable when one,
+ * four, or sixteen threads append at once. With more threads, more records
+ * share each sync to disk.
+ * Run with: java -jar target/benchmarks.jar MutationLogBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(1)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MutationLogBenchmark {
+    private static final int MEMBERS = 1024;
+
+    private Path file;
+    private MutationLog log;
+    private Member[] members;
+
+    /**
+     * Holds the position of each thread in the members being appended.
+     */
+    @State(Scope.Thread)
+    public static class Cursor {
+        private int next;
+    }
+
+    /**
+     * Opens an empty log in a temporary file.
+     * @throws IOException if the log cannot be opened.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        members = BenchmarkData.members(MEMBERS);
+        file = Files.createTempFile("gym", ".log");
+        log = new MutationLog(file.toString());
+    }
+
+    /**
+     * Closes and deletes the log.
+     * @throws IOException if the log cannot be closed or deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        log.close();
+        Files.deleteIfExists(file);
+    }
+
+    /**
+     * Appends a member being added, and waits until it is synced.
+     * @param cursor the position of this thread in the members.
+     * @throws IOException if the record cannot be written.
+     */
+    private void append(Cursor cursor) throws IOException {
+        log.append(MutationLog.Type.ADD,
+                members[cursor.next++ & (MEMBERS - 1)]);
+    }
+
+    /**
+     * Appends from a single thread, so every record has its own sync.
+     * @param cursor the position of this thread in the members.
+     * @throws IOException if the record cannot be written.
+     */
+    @Benchmark
+    @Threads(1)
+    public void oneThread(Cursor cursor) throws IOException {
+        append(cursor);
+    }
+
+    /**
+     * Appends from four threads at once.
+     * @param cursor the position of this thread in the members.
+     * @throws IOException if the record cannot be written.
+     */
+    @Benchmark
+    @Threads(4)
+    public void fourThreads(Cursor cursor) throws IOException {
+        append(cursor);
+    }
+
+    /**
+     * Appends from sixteen threads at once.
+     * @param cursor the position of this thread in the members.
+     * @throws IOException if the record cannot be written.
+     */
+    @Benchmark
+    @Threads(16)
+    public void sixteenThreads(Cursor cursor) throws IOException {
+        append(cursor);
+    }
+}
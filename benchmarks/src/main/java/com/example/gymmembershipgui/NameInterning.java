@@ -0,0 +1,193 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.lang.ref.Reference;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+/**
+ * Measures what sharing names through a NameDictionary saves when loading a
+ * member list with a census-like distribution of names into a MemberDatabase:
+ * the heap the loaded members take, and how long the members take to be
+ * built from the file, with each member given their own copy of their name
+ * and with names shared. The heap is measured as in MemberFootprint. The
+ * build time leaves out adding the members to a database, which is the same
+ * either way, and is the best of several loads after a few warm-up loads.
+ * Run with: java -Xmx4g -cp target/benchmarks.jar
+ *           com.example.gymmembershipgui.NameInterning [members]
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public final class NameInterning {
+    private static final int DEFAULT_MEMBERS = 1_000_000;
+    private static final int WARMUP_LOADS = 3;
+    private static final int TIMED_LOADS = 5;
+    private static final int COLLECTIONS = 5;
+    private static final double MEGABYTE = 1024 * 1024;
+    private static final double NANOS_PER_MILLI = 1_000_000.0;
+
+    private NameInterning() {}
+
+    /**
+     * Writes a member list file, then loads it with names copied and with
+     * names shared, printing the heap and build time of each.
+     * @param args the number of members to load, one million by default.
+     * @throws IOException if the member list file cannot be written or read.
+     */
+    public static void main(String[] args) throws IOException {
+        int count = args.length > 0 ? Integer.parseInt(args[0])
+                : DEFAULT_MEMBERS;
+        Path memberList = Files.createTempFile("memberList", ".txt");
+        try {
+            Files.writeString(memberList, String.join("\n", Arrays.asList(
+                    BenchmarkData.censusMemberListLines(count))));
+            NameDictionary names = new NameDictionary();
+            new MemberListLoader(new MemberDatabase(), names)
+                    .load(memberList.toString());
+            System.out.printf("%,d members, %,d distinct names%n", count,
+                    names.size());
+            long copiedBytes = footprint(memberList, false);
+            long sharedBytes = footprint(memberList, true);
+            long copiedNanos = buildTime(memberList, false);
+            long sharedNanos = buildTime(memberList, true);
+            print("names copied", copiedBytes, copiedNanos, count);
+            print("names shared", sharedBytes, sharedNanos, count);
+            System.out.printf("saved: %.1f MB (%.0f%%), built %.0f%% faster%n",
+                    (copiedBytes - sharedBytes) / MEGABYTE,
+                    100.0 * (copiedBytes - sharedBytes) / copiedBytes,
+                    100.0 * (copiedNanos - sharedNanos) / copiedNanos);
+        } finally {
+            Files.deleteIfExists(memberList);
+        }
+    }
+
+    /**
+     * Loads the member list into a new database and measures the heap the
+     * database keeps alive.
+     * @param memberList the member list file.
+     * @param shared true to share names through a dictionary.
+     * @return the bytes of heap the loaded database takes.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long footprint(Path memberList, boolean shared)
+            throws IOException {
+        long before = usedHeap();
+        MemberDatabase database = load(memberList, shared);
+        long after = usedHeap();
+        Reference.reachabilityFence(database);
+        return after - before;
+    }
+
+    /**
+     * Builds the members in the member list a few times to warm up, then
+     * times the fastest of several more builds.
+     * @param memberList the member list file.
+     * @param shared true to share names through a dictionary.
+     * @return the fastest build in nanoseconds.
+     * @throws IOException if the file cannot be read.
+     */
+    private static long buildTime(Path memberList, boolean shared)
+            throws IOException {
+        for (int i = 0; i < WARMUP_LOADS; i++)
+            build(memberList, shared);
+        long best = Long.MAX_VALUE;
+        for (int i = 0; i < TIMED_LOADS; i++) {
+            usedHeap();
+            long start = System.nanoTime();
+            Member[] members = build(memberList, shared);
+            best = Math.min(best, System.nanoTime() - start);
+            Reference.reachabilityFence(members);
+        }
+        return best;
+    }
+
+    /**
+     * Loads the member list into a new database.
+     * @param memberList the member list file.
+     * @param shared true to share names through a new dictionary, false to
+     *               give each member their own copy of their name.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    private static MemberDatabase load(Path memberList, boolean shared)
+            throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        new MemberListLoader(database, shared ? new NameDictionary() : null)
+                .load(memberList.toString());
+        return database;
+    }
+
+    /**
+     * Builds the members in the member list without adding them to a
+     * database, keeping them in an array instead.
+     * @param memberList the member list file.
+     * @param shared true to share names through a new dictionary, false to
+     *               give each member their own copy of their name.
+     * @return the members built.
+     * @throws IOException if the file cannot be read.
+     */
+    private static Member[] build(Path memberList, boolean shared)
+            throws IOException {
+        Collector collector = new Collector();
+        new MemberListLoader(collector, shared ? new NameDictionary() : null)
+                .load(memberList.toString());
+        return Arrays.copyOf(collector.members, collector.count);
+    }
+
+    /**
+     * Gets the heap in use after collecting garbage a few times.
+     * @return the bytes of heap in use.
+     */
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < COLLECTIONS; i++)
+            System.gc();
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    /**
+     * Collector keeps the members it is given in an array, in place of the
+     * indexes and sorted views of a MemberDatabase.
+     */
+    private static final class Collector extends MemberDatabase {
+        private Member[] members = new Member[0];
+        private int count;
+
+        /**
+         * Makes room for the given number of members.
+         * @param capacity the number of members the array should hold.
+         */
+        @Override
+        public void ensureCapacity(int capacity) {
+            if (capacity > members.length)
+                members = Arrays.copyOf(members, capacity);
+        }
+
+        /**
+         * Keeps a member, growing the array if it is full.
+         * @param member the member that was built.
+         * @return true, as every member is kept.
+         */
+        @Override
+        public boolean add(Member member) {
+            if (count == members.length)
+                members = Arrays.copyOf(members, count * 2 + 1);
+            members[count++] = member;
+            return true;
+        }
+    }
+
+    /**
+     * Prints the heap and build time of one way of loading.
+     * @param label how names were handled.
+     * @param bytes the bytes of heap the loaded members take.
+     * @param nanos the time building the members took in nanoseconds.
+     * @param count the number of members loaded.
+     */
+    private static void print(String label, long bytes, long nanos,
+                              int count) {
+        System.out.printf("%-14s %8.1f MB %6.1f bytes per member %7.1f ms%n",
+                label, bytes / MEGABYTE, (double) bytes / count,
+                nanos / NANOS_PER_MILLI);
+    }
+}
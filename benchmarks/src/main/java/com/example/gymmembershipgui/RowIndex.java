@@ -0,0 +1,224 @@
+package com.example.gymmembershipgui;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.function.Predicate;
+
+/**
+ * RowIndex keeps the rows of a store that holds its members as numbered
+ * rows, rather than as Member objects, in order of a key such as their
+ * expiration date or last name. The keys are kept in a tree, and the rows
+ * sharing a key are kept together in an array, in an order the store gives,
+ * so the rows whose keys fall in a range, or start with a prefix, are found
+ * in O(log n + k) time for k rows.
+ * Adding or removing a row only moves the rows sharing its key. When many
+ * rows are added at once, they can be appended unordered and sorted once at
+ * the end. Row numbers are the store's; a store that moves its rows builds
+ * the index again.
+ * @param <K> the type of the key.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+class RowIndex<K> {
+    private final TreeMap<K, Rows> keys;
+    private final RowOrder order;
+
+    private static final int INITIAL_LENGTH = 4;
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * RowOrder compares two rows that share a key.
+     */
+    interface RowOrder {
+        /**
+         * Compares two rows.
+         * @param row one row.
+         * @param other the other row.
+         * @return less than 0 if row comes first, more than 0 if other
+         * does, and 0 only if they are the same row.
+         */
+        int compare(int row, int other);
+    }
+
+    /**
+     * The rows sharing a key, in order.
+     */
+    private static class Rows {
+        private int[] rows = new int[INITIAL_LENGTH];
+        private int count;
+    }
+
+    /**
+     * Creates an instance of RowIndex with no rows.
+     * @param keyOrder the order of the keys.
+     * @param order the order of the rows sharing a key.
+     */
+    RowIndex(Comparator<? super K> keyOrder, RowOrder order) {
+        keys = new TreeMap<>(keyOrder);
+        this.order = order;
+    }
+
+    /**
+     * Adds a row in its place among the rows sharing its key.
+     * @param key the row's key.
+     * @param row the row.
+     */
+    void add(K key, int row) {
+        Rows same = keys.computeIfAbsent(key, k -> new Rows());
+        int at = same.count;
+        if (at > 0 && order.compare(same.rows[at - 1], row) > 0)
+            at = place(same, row);
+        if (same.count == same.rows.length)
+            same.rows = Arrays.copyOf(same.rows,
+                    same.count * GROWTH_FACTOR);
+        System.arraycopy(same.rows, at, same.rows, at + 1,
+                same.count - at);
+        same.rows[at] = row;
+        same.count++;
+    }
+
+    /**
+     * Adds a row after the rows sharing its key without putting it in its
+     * place, for adding many rows at once. sort() must be called before
+     * the index is next used.
+     * @param key the row's key.
+     * @param row the row.
+     */
+    void append(K key, int row) {
+        Rows same = keys.computeIfAbsent(key, k -> new Rows());
+        if (same.count == same.rows.length)
+            same.rows = Arrays.copyOf(same.rows,
+                    same.count * GROWTH_FACTOR);
+        same.rows[same.count++] = row;
+    }
+
+    /**
+     * Puts the rows sharing each key in order, once they have been
+     * appended. Rows already in order, as rows appended in the order they
+     * were added often are, are left as they are.
+     */
+    void sort() {
+        for (Rows same : keys.values()) {
+            if (sorted(same))
+                continue;
+            Integer[] sorted = new Integer[same.count];
+            for (int i = 0; i < same.count; i++)
+                sorted[i] = same.rows[i];
+            Arrays.sort(sorted, order::compare);
+            for (int i = 0; i < same.count; i++)
+                same.rows[i] = sorted[i];
+        }
+    }
+
+    /**
+     * Checks if the rows sharing a key are in order.
+     * @param same the rows sharing the key.
+     * @return true if every row comes before the next, false otherwise.
+     */
+    private boolean sorted(Rows same) {
+        for (int i = 1; i < same.count; i++)
+            if (order.compare(same.rows[i - 1], same.rows[i]) > 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Removes a row from the rows sharing its key.
+     * A key left with no rows is dropped.
+     * @param key the row's key.
+     * @param row the row.
+     */
+    void remove(K key, int row) {
+        Rows same = keys.get(key);
+        if (same == null)
+            return;
+        int at = place(same, row);
+        if (at == same.count || same.rows[at] != row)
+            return;
+        same.count--;
+        System.arraycopy(same.rows, at + 1, same.rows, at,
+                same.count - at);
+        if (same.count == 0)
+            keys.remove(key);
+    }
+
+    /**
+     * Removes every row.
+     */
+    void clear() {
+        keys.clear();
+    }
+
+    /**
+     * Finds the rows whose keys fall in a range, in order of their keys,
+     * and then in the order of the rows sharing a key.
+     * @param from the first key to include.
+     * @param to the key to stop before.
+     * @param limit the most rows to find.
+     * @return the rows found.
+     */
+    int[] rows(K from, K to, int limit) {
+        return collect(keys.subMap(from, true, to, false), key -> true,
+                limit);
+    }
+
+    /**
+     * Finds the rows whose keys come on or after a key, for as long as the
+     * keys stay within a bound such as sharing a prefix, in order of their
+     * keys, and then in the order of the rows sharing a key.
+     * @param from the first key to include.
+     * @param within whether a key is still within the bound.
+     * @param limit the most rows to find.
+     * @return the rows found.
+     */
+    int[] rows(K from, Predicate<? super K> within, int limit) {
+        return collect(keys.tailMap(from, true), within, limit);
+    }
+
+    /**
+     * Gathers the rows of the keys in a range, stopping at the first key
+     * out of bounds or once enough rows are found.
+     * @param range the keys to gather the rows of, in order.
+     * @param within whether a key is still within the bound.
+     * @param limit the most rows to find.
+     * @return the rows found.
+     */
+    private int[] collect(NavigableMap<K, Rows> range,
+                          Predicate<? super K> within, int limit) {
+        int[] found = new int[INITIAL_LENGTH];
+        int count = 0;
+        for (Map.Entry<K, Rows> entry : range.entrySet()) {
+            if (count == limit || !within.test(entry.getKey()))
+                break;
+            Rows same = entry.getValue();
+            int take = Math.min(same.count, limit - count);
+            if (count + take > found.length)
+                found = Arrays.copyOf(found, Math.max(count + take,
+                        found.length * GROWTH_FACTOR));
+            System.arraycopy(same.rows, 0, found, count, take);
+            count += take;
+        }
+        return Arrays.copyOf(found, count);
+    }
+
+    /**
+     * Finds where a row belongs among the rows sharing its key.
+     * @param same the rows sharing the key.
+     * @param row the row.
+     * @return the index of the first row that does not come before it.
+     */
+    private int place(Rows same, int row) {
+        int low = 0;
+        int high = same.count;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (order.compare(same.rows[middle], row) < 0)
+                low = middle + 1;
+            else
+                high = middle;
+        }
+        return low;
+    }
+}
@@ -0,0 +1,109 @@
+package com.example.gymmembershipgui;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures restoring the gym from a binary snapshot against loading the same
+ * members from a member list file, and saving a snapshot.
+ * Run with: java -jar target/benchmarks.jar SnapshotBenchmark
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+@State(Scope.Benchmark)
+@Fork(value = 1, jvmArgs = {"-Xms4g", "-Xmx4g"})
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotBenchmark {
+    @Param({"10000", "100000", "1000000"})
+    private int size;
+
+    private Path memberList;
+    private Path snapshot;
+    private MemberDatabase database;
+    private ClassSchedule schedule;
+
+    /**
+     * Writes a member list file and a snapshot holding the same members.
+     * @throws IOException if the files cannot be written.
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        Member[] members = BenchmarkData.members(size);
+        memberList = Files.createTempFile("memberList", ".txt");
+        Files.writeString(memberList, String.join("\n",
+                Arrays.asList(BenchmarkData.memberListLines(members))));
+        database = new MemberDatabase();
+        for (Member member : members)
+            database.add(member);
+        schedule = new ClassSchedule();
+        schedule.addFitnessClass("Pilates", "Jennifer", "morning",
+                "Bridgewater");
+        schedule.addFitnessClass("Spinning", "Denise", "afternoon",
+                "Edison");
+        schedule.addFitnessClass("Cardio", "Kim", "evening", "Franklin");
+        snapshot = Files.createTempFile("gym", ".snapshot");
+        Snapshot.save(snapshot.toString(), database, schedule, 0);
+    }
+
+    /**
+     * Deletes the member list file and the snapshot.
+     * @throws IOException if the files cannot be deleted.
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(memberList);
+        Files.deleteIfExists(snapshot);
+    }
+
+    /**
+     * Loads the members from the member list file.
+     * @return the loaded database.
+     * @throws IOException if the file cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase loadMemberList() throws IOException {
+        MemberDatabase loaded = new MemberDatabase();
+        new MemberListLoader(loaded).load(memberList.toString());
+        return loaded;
+    }
+
+    /**
+     * Restores the members and schedule from the snapshot.
+     * @return the restored database.
+     * @throws IOException if the snapshot cannot be read.
+     */
+    @Benchmark
+    public MemberDatabase loadSnapshot() throws IOException {
+        MemberDatabase restored = new MemberDatabase();
+        Snapshot.load(snapshot.toString(), restored, new ClassSchedule());
+        return restored;
+    }
+
+    /**
+     * Saves the members and schedule to the snapshot.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    @Benchmark
+    public void saveSnapshot() throws IOException {
+        Snapshot.save(snapshot.toString(), database, schedule, 0);
+    }
+}
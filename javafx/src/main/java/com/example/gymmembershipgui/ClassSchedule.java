@@ -1,7 +1,14 @@
 package com.example.gymmembershipgui;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Scanner;
 
 /**
@@ -9,16 +16,25 @@ import java.util.Scanner;
  * For each ClassSchedule, a class can be added to the schedule, can find
  * a FitnessClass given the object or the name of the class, and check if
  * a time conflict exists between a member and a class they are already
- * checked into if they have another class they want to join.
+ * checked into if they have another class they want to join. For each time
+ * of day, the schedule keeps track of the class each member is checked in
+ * to, so a time conflict is found without searching the classes. Classes
+ * are also indexed by their name, instructor, and location, so a class is
+ * found without searching the schedule either.
  * @author Mahfuza Rahman, Arunima Tripathy
  */
 
 public class ClassSchedule {
     private FitnessClass[] classes;
     private int numClasses;
+    private EnumMap<Time, HashMap<Member, FitnessClass>> enrollment;
+    private HashMap<String, Integer> classIds;
+    private HashMap<String, Integer> instructorIds;
+    private FitnessClass[][][] index;
 
     private final static int INITIAL_LENGTH = 4;
     private final static int INITIAL_SIZE = 0;
+    private static final Location[] LOCATIONS = Location.values();
 
     /**
      * Creates instance of ClassSchedule with list of classes and array size.
@@ -29,6 +45,30 @@ public class ClassSchedule {
     public ClassSchedule(){
         classes = new FitnessClass[INITIAL_LENGTH];
         numClasses = INITIAL_SIZE;
+        enrollment = newEnrollment();
+        clearIndex();
+    }
+
+    /**
+     * Empties the index of classes by name, instructor, and location.
+     */
+    private void clearIndex() {
+        classIds = new HashMap<>();
+        instructorIds = new HashMap<>();
+        index = new FitnessClass[0][][];
+    }
+
+    /**
+     * Creates an empty index of the class each member attends at each time.
+     * @return a map from each time to the classes members attend then.
+     */
+    private static EnumMap<Time, HashMap<Member, FitnessClass>>
+            newEnrollment() {
+        EnumMap<Time, HashMap<Member, FitnessClass>> enrollment =
+                new EnumMap<>(Time.class);
+        for (Time time : Time.values())
+            enrollment.put(time, new HashMap<>());
+        return enrollment;
     }
 
     /**
@@ -63,16 +103,18 @@ public class ClassSchedule {
      * Creates a new fitness class with the class name, instructor, time, and
      * location. If the classes array is filled to capacity, the array is
      * grown. Then, if the created fitness class is already in the schedule,
-     * it is not added. Otherwise, the class is added to the schedule.
+     * it is not added, nor is a class held at a time or location that does
+     * not exist. Otherwise, the class is added to the schedule.
      * @param fitnessClass
      * @return true if the class is added, false if already present.
      */
     private boolean addFitnessClass(FitnessClass fitnessClass){
         if (numClasses == classes.length)
             growSchedule();
-        if(findFitnessClass(fitnessClass) != null)
+        if(!addToIndex(fitnessClass))
             return false;
         classes[numClasses++] = fitnessClass;
+        fitnessClass.setSchedule(this);
         return true;
     }
 
@@ -94,39 +136,192 @@ public class ClassSchedule {
 
     /**
      * Given a fitness class, the corresponding class from schedule is found.
-     * Iterates through the classes array. If any scheduled fitness classes
-     * are equal to the inputted fitness class, it is found. Otherwise, it is
-     * not found.
+     * Looks up the class with the same name, instructor, and location in
+     * the index of classes.
      * @param fitnessClass the fitness class that is to be located.
      * @return FitnessClass class if found, null otherwise.
      */
     public FitnessClass findFitnessClass(FitnessClass fitnessClass){
-        for (int i = 0; i < classes.length; i++) {
-            if (classes[i] != null && classes[i].equals(fitnessClass))
-                return classes[i];
+        Location location = fitnessClass.getClassLocation();
+        if(location == null)
+            return null;
+        return findFitnessClass(findId(classIds, fitnessClass.getClassName()),
+                findId(instructorIds, fitnessClass.getInstructorName()),
+                location);
+    }
+
+    /**
+     * Finds a class on the schedule by its name, instructor, and location.
+     * The names are matched ignoring case, as the GUI's choice boxes and
+     * the command line give them, by putting them in upper case once here,
+     * without creating a FitnessClass to search for.
+     * @param className the name of the class.
+     * @param instructor the name of the instructor.
+     * @param location the name of the location.
+     * @return FitnessClass class if found, null otherwise.
+     */
+    public FitnessClass findFitnessClass(String className, String instructor,
+                                         String location) {
+        Location gym = Location.getLocation(location);
+        if(gym == null)
+            return null;
+        return findFitnessClass(findId(classIds, className.toUpperCase()),
+                findId(instructorIds, instructor.toUpperCase()), gym);
+    }
+
+    /**
+     * Finds a class in the index by the ids of its name and instructor.
+     * @param classId the id of the class name, -1 if it has none.
+     * @param instructorId the id of the instructor, -1 if it has none.
+     * @param location the location of the class.
+     * @return FitnessClass class if found, null otherwise.
+     */
+    private FitnessClass findFitnessClass(int classId, int instructorId,
+                                          Location location) {
+        if(classId < 0 || instructorId < 0)
+            return null;
+        FitnessClass[][] byInstructor = index[classId];
+        if(instructorId >= byInstructor.length ||
+                byInstructor[instructorId] == null)
+            return null;
+        return byInstructor[instructorId][location.ordinal()];
+    }
+
+    /**
+     * Finds the id given to a class or instructor name.
+     * Names are given ids in upper case, as FitnessClass stores them, so
+     * the name must already be in upper case. The ids only change when a
+     * class is added, never when one is looked up.
+     * @param ids the ids of the class or instructor names.
+     * @param name the name to find, in upper case.
+     * @return the id of the name, -1 if the name has no id.
+     */
+    private static int findId(HashMap<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Adds a class to the index of classes.
+     * The class name and instructor are given ids when they are first seen.
+     * @param fitnessClass the class to add.
+     * @return true if the class was added, false if a class with the same
+     * name, instructor, and location is already indexed, or the class has
+     * no valid time or location.
+     */
+    private boolean addToIndex(FitnessClass fitnessClass) {
+        Location location = fitnessClass.getClassLocation();
+        if(location == null || fitnessClass.getTimeSlot() == null)
+            return false;
+        int classId = findId(classIds, fitnessClass.getClassName());
+        if(classId < 0) {
+            classId = index.length;
+            classIds.put(fitnessClass.getClassName(), classId);
+            index = Arrays.copyOf(index, classId + 1);
+            index[classId] = new FitnessClass[0][];
         }
-        return null;
-    }
-
-    /**
-     * Searches for possible conflicting fitness classes.
-     * Iterates through classes array. If a fitness class is at the same time
-     * as the fitness class given, the class is added to the array containing
-     * all conflicting fitness classes.
-     * @param fitnessClass the fitness class that must be compared with other
-     *                     classes.
-     * @return FitnessClass[] containing any conflicting classes.
-     */
-    public FitnessClass[] findTimeConflict(FitnessClass fitnessClass) {
-        FitnessClass[] conflictingClasses = new FitnessClass[numClasses-1];
-        String classTime = fitnessClass.getTime();
-        int index = 0;
-        for(FitnessClass fc : classes) {
-            if(fc != null && !fc.equals(fitnessClass) &&
-                    fc.getTime().equalsIgnoreCase(classTime))
-                conflictingClasses[index++] = fc;
+        int instructorId = findId(instructorIds,
+                fitnessClass.getInstructorName());
+        if(instructorId < 0) {
+            instructorId = instructorIds.size();
+            instructorIds.put(fitnessClass.getInstructorName(),
+                    instructorId);
         }
-        return conflictingClasses;
+        FitnessClass[][] byInstructor = index[classId];
+        if(instructorId >= byInstructor.length) {
+            byInstructor = Arrays.copyOf(byInstructor, instructorId + 1);
+            index[classId] = byInstructor;
+        }
+        if(byInstructor[instructorId] == null)
+            byInstructor[instructorId] =
+                    new FitnessClass[LOCATIONS.length];
+        if(byInstructor[instructorId][location.ordinal()] != null)
+            return false;
+        byInstructor[instructorId][location.ordinal()] = fitnessClass;
+        return true;
+    }
+
+    /**
+     * Searches for a fitness class that conflicts with the given class.
+     * Looks up the class the member is checked in to at the time of the
+     * given class. If it is another class, there is a time conflict.
+     * @param fitnessClass the fitness class the member wants to check in to.
+     * @param member the member to find a conflict for.
+     * @return FitnessClass if time conflict exists, null otherwise.
+     */
+    public FitnessClass findTimeConflict(FitnessClass fitnessClass,
+                                         Member member) {
+        FitnessClass conflict =
+                enrollment.get(fitnessClass.getTimeSlot()).get(member);
+        if(conflict == null || conflict.equals(fitnessClass))
+            return null;
+        return conflict;
+    }
+
+    /**
+     * Records that a member checked in to a class on the schedule.
+     * @param fitnessClass the class the member checked in to.
+     * @param member the member that checked in.
+     */
+    void enroll(FitnessClass fitnessClass, Member member) {
+        enrollment.get(fitnessClass.getTimeSlot()).put(member, fitnessClass);
+    }
+
+    /**
+     * Records that a member checked out of a class on the schedule.
+     * @param fitnessClass the class the member checked out of.
+     * @param member the member that checked out.
+     */
+    void drop(FitnessClass fitnessClass, Member member) {
+        enrollment.get(fitnessClass.getTimeSlot()).remove(member,
+                fitnessClass);
+    }
+
+    /**
+     * Renders a member's lines again on the roster of every class.
+     * @param member the member whose details changed.
+     */
+    void refresh(Member member) {
+        for(int i = 0; i < numClasses; i++)
+            classes[i].refresh(member);
+    }
+
+    /**
+     * Writes the fitness classes on the schedule to a snapshot.
+     * Each class is written with its participants and guests.
+     * @param out the output the fitness classes are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void save(DataOutput out) throws IOException {
+        out.writeInt(numClasses);
+        for (int i = 0; i < numClasses; i++)
+            classes[i].writeTo(out);
+    }
+
+    /**
+     * Replaces the fitness classes on the schedule with those in a snapshot.
+     * The schedule is only replaced once every class has been read.
+     * @param in the input the fitness classes are read from.
+     * @param database the database of members the classes belong to.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    public void load(DataInput in, MemberDatabase database)
+            throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of classes in snapshot.");
+        FitnessClass[] restored =
+                new FitnessClass[Math.max(count, INITIAL_LENGTH)];
+        for (int i = 0; i < count; i++)
+            restored[i] = FitnessClass.readFrom(in, database);
+        classes = restored;
+        numClasses = count;
+        clearIndex();
+        for (int i = 0; i < count; i++)
+            addToIndex(restored[i]);
+        enrollment = newEnrollment();
+        for (int i = 0; i < count; i++)
+            restored[i].setSchedule(this);
     }
 
     /**
@@ -145,18 +340,34 @@ public class ClassSchedule {
         return numClasses == 0;
     }
 
+    /**
+     * Writes all fitness classes on the schedule to the given output.
+     * Each fitness class is written with its details, between a header and a
+     * footer for the list of classes.
+     * @param out the output the fitness classes are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void print(Appendable out) throws IOException {
+        out.append("-Fitness classes loaded-\n");
+        for(int i = 0; i < numClasses; i++) {
+            classes[i].print(out);
+            out.append('\n');
+        }
+        out.append("-end of class list.\n\n");
+    }
+
     /**
      * Creates a String that contains all fitness classes on the schedule.
      * @return String containing fitness classes and their details.
      */
     @Override
     public String toString() {
-        String schedule = "-Fitness classes loaded-\n";
-        for(FitnessClass fc : classes) {
-            if(fc != null)
-                schedule += fc + "\n";
+        StringBuilder schedule = new StringBuilder();
+        try {
+            print(schedule);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringBuilder
         }
-        schedule += "-end of class list.\n\n";
-        return schedule;
+        return schedule.toString();
     }
 }
@@ -1,6 +1,8 @@
 package com.example.gymmembershipgui;
 
-import java.util.Calendar;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
 
 /**
  * Date defines a date given a month, day, and year, and checks its validity.
@@ -8,13 +10,13 @@ import java.util.Calendar;
  * is a valid, calendar date (that is, whether the date would exist on a
  * calendar). This class can also check whether a year is a leap year.
  * Additionally, it can compare two different dates and check if the two are
- * equivalent dates.
+ * equivalent dates. The year, month, and day are packed into a single int
+ * with the year in the high bits, so two dates compare as two integers, and
+ * months or years can be added without building a date from a String.
  * @author Arunima Tripathy, Mahfuza Rahman
  */
 public class Date implements Comparable<Date> {
-    private int year;
-    private int month;
-    private int day;
+    private final int packed;
 
     private static final int QUADRENNIAL = 4;
     private static final int CENTENNIAL = 100;
@@ -23,27 +25,22 @@ public class Date implements Comparable<Date> {
     private static final int FEB_DAYS_LEAP_YEAR = 29;
     private static final int FEB_DAYS_NON_LEAP_YEAR = 28;
     private static final int FIRST_DAY_OF_MONTH = 1;
-    private static final int MONTH_INDEX = 1;
-    private static final int DAY_INDEX = 2;
-    private static final int YEAR_INDEX = 5;
-    private static final int EQUAL = 0;
-    private static final int LESS_THAN = -1;
-    private static final int GREATER_THAN = 1;
+    private static final int ADULT_AGE = 18;
+    private static final int YEAR_SHIFT = 16;
+    private static final int MONTH_SHIFT = 8;
+    private static final int FIELD_MASK = 0xFF;
+    private static final int MIN_YEAR = Short.MIN_VALUE;
+    private static final int MAX_YEAR = Short.MAX_VALUE;
+    private static final int MIN_FIELD = Byte.MIN_VALUE;
+    private static final int MAX_FIELD = Byte.MAX_VALUE;
+    private static final Months[] MONTHS = Months.values();
 
     /**
      * Creates an instance of Date with month, day, and year of current date.
      * This is the default constructor for the Date class.
      */
     public Date() {
-        Calendar todayDate = Calendar.getInstance();
-        String dateString = todayDate.getTime().toString();
-        String[] dateArray = dateString.split(" ", 0);
-        String monthString = dateArray[MONTH_INDEX];
-        String dayString = dateArray[DAY_INDEX];
-        String yearString = dateArray[YEAR_INDEX];
-        year = Integer.parseInt(yearString);
-        month = findMonth(monthString).getMonthOrder();
-        day = Integer.parseInt(dayString);
+        packed = today().packed;
     }
 
     /**
@@ -55,25 +52,90 @@ public class Date implements Comparable<Date> {
         if(date.contains("/"))
         {
             dateArray = date.split("/", 0);
-            month = Integer.parseInt(dateArray[0]);
-            day = Integer.parseInt(dateArray[1]);
-            year = Integer.parseInt(dateArray[2]);
+            packed = pack(Integer.parseInt(dateArray[0]),
+                    Integer.parseInt(dateArray[1]),
+                    Integer.parseInt(dateArray[2]));
         }
         else
         {
             dateArray = date.split("-", 0);
-            month = Integer.parseInt(dateArray[1]);
-            day = Integer.parseInt(dateArray[2]);
-            year = Integer.parseInt(dateArray[0]);
+            packed = pack(Integer.parseInt(dateArray[1]),
+                    Integer.parseInt(dateArray[2]),
+                    Integer.parseInt(dateArray[0]));
         }
     }
 
+    /**
+     * Creates an instance of Date with the given month, day, and year.
+     * @param month the month of the date as an integer from 1 to 12.
+     * @param day the day of the month as an integer.
+     * @param year the year as an integer.
+     */
+    public Date(int month, int day, int year) {
+        packed = pack(month, day, year);
+    }
+
+    /**
+     * Creates an instance of Date from a date packed into a single int.
+     * @param packed the packed date.
+     */
+    private Date(int packed) {
+        this.packed = packed;
+    }
+
+    /**
+     * Creates a Date from a date packed into a single int by toPacked().
+     * Used by stores that keep dates in columns of ints.
+     * @param packed the packed date.
+     * @return the date.
+     */
+    static Date fromPacked(int packed) {
+        return new Date(packed);
+    }
+
+    /**
+     * Gets the date packed into a single int.
+     * Packed dates compare in the same order as the dates themselves.
+     * @return the packed date.
+     */
+    int toPacked() {
+        return packed;
+    }
+
+    /**
+     * Packs a month, day, and year into a single int.
+     * The year takes the high 16 bits, then the month and day take 8 bits
+     * each, so packed dates that are valid sort in calendar order. A field
+     * that does not fit is clamped, which keeps the date invalid.
+     * @param month the month of the date.
+     * @param day the day of the month.
+     * @param year the year.
+     * @return the packed date.
+     */
+    private static int pack(int month, int day, int year) {
+        year = Math.max(MIN_YEAR, Math.min(MAX_YEAR, year));
+        month = Math.max(MIN_FIELD, Math.min(MAX_FIELD, month));
+        day = Math.max(MIN_FIELD, Math.min(MAX_FIELD, day));
+        return year << YEAR_SHIFT | (month & FIELD_MASK) << MONTH_SHIFT |
+                (day & FIELD_MASK);
+    }
+
+    /**
+     * Gets today's date from the clock shared by the gym.
+     * The same Date is returned until midnight, so checks against today do
+     * not create a Date each time.
+     * @return today's date.
+     */
+    public static Date today() {
+        return GymClock.getShared().getToday();
+    }
+
     /**
      * Gets the year of the date.
      * @return the year as an integer.
      */
     public int getYear() {
-        return year;
+        return packed >> YEAR_SHIFT;
     }
 
     /**
@@ -81,7 +143,7 @@ public class Date implements Comparable<Date> {
      * @return the month as an integer
      */
     public int getMonth() {
-        return month;
+        return (byte) (packed >> MONTH_SHIFT);
     }
 
     /**
@@ -89,7 +151,7 @@ public class Date implements Comparable<Date> {
      * @return the day as an integer.
      */
     public int getDay() {
-        return day;
+        return (byte) packed;
     }
 
     /**
@@ -102,7 +164,9 @@ public class Date implements Comparable<Date> {
      * @return true if date is valid date, false otherwise.
      */
     public boolean isValid() {
-        Months thisMonth = findMonth(this.month);
+        int year = getYear();
+        int month = getMonth();
+        int day = getDay();
         if(year < 1900)
             return false;
         if (month < Months.JANUARY.getMonthOrder() ||
@@ -110,34 +174,92 @@ public class Date implements Comparable<Date> {
             return false;
         if(day < FIRST_DAY_OF_MONTH)
             return false;
-        if (month == Months.FEBRUARY.getMonthOrder()) {
-            if (isLeapYear()) {
-                if (day > FEB_DAYS_LEAP_YEAR)
-                    return false;
-            } else {
-                if (day > FEB_DAYS_NON_LEAP_YEAR)
-                    return false;
+        return day <= daysInMonth(month, year);
+    }
+
+    /**
+     * Gets the number of days in a month of a year.
+     * @param month the month as an integer from 1 to 12.
+     * @param year the year, used to check for leap years.
+     * @return the number of days in the month.
+     */
+    private static int daysInMonth(int month, int year) {
+        if (month == Months.FEBRUARY.getMonthOrder())
+            return isLeapYear(year) ? FEB_DAYS_LEAP_YEAR :
+                    FEB_DAYS_NON_LEAP_YEAR;
+        return MONTHS[month - 1].getNumOfDays();
+    }
+
+    /**
+     * Creates the date a number of months after this date.
+     * If the day does not exist in the new month, the extra days roll over
+     * into the following month, so 1/31 plus one month is 3/3, or 3/2 in a
+     * leap year. This date must be valid.
+     * @param months the number of months to add.
+     * @return the new date.
+     */
+    public Date plusMonths(int months) {
+        int monthIndex = getYear() * MONTHS_IN_A_YEAR + getMonth() - 1 +
+                months;
+        int year = Math.floorDiv(monthIndex, MONTHS_IN_A_YEAR);
+        int month = Math.floorMod(monthIndex, MONTHS_IN_A_YEAR) + 1;
+        int day = getDay();
+        int days = daysInMonth(month, year);
+        if (day > days) {
+            day -= days;
+            if (++month > MONTHS_IN_A_YEAR) {
+                month = Months.JANUARY.getMonthOrder();
+                year++;
             }
         }
-        if (day > thisMonth.getNumOfDays()){
-            return false;
-        }
-        return true;
+        return new Date(month, day, year);
     }
 
     /**
-     * Given three letter abbreviation for a month, finds equivalent Month.
-     * Returns null if an invalid abbreviation is passed.
-     * @param monthAbbreviation the three letter abbreviation of the month.
-     * @return prospective Month for given abbreviation of month.
+     * Creates the date of the first day of this date's month.
+     * @return the new date.
      */
-    private Months findMonth(String monthAbbreviation) {
-        Months year[] = Months.values();
-        for (Months month : year) {
-            if (month.getAbbreviation().equals(monthAbbreviation))
-                return month;
+    public Date firstOfMonth() {
+        return new Date(getMonth(), FIRST_DAY_OF_MONTH, getYear());
+    }
+
+    /**
+     * Creates the date a number of days after this date.
+     * Walks a month at a time, so a large number of days takes a few steps
+     * per year. This date must be valid.
+     * @param days the number of days to add, or to subtract if negative.
+     * @return the new date.
+     */
+    public Date plusDays(int days) {
+        int month = getMonth();
+        int day = getDay() + days;
+        int year = getYear();
+        while (day > daysInMonth(month, year)) {
+            day -= daysInMonth(month, year);
+            if (++month > MONTHS_IN_A_YEAR) {
+                month = Months.JANUARY.getMonthOrder();
+                year++;
+            }
         }
-        return null;
+        while (day < FIRST_DAY_OF_MONTH) {
+            if (--month < Months.JANUARY.getMonthOrder()) {
+                month = MONTHS_IN_A_YEAR;
+                year--;
+            }
+            day += daysInMonth(month, year);
+        }
+        return new Date(month, day, year);
+    }
+
+    /**
+     * Creates the date a number of years after this date.
+     * A date of 2/29 becomes 3/1 if the new year is not a leap year.
+     * This date must be valid.
+     * @param years the number of years to add.
+     * @return the new date.
+     */
+    public Date plusYears(int years) {
+        return plusMonths(years * MONTHS_IN_A_YEAR);
     }
 
     /**
@@ -145,27 +267,21 @@ public class Date implements Comparable<Date> {
      * @return true if date is at least 18 years ago, false otherwise.
      */
     public boolean aboveEighteen(){
-        Date todayDate = new Date();
-        Date eighteenthBirthday = new Date(getMonth() +
-                "/" + getDay() + "/" +
-                (getYear() + 18));
-        if (eighteenthBirthday.compareTo(todayDate) == 1)
-            return false;
-        return true;
+        return isYearsBefore(ADULT_AGE, today());
     }
 
     /**
-     * Given month number of a month (1-12), finds matching Months constant.
-     * @param monthNumber the number value of a month.
-     * @return the equivalent Months enum, null if month does not exist.
+     * Checks if at least a number of years have passed from this date to
+     * another date. The years are added to the packed date directly, so no
+     * Date is created; 2/29 counts as before 3/1 in years that are not leap
+     * years.
+     * @param years the number of years.
+     * @param date the later date.
+     * @return true if this date plus the years is on or before the date,
+     * false otherwise.
      */
-    private Months findMonth(int monthNumber) {
-        Months year[] = Months.values(); // array with all possible months
-        for (Months month : year) {
-            if (month.getMonthOrder() == monthNumber)
-                return month;
-        }
-        return null;
+    public boolean isYearsBefore(int years, Date date) {
+        return packed + (years << YEAR_SHIFT) <= date.packed;
     }
 
     /**
@@ -178,6 +294,15 @@ public class Date implements Comparable<Date> {
      * @return true if year is a leap year, false otherwise.
      */
     public boolean isLeapYear() {
+        return isLeapYear(getYear());
+    }
+
+    /**
+     * Checks if a year is a leap year.
+     * @param year the year to check.
+     * @return true if year is a leap year, false otherwise.
+     */
+    private static boolean isLeapYear(int year) {
         if (year % QUADRENNIAL == 0) {
             if (year % CENTENNIAL == 0) {
                 if (year % QUARTER_CENTENNIAL == 0) {
@@ -195,7 +320,7 @@ public class Date implements Comparable<Date> {
 
     /**
      * Checks if two instances of Date are equal.
-     * Compares the year, month, and date of two Date instances.
+     * Compares the packed year, month, and date of two Date instances.
      * @param obj the Date instance that will be cast into a Date.
      * @return true if date is the same, false otherwise.
      */
@@ -204,37 +329,56 @@ public class Date implements Comparable<Date> {
         Date dateCompare = Date.class.cast(obj);
         if(dateCompare == null)
             return false;
-        boolean compareYear = (this.year == dateCompare.getYear());
-        boolean compareMonth = (this.month == dateCompare.getMonth());
-        boolean compareDay = (this.day == dateCompare.getDay());
-        return (compareYear && compareMonth) && compareDay;
+        return packed == dateCompare.packed;
+    }
+
+    /**
+     * Generates a hash code from the year, month, and day of the Date.
+     * Dates that are equal always produce the same hash code.
+     * @return the hash code as an integer.
+     */
+    @Override
+    public int hashCode() {
+        return packed;
     }
 
     /**
      * Compares two Date instances.
      * Checks to see if compared date is before, after, or same as given date.
-     * Years are compared to check if compared year is before/after given
-     * year. If same year, the months are compared. If same month, the days
-     * are compared. If the days are the same, Date is equal.
+     * Since the year is packed above the month and the month above the day,
+     * comparing the packed dates compares the years, then the months, and
+     * then the days.
      * @param date the Date instance to be compared.
      * @return 1 if given date is after compared date, -1 if before, 0 if
      * equal.
      */
     @Override
     public int compareTo(Date date) {
-        if (this.year > date.getYear())
-            return GREATER_THAN;
-        if (this.year < date.getYear())
-            return LESS_THAN;
-        if (this.month > date.getMonth())
-            return GREATER_THAN;
-        if (this.month < date.getMonth())
-            return LESS_THAN;
-        if (this.day > date.getDay())
-            return GREATER_THAN;
-        if (this.day < date.getDay())
-            return LESS_THAN;
-        return EQUAL; // date must be equal
+        return Integer.compare(packed, date.packed);
+    }
+
+    /**
+     * Writes the date to a snapshot as its month, day, and year.
+     * @param out the output the date is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeShort(getMonth());
+        out.writeShort(getDay());
+        out.writeInt(getYear());
+    }
+
+    /**
+     * Reads a date written to a snapshot by writeTo().
+     * @param in the input the date is read from.
+     * @return the date that was read.
+     * @throws IOException if the input cannot be read.
+     */
+    public static Date readFrom(DataInput in) throws IOException {
+        int month = in.readShort();
+        int day = in.readShort();
+        int year = in.readInt();
+        return new Date(month, day, year);
     }
 
     /**
@@ -243,6 +387,6 @@ public class Date implements Comparable<Date> {
      */
     @Override
     public String toString() {
-        return month + "/" + day + "/" + year;
+        return getMonth() + "/" + getDay() + "/" + getYear();
     }
 }
\ No newline at end of file
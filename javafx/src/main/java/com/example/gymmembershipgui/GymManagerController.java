@@ -6,7 +6,11 @@ import javafx.scene.control.*;
 import javafx.event.ActionEvent;
 import org.controlsfx.control.action.Action;
 
+import java.io.BufferedWriter;
+import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.Writer;
 import java.net.URL;
 import java.util.ResourceBundle;
 
@@ -19,15 +23,25 @@ import java.util.ResourceBundle;
  * member's gym plan permits them, these functions also apply to guests.
  * The gym manager's schedule can also check for time conflicts between the
  * classes a member is checked into and a class they want to attend. The gym
- * manager handles all these requests.
+ * manager handles all these requests. Every change to the members and class
+ * rosters is recorded in a mutation log, and the gym is restored from the
+ * last snapshot and the log when the GUI is opened again.
  * @author Mahfuza Rahman, Arunima Tripathy
  */
 public class GymManagerController implements Initializable {
     private MemberDatabase database;
     private ClassSchedule schedule;
+    private MutationLog log;
+    private NameDictionary names;
     private String[] locations;
     private String[] fitnessClasses;
     private String[] instructors;
+    private static final int OUTPUT_BUFFER_SIZE = 8192;
+    private static final String SNAPSHOT_FILE = "./javafx/src/main/java/" +
+            "com/example/gymmembershipgui/gym.snapshot";
+    private static final String LOG_FILE = "./javafx/src/main/java/" +
+            "com/example/gymmembershipgui/gym.log";
+    private static final long CHECKPOINT_SIZE = 1 << 22;
     @FXML
     private TextField enterFirstName;
     @FXML
@@ -67,6 +81,7 @@ public class GymManagerController implements Initializable {
     public GymManagerController() {
         database = new MemberDatabase();
         schedule = new ClassSchedule();
+        names = new NameDictionary();
         locations = new String[] {"Bridgewater", "Edison", "Franklin",
                 "Piscataway", "Somerville"};
         fitnessClasses = new String[] {"Cardio", "Pilates", "Spinning"};
@@ -81,6 +96,9 @@ public class GymManagerController implements Initializable {
      * information provided. As long as the DOB is valid, not a future date,
      * and the member is 18 or older, the expiration date and location are
      * valid, and the member is not already in the database, member is added.
+     * Names are shared with the other members that have them. A name new to
+     * the dictionary is only added to it once the member is added, so
+     * members that are turned away never grow it.
      * @param event the event that indicates that the 'Add' button on the
      *              Membership tab was clicked.
      */
@@ -104,18 +122,24 @@ public class GymManagerController implements Initializable {
             location = memberLocationChoiceBar.getValue();
 
         String bDay = DOB.toString();
+        String fname = name(firstName);
+        String lname = name(lastName);
         Member addMember;
         if(standard.isSelected())
-            addMember = new Member(firstName, lastName, bDay, location);
+            addMember = new Member(fname, lname, bDay, location);
         else if(family.isSelected())
-            addMember = new Family(firstName, lastName, bDay, location);
+            addMember = new Family(fname, lname, bDay, location);
         else
-            addMember = new Premium(firstName, lastName, bDay, location);
+            addMember = new Premium(fname, lname, bDay, location);
 
         if(!database.add(addMember))
             output.appendText(name + " is already in the database.\n");
-        else
+        else {
+            names.intern(fname); // keeps this member's copy if the name is new
+            names.intern(lname);
             output.appendText(name + " added.\n");
+            record(MutationLog.Type.ADD, null, addMember);
+        }
         clearAllFields();
     }
 
@@ -145,11 +169,14 @@ public class GymManagerController implements Initializable {
         }
 
         Date DOB = new Date(memberDOBPicker.getValue().toString());
-        Member removeMember = new Member(firstName, lastName, DOB.toString());
+        Member removeMember = new Member(name(firstName),
+                name(lastName), DOB.toString());
         if(!database.remove(removeMember))
             output.appendText(name + " is not in the database.\n");
-        else
+        else {
             output.appendText(name + " removed.\n");
+            record(MutationLog.Type.REMOVE, null, removeMember);
+        }
         clearAllFields();
     }
 
@@ -187,7 +214,7 @@ public class GymManagerController implements Initializable {
         }
 
         Date DOB = new Date(memberDOBPicker.getValue().toString());
-        if(DOB.compareTo(new Date()) >= 0){
+        if(DOB.compareTo(Date.today()) >= 0){
             output.appendText("DOB " + DOB + ": cannot be today or a " +
                     "future date.\n");
             clearAllFields();
@@ -270,9 +297,8 @@ public class GymManagerController implements Initializable {
             return;
 
         Date DOB = new Date(classMemberDOBPicker.getValue().toString());
-        FitnessClass fitnessClass = new FitnessClass(instructor, fitness,
-                location);
-        Member checkMember = new Member(firstName, lastName, DOB.toString());
+        Member checkMember = new Member(name(firstName),
+                name(lastName), DOB.toString());
         Member findMember = database.findMember(checkMember);
 
         if(!isClassValid(fitness, instructor, location))
@@ -294,8 +320,13 @@ public class GymManagerController implements Initializable {
             return;
         }
 
-        output.appendText(schedule.findFitnessClass(fitnessClass).
-                checkInGuest((Family) findMember));
+        Family guest = (Family) findMember;
+        int passes = guest.getNumberOfPasses();
+        FitnessClass fitnessClass = schedule.findFitnessClass(fitness,
+                instructor, location);
+        output.appendText(fitnessClass.checkInGuest(guest));
+        if(guest.getNumberOfPasses() < passes)
+            record(MutationLog.Type.CHECK_IN_GUEST, fitnessClass, guest);
         clearAllFieldsFitness();
     }
 
@@ -321,9 +352,8 @@ public class GymManagerController implements Initializable {
             return;
 
         Date DOB = new Date(classMemberDOBPicker.getValue().toString());
-        FitnessClass fitnessClass = new FitnessClass(instructor, fitness,
-                location);
-        Member checkMember = new Member(firstName, lastName, DOB.toString());
+        Member checkMember = new Member(name(firstName),
+                name(lastName), DOB.toString());
         Member findMember = database.findMember(checkMember);
 
         if(!isClassValid(fitness, instructor, location))
@@ -337,34 +367,33 @@ public class GymManagerController implements Initializable {
             output.appendText(name + " checking in " + checkInLoc +
                     " - standard membership location restriction.\n");
         } else
-            findTimeConflicts(fitnessClass, findMember);
+            findTimeConflicts(schedule.findFitnessClass(fitness, instructor,
+                    location), findMember);
         clearAllFieldsFitness();
     }
 
     /**
      * Searches for possible conflicting fitness classes given a class.
-     * Iterates through the classes in the fitness class schedule. If a
-     * fitness class is at the same time as the time given and the member is
-     * in the class, there is a time conflict.
+     * Asks the schedule for another class the member is checked in to at
+     * the same time. If there is one, there is a time conflict. Otherwise,
+     * the member is checked in.
      * @param fitnessClass the fitness class the member wants to check in to.
      * @param member the member that would like to check in to the class.
      */
     private void findTimeConflicts(FitnessClass fitnessClass, Member member){
-        fitnessClass = schedule.findFitnessClass(fitnessClass);
         String time = fitnessClass.getTime();
         String fitness = fitnessClass.getClassName();
         String instructor = fitnessClass.getInstructorName();
         Location location = Location.getLocation(fitnessClass.getLocation());
-        FitnessClass[] conflictingClasses =
-                schedule.findTimeConflict(fitnessClass);
-        for(FitnessClass fc: conflictingClasses){
-            if(fc != null && fc.findMember(member) != null){
-                output.appendText("Time conflict - " + fitness + " - " +
-                        instructor + ", " + time + ", " + location + "\n");
-                return;
-            }
+        if(schedule.findTimeConflict(fitnessClass, member) != null){
+            output.appendText("Time conflict - " + fitness + " - " +
+                    instructor + ", " + time + ", " + location + "\n");
+            return;
         }
+        boolean checkedIn = fitnessClass.findMember(member) == null;
         output.appendText(fitnessClass.checkInMember(member));
+        if(checkedIn)
+            record(MutationLog.Type.CHECK_IN, fitnessClass, member);
     }
 
     /**
@@ -389,7 +418,8 @@ public class GymManagerController implements Initializable {
             return;
 
         Date DOB = new Date(classMemberDOBPicker.getValue().toString());
-        Member checkMember = new Member(firstName, lastName, DOB.toString());
+        Member checkMember = new Member(name(firstName),
+                name(lastName), DOB.toString());
         Member findMember = database.findMember(checkMember);
 
         if(!isClassValid(fitness, instructor, location))
@@ -402,8 +432,8 @@ public class GymManagerController implements Initializable {
             clearAllFieldsFitness();
             return;
         }
-        FitnessClass fitnessClass = schedule.findFitnessClass
-                (new FitnessClass(instructor, fitness, location));
+        FitnessClass fitnessClass = schedule.findFitnessClass(fitness,
+                instructor, location);
         if(fitnessClass.findGuest((Family)findMember) == null) {
             output.appendText(findMember.getFirstName() + " " +
                     findMember.getLastName() + " did not check in.\n");
@@ -412,6 +442,7 @@ public class GymManagerController implements Initializable {
         }
         fitnessClass.removeGuest((Family) findMember);
         output.appendText(name + " Guest done with the class.\n");
+        record(MutationLog.Type.DONE_GUEST, fitnessClass, findMember);
         clearAllFieldsFitness();
     }
 
@@ -436,7 +467,8 @@ public class GymManagerController implements Initializable {
             return;
 
         Date DOB = new Date(classMemberDOBPicker.getValue().toString());
-        Member checkMember = new Member(firstName, lastName, DOB.toString());
+        Member checkMember = new Member(name(firstName),
+                name(lastName), DOB.toString());
         Member findMember = database.findMember(checkMember);
 
         if(!isClassValid(fitness, instructor, location))
@@ -444,8 +476,8 @@ public class GymManagerController implements Initializable {
         if(!isMemberValid(findMember, checkMember))
             return;
 
-        FitnessClass fitnessClass = schedule.findFitnessClass
-                (new FitnessClass(instructor, fitness, location));
+        FitnessClass fitnessClass = schedule.findFitnessClass(fitness,
+                instructor, location);
         if(fitnessClass.findMember(findMember) == null) {
             output.appendText(findMember.getFirstName() + " " +
                     findMember.getLastName() + " did not check in.\n");
@@ -454,6 +486,7 @@ public class GymManagerController implements Initializable {
         }
         fitnessClass.removeMember(findMember);
         output.appendText(name + " done with the class.\n");
+        record(MutationLog.Type.DONE, fitnessClass, findMember);
         clearAllFieldsFitness();
     }
 
@@ -506,7 +539,7 @@ public class GymManagerController implements Initializable {
             return false;
         }
         Date DOB = new Date(classMemberDOBPicker.getValue().toString());
-        if(DOB.compareTo(new Date()) >=0){
+        if(DOB.compareTo(Date.today()) >=0){
             output.appendText("DOB " + DOB + ": cannot be today or a " +
                     "future date.\n");
             clearAllFieldsFitness();
@@ -609,9 +642,8 @@ public class GymManagerController implements Initializable {
      */
     private boolean isClassValid(String className, String instructor,
                                  String location){
-        FitnessClass fitnessClass = new FitnessClass(instructor, className,
-                location);
-        if(schedule.findFitnessClass(fitnessClass) == null){
+        if(schedule.findFitnessClass(className, instructor, location) ==
+                null){
             output.appendText(className + " by " + instructor + " does not"
                     + " exist at " + location + "\n");
             clearAllFieldsFitness();
@@ -620,6 +652,19 @@ public class GymManagerController implements Initializable {
         return true;
     }
 
+    /**
+     * Gets a typed name in the form members keep it in, as the copy shared
+     * through the dictionary if the name is already in it. The name is only
+     * looked up, so it is not added to the dictionary.
+     * @param typed the name as typed.
+     * @return the name in the form members keep it in.
+     */
+    private String name(String typed) {
+        String name = Member.capitalize(typed);
+        String shared = names.find(name, 0, name.length());
+        return shared != null ? shared : name;
+    }
+
     /**
      * Checks if a given member is a valid member.
      * Checks if a member exists in the gym's member database, or if the
@@ -654,7 +699,11 @@ public class GymManagerController implements Initializable {
      */
     @FXML
     public void onPrintClicked(ActionEvent event){
-        output.appendText(database.print());
+        try (Writer out = outputWriter()) {
+            database.print(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
     }
 
     /**
@@ -665,7 +714,11 @@ public class GymManagerController implements Initializable {
      */
     @FXML
     public void onPrintCountyClicked(ActionEvent event){
-        output.appendText(database.printByCounty());
+        try (Writer out = outputWriter()) {
+            database.printByCounty(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
     }
 
     /**
@@ -675,7 +728,11 @@ public class GymManagerController implements Initializable {
      */
     @FXML
     public void onPrintNameClicked(ActionEvent event){
-        output.appendText(database.printByName());
+        try (Writer out = outputWriter()) {
+            database.printByName(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
     }
 
     /**
@@ -685,7 +742,42 @@ public class GymManagerController implements Initializable {
      */
     @FXML
     public void onPrintExpDateClicked(ActionEvent event){
-        output.appendText(database.printByExpirationDate());
+        try (Writer out = outputWriter()) {
+            database.printByExpirationDate(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
+    }
+
+    /**
+     * Displays the members whose memberships expire within a number of days,
+     * for renewal reminders. The number of days is kept on the menu item.
+     * @param event the event that indicates that a 'Print Expiring Within'
+     *              button on the Membership Hub tab was clicked.
+     */
+    @FXML
+    public void onPrintExpiringClicked(ActionEvent event){
+        MenuItem item = (MenuItem) event.getSource();
+        int days = Integer.parseInt((String) item.getUserData());
+        try (Writer out = outputWriter()) {
+            database.printExpiringWithin(days, out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
+    }
+
+    /**
+     * Displays the members whose memberships expired during last month.
+     * @param event the event that indicates that the 'Print Expired Last
+     *              Month' button on the Membership Hub tab was clicked.
+     */
+    @FXML
+    public void onPrintExpiredLastMonthClicked(ActionEvent event){
+        try (Writer out = outputWriter()) {
+            database.printExpiredLastMonth(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
     }
 
     /**
@@ -695,7 +787,11 @@ public class GymManagerController implements Initializable {
      */
     @FXML
     public void onPrintFeeClicked(ActionEvent event){
-        output.appendText(database.printByMembershipFee());
+        try (Writer out = outputWriter()) {
+            database.printByMembershipFee(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the list of members.\n");
+        }
     }
 
     /**
@@ -708,8 +804,9 @@ public class GymManagerController implements Initializable {
         String file = "./javafx/src/main/java/com/example/" +
                 "gymmembershipgui/memberList.txt";
         try {
-            output.appendText(database.loadMemberList(file));
-        } catch (FileNotFoundException e) {
+            output.appendText(database.loadMemberList(file, names));
+            checkpoint();
+        } catch (IOException e) {
             output.appendText("Member list file not found.");
         }
 
@@ -726,10 +823,32 @@ public class GymManagerController implements Initializable {
             output.appendText("There are no fitness classes " +
                     "loaded on the schedule.\n");
         } else {
-            output.appendText(schedule.toString());
+            printSchedule();
         }
     }
 
+    /**
+     * Displays all the fitness classes on the schedule in the output area.
+     */
+    private void printSchedule(){
+        try (Writer out = outputWriter()) {
+            schedule.print(out);
+        } catch (IOException e) {
+            output.appendText("Unable to display the class schedule.\n");
+        }
+    }
+
+    /**
+     * Creates a buffered Writer that appends to the output area.
+     * Reports are written to the output area in blocks as the buffer fills,
+     * and the rest is written when the Writer is closed.
+     * @return a Writer for the output area.
+     */
+    private Writer outputWriter(){
+        return new BufferedWriter(new TextAreaWriter(output),
+                OUTPUT_BUFFER_SIZE);
+    }
+
     /**
      * Adds classes on the class schedule list to the schedule of classes.
      * @param event the event that indicates that the 'Load ClassSchedule From
@@ -741,7 +860,8 @@ public class GymManagerController implements Initializable {
                 "gymmembershipgui/classSchedule.txt";
         try {
             schedule.loadClassSchedule(file);
-            output.appendText(schedule.toString());
+            printSchedule();
+            checkpoint();
         } catch (FileNotFoundException e) {
             output.appendText("Class schedule file not found.");
         }
@@ -754,7 +874,8 @@ public class GymManagerController implements Initializable {
      * Membership tab, the location choices to the Location choice bar on the
      * Fitness Class tab, the fitness choices to the Fitness choice bar on the
      * Fitness Class tab, and the instructor choices to the Instructor choice
-     * bar on the Fitness Class tab.
+     * bar on the Fitness Class tab. Suggests members as their last name is
+     * typed on either tab.
      * @param url the url to the path of the root object.
      * @param resourceBundle used to localize the root object.
      */
@@ -764,5 +885,71 @@ public class GymManagerController implements Initializable {
         classLocationChoiceBar.getItems().addAll(locations);
         fitnessChoiceBar.getItems().addAll(fitnessClasses);
         instructorChoiceBar.getItems().addAll(instructors);
+        new NameSuggestions(database, enterLastName, enterFirstName,
+                memberDOBPicker);
+        new NameSuggestions(database, memberLastName, memberFirstName,
+                classMemberDOBPicker);
+        restore();
+    }
+
+    /**
+     * Restores the gym from the last snapshot and the mutation log.
+     * Loads the snapshot if there is one, and then replays the changes
+     * recorded in the log since the snapshot was saved. If the gym cannot be
+     * restored, changes are not recorded.
+     */
+    private void restore() {
+        try {
+            long sequence = 0;
+            if(new File(SNAPSHOT_FILE).exists())
+                sequence = Snapshot.load(SNAPSHOT_FILE, database, schedule);
+            log = new MutationLog(LOG_FILE);
+            int replayed = log.replay(database, schedule, sequence);
+            if(database.getSize() > 0 || schedule.getSize() > 0)
+                output.appendText("-gym restored with " +
+                        database.getSize() + " members and " +
+                        schedule.getSize() + " classes, " + replayed +
+                        " changes replayed-\n");
+        } catch (IOException e) {
+            log = null;
+            output.appendText("Unable to restore the gym, changes will " +
+                    "not be saved.\n");
+        }
+    }
+
+    /**
+     * Records a change to the members or class rosters in the mutation log.
+     * Returns once the change is saved to disk. Once the log has grown
+     * large, a checkpoint is saved so the log can start over.
+     * @param type the type of change.
+     * @param fitnessClass the class the change applies to, null if none.
+     * @param member the member the change applies to.
+     */
+    private void record(MutationLog.Type type, FitnessClass fitnessClass,
+                        Member member) {
+        if(log == null)
+            return;
+        try {
+            log.append(type, fitnessClass, member);
+            if(log.size() > CHECKPOINT_SIZE)
+                log.checkpoint(SNAPSHOT_FILE, database, schedule);
+        } catch (IOException e) {
+            output.appendText("Unable to save the change.\n");
+        }
+    }
+
+    /**
+     * Saves a snapshot of the gym and starts the mutation log over.
+     * Used after loading a schedule or member list, so the loaded classes
+     * and members are saved without recording each one in the log.
+     */
+    private void checkpoint() {
+        if(log == null)
+            return;
+        try {
+            log.checkpoint(SNAPSHOT_FILE, database, schedule);
+        } catch (IOException e) {
+            output.appendText("Unable to save the gym.\n");
+        }
     }
 }
\ No newline at end of file
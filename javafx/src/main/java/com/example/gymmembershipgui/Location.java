@@ -17,6 +17,8 @@ public enum Location {
     private final String zipCode;
     private final String county;
 
+    private static final Location[] TOWNS = Location.values();
+
     /**
      * Creates an instance of Location with a zipcode and county.
      * @param zipCode the zipcode of the location.
@@ -49,8 +51,7 @@ public enum Location {
      * @return the corresponding Location constant, null if none correspond.
      */
     public static Location getLocation(String location) {
-        Location towns[] = Location.values(); // array of Location constants
-        for(Location town : towns) {
+        for(Location town : TOWNS) {
             if(town.name().equalsIgnoreCase(location))
                 return town;
         }
@@ -1,5 +1,9 @@
 package com.example.gymmembershipgui;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Member defines members given a name, birthday, expiration, and location.
  * A member can be checked to see if they are 18 years of age or older. Their
@@ -15,11 +19,18 @@ public class Member implements Comparable<Member> {
     private Date dob;
     private Date expire;
     private Location location;
+    private int hash;
 
     protected static final double STANDARD_ONE_TIME_FEE = 29.99;
     private static final double STANDARD_MONTHLY_FEE = 39.99;
     protected static final double QUARTERLY = 3;
-    protected static final int MONTHS_IN_A_YEAR = 12;
+    private static final int QUARTERLY_MONTHS = 3;
+    private static final int ADULT_AGE = 18;
+    private static final int HASH_MULTIPLIER = 31;
+    protected static final int STANDARD_PLAN = 0;
+    protected static final int FAMILY_PLAN = 1;
+    protected static final int PREMIUM_PLAN = 2;
+    private static final Location[] LOCATIONS = Location.values();
 
     /**
      * Creates instance of Member with name, DOB, location.
@@ -29,10 +40,8 @@ public class Member implements Comparable<Member> {
      * @param location the member's gym location.
      */
     public Member(String fname, String lname, String dob, String location) {
-        this.fname = fname.substring(0,1).toUpperCase() +
-                fname.substring(1).toLowerCase();
-        this.lname = lname.substring(0,1).toUpperCase() +
-                lname.substring(1).toLowerCase();
+        this.fname = fname;
+        this.lname = lname;
         this.dob = new Date(dob);
         this.expire = setExpire();
         this.location = Location.getLocation(location);
@@ -48,15 +57,32 @@ public class Member implements Comparable<Member> {
      */
     public Member(String fname, String lname, String dob,
                   String expire, String location) {
-        this.fname = fname.substring(0,1).toUpperCase() +
-                fname.substring(1).toLowerCase();
-        this.lname = lname.substring(0,1).toUpperCase() +
-                lname.substring(1).toLowerCase();
+        this.fname = fname;
+        this.lname = lname;
         this.dob = new Date(dob);
         this.expire = new Date(expire);
         this.location = Location.getLocation(location);
     }
 
+    /**
+     * Creates instance of Member with name, DOB, expiration, location.
+     * Used when the dates and location have already been parsed, such as
+     * when loading a member list.
+     * @param fname the member's first name.
+     * @param lname the member's last name.
+     * @param dob the member's date of birth.
+     * @param expire the member's expiration date.
+     * @param location the member's gym location.
+     */
+    public Member(String fname, String lname, Date dob, Date expire,
+                  Location location) {
+        this.fname = fname;
+        this.lname = lname;
+        this.dob = dob;
+        this.expire = expire;
+        this.location = location;
+    }
+
     /**
      * Creates an instance of Member with a first name and last name and DOB.
      * @param fname the member's first name.
@@ -64,15 +90,28 @@ public class Member implements Comparable<Member> {
      * @param dob the member's date of birth in mm/dd/yyyy format.
      */
     public Member(String fname, String lname, String dob) {
-        this.fname = fname.substring(0,1).toUpperCase() +
-                fname.substring(1).toLowerCase();
-        this.lname = lname.substring(0,1).toUpperCase() +
-                lname.substring(1).toLowerCase();
+        this.fname = fname;
+        this.lname = lname;
         this.dob = new Date(dob);
         this.expire = null;
         this.location = null;
     }
 
+    /**
+     * Puts a name in the form members keep it in, with its first letter in
+     * upper case and the rest in lower case. Names are put in this form once,
+     * before they are shared through a NameDictionary, and a member keeps
+     * the String it is given.
+     * @param name the name as typed or read.
+     * @return the name in the form members keep it in.
+     */
+    public static String capitalize(String name) {
+        if (name.isEmpty())
+            return name;
+        return name.substring(0,1).toUpperCase() +
+                name.substring(1).toLowerCase();
+    }
+
     /**
      * Gets the member's first name.
      * @return the first name as a String.
@@ -118,32 +157,7 @@ public class Member implements Comparable<Member> {
      * @return the expiration date as a Date object.
      */
     public Date setExpire(){
-        Date today = new Date();
-        int newMonth = today.getMonth() + 3;
-        int newYear = today.getYear();
-        int newDay = today.getDay();
-        if (newMonth > MONTHS_IN_A_YEAR) {
-            newMonth = newMonth % MONTHS_IN_A_YEAR;
-            newYear++;
-        }
-
-        Date expiration = new Date(newMonth + "/" + newDay + "/" + newYear);
-        // it is february and date is invalid
-        if (newMonth == 2 && !expiration.isValid()) {
-            boolean isleapyear = expiration.isLeapYear();
-            newMonth++;
-            if (!isleapyear) {  //if it is not a leap year
-                newDay = newDay % 28;
-            } else {
-                newDay = newDay % 29;
-            }
-            return new Date(newMonth + "/" + newDay + "/" + newYear);
-        } else if (!expiration.isValid()) {
-            newMonth++;
-            newDay = 1;
-            return new Date(newMonth + "/" + newDay + "/" + newYear);
-        }
-        return new Date(newMonth + "/" + newDay + "/" + newYear);
+        return Date.today().plusMonths(QUARTERLY_MONTHS);
     }
 
     /**
@@ -152,7 +166,7 @@ public class Member implements Comparable<Member> {
      * @return true if the membership has expired, false otherwise.
      */
     public boolean membershipExpired(){
-        return expire.compareTo(new Date()) < 0;
+        return expire.compareTo(Date.today()) < 0;
     }
 
     /**
@@ -172,13 +186,7 @@ public class Member implements Comparable<Member> {
      * @return true if a member is 18+, false otherwise.
      */
     public boolean aboveEighteen(){
-        Date todayDate = new Date();
-        Date eighteenthBirthday = new Date(this.getDOB().getMonth() +
-                "/" + this.getDOB().getDay() + "/" +
-                (this.getDOB().getYear() + 18));
-        if (eighteenthBirthday.compareTo(todayDate) == 1)
-            return false;
-        return true;
+        return dob.isYearsBefore(ADULT_AGE, Date.today());
     }
 
     /**
@@ -197,6 +205,40 @@ public class Member implements Comparable<Member> {
         return this.compareTo(memberCompare) == 0 && dobCompare;
     }
 
+    /**
+     * Generates a hash code from the last and first name, and DOB.
+     * Names are hashed case-insensitively so that members that are equal
+     * always produce the same hash code, without creating lowercase copies.
+     * The name and DOB never change, so the hash code is only generated
+     * the first time it is needed.
+     * @return the hash code as an integer.
+     */
+    @Override
+    public int hashCode() {
+        if (hash == 0) {
+            int generated = dob.hashCode();
+            generated = HASH_MULTIPLIER * generated + hashIgnoreCase(lname);
+            hash = HASH_MULTIPLIER * generated + hashIgnoreCase(fname);
+        }
+        return hash;
+    }
+
+    /**
+     * Generates a hash code for a name that ignores the case of each letter.
+     * Folds each character the same way compareToIgnoreCase() does.
+     * @param name the name to hash.
+     * @return the case-insensitive hash code as an integer.
+     */
+    private static int hashIgnoreCase(String name) {
+        int hash = 0;
+        for (int i = 0; i < name.length(); i++) {
+            char c = Character.toLowerCase(
+                    Character.toUpperCase(name.charAt(i)));
+            hash = HASH_MULTIPLIER * hash + c;
+        }
+        return hash;
+    }
+
     /**
      * Compares two members based on the last and first names.
      * @param member the member that is being compared.
@@ -223,6 +265,63 @@ public class Member implements Comparable<Member> {
         return compareLname;
     }
 
+    /**
+     * Gets the membership plan of the member, as stored in a snapshot.
+     * @return the plan as an integer.
+     */
+    protected int getPlan() {
+        return STANDARD_PLAN;
+    }
+
+    /**
+     * Writes the member to a snapshot.
+     * Writes the membership plan first so the member can be read back as
+     * the right type, followed by the name, dates, and location.
+     * @param out the output the member is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeByte(getPlan());
+        out.writeUTF(fname);
+        out.writeUTF(lname);
+        dob.writeTo(out);
+        expire.writeTo(out);
+        out.writeByte(location.ordinal());
+    }
+
+    /**
+     * Reads a member written to a snapshot by writeTo().
+     * Creates a Member, Family, or Premium depending on the plan that was
+     * written, with the guest passes that were remaining.
+     * @param in the input the member is read from.
+     * @return the member that was read.
+     * @throws IOException if the input cannot be read or holds an invalid
+     * plan or location.
+     */
+    public static Member readFrom(DataInput in) throws IOException {
+        int plan = in.readByte();
+        String fname = in.readUTF();
+        String lname = in.readUTF();
+        Date dob = Date.readFrom(in);
+        Date expire = Date.readFrom(in);
+        int locationIndex = in.readByte();
+        if (locationIndex < 0 || locationIndex >= LOCATIONS.length)
+            throw new IOException("Invalid location in snapshot.");
+        Location location = LOCATIONS[locationIndex];
+        switch (plan) {
+            case STANDARD_PLAN:
+                return new Member(fname, lname, dob, expire, location);
+            case FAMILY_PLAN:
+                return new Family(fname, lname, dob, expire, location,
+                        in.readShort());
+            case PREMIUM_PLAN:
+                return new Premium(fname, lname, dob, expire, location,
+                        in.readShort());
+            default:
+                throw new IOException("Invalid membership plan in snapshot.");
+        }
+    }
+
     /**
      * Creates String with last and first name, DOB, expiration, and location.
      * @return a String with the member's information.
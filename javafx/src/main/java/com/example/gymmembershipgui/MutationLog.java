@@ -0,0 +1,450 @@
+package com.example.gymmembershipgui;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32;
+
+/**
+ * MutationLog is an append-only log of the changes made to the gym.
+ * Each member added or removed, and each member or guest checked in to or
+ * out of a fitness class, is appended to the log as a record holding a
+ * sequence number, the type of change, and the member and class it applies
+ * to. Each record is framed with its length and a checksum, so a record cut
+ * short by a crash is found and dropped when the log is opened again.
+ * Appending a record only returns once the record is synced to disk, unless
+ * it is appended deferred, to be synced later with other records. Records
+ * appended while another thread is syncing are written and synced together
+ * by the next thread to commit, so the cost of syncing is shared by every
+ * change made at the same time. On startup, the log is replayed on top of
+ * the last snapshot, skipping any records the snapshot already holds. A
+ * checkpoint saves a snapshot and empties the log.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class MutationLog implements Closeable {
+    private final FileChannel channel;
+    private final ReentrantLock lock;
+    private final Condition committed;
+    private ByteArrayOutputStream pending;
+    private long sequence;
+    private long synced;
+    private long size;
+    private boolean syncing;
+    private IOException failure;
+
+    private static final int HEADER_LENGTH = 8;
+    private static final int MAX_RECORD_LENGTH = 1 << 16;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int RECORD_SIZE = 64;
+    private static final Type[] TYPES = Type.values();
+
+    /**
+     * Type defines the changes that are recorded in the log.
+     */
+    public enum Type {
+        ADD,
+        REMOVE,
+        CHECK_IN,
+        CHECK_IN_GUEST,
+        DONE,
+        DONE_GUEST
+    }
+
+    /**
+     * Opens the log with the given file name, creating it if needed.
+     * Reads through the records in the log to find the last sequence number,
+     * and cuts off any record left incomplete or corrupt by a crash.
+     * @param fileName the name of the log file.
+     * @throws IOException if the log cannot be opened or read.
+     */
+    public MutationLog(String fileName) throws IOException {
+        channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        lock = new ReentrantLock();
+        committed = lock.newCondition();
+        pending = new ByteArrayOutputStream(BUFFER_SIZE);
+        read(null, null, 0);
+        if (size < channel.size()) {
+            channel.truncate(size);
+            channel.force(true);
+        }
+        synced = sequence;
+    }
+
+    /**
+     * Applies the records in the log to the database and schedule.
+     * Records with a sequence number at or below the given one are already
+     * held by the snapshot the database and schedule were restored from,
+     * and are skipped. Must be called before appending to the log, so that
+     * new records are numbered after those held by the snapshot.
+     * @param database the database of members to apply the records to.
+     * @param schedule the schedule of fitness classes to apply them to.
+     * @param after the sequence number held by the snapshot.
+     * @return the number of records applied.
+     * @throws IOException if the log cannot be read.
+     */
+    public int replay(MemberDatabase database, ClassSchedule schedule,
+                      long after) throws IOException {
+        lock.lock();
+        try {
+            long last = sequence;
+            int applied = read(database, schedule, after);
+            sequence = Math.max(last, after);
+            synced = sequence;
+            return applied;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Reads the records in the log from the start.
+     * Checks the length and checksum of each record, and stops at the first
+     * record that is incomplete or corrupt. Keeps track of the last sequence
+     * number read and the length of the log up to the end of the last valid
+     * record, where the next record is written. Applies each record after
+     * the given sequence number if there is a database to apply it to.
+     * @param database the database to apply records to, or null.
+     * @param schedule the schedule to apply records to.
+     * @param after the sequence number of the last record not to apply.
+     * @return the number of records applied.
+     * @throws IOException if the log cannot be read.
+     */
+    private int read(MemberDatabase database, ClassSchedule schedule,
+                     long after) throws IOException {
+        channel.position(0);
+        InputStream stream = new BufferedInputStream(
+                Channels.newInputStream(channel), BUFFER_SIZE);
+        DataInputStream in = new DataInputStream(stream);
+        CRC32 crc = new CRC32();
+        long valid = 0;
+        int applied = 0;
+        while (true) {
+            byte[] record;
+            try {
+                int length = in.readInt();
+                int checksum = in.readInt();
+                if (length <= 0 || length > MAX_RECORD_LENGTH)
+                    break;
+                record = new byte[length];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum)
+                    break;
+            } catch (EOFException e) {
+                break; // the last record was cut short
+            }
+            DataInputStream recordIn =
+                    new DataInputStream(new ByteArrayInputStream(record));
+            sequence = recordIn.readLong();
+            if (database != null && sequence > after) {
+                apply(recordIn, database, schedule);
+                applied++;
+            }
+            valid += HEADER_LENGTH + record.length;
+        }
+        size = valid;
+        channel.position(valid);
+        return applied;
+    }
+
+    /**
+     * Applies a record to the database and schedule.
+     * Check-ins were checked when they were made, so they are applied
+     * directly. Records for a class or member that cannot be found are
+     * skipped.
+     * @param in the input holding the type and contents of the record.
+     * @param database the database of members to apply the record to.
+     * @param schedule the schedule of fitness classes to apply it to.
+     * @throws IOException if the record is not valid.
+     */
+    private static void apply(DataInputStream in, MemberDatabase database,
+                              ClassSchedule schedule) throws IOException {
+        int typeIndex = in.readByte();
+        if (typeIndex < 0 || typeIndex >= TYPES.length)
+            throw new IOException("Invalid change in log.");
+        Type type = TYPES[typeIndex];
+        if (type == Type.ADD) {
+            database.add(Member.readFrom(in));
+            return;
+        }
+        if (type == Type.REMOVE) {
+            database.remove(readMember(in));
+            return;
+        }
+        String instructor = in.readUTF();
+        String className = in.readUTF();
+        FitnessClass fitnessClass = schedule.findFitnessClass(className,
+                instructor, in.readUTF());
+        Member member = database.findMember(readMember(in));
+        if (fitnessClass == null || member == null)
+            return;
+        switch (type) {
+            case CHECK_IN:
+                fitnessClass.addParticipant(member);
+                break;
+            case CHECK_IN_GUEST:
+                if (member instanceof Family)
+                    fitnessClass.checkInGuest((Family) member);
+                break;
+            case DONE:
+                fitnessClass.removeMember(member);
+                break;
+            case DONE_GUEST:
+                if (member instanceof Family)
+                    fitnessClass.removeGuest((Family) member);
+                break;
+        }
+    }
+
+    /**
+     * Reads the name and DOB of a member from a record.
+     * @param in the input holding the record.
+     * @return a member with the name and DOB, used to find the member.
+     * @throws IOException if the record cannot be read.
+     */
+    private static Member readMember(DataInputStream in) throws IOException {
+        String fname = in.readUTF();
+        String lname = in.readUTF();
+        return new Member(fname, lname, Date.readFrom(in), null, null);
+    }
+
+    /**
+     * Appends a member being added to or removed from the database.
+     * Returns once the record is synced to disk.
+     * @param type ADD or REMOVE.
+     * @param member the member that was added or removed.
+     * @throws IOException if the record cannot be written.
+     */
+    public void append(Type type, Member member) throws IOException {
+        append(type, null, member);
+    }
+
+    /**
+     * Appends a change to the log and waits until it is synced to disk.
+     * @param type the type of change.
+     * @param fitnessClass the class the change applies to, null if none.
+     * @param member the member the change applies to.
+     * @throws IOException if the record cannot be written.
+     */
+    public void append(Type type, FitnessClass fitnessClass, Member member)
+            throws IOException {
+        commit(appendDeferred(type, fitnessClass, member));
+    }
+
+    /**
+     * Appends a change to the log without waiting for it to be synced. The
+     * change is synced along with the next change appended with append, or
+     * by sync, checkpoint, or close, so a batch of changes can share a sync.
+     * Members that are added are written in full, while other changes only
+     * write the name and DOB of the member, and the name, instructor, and
+     * location of the class.
+     * @param type the type of change.
+     * @param fitnessClass the class the change applies to, null if none.
+     * @param member the member the change applies to.
+     * @return the sequence number of the record appended.
+     * @throws IOException if the record cannot be written.
+     */
+    public long appendDeferred(Type type, FitnessClass fitnessClass,
+                               Member member) throws IOException {
+        ByteArrayOutputStream contents = new ByteArrayOutputStream(RECORD_SIZE);
+        DataOutputStream out = new DataOutputStream(contents);
+        out.writeByte(type.ordinal());
+        if (type == Type.ADD) {
+            member.writeTo(out);
+        } else {
+            if (fitnessClass != null) {
+                out.writeUTF(fitnessClass.getInstructorName());
+                out.writeUTF(fitnessClass.getClassName());
+                out.writeUTF(fitnessClass.getLocation());
+            }
+            out.writeUTF(member.getFirstName());
+            out.writeUTF(member.getLastName());
+            member.getDOB().writeTo(out);
+        }
+        lock.lock();
+        try {
+            if (failure != null)
+                throw failure;
+            long recordSequence = ++sequence;
+            writeRecord(recordSequence, contents.toByteArray());
+            return recordSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until every record appended so far is synced to disk.
+     * @throws IOException if the records cannot be written or synced.
+     */
+    public void sync() throws IOException {
+        commit(getSequence());
+    }
+
+    /**
+     * Frames a record and adds it to the records waiting to be written.
+     * @param recordSequence the sequence number of the record.
+     * @param contents the type and contents of the record.
+     * @throws IOException if the record cannot be framed.
+     */
+    private void writeRecord(long recordSequence, byte[] contents)
+            throws IOException {
+        ByteBuffer record = ByteBuffer.allocate(Long.BYTES + contents.length);
+        record.putLong(recordSequence).put(contents);
+        CRC32 crc = new CRC32();
+        crc.update(record.array());
+        DataOutputStream out = new DataOutputStream(pending);
+        out.writeInt(record.capacity());
+        out.writeInt((int) crc.getValue());
+        out.write(record.array());
+    }
+
+    /**
+     * Waits until the record with the given sequence number is synced.
+     * If no other thread is syncing, this thread writes every record waiting
+     * to be written and syncs them at once. Otherwise, it waits for the
+     * thread that is syncing, and then checks again.
+     * @param recordSequence the sequence number of the record.
+     * @throws IOException if the records cannot be written or synced.
+     */
+    private void commit(long recordSequence) throws IOException {
+        lock.lock();
+        try {
+            while (synced < recordSequence) {
+                if (failure != null)
+                    throw failure;
+                if (syncing) {
+                    committed.awaitUninterruptibly();
+                    continue;
+                }
+                flush();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Writes and syncs every record waiting to be written.
+     * The lock is released while writing, so other threads can add records
+     * for the next batch. If writing fails, the log stops accepting records.
+     * Must be called holding the lock while no other thread is syncing.
+     * @throws IOException if the records cannot be written or synced.
+     */
+    private void flush() throws IOException {
+        syncing = true;
+        ByteBuffer batch = ByteBuffer.wrap(pending.toByteArray());
+        pending.reset();
+        long batchSequence = sequence;
+        lock.unlock();
+        IOException error = null;
+        try {
+            while (batch.hasRemaining())
+                channel.write(batch);
+            channel.force(false);
+        } catch (IOException e) {
+            error = e;
+        } finally {
+            lock.lock();
+            syncing = false;
+            committed.signalAll();
+        }
+        if (error != null) {
+            failure = error;
+            throw error;
+        }
+        size += batch.capacity();
+        synced = batchSequence;
+    }
+
+    /**
+     * Saves a snapshot of the database and schedule and empties the log.
+     * Every record appended so far is synced first, and the snapshot holds
+     * the sequence number of the last one, so if a crash happens before the
+     * log is emptied, replaying the log skips the records again.
+     * @param snapshotFile the name of the snapshot file.
+     * @param database the database of members to save.
+     * @param schedule the schedule of fitness classes to save.
+     * @throws IOException if the snapshot or log cannot be written.
+     */
+    public void checkpoint(String snapshotFile, MemberDatabase database,
+                           ClassSchedule schedule) throws IOException {
+        lock.lock();
+        try {
+            while (syncing)
+                committed.awaitUninterruptibly();
+            if (failure != null)
+                throw failure;
+            if (synced < sequence)
+                flush();
+            Snapshot.save(snapshotFile, database, schedule, sequence);
+            channel.truncate(0);
+            channel.position(0);
+            channel.force(true);
+            size = 0;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the length of the records written to the log since it was last
+     * emptied.
+     * @return the length of the log in bytes.
+     */
+    public long size() {
+        lock.lock();
+        try {
+            return size;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Gets the sequence number of the last record appended to the log.
+     * @return the sequence number as a long.
+     */
+    public long getSequence() {
+        lock.lock();
+        try {
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Closes the log once every record appended has been synced.
+     * @throws IOException if the records cannot be synced or the log closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            while (syncing)
+                committed.awaitUninterruptibly();
+            if (failure == null && synced < sequence)
+                flush();
+        } finally {
+            lock.unlock();
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,102 @@
+package com.example.gymmembershipgui;
+
+import javafx.geometry.Side;
+import javafx.scene.control.ContextMenu;
+import javafx.scene.control.DatePicker;
+import javafx.scene.control.MenuItem;
+import javafx.scene.control.TextField;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+
+/**
+ * NameSuggestions completes a member's name as it is typed into a last name
+ * field. Each time the last name changes, the members whose last names start
+ * with what has been typed are looked up in the database and listed under
+ * the field. Picking one fills in their last name, first name, and date of
+ * birth, so the member can be found without typing the rest. Members are
+ * looked up on the JavaFX application thread, the same thread that changes
+ * the database, since the lookup only takes a seek through the sorted names.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class NameSuggestions {
+    private final MemberDatabase database;
+    private final TextField lastName;
+    private final TextField firstName;
+    private final DatePicker dob;
+    private final ContextMenu menu;
+    private boolean completing;
+
+    private static final int MAX_SUGGESTIONS = 10;
+
+    /**
+     * Creates an instance of NameSuggestions for a last name field, and
+     * starts suggesting members as the last name is typed.
+     * @param database the database the members are looked up in.
+     * @param lastName the field the last name is typed into.
+     * @param firstName the field the first name is filled into.
+     * @param dob the picker the date of birth is filled into.
+     */
+    public NameSuggestions(MemberDatabase database, TextField lastName,
+                           TextField firstName, DatePicker dob) {
+        this.database = database;
+        this.lastName = lastName;
+        this.firstName = firstName;
+        this.dob = dob;
+        menu = new ContextMenu();
+        lastName.textProperty().addListener(
+                (observable, previous, typed) -> suggest(typed));
+        lastName.focusedProperty().addListener(
+                (observable, was, focused) -> {
+                    if (!focused)
+                        menu.hide();
+                });
+    }
+
+    /**
+     * Lists the members whose last names start with what has been typed
+     * under the last name field, or hides the list if there are none.
+     * Nothing is suggested while a picked member is being filled in.
+     * @param typed the text in the last name field.
+     */
+    private void suggest(String typed) {
+        if (completing || !lastName.isFocused() || typed.isEmpty()) {
+            menu.hide();
+            return;
+        }
+        Member[] members = database.suggest(typed, MAX_SUGGESTIONS);
+        if (members.length == 0) {
+            menu.hide();
+            return;
+        }
+        ArrayList<MenuItem> items = new ArrayList<>();
+        for (Member member : members) {
+            MenuItem item = new MenuItem(member.getLastName() + ", " +
+                    member.getFirstName() + " (" + member.getDOB() + ")");
+            item.setOnAction(event -> complete(member));
+            items.add(item);
+        }
+        menu.getItems().setAll(items);
+        if (!menu.isShowing())
+            menu.show(lastName, Side.BOTTOM, 0, 0);
+    }
+
+    /**
+     * Fills in the name and date of birth of the member picked.
+     * @param member the member picked from the list.
+     */
+    private void complete(Member member) {
+        completing = true;
+        try {
+            lastName.setText(member.getLastName());
+            lastName.positionCaret(member.getLastName().length());
+            firstName.setText(member.getFirstName());
+            Date born = member.getDOB();
+            dob.setValue(LocalDate.of(born.getYear(), born.getMonth(),
+                    born.getDay()));
+        } finally {
+            completing = false;
+        }
+        menu.hide();
+    }
+}
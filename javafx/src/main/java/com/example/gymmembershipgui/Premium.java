@@ -38,6 +38,20 @@ public class Premium extends Family{
         guestPasses = 3;
     }
 
+    /**
+     * Creates an instance of Premium restored from a snapshot.
+     * @param fname the first name of member with a Premium membership.
+     * @param lname the last name of member with a Premium membership.
+     * @param dob the DOB of member with a Premium membership.
+     * @param expire the expiration date of the membership.
+     * @param location the location that the member exercises at.
+     * @param guestPasses the number of guest passes remaining.
+     */
+    public Premium(String fname, String lname, Date dob, Date expire,
+                   Location location, int guestPasses) {
+        super(fname, lname, dob, expire, location, guestPasses);
+    }
+
     /**
      * Calculates the membership fee.
      * If the membership has expired, fee is the quarterly cost of membership.
@@ -56,28 +70,16 @@ public class Premium extends Family{
      */
     @Override
     public Date setExpire(){
-        Date today = new Date();
-        int newMonth = today.getMonth();
-        int newYear = today.getYear() + 1;
-        int newDay = today.getDay();
+        return Date.today().plusYears(1);
+    }
 
-        Date expiration = new Date(newMonth + "/" + newDay + "/" + newYear);
-        // it is february and date is invalid
-        if (newMonth == 2 && !expiration.isValid()) {
-            boolean isleapyear = expiration.isLeapYear();
-            newMonth++;
-            if (!isleapyear) {  //if it is not a leap year
-                newDay = newDay % 28;
-            } else {
-                newDay = newDay % 29;
-            }
-            return new Date(newMonth + "/" + newDay + "/" + newYear);
-        } else if (!expiration.isValid()) {
-            newMonth++;
-            newDay = 1;
-            return new Date(newMonth + "/" + newDay + "/" + newYear);
-        }
-        return new Date(newMonth + "/" + newDay + "/" + newYear);
+    /**
+     * Gets the membership plan of the member, as stored in a snapshot.
+     * @return the plan as an integer.
+     */
+    @Override
+    protected int getPlan() {
+        return PREMIUM_PLAN;
     }
 
     /**
@@ -0,0 +1,49 @@
+package com.example.gymmembershipgui;
+
+import javafx.scene.control.TextArea;
+
+import java.io.Writer;
+
+/**
+ * TextAreaWriter is a Writer that appends everything written to a TextArea.
+ * It is meant to be wrapped in a BufferedWriter, so that a long report is
+ * appended to the TextArea in a few large blocks rather than one line at a
+ * time, and never has to be held in memory as a single String.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class TextAreaWriter extends Writer {
+    private final TextArea textArea;
+
+    /**
+     * Creates an instance of TextAreaWriter for the given TextArea.
+     * @param textArea the TextArea that text is appended to.
+     */
+    public TextAreaWriter(TextArea textArea) {
+        this.textArea = textArea;
+    }
+
+    /**
+     * Appends a portion of an array of characters to the TextArea.
+     * @param cbuf the array of characters.
+     * @param off the index of the first character to append.
+     * @param len the number of characters to append.
+     */
+    @Override
+    public void write(char[] cbuf, int off, int len) {
+        textArea.appendText(new String(cbuf, off, len));
+    }
+
+    /**
+     * Does nothing, since text is appended to the TextArea as it is written.
+     */
+    @Override
+    public void flush() {
+    }
+
+    /**
+     * Does nothing, since the TextArea stays open after writing a report.
+     */
+    @Override
+    public void close() {
+    }
+}
@@ -1,7 +1,15 @@
 package com.example.gymmembershipgui;
 
+import java.io.DataInput;
+import java.io.DataOutput;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.UncheckedIOException;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashMap;
 import java.util.Scanner;
 
 /**
@@ -9,16 +17,25 @@ import java.util.Scanner;
  * For each ClassSchedule, a class can be added to the schedule, can find
  * a FitnessClass given the object or the name of the class, and check if
  * a time conflict exists between a member and a class they are already
- * checked into if they have another class they want to join.
+ * checked into if they have another class they want to join. For each time
+ * of day, the schedule keeps track of the class each member is checked in
+ * to, so a time conflict is found without searching the classes. Classes
+ * are also indexed by their name, instructor, and location, so a class is
+ * found without searching the schedule either.
  * @author Mahfuza Rahman, Arunima Tripathy
  */
 
 public class ClassSchedule {
     private FitnessClass[] classes;
     private int numClasses;
+    private EnumMap<Time, HashMap<Member, FitnessClass>> enrollment;
+    private HashMap<String, Integer> classIds;
+    private HashMap<String, Integer> instructorIds;
+    private FitnessClass[][][] index;
 
     private final static int INITIAL_LENGTH = 4;
     private final static int INITIAL_SIZE = 0;
+    private static final Location[] LOCATIONS = Location.values();
 
     /**
      * Creates instance of ClassSchedule with list of classes and array size.
@@ -29,6 +46,30 @@ public class ClassSchedule {
     public ClassSchedule(){
         classes = new FitnessClass[INITIAL_LENGTH];
         numClasses = INITIAL_SIZE;
+        enrollment = newEnrollment();
+        clearIndex();
+    }
+
+    /**
+     * Empties the index of classes by name, instructor, and location.
+     */
+    private void clearIndex() {
+        classIds = new HashMap<>();
+        instructorIds = new HashMap<>();
+        index = new FitnessClass[0][][];
+    }
+
+    /**
+     * Creates an empty index of the class each member attends at each time.
+     * @return a map from each time to the classes members attend then.
+     */
+    private static EnumMap<Time, HashMap<Member, FitnessClass>>
+            newEnrollment() {
+        EnumMap<Time, HashMap<Member, FitnessClass>> enrollment =
+                new EnumMap<>(Time.class);
+        for (Time time : Time.values())
+            enrollment.put(time, new HashMap<>());
+        return enrollment;
     }
 
     /**
@@ -36,7 +77,8 @@ public class ClassSchedule {
      * Creates a new fitness class with the class name, instructor, time, and
      * location. If the classes array is filled to capacity, the array is
      * grown. Then, if the created fitness class is already in the schedule,
-     * it is not added. Otherwise, the class is added to the schedule.
+     * it is not added, nor is a class held at a time or location that does
+     * not exist. Otherwise, the class is added to the schedule.
      * @param className the name of the fitness class being added.
      * @param instructor the name of the instructor.
      * @param time the time the class takes place.
@@ -49,9 +91,10 @@ public class ClassSchedule {
                 instructor, time, location);
         if (numClasses == classes.length)
             growSchedule();
-        if(findFitnessClass(fitnessClass) != null)
+        if(!addToIndex(fitnessClass))
             return false;
         classes[numClasses++] = fitnessClass;
+        fitnessClass.setSchedule(this);
         return true;
     }
 
@@ -73,33 +116,120 @@ public class ClassSchedule {
 
     /**
      * Given a fitness class, the corresponding class from schedule is found.
-     * Iterates through the classes array. If any scheduled fitness classes
-     * are equal to the inputted fitness class, it is found. Otherwise, it is
-     * not found.
+     * Looks up the class with the same name, instructor, and location in
+     * the index of classes.
      * @param fitnessClass the fitness class that is to be located.
      * @return FitnessClass class if found, null otherwise.
      */
     public FitnessClass findFitnessClass(FitnessClass fitnessClass){
-        for (int i = 0; i < numClasses; i++) {
-            if (classes[i].equals(fitnessClass))
-                return classes[i];
+        Location location = fitnessClass.getClassLocation();
+        if(location == null)
+            return null;
+        return findFitnessClass(findId(classIds, fitnessClass.getClassName()),
+                findId(instructorIds, fitnessClass.getInstructorName()),
+                location);
+    }
+
+    /**
+     * Finds a class on the schedule by its name, instructor, and location.
+     * The names are matched ignoring case, as the GUI's choice boxes and
+     * the command line give them, by putting them in upper case once here,
+     * without creating a FitnessClass to search for.
+     * @param className the name of the class.
+     * @param instructor the name of the instructor.
+     * @param location the name of the location.
+     * @return FitnessClass class if found, null otherwise.
+     */
+    public FitnessClass findFitnessClass(String className, String instructor,
+                                         String location) {
+        Location gym = Location.getLocation(location);
+        if(gym == null)
+            return null;
+        return findFitnessClass(findId(classIds, className.toUpperCase()),
+                findId(instructorIds, instructor.toUpperCase()), gym);
+    }
+
+    /**
+     * Finds a class in the index by the ids of its name and instructor.
+     * @param classId the id of the class name, -1 if it has none.
+     * @param instructorId the id of the instructor, -1 if it has none.
+     * @param location the location of the class.
+     * @return FitnessClass class if found, null otherwise.
+     */
+    private FitnessClass findFitnessClass(int classId, int instructorId,
+                                          Location location) {
+        if(classId < 0 || instructorId < 0)
+            return null;
+        FitnessClass[][] byInstructor = index[classId];
+        if(instructorId >= byInstructor.length ||
+                byInstructor[instructorId] == null)
+            return null;
+        return byInstructor[instructorId][location.ordinal()];
+    }
+
+    /**
+     * Finds the id given to a class or instructor name.
+     * Names are given ids in upper case, as FitnessClass stores them, so
+     * the name must already be in upper case. The ids only change when a
+     * class is added, never when one is looked up.
+     * @param ids the ids of the class or instructor names.
+     * @param name the name to find, in upper case.
+     * @return the id of the name, -1 if the name has no id.
+     */
+    private static int findId(HashMap<String, Integer> ids, String name) {
+        Integer id = ids.get(name);
+        return id == null ? -1 : id;
+    }
+
+    /**
+     * Adds a class to the index of classes.
+     * The class name and instructor are given ids when they are first seen.
+     * @param fitnessClass the class to add.
+     * @return true if the class was added, false if a class with the same
+     * name, instructor, and location is already indexed, or the class has
+     * no valid time or location.
+     */
+    private boolean addToIndex(FitnessClass fitnessClass) {
+        Location location = fitnessClass.getClassLocation();
+        if(location == null || fitnessClass.getTimeSlot() == null)
+            return false;
+        int classId = findId(classIds, fitnessClass.getClassName());
+        if(classId < 0) {
+            classId = index.length;
+            classIds.put(fitnessClass.getClassName(), classId);
+            index = Arrays.copyOf(index, classId + 1);
+            index[classId] = new FitnessClass[0][];
+        }
+        int instructorId = findId(instructorIds,
+                fitnessClass.getInstructorName());
+        if(instructorId < 0) {
+            instructorId = instructorIds.size();
+            instructorIds.put(fitnessClass.getInstructorName(),
+                    instructorId);
         }
-        return null;
+        FitnessClass[][] byInstructor = index[classId];
+        if(instructorId >= byInstructor.length) {
+            byInstructor = Arrays.copyOf(byInstructor, instructorId + 1);
+            index[classId] = byInstructor;
+        }
+        if(byInstructor[instructorId] == null)
+            byInstructor[instructorId] =
+                    new FitnessClass[LOCATIONS.length];
+        if(byInstructor[instructorId][location.ordinal()] != null)
+            return false;
+        byInstructor[instructorId][location.ordinal()] = fitnessClass;
+        return true;
     }
 
     /**
      * Checks if a class exists on the fitness class schedule.
-     * Iterates through the classes array. Checks if any of the scheduled
-     * fitness classes match the given fitness class.
+     * A class name has an id once a class with that name is on the
+     * schedule.
      * @param className the name of the FitnessClass to be found.
      * @return true if class is found, false otherwise.
      */
     public boolean findFitnessClass(String className){
-        for (int i = 0; i < numClasses; i++) {
-            if (classes[i].getClassName().equalsIgnoreCase(className))
-                return true;
-        }
-        return false;
+        return findId(classIds, className.toUpperCase()) >= 0;
     }
 
     /**
@@ -111,17 +241,20 @@ public class ClassSchedule {
      * @param location the location of the fitness class.
      * @param instructor the instructor of the fitness class.
      * @param addMember the member to be checked into the fitness class.
+     * @param out the stream the result is displayed on.
      * @return true if the member is checked in, false otherwise.
      */
     public boolean checkInMember(String fClass, String location,
-                                 String instructor, Member addMember){
-        return checkFitnessClass(fClass, location, instructor, addMember);
+                                 String instructor, Member addMember,
+                                 PrintStream out){
+        return checkFitnessClass(fClass, location, instructor, addMember,
+                out);
     }
 
     /**
      * Checks if a class with the inputted parameters exists.
-     * Creates a FitnessClass object using the fClass, location, instructor.
-     * Using this object, searches schedule for the equivalent FitnessClass.
+     * Looks up the FitnessClass with the fClass, location, and instructor on
+     * the schedule.
      * If a class is not found, that means no class with the given combination
      * of name, teacher, and location exist. Also checks if the member is
      * already present in the class they want to attend. Once the class is
@@ -131,26 +264,27 @@ public class ClassSchedule {
      * @param location the location of the class as a String.
      * @param instructor the instructor of the class as a String.
      * @param addMember the member to be added to a class as a Member object.
+     * @param out the stream the result is displayed on.
      */
     private boolean checkFitnessClass(String fClass, String location,
-                                   String instructor, Member addMember) {
-        FitnessClass findClass = new FitnessClass(fClass, instructor,
-                "", location);
-        FitnessClass foundClass = findFitnessClass(findClass);
+                                   String instructor, Member addMember,
+                                   PrintStream out) {
+        FitnessClass foundClass = findFitnessClass(fClass, instructor,
+                location);
 
         if(foundClass == null) {
-            System.out.println(fClass + " by " + instructor + " does not " +
+            out.println(fClass + " by " + instructor + " does not " +
                     "exist at " + location);
             return false;
         }
 
         Member inClassAlready = foundClass.findMember(addMember);
         if(inClassAlready != null) {
-            System.out.println(addMember.getFirstName() + " " +
+            out.println(addMember.getFirstName() + " " +
                     addMember.getLastName() + " already checked in.");
             return false;
         }
-        return checkTimeConflict(foundClass, addMember);
+        return checkTimeConflict(foundClass, addMember, out);
     }
 
     /**
@@ -160,22 +294,28 @@ public class ClassSchedule {
      * the class.
      * @param course the FitnessClass a member wants to attend.
      * @param member the member that wants to be added to a class.
+     * @param out the stream the result is displayed on.
      */
-    private boolean checkTimeConflict(FitnessClass course, Member member) {
-        String timeOfCourse = course.getTime();
-        FitnessClass isConflict = findTimeConflict(timeOfCourse,
+    private boolean checkTimeConflict(FitnessClass course, Member member,
+                                      PrintStream out) {
+        FitnessClass isConflict = findTimeConflict(course.getTimeSlot(),
                 member);
         if(isConflict != null) {
-            System.out.println("Time conflict - " + course.getClassName() +
+            out.println("Time conflict - " + course.getClassName() +
                     " - " + course.getInstructorName() + ", " +
                     course.getTime() + ", " +
                     Location.getLocation(course.getLocation()));
             return false;
         }
         course.checkInMember(member);
-        System.out.print(member.getFirstName() + " " + member.getLastName() +
+        out.print(member.getFirstName() + " " + member.getLastName() +
                 " checked in ");
-        System.out.println(course + "\n");
+        try {
+            course.print(out);
+        } catch (IOException e) {
+            out.println("Unable to display the class roster.");
+        }
+        out.println("\n");
         return true;
     }
 
@@ -185,42 +325,118 @@ public class ClassSchedule {
      * @param guest the member who must have a Family or Premium membership
      *              and whose guest must be checked into a fitness class
      * @param fitClass the class the guest wants to check into.
+     * @param out the stream the class is displayed on.
      * @return true when the guest is checked in.
      */
-    public boolean checkInGuest(Family guest, FitnessClass fitClass){
+    public boolean checkInGuest(Family guest, FitnessClass fitClass,
+                                PrintStream out){
         FitnessClass fitnessClass = findFitnessClass(fitClass);
         fitnessClass.checkInGuest(guest);
-        System.out.println(guest.getFirstName() + " " +
+        out.println(guest.getFirstName() + " " +
                 guest.getLastName() + " (guest) checked in " +
                 fitnessClass.getClassName() + " - " +
                 fitnessClass.getInstructorName() + ", " +
                 fitnessClass.getTime() + ", " + fitnessClass.getLocation());
-        System.out.println(fitnessClass.getClassParticipantsAndGuests());
+        try {
+            fitnessClass.printClassParticipantsAndGuests(out);
+        } catch (IOException e) {
+            out.println("Unable to display the class roster.");
+        }
+        out.println();
         return true;
     }
 
 
     /**
      * Searches for a possible conflicting fitness class.
-     * Iterates through classes array. If a fitness class is at the same time
-     * as the time given and the member is in the class, there is a time
-     * conflict.
+     * Looks up the class the member is checked in to at the given time. If
+     * there is one, there is a time conflict.
      * @param time the time of the class as a String object.
      * @param member the member to find a conflict for.
      * @return FitnessClass if time conflict exists, null otherwise.
      */
     public FitnessClass findTimeConflict(String time, Member member) {
-        for(FitnessClass fc : classes) {
-            if(fc != null && fc.getTime().equalsIgnoreCase(time)) {
-                Member memberInClass = fc.findMember(member);
-                if(memberInClass != null) {
-                    return fc;
-                }
-            }
-        }
-        return null;
+        Time slot = Time.getTimeEnum(time);
+        if(slot == null)
+            return null;
+        return findTimeConflict(slot, member);
+    }
+
+    /**
+     * Finds the class a member is checked in to at the given time.
+     * @param time the time of the class.
+     * @param member the member to find a conflict for.
+     * @return FitnessClass if time conflict exists, null otherwise.
+     */
+    private FitnessClass findTimeConflict(Time time, Member member) {
+        return enrollment.get(time).get(member);
+    }
+
+    /**
+     * Records that a member checked in to a class on the schedule.
+     * @param fitnessClass the class the member checked in to.
+     * @param member the member that checked in.
+     */
+    void enroll(FitnessClass fitnessClass, Member member) {
+        enrollment.get(fitnessClass.getTimeSlot()).put(member, fitnessClass);
+    }
+
+    /**
+     * Records that a member checked out of a class on the schedule.
+     * @param fitnessClass the class the member checked out of.
+     * @param member the member that checked out.
+     */
+    void drop(FitnessClass fitnessClass, Member member) {
+        enrollment.get(fitnessClass.getTimeSlot()).remove(member,
+                fitnessClass);
+    }
+
+    /**
+     * Renders a member's lines again on the roster of every class.
+     * @param member the member whose details changed.
+     */
+    void refresh(Member member) {
+        for(int i = 0; i < numClasses; i++)
+            classes[i].refresh(member);
     }
 
+    /**
+     * Writes the fitness classes on the schedule to a snapshot.
+     * Each class is written with its participants and guests.
+     * @param out the output the fitness classes are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void save(DataOutput out) throws IOException {
+        out.writeInt(numClasses);
+        for (int i = 0; i < numClasses; i++)
+            classes[i].writeTo(out);
+    }
+
+    /**
+     * Replaces the fitness classes on the schedule with those in a snapshot.
+     * The schedule is only replaced once every class has been read.
+     * @param in the input the fitness classes are read from.
+     * @param database the database of members the classes belong to.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    public void load(DataInput in, MemberDatabase database)
+            throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of classes in snapshot.");
+        FitnessClass[] restored =
+                new FitnessClass[Math.max(count, INITIAL_LENGTH)];
+        for (int i = 0; i < count; i++)
+            restored[i] = FitnessClass.readFrom(in, database);
+        classes = restored;
+        numClasses = count;
+        clearIndex();
+        for (int i = 0; i < count; i++)
+            addToIndex(restored[i]);
+        enrollment = newEnrollment();
+        for (int i = 0; i < count; i++)
+            restored[i].setSchedule(this);
+    }
 
     /**
      * Gets the number of FitnessClass objects in the classes array.
@@ -230,17 +446,43 @@ public class ClassSchedule {
         return numClasses;
     }
 
+    /**
+     * Gets a fitness class on the schedule by its position.
+     * Classes are in the order they were added to the schedule.
+     * @param index the position of the class, from 0 to getSize() - 1.
+     * @return the fitness class.
+     */
+    public FitnessClass getFitnessClass(int index) {
+        if(index < 0 || index >= numClasses)
+            throw new IndexOutOfBoundsException(index);
+        return classes[index];
+    }
+
+    /**
+     * Writes all fitness classes on the schedule to the given output.
+     * Each fitness class is written with its details, followed by a new line.
+     * @param out the output the fitness classes are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void print(Appendable out) throws IOException {
+        for(int i = 0; i < numClasses; i++) {
+            classes[i].print(out);
+            out.append('\n');
+        }
+    }
+
     /**
      * Creates a String that contains all fitness classes on the schedule.
      * @return String containing fitness classes and their details.
      */
     @Override
     public String toString() {
-        String schedule = "";
-        for(FitnessClass fc : classes) {
-            if(fc != null)
-                schedule += fc + "\n";
+        StringBuilder schedule = new StringBuilder();
+        try {
+            print(schedule);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringBuilder
         }
-        return schedule;
+        return schedule.toString();
     }
 }
@@ -0,0 +1,303 @@
+package com.example.gymmembershipgui;
+
+import java.util.Arrays;
+
+/**
+ * CommandParser parses a command line for the Gym Manager in place, without
+ * splitting it into Strings. The line is split into tokens at each space,
+ * as String.split(" ") would split it, but only where each token starts and
+ * ends is kept. The opcode is found from the first two characters of the
+ * line in a table indexed by the characters themselves, and the arguments
+ * are decoded straight from the line into the Location and Instructors
+ * constants, packed dates, and numbers they stand for. Parsing a line and
+ * decoding its arguments creates no objects, so one parser is reused for
+ * every command. Only token creates a String, for messages that repeat what
+ * was typed and for names that are not shared yet.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class CommandParser {
+    private String line;
+    private final int[] starts;
+    private final int[] ends;
+    private int tokens;
+    private Opcode opcode;
+
+    /**
+     * The value date returns for a token that is not in mm/dd/yyyy format.
+     * Dates that are parsed have a year of zero or more, so are never
+     * negative when packed.
+     */
+    public static final int NOT_A_DATE = -1;
+
+    /**
+     * The value number returns for a token that is not a whole number of
+     * zero or more.
+     */
+    public static final int NOT_A_NUMBER = -1;
+
+    private static final int MAX_TOKENS = 8;
+    private static final int END_OF_LINE = 128;
+    private static final int ROW_LENGTH = END_OF_LINE + 1;
+    private static final Opcode[] OPCODES = new Opcode[END_OF_LINE *
+            ROW_LENGTH];
+    private static final int MONTH_PART = 0;
+    private static final int YEAR_PART = 2;
+    private static final int DECIMAL = 10;
+    private static final int MAX_VALUE = Integer.MAX_VALUE / DECIMAL - 1;
+    private static final Location[] LOCATIONS = Location.values();
+    private static final Instructors[] INSTRUCTORS = Instructors.values();
+
+    static {
+        Arrays.fill(OPCODES, Opcode.INVALID);
+        for (Opcode opcode : Opcode.values())
+            if (opcode != Opcode.INVALID)
+                OPCODES[slot(opcode.code)] = opcode;
+    }
+
+    /**
+     * Opcode defines the commands the Gym Manager handles, with the
+     * characters each command starts with and the number of tokens it needs.
+     */
+    public enum Opcode {
+        ADD("A ", 5),
+        ADD_FAMILY("AF", 5),
+        ADD_PREMIUM("AP", 5),
+        REMOVE("R ", 4),
+        PRINT("P", 1),
+        PRINT_BY_COUNTY("PC", 1),
+        PRINT_BY_NAME("PN", 1),
+        PRINT_BY_EXPIRATION_DATE("PD", 1),
+        PRINT_BY_MEMBERSHIP_FEE("PF", 1),
+        PRINT_EXPIRING("PE", 1),
+        PRINT_EXPIRED_LAST_MONTH("PL", 1),
+        SCHEDULE("S", 1),
+        CHECK_IN("C ", 7),
+        CHECK_IN_GUEST("CG", 7),
+        DONE("D ", 7),
+        DONE_GUEST("DG", 7),
+        QUIT("Q", 1),
+        LOAD_SCHEDULE("LS", 1),
+        LOAD_MEMBERS("LM", 1),
+        INVALID("", 0);
+
+        private final String code;
+        private final int tokens;
+
+        /**
+         * Creates an instance of Opcode with its code and number of tokens.
+         * @param code the characters the command starts with, the whole
+         *             line if there is only one.
+         * @param tokens the number of tokens the command needs, including
+         *               the opcode itself.
+         */
+        Opcode(String code, int tokens) {
+            this.code = code;
+            this.tokens = tokens;
+        }
+    }
+
+    /**
+     * Creates an instance of CommandParser with room for the tokens of the
+     * longest command.
+     */
+    public CommandParser() {
+        starts = new int[MAX_TOKENS];
+        ends = new int[MAX_TOKENS];
+        line = "";
+        opcode = Opcode.INVALID;
+    }
+
+    /**
+     * Parses a command line, finding its tokens and opcode.
+     * Tokens are separated by single spaces, so two spaces in a row make an
+     * empty token, while spaces at the end of the line are dropped. A line
+     * with fewer tokens than its command needs is invalid.
+     * @param line the command line to parse.
+     * @return the opcode of the command, INVALID if it is not a command.
+     */
+    public Opcode parse(String line) {
+        this.line = line;
+        int count = 0;
+        int nonEmpty = 0;
+        int start = 0;
+        for (int i = 0; i <= line.length(); i++) {
+            if (i < line.length() && line.charAt(i) != ' ')
+                continue;
+            if (count < MAX_TOKENS) {
+                starts[count] = start;
+                ends[count] = i;
+            }
+            count++;
+            if (i > start)
+                nonEmpty = count;
+            start = i + 1;
+        }
+        tokens = Math.min(nonEmpty, MAX_TOKENS);
+        opcode = OPCODES[slot(line)];
+        if (tokens < opcode.tokens)
+            opcode = Opcode.INVALID;
+        return opcode;
+    }
+
+    /**
+     * Finds where the opcode for the start of a line is kept in the table.
+     * A one-character line has its own slot after every character, and a
+     * line starting with a character outside ASCII is never a command.
+     * @param text the line or code.
+     * @return the slot of the opcode in the table.
+     */
+    private static int slot(String text) {
+        if (text.isEmpty())
+            return 0;
+        int first = text.charAt(0);
+        if (text.length() == 1)
+            return first < END_OF_LINE ? first * ROW_LENGTH + END_OF_LINE : 0;
+        int second = text.charAt(1);
+        if (first >= END_OF_LINE || second >= END_OF_LINE)
+            return 0;
+        return first * ROW_LENGTH + second;
+    }
+
+    /**
+     * Gets the opcode of the last line parsed.
+     * @return the opcode, INVALID if the line is not a command.
+     */
+    public Opcode getOpcode() {
+        return opcode;
+    }
+
+    /**
+     * Gets the number of tokens in the last line parsed, counting at most
+     * as many as the longest command has.
+     * @return the number of tokens, including the opcode.
+     */
+    public int getTokens() {
+        return tokens;
+    }
+
+    /**
+     * Gets the last line parsed.
+     * @return the line as it was typed.
+     */
+    public String getLine() {
+        return line;
+    }
+
+    /**
+     * Gets a token as a String.
+     * @param token the position of the token, 0 for the opcode.
+     * @return the token as it was typed.
+     */
+    public String token(int token) {
+        return line.substring(starts[token], ends[token]);
+    }
+
+    /**
+     * Gets a name from a token, shared through a dictionary if the name is
+     * already in it. A String is only created for a name that is not.
+     * @param token the position of the token.
+     * @param names the dictionary names are shared through.
+     * @return the name.
+     */
+    public String name(int token, NameDictionary names) {
+        String name = names.find(line, starts[token], ends[token]);
+        return name != null ? name : token(token);
+    }
+
+    /**
+     * Decodes a date in mm/dd/yyyy format from a token.
+     * Parts too large for a date are kept too large, so they make the date
+     * invalid, as they would when a Date is created from a String.
+     * @param token the position of the token.
+     * @return the packed date, NOT_A_DATE if the token is not a date.
+     */
+    public int date(int token) {
+        int month = 0;
+        int day = 0;
+        int value = 0;
+        int part = MONTH_PART;
+        boolean digits = false;
+        for (int i = starts[token]; i < ends[token]; i++) {
+            char c = line.charAt(i);
+            if (c == '/') {
+                if (!digits || part == YEAR_PART)
+                    return NOT_A_DATE;
+                if (part == MONTH_PART)
+                    month = value;
+                else
+                    day = value;
+                part++;
+                value = 0;
+                digits = false;
+            } else if (c >= '0' && c <= '9') {
+                value = Math.min(value, MAX_VALUE) * DECIMAL + (c - '0');
+                digits = true;
+            } else {
+                return NOT_A_DATE;
+            }
+        }
+        if (part != YEAR_PART || !digits)
+            return NOT_A_DATE;
+        return Date.pack(month, day, value);
+    }
+
+    /**
+     * Decodes a whole number of zero or more from a token.
+     * @param token the position of the token.
+     * @return the number, NOT_A_NUMBER if the token is not one or is too
+     * large for an int.
+     */
+    public int number(int token) {
+        int i = starts[token];
+        if (i < ends[token] && line.charAt(i) == '+')
+            i++;
+        if (i == ends[token])
+            return NOT_A_NUMBER;
+        int value = 0;
+        for (; i < ends[token]; i++) {
+            char c = line.charAt(i);
+            if (c < '0' || c > '9')
+                return NOT_A_NUMBER;
+            if (value > (Integer.MAX_VALUE - (c - '0')) / DECIMAL)
+                return NOT_A_NUMBER;
+            value = value * DECIMAL + (c - '0');
+        }
+        return value;
+    }
+
+    /**
+     * Decodes the Location named by a token, ignoring case.
+     * @param token the position of the token.
+     * @return the matching Location, null if none match.
+     */
+    public Location location(int token) {
+        for (Location location : LOCATIONS)
+            if (matches(token, location.name()))
+                return location;
+        return null;
+    }
+
+    /**
+     * Decodes the instructor named by a token, ignoring case.
+     * @param token the position of the token.
+     * @return the matching instructor, null if none match.
+     */
+    public Instructors instructor(int token) {
+        for (Instructors instructor : INSTRUCTORS)
+            if (matches(token, instructor.name()))
+                return instructor;
+        return null;
+    }
+
+    /**
+     * Checks if a token is the given name, ignoring case.
+     * @param token the position of the token.
+     * @param name the name to compare the token with.
+     * @return true if the token is the name, false otherwise.
+     */
+    private boolean matches(int token, String name) {
+        int length = ends[token] - starts[token];
+        return length == name.length() && line.regionMatches(true,
+                starts[token], name, 0, length);
+    }
+}
@@ -0,0 +1,288 @@
+package com.example.gymmembershipgui;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.util.concurrent.ArrayBlockingQueue;
+
+/**
+ * CommandPipeline runs a batch of commands through a Gym Manager in three
+ * stages connected by bounded queues. A reader thread reads and parses the
+ * lines, the thread that runs the pipeline handles the commands, and a
+ * writer thread writes out what the commands printed. Reading and writing
+ * overlap with handling, while the commands are still handled one at a
+ * time in the order they were read, so they change the database and
+ * schedule, and print, exactly as they would one after another. Commands
+ * are checked as they are handled rather than in a stage of their own,
+ * since whether a command is valid can depend on the commands before it,
+ * such as a schedule being loaded before a check-in. The stages pass a
+ * fixed set of chunks of parsed lines and of output buffers around, so
+ * nothing is created per command and the threads only hand work to each
+ * other once per chunk or buffer. The pipeline only runs when asked for,
+ * since on a single processor its stages take turns rather than overlap,
+ * and handing work between them makes it slower than a plain batch.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class CommandPipeline {
+    private final GymManager manager;
+    private final BufferedReader reader;
+    private final PrintStream output;
+    private final ArrayBlockingQueue<Chunk> freeChunks;
+    private final ArrayBlockingQueue<Chunk> parsed;
+    private final ArrayBlockingQueue<Buffer> freeBuffers;
+    private final ArrayBlockingQueue<Buffer> printed;
+    private volatile IOException readFailure;
+
+    private static final int CHUNKS = 4;
+    private static final int CHUNK_SIZE = 256;
+    private static final int BUFFERS = 4;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int MAX_BUFFER_SIZE = 1 << 20;
+    private static final Chunk END_OF_COMMANDS = new Chunk();
+    private static final Buffer END_OF_OUTPUT = new Buffer();
+
+    /**
+     * Creates an instance of CommandPipeline for a batch of commands.
+     * @param manager the Gym Manager that handles the commands.
+     * @param reader the commands, one per line.
+     * @param output the stream the output of the commands is written to.
+     */
+    public CommandPipeline(GymManager manager, BufferedReader reader,
+                           PrintStream output) {
+        this.manager = manager;
+        this.reader = reader;
+        this.output = output;
+        freeChunks = new ArrayBlockingQueue<>(CHUNKS);
+        parsed = new ArrayBlockingQueue<>(CHUNKS + 1);
+        freeBuffers = new ArrayBlockingQueue<>(BUFFERS);
+        printed = new ArrayBlockingQueue<>(BUFFERS + 1);
+        for (int i = 0; i < CHUNKS; i++)
+            freeChunks.add(new Chunk());
+        for (int i = 0; i < BUFFERS; i++)
+            freeBuffers.add(new Buffer());
+    }
+
+    /**
+     * Runs the commands through the pipeline until Q or the end of the
+     * commands, and waits for their output to be written. Changes are saved
+     * to the mutation log every so many commands, as in a batch, and the
+     * output is flushed once it has been written up to each save. While the
+     * commands are handled, what they print goes to an output buffer that
+     * is passed to the writer each time it fills up.
+     * @return the number of commands handled.
+     * @throws IOException if the commands cannot be read.
+     */
+    public long run() throws IOException {
+        Thread readerThread = new Thread(this::read, "command-reader");
+        Thread writerThread = new Thread(this::write, "command-writer");
+        readerThread.setDaemon(true);
+        BufferStream buffers = new BufferStream();
+        PrintStream out = new PrintStream(buffers, false);
+        readerThread.start();
+        writerThread.start();
+        long count = 0;
+        try {
+            for (Chunk chunk = take(parsed, END_OF_COMMANDS);
+                    chunk != END_OF_COMMANDS;
+                    chunk = take(parsed, END_OF_COMMANDS)) {
+                for (int i = 0; i < chunk.size; i++) {
+                    CommandParser command = chunk.commands[i];
+                    manager.handle(command, out);
+                    if (command.getLine().length() > 0
+                            && ++count % GymManager.BATCH_SYNC == 0) {
+                        manager.saveChanges(out);
+                        out.flush();
+                        buffers.pass(true);
+                    }
+                }
+                chunk.size = 0;
+                put(freeChunks, chunk);
+            }
+        } finally {
+            out.flush();
+            readerThread.interrupt();
+            buffers.pass(false);
+            put(printed, END_OF_OUTPUT);
+            join(writerThread);
+        }
+        if (readFailure != null)
+            throw readFailure;
+        return count;
+    }
+
+    /**
+     * Reads and parses lines into a free chunk and passes it on to be
+     * handled once it is full, until Q or the end of the commands, and then
+     * marks the end. Stops early if the pipeline is interrupted.
+     */
+    private void read() {
+        try {
+            Chunk chunk = freeChunks.take();
+            String line;
+            while ((line = reader.readLine()) != null) {
+                chunk.commands[chunk.size++].parse(line);
+                if (line.equals("Q"))
+                    break;
+                if (chunk.size == CHUNK_SIZE) {
+                    parsed.put(chunk);
+                    chunk = freeChunks.take();
+                }
+            }
+            if (chunk.size > 0)
+                parsed.put(chunk);
+        } catch (IOException e) {
+            readFailure = e;
+        } catch (InterruptedException e) {
+            return;
+        }
+        put(parsed, END_OF_COMMANDS);
+    }
+
+    /**
+     * Writes out each output buffer in the order it was filled, and frees
+     * it, until the end of the output.
+     */
+    private void write() {
+        for (Buffer buffer = take(printed, END_OF_OUTPUT);
+                buffer != END_OF_OUTPUT;
+                buffer = take(printed, END_OF_OUTPUT)) {
+            buffer.writeTo(output);
+            if (buffer.flush)
+                output.flush();
+            buffer.clear();
+            put(freeBuffers, buffer);
+        }
+    }
+
+    /**
+     * Takes the next item from a queue, waiting for one if it is empty.
+     * @param queue the queue to take from.
+     * @param end the item that marks the end of the queue.
+     * @param <T> the type of the items in the queue.
+     * @return the item, end if the thread is interrupted.
+     */
+    private static <T> T take(ArrayBlockingQueue<T> queue, T end) {
+        try {
+            return queue.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return end;
+        }
+    }
+
+    /**
+     * Puts an item on a queue, waiting for room if it is full.
+     * @param queue the queue to put on.
+     * @param item the item to put.
+     * @param <T> the type of the items in the queue.
+     */
+    private static <T> void put(ArrayBlockingQueue<T> queue, T item) {
+        try {
+            queue.put(item);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Waits for a stage's thread to finish.
+     * @param thread the thread to wait for.
+     */
+    private static void join(Thread thread) {
+        try {
+            thread.join();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Chunk holds the parsed lines of a run of commands as they pass from
+     * the reader to be handled.
+     */
+    private static final class Chunk {
+        private final CommandParser[] commands =
+                new CommandParser[CHUNK_SIZE];
+        private int size;
+
+        /**
+         * Creates an empty instance of Chunk with a parser for each command.
+         */
+        private Chunk() {
+            for (int i = 0; i < CHUNK_SIZE; i++)
+                commands[i] = new CommandParser();
+        }
+    }
+
+    /**
+     * Buffer holds part of what the commands printed as it passes to the
+     * writer, and writes it out without copying it first.
+     */
+    private static final class Buffer extends ByteArrayOutputStream {
+        private boolean flush;
+
+        /**
+         * Creates an empty instance of Buffer.
+         */
+        private Buffer() {
+            super(BUFFER_SIZE);
+        }
+
+        /**
+         * Writes the contents of the buffer to a stream.
+         * @param out the stream to write to.
+         */
+        private void writeTo(PrintStream out) {
+            out.write(buf, 0, count);
+        }
+
+        /**
+         * Empties the buffer so it can be filled again. A buffer that grew
+         * large for one long report is shrunk back rather than kept.
+         */
+        private void clear() {
+            if (buf.length > MAX_BUFFER_SIZE)
+                buf = new byte[BUFFER_SIZE];
+            reset();
+            flush = false;
+        }
+    }
+
+    /**
+     * BufferStream fills the current output buffer with what the commands
+     * print, and passes it on to the writer once it is full.
+     */
+    private final class BufferStream extends OutputStream {
+        private Buffer target = take(freeBuffers, END_OF_OUTPUT);
+
+        @Override
+        public void write(int b) {
+            target.write(b);
+            if (target.size() >= BUFFER_SIZE)
+                pass(false);
+        }
+
+        @Override
+        public void write(byte[] bytes, int from, int length) {
+            target.write(bytes, from, length);
+            if (target.size() >= BUFFER_SIZE)
+                pass(false);
+        }
+
+        /**
+         * Passes the current buffer on to the writer and starts filling a
+         * free one.
+         * @param flush true if the output should be flushed once the buffer
+         *              has been written, false otherwise.
+         */
+        private void pass(boolean flush) {
+            if (target.size() == 0 && !flush)
+                return;
+            target.flush = flush;
+            put(printed, target);
+            target = take(freeBuffers, END_OF_OUTPUT);
+        }
+    }
+}
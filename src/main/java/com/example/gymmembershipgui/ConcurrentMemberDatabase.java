@@ -0,0 +1,599 @@
+package com.example.gymmembershipgui;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * ConcurrentMemberDatabase is a MemberDatabase that several front desks and
+ * kiosks can use at once. The members are split into stripes by the hash of
+ * their name and DOB, and each stripe has its own lock, so adding, removing,
+ * and finding members only locks the one stripe the member belongs to, and
+ * desks working with different members rarely wait for each other.
+ * Reports run against a snapshot of the database at one moment. Every add
+ * and remove is stamped with a time from a shared clock, and each stripe
+ * keeps the members added to it in an array that is only ever appended to,
+ * with members that were removed marked rather than taken out. Taking a
+ * snapshot only reads the clock and how far each stripe's array was filled,
+ * so desks never wait for a report while it copies the members out, however
+ * long it is. The members in the snapshot are put in a MemberDatabase, so
+ * reports print exactly as a MemberDatabase would. The members are also
+ * kept in order of expiration date in a concurrent skip list, changed under
+ * each stripe's lock along with the stripe, so the members expiring in a
+ * range are found without a snapshot and without waiting for any desk. Each
+ * stripe also keeps its members in order of name, so the members whose last
+ * names start with what has been typed are found by seeking to them in
+ * each stripe in turn.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class ConcurrentMemberDatabase extends MemberDatabase {
+    private final Stripe[] stripes;
+    private final int stripeShift;
+    private final AtomicLong clock;
+    private final StampedLock epoch;
+    private final LongAdder size;
+    private volatile ConcurrentSkipListSet<Entry> byExpiration;
+    private final static int DEFAULT_STRIPES = 64;
+    private final static int HASH_SPREAD = 0x9E3779B9;
+    private final static int INITIAL_LENGTH = 4;
+    private final static int GROWTH_FACTOR = 2;
+    private final static float LOAD_FACTOR = 0.75f;
+    private final static long NOT_REMOVED = Long.MAX_VALUE;
+    private final static Comparator<Entry> ADD_ORDER =
+            Comparator.comparingLong(entry -> entry.added);
+    private final static Comparator<Member> DOB_ORDER =
+            Comparator.comparing(Member::getDOB);
+    private final static Comparator<Entry> EXPIRATION_ORDER =
+            Comparator.<Entry>comparingInt(entry -> entry.expire)
+                    .thenComparing(ADD_ORDER);
+
+    /**
+     * A member in the database, when they were added, and when they were
+     * removed if they have been.
+     */
+    private static class Entry {
+        private final Member member;
+        private final int expire;
+        private final long added;
+        private volatile long removed;
+
+        /**
+         * Creates an entry for a member added to the database.
+         * @param member the member that was added.
+         * @param added the time on the clock the member was added at.
+         */
+        private Entry(Member member, long added) {
+            this.member = member;
+            this.expire = member.getExpire().toPacked();
+            this.added = added;
+            this.removed = NOT_REMOVED;
+        }
+
+        /**
+         * Creates an entry with no member that comes before every member
+         * expiring on or after a date, for finding them.
+         * @param expire the packed expiration date.
+         */
+        private Entry(int expire) {
+            this.member = null;
+            this.expire = expire;
+            this.added = Long.MIN_VALUE;
+            this.removed = NOT_REMOVED;
+        }
+
+        /**
+         * Checks if the member was in the database at a given time.
+         * @param time the time on the clock.
+         * @return true if the member was added before the time and not
+         * removed until after it, false otherwise.
+         */
+        private boolean presentAt(long time) {
+            return added < time && removed >= time;
+        }
+    }
+
+    /**
+     * A part of the database holding the members whose hashes fall in it.
+     * The members are found through a hash map guarded by the stripe's lock.
+     * The history holds the members added to the stripe in order, including
+     * removed members until the history is compacted. Only the slots past
+     * used are ever written, and compacting copies the history to a new
+     * array, so the slots a snapshot has read never change. The history is
+     * only changed while holding the epoch for reading. The members are also
+     * kept in order by name, guarded by the stripe's lock: the names are
+     * kept in a tree, and the members sharing a name in a list in order of
+     * DOB.
+     */
+    private static class Stripe {
+        private final ReentrantReadWriteLock lock =
+                new ReentrantReadWriteLock();
+        private HashMap<Member, Entry> members = new HashMap<>();
+        private TreeMap<FullName, ArrayList<Member>> byName =
+                new TreeMap<>(FullName.ORDER);
+        private Entry[] history = new Entry[INITIAL_LENGTH];
+        private int used;
+        private int dead;
+
+        /**
+         * Appends a member that was added to the history.
+         * If the history is full, it is compacted if at least half of it is
+         * removed members, or grown otherwise.
+         * @param entry the member that was added.
+         */
+        private void append(Entry entry) {
+            if (used == history.length)
+                relocate(dead * GROWTH_FACTOR >= used ? used
+                        : used * GROWTH_FACTOR);
+            history[used++] = entry;
+        }
+
+        /**
+         * Marks a member in the history as removed.
+         * Once more than half of the history is removed members, it is
+         * compacted.
+         * @param entry the member that was removed.
+         * @param time the time on the clock the member was removed at.
+         */
+        private void remove(Entry entry, long time) {
+            entry.removed = time;
+            dead++;
+            if (dead > used - dead)
+                relocate(history.length);
+        }
+
+        /**
+         * Adds a member in their place among the members sharing their name.
+         * @param member the member that was added.
+         */
+        private void addByName(Member member) {
+            ArrayList<Member> same = byName.computeIfAbsent(
+                    new FullName(member.getLastName(), member.getFirstName()),
+                    name -> new ArrayList<>());
+            same.add(-Collections.binarySearch(same, member, DOB_ORDER) - 1,
+                    member);
+        }
+
+        /**
+         * Removes a member from the members sharing their name.
+         * A name left with no members is dropped.
+         * @param member the member that was removed.
+         */
+        private void removeByName(Member member) {
+            FullName name = new FullName(member.getLastName(),
+                    member.getFirstName());
+            ArrayList<Member> same = byName.get(name);
+            same.remove(Collections.binarySearch(same, member, DOB_ORDER));
+            if (same.isEmpty())
+                byName.remove(name);
+        }
+
+        /**
+         * Adds the first members whose last names start with a prefix, in
+         * order by name, to a list.
+         * @param prefix the start of the last name.
+         * @param limit the most members to add.
+         * @param found the list the members are added to.
+         */
+        private void suggest(String prefix, int limit,
+                             ArrayList<Member> found) {
+            int count = 0;
+            for (Map.Entry<FullName, ArrayList<Member>> same :
+                    byName.tailMap(FullName.first(prefix)).entrySet()) {
+                if (count == limit || !same.getKey().hasPrefix(prefix))
+                    break;
+                ArrayList<Member> members = same.getValue();
+                int take = Math.min(members.size(), limit - count);
+                found.addAll(members.subList(0, take));
+                count += take;
+            }
+        }
+
+        /**
+         * Copies the members still in the stripe to a new history.
+         * @param length the length of the new history.
+         */
+        private void relocate(int length) {
+            Entry[] relocated = new Entry[Math.max(length, INITIAL_LENGTH)];
+            int next = 0;
+            for (int i = 0; i < used; i++)
+                if (history[i].removed == NOT_REMOVED)
+                    relocated[next++] = history[i];
+            history = relocated;
+            used = next;
+            dead = 0;
+        }
+    }
+
+    /**
+     * Creates an instance of ConcurrentMemberDatabase with the default
+     * number of stripes.
+     */
+    public ConcurrentMemberDatabase() {
+        this(DEFAULT_STRIPES);
+    }
+
+    /**
+     * Creates an instance of ConcurrentMemberDatabase with at least the given
+     * number of stripes. The number is rounded up to a power of two, and
+     * there are always at least two.
+     * @param concurrency the number of desks expected to use the database at
+     *                    once; more stripes mean fewer desks waiting.
+     */
+    public ConcurrentMemberDatabase(int concurrency) {
+        int count = 2;
+        while (count < concurrency)
+            count <<= 1;
+        stripes = new Stripe[count];
+        for (int i = 0; i < count; i++)
+            stripes[i] = new Stripe();
+        stripeShift = Integer.SIZE - Integer.numberOfTrailingZeros(count);
+        clock = new AtomicLong();
+        epoch = new StampedLock();
+        size = new LongAdder();
+        byExpiration = new ConcurrentSkipListSet<>(EXPIRATION_ORDER);
+    }
+
+    /**
+     * Finds the stripe a member belongs to.
+     * The stripe is picked from the top bits of the spread hash, since each
+     * stripe's hash map places members by the bottom bits.
+     * @param member the member to find the stripe of.
+     * @return the stripe holding the member if they are in the database.
+     */
+    private Stripe stripeOf(Member member) {
+        return stripes[(member.hashCode() * HASH_SPREAD) >>> stripeShift];
+    }
+
+    /**
+     * Makes room in the database for at least the given number of members.
+     * Each stripe is sized for its share of the members.
+     * @param capacity the number of members the database should hold.
+     */
+    @Override
+    public void ensureCapacity(int capacity) {
+        int perStripe = capacity / stripes.length + 1;
+        long stamp = epoch.readLock();
+        try {
+            for (Stripe stripe : stripes) {
+                stripe.lock.writeLock().lock();
+                try {
+                    HashMap<Member, Entry> presized =
+                            new HashMap<>((int) (perStripe / LOAD_FACTOR) + 1);
+                    presized.putAll(stripe.members);
+                    stripe.members = presized;
+                    if (perStripe > stripe.history.length)
+                        stripe.relocate(perStripe);
+                } finally {
+                    stripe.lock.writeLock().unlock();
+                }
+            }
+        } finally {
+            epoch.unlockRead(stamp);
+        }
+    }
+
+    /**
+     * Adds a member to the database.
+     * Only the stripe the member belongs to is locked, along with the epoch
+     * for reading, which only waits while a snapshot is being taken.
+     * @param member the member that is being added to the database.
+     * @return true if member is added, false if member in database already.
+     */
+    @Override
+    public boolean add(Member member) {
+        Stripe stripe = stripeOf(member);
+        long stamp = epoch.readLock();
+        try {
+            stripe.lock.writeLock().lock();
+            try {
+                if (stripe.members.containsKey(member))
+                    return false;
+                Entry entry = new Entry(member, clock.getAndIncrement());
+                stripe.members.put(member, entry);
+                stripe.append(entry);
+                byExpiration.add(entry);
+                stripe.addByName(member);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        } finally {
+            epoch.unlockRead(stamp);
+        }
+        size.increment();
+        return true;
+    }
+
+    /**
+     * Removes a member from the database.
+     * Only the stripe the member belongs to is locked, along with the epoch
+     * for reading, which only waits while a snapshot is being taken.
+     * @param member the member that must be removed.
+     * @return true if member removed, false if the member is not in database.
+     */
+    @Override
+    public boolean remove(Member member) {
+        Stripe stripe = stripeOf(member);
+        long stamp = epoch.readLock();
+        try {
+            stripe.lock.writeLock().lock();
+            try {
+                Entry entry = stripe.members.remove(member);
+                if (entry == null)
+                    return false;
+                stripe.remove(entry, clock.getAndIncrement());
+                byExpiration.remove(entry);
+                stripe.removeByName(entry.member);
+            } finally {
+                stripe.lock.writeLock().unlock();
+            }
+        } finally {
+            epoch.unlockRead(stamp);
+        }
+        size.decrement();
+        return true;
+    }
+
+    /**
+     * Finds a member in database given a member.
+     * Only the stripe the member belongs to is locked, and only for reading,
+     * so desks looking up members never wait for each other.
+     * @param member the member that is being searched for.
+     * @return the matching member in the database if found, null otherwise.
+     */
+    @Override
+    public Member findMember(Member member) {
+        Stripe stripe = stripeOf(member);
+        stripe.lock.readLock().lock();
+        try {
+            Entry entry = stripe.members.get(member);
+            return entry == null ? null : entry.member;
+        } finally {
+            stripe.lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Gets the number of members in the database.
+     * Members being added or removed at the same time may not be counted.
+     * @return the size as an integer.
+     */
+    @Override
+    public int getSize() {
+        return size.intValue();
+    }
+
+    /**
+     * Takes a snapshot of the members in the database.
+     * The epoch is held only while the clock and each stripe's history are
+     * read, once adds and removes already under way have finished. The
+     * members present at that time are then picked out of the histories and
+     * put in the order they were added, with no lock held. Each history is
+     * already in that order, so sorting only merges them.
+     * @return a MemberDatabase holding the members at one moment, which
+     * builds its sorted views only if a report needs them.
+     */
+    public MemberDatabase snapshot() {
+        Entry[][] histories = new Entry[stripes.length][];
+        int[] used = new int[stripes.length];
+        long time;
+        long stamp = epoch.writeLock();
+        try {
+            time = clock.get();
+            for (int i = 0; i < stripes.length; i++) {
+                histories[i] = stripes[i].history;
+                used[i] = stripes[i].used;
+            }
+        } finally {
+            epoch.unlockWrite(stamp);
+        }
+        int count = 0;
+        for (int i = 0; i < stripes.length; i++)
+            for (int j = 0; j < used[i]; j++)
+                if (histories[i][j].presentAt(time))
+                    count++;
+        Entry[] entries = new Entry[count];
+        int next = 0;
+        for (int i = 0; i < stripes.length; i++)
+            for (int j = 0; j < used[i]; j++)
+                if (histories[i][j].presentAt(time))
+                    entries[next++] = histories[i][j];
+        Arrays.sort(entries, ADD_ORDER);
+        MemberDatabase snapshot = new MemberDatabase();
+        snapshot.ensureCapacity(count);
+        snapshot.dropSortedViews();
+        for (Entry entry : entries)
+            snapshot.add(entry.member);
+        return snapshot;
+    }
+
+    /**
+     * Writes the list of members in database to the given output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void print(Appendable out) throws IOException {
+        snapshot().print(out);
+    }
+
+    /**
+     * Writes the list of members ordered by county and zipcode to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByCounty(Appendable out) throws IOException {
+        snapshot().printByCounty(out);
+    }
+
+    /**
+     * Finds the members whose memberships expire on or after one date and
+     * before another, in order of expiration date.
+     * Only the dates in the range are visited in the expiration date skip
+     * list, so finding k members takes O(log n + k) time, and desks are not
+     * held up while they are found. Members added or removed meanwhile may
+     * or may not be found. Members expiring on the same date are in the
+     * order they were added.
+     * @param from the first expiration date to include.
+     * @param to the expiration date to stop before.
+     * @return the members found, empty if from is not before to.
+     */
+    @Override
+    public Member[] expiringBetween(Date from, Date to) {
+        if (from.compareTo(to) >= 0)
+            return new Member[0];
+        ArrayList<Member> found = new ArrayList<>();
+        for (Entry entry : byExpiration.subSet(new Entry(from.toPacked()),
+                new Entry(to.toPacked())))
+            found.add(entry.member);
+        return found.toArray(new Member[0]);
+    }
+
+    /**
+     * Suggests the members whose last names start with what has been typed,
+     * ordered by last and first name and DOB, for completing a name.
+     * The first members with the prefix are found in each stripe by
+     * seeking to the first of its names with the prefix, while only that
+     * stripe is locked for reading, and the first of them all are kept, in
+     * O(s (log n + limit)) time for s stripes. Members added or removed
+     * meanwhile may or may not be suggested.
+     * @param prefix the start of the last name, as typed.
+     * @param limit the most members to suggest.
+     * @return the members suggested, empty if the prefix is empty.
+     */
+    @Override
+    public Member[] suggest(String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0)
+            return new Member[0];
+        ArrayList<Member> matches = new ArrayList<>();
+        for (Stripe stripe : stripes) {
+            stripe.lock.readLock().lock();
+            try {
+                stripe.suggest(prefix, limit, matches);
+            } finally {
+                stripe.lock.readLock().unlock();
+            }
+        }
+        return firstByName(matches, limit);
+    }
+
+    /**
+     * Writes the list of members ordered by expiration date to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByExpirationDate(Appendable out) throws IOException {
+        snapshot().printByExpirationDate(out);
+    }
+
+    /**
+     * Writes the list of members ordered by last and first name to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByName(Appendable out) throws IOException {
+        snapshot().printByName(out);
+    }
+
+    /**
+     * Writes the list of members with their membership fees to the output.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printByMembershipFee(Appendable out) throws IOException {
+        snapshot().printByMembershipFee(out);
+    }
+
+    /**
+     * Lists the members in the database in the order a report lists them in.
+     * The members are listed from a snapshot, so desks are not held up
+     * while they are.
+     * @param order the order to list the members in.
+     * @return the members, in order.
+     */
+    @Override
+    public Iterable<Member> members(Order order) {
+        return snapshot().members(order);
+    }
+
+    /**
+     * Writes each member in the database to the output, one per line.
+     * Members are written in the order they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void printMembers(Appendable out) throws IOException {
+        snapshot().printMembers(out);
+    }
+
+    /**
+     * Writes the members in the database to a snapshot.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void save(DataOutput out) throws IOException {
+        snapshot().save(out);
+    }
+
+    /**
+     * Replaces the members in the database with those in a snapshot.
+     * The members are read into new stripes, which replace the current ones
+     * while the epoch and every stripe are locked, once every member has
+     * been read.
+     * @param in the input the members are read from.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    @Override
+    public void load(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of members in snapshot.");
+        ConcurrentMemberDatabase restored =
+                new ConcurrentMemberDatabase(stripes.length);
+        restored.clock.set(clock.get());
+        restored.ensureCapacity(count);
+        for (int i = 0; i < count; i++)
+            restored.add(Member.readFrom(in));
+        long stamp = epoch.writeLock();
+        try {
+            for (Stripe stripe : stripes)
+                stripe.lock.writeLock().lock();
+            try {
+                for (int i = 0; i < stripes.length; i++) {
+                    Stripe from = restored.stripes[i];
+                    stripes[i].members = from.members;
+                    stripes[i].byName = from.byName;
+                    stripes[i].history = from.history;
+                    stripes[i].used = from.used;
+                    stripes[i].dead = from.dead;
+                }
+                clock.set(Math.max(clock.get(), restored.clock.get()));
+                size.reset();
+                size.add(restored.getSize());
+                byExpiration = restored.byExpiration;
+            } finally {
+                for (int i = stripes.length - 1; i >= 0; i--)
+                    stripes[i].lock.writeLock().unlock();
+            }
+        } finally {
+            epoch.unlockWrite(stamp);
+        }
+    }
+}
@@ -1,5 +1,8 @@
 package com.example.gymmembershipgui;
 
+import java.io.DataOutput;
+import java.io.IOException;
+
 /**
  * Family is defined by a number of guest passes and all Member attributes.
  * A Family instance can retrieve the membership fee for a family membership,
@@ -23,6 +26,20 @@ public class Family extends Member {
         guestPasses = 1;
     }
 
+    /**
+     * Creates an instance of Family with name, birthday, and location, when
+     * the birthday and location have already been parsed.
+     * Defines Family membership by adding guest passes.
+     * @param fname the first name of member buying a Family membership.
+     * @param lname the last name of member buying a Family membership.
+     * @param dob the DOB of member buying a Family membership.
+     * @param location the location that the member will exercise at.
+     */
+    public Family(String fname, String lname, Date dob, Location location) {
+        super(fname, lname, dob, location);
+        guestPasses = 1;
+    }
+
     /**
      * Creates an instance of Family with name, DOB, expiration and location.
      * Defines Family membership by adding guest passes.
@@ -38,6 +55,21 @@ public class Family extends Member {
         guestPasses = 1;
     }
 
+    /**
+     * Creates an instance of Family restored from a snapshot.
+     * @param fname the first name of member with a Family membership.
+     * @param lname the last name of member with a Family membership.
+     * @param dob the DOB of member with a Family membership.
+     * @param expire the expiration date of the membership.
+     * @param location the location that the member exercises at.
+     * @param guestPasses the number of guest passes remaining.
+     */
+    public Family(String fname, String lname, Date dob, Date expire,
+                  Location location, int guestPasses) {
+        super(fname, lname, dob, expire, location);
+        this.guestPasses = guestPasses;
+    }
+
     /**
      * Calculates the membership fee.
      * If the membership has expired, fee is the quarterly cost of membership.
@@ -76,6 +108,26 @@ public class Family extends Member {
         return guestPasses;
     }
 
+    /**
+     * Gets the membership plan of the member, as stored in a snapshot.
+     * @return the plan as an integer.
+     */
+    @Override
+    protected int getPlan() {
+        return FAMILY_PLAN;
+    }
+
+    /**
+     * Writes the member to a snapshot, followed by the guest passes left.
+     * @param out the output the member is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    @Override
+    public void writeTo(DataOutput out) throws IOException {
+        super.writeTo(out);
+        out.writeShort(guestPasses);
+    }
+
     /**
      * Creates String with name, DOB, expiration, location, and guest passes.
      * Calls the superclass method for the first and last name, DOB,
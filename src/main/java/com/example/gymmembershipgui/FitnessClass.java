@@ -1,23 +1,32 @@
 package com.example.gymmembershipgui;
 
-import java.util.ArrayList;
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 
 /**
  * FitnessClass is defined by attendees, instructor, name, time, and location.
  * For each fitness class, members and guests can be checked-in through the
  * class's database. Members and guests can also be dropped from the class.
  * Additionally, if either member or guest needs to be found in the class,
- * they can be searched for through the participants and guests.
+ * they can be searched for through the participants and guests. The
+ * participants and guests are kept in rosters that find, add, and remove
+ * members without searching, and print in the order members checked in.
  * @author Mahfuza Rahman, Arunima Tripathy
  */
 
 public class FitnessClass {
-    private ArrayList<Member> participants;
-    private ArrayList<Family> guests;
+    private Roster<Member> participants;
+    private Roster<Family> guests;
     private String instructorName;
     private String className;
     private Time classTime;
     private Location location;
+    private ClassSchedule schedule;
+
+    private static final Time[] TIMES = Time.values();
+    private static final Location[] LOCATIONS = Location.values();
 
     /**
      * Creates an instance of FitnessClass.
@@ -43,14 +52,31 @@ public class FitnessClass {
      */
     public FitnessClass(String className, String instructorName,
                         String classTime, String location){
-        participants = new ArrayList<>();
-        guests = new ArrayList<>();
+        participants = new Roster<>();
+        guests = new Roster<>();
         this.instructorName = instructorName.toUpperCase();
         this.className = className.toUpperCase();
         this.classTime = Time.getTimeEnum(classTime);
         this.location = Location.getLocation(location);
     }
 
+    /**
+     * Creates an instance of FitnessClass restored from a snapshot.
+     * @param className the name of the class.
+     * @param instructorName the name of the instructor for this class.
+     * @param classTime the time the class takes place.
+     * @param location the location at which this class runs.
+     */
+    private FitnessClass(String className, String instructorName,
+                         Time classTime, Location location) {
+        participants = new Roster<>();
+        guests = new Roster<>();
+        this.instructorName = instructorName;
+        this.className = className;
+        this.classTime = classTime;
+        this.location = location;
+    }
+
     /**
      * Gets the instructor's name.
      * @return the name of the instructor as a String.
@@ -84,6 +110,35 @@ public class FitnessClass {
         return classTime.getTime();
     }
 
+    /**
+     * Gets the location of the class as a Location constant.
+     * @return the location, null if the class has no valid location.
+     */
+    Location getClassLocation() {
+        return location;
+    }
+
+    /**
+     * Gets the time slot the class takes place in.
+     * @return the time as a Time constant.
+     */
+    Time getTimeSlot() {
+        return classTime;
+    }
+
+    /**
+     * Places the class on a schedule.
+     * The schedule is told about every participant already in the class, and
+     * about each participant that checks in or out from then on, so it can
+     * keep track of the class each member attends at each time.
+     * @param schedule the schedule the class is on.
+     */
+    void setSchedule(ClassSchedule schedule) {
+        this.schedule = schedule;
+        for(Member participant : participants)
+            schedule.enroll(this, participant);
+    }
+
     /**
      * Checks in a member to the fitness class.
      * Adds a member to the list of participants.
@@ -102,7 +157,10 @@ public class FitnessClass {
             return false;
         if(member.membershipExpired())
             return false;
-        return participants.add(member);
+        participants.add(member);
+        if(schedule != null)
+            schedule.enroll(this, member);
+        return true;
     }
 
     /**
@@ -110,13 +168,15 @@ public class FitnessClass {
      * Uses the guest pass for the family membership passed as a parameter.
      * Then, adds the guest to the list of guests in the class.
      * @param guest the guest that is being added to the fitness class.
-     * @return true once the member is added to guests arrayList.
+     * @return true once the member is added to the guests.
      */
     public boolean checkInGuest(Family guest){
         if(guest.getNumberOfPasses() == 0)
             return false;
         guest.useGuestPass();
-        return guests.add(guest);
+        passesChanged(guest);
+        guests.add(guest);
+        return true;
     }
 
     /**
@@ -127,10 +187,20 @@ public class FitnessClass {
      * @return Member if member is found, null otherwise.
      */
     public Member findMember(Member member) {
-        int memberIndex = participants.indexOf(member);
-        if(memberIndex == -1)
-            return null;
-        return participants.get(memberIndex);
+        return participants.get(member);
+    }
+
+    /**
+     * Adds a member to the participants of the class without checking them.
+     * Used when replaying check-ins that were checked when they were made.
+     * @param member the member that was checked in.
+     */
+    void addParticipant(Member member) {
+        if(!participants.contains(member)) {
+            participants.add(member);
+            if(schedule != null)
+                schedule.enroll(this, member);
+        }
     }
 
     /**
@@ -140,9 +210,12 @@ public class FitnessClass {
      * @return true if member has been removed, false if member not found.
      */
     public boolean removeMember(Member member) {
-        if(!participants.contains(member))
+        Member removed = participants.remove(member);
+        if(removed == null)
             return false;
-        return participants.remove(member);
+        if(schedule != null)
+            schedule.drop(this, removed);
+        return true;
     }
 
     /**
@@ -152,10 +225,94 @@ public class FitnessClass {
      * @return true if guest is removed, false otherwise.
      */
     public boolean removeGuest(Family guest) {
-        if(!guests.contains(guest))
+        if(guests.remove(guest) == null)
             return false;
         guest.checkoutGuest();
-        return guests.remove(guest);
+        passesChanged(guest);
+        return true;
+    }
+
+    /**
+     * Renders a family member's lines again on the rosters showing them,
+     * after the number of guest passes they have left changed.
+     * @param family the family member whose guest passes changed.
+     */
+    private void passesChanged(Family family) {
+        if(schedule != null)
+            schedule.refresh(family);
+        else
+            refresh(family);
+    }
+
+    /**
+     * Renders a member's lines on the class roster again.
+     * @param member the member whose details changed.
+     */
+    void refresh(Member member) {
+        participants.refresh(member);
+        guests.refresh(member);
+    }
+
+    /**
+     * Writes the fitness class to a snapshot.
+     * Writes the class name, instructor, time, and location, followed by
+     * each participant and each guest.
+     * @param out the output the fitness class is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void writeTo(DataOutput out) throws IOException {
+        out.writeUTF(className);
+        out.writeUTF(instructorName);
+        out.writeByte(classTime.ordinal());
+        out.writeByte(location.ordinal());
+        out.writeInt(participants.size());
+        for(Member participant : participants)
+            participant.writeTo(out);
+        out.writeInt(guests.size());
+        for(Family guest : guests)
+            guest.writeTo(out);
+    }
+
+    /**
+     * Reads a fitness class written to a snapshot by writeTo().
+     * Participants and guests that are in the database are restored as the
+     * members in the database, so a guest pass used in the class is the
+     * same guest pass the member has in the database.
+     * @param in the input the fitness class is read from.
+     * @param database the database of members the class belongs to.
+     * @return the fitness class that was read.
+     * @throws IOException if the input cannot be read or holds an invalid
+     * time, location, or guest.
+     */
+    public static FitnessClass readFrom(DataInput in, MemberDatabase database)
+            throws IOException {
+        String className = in.readUTF();
+        String instructorName = in.readUTF();
+        int timeIndex = in.readByte();
+        int locationIndex = in.readByte();
+        if (timeIndex < 0 || timeIndex >= TIMES.length || locationIndex < 0
+                || locationIndex >= LOCATIONS.length)
+            throw new IOException("Invalid fitness class in snapshot.");
+        FitnessClass fitnessClass = new FitnessClass(className,
+                instructorName, TIMES[timeIndex], LOCATIONS[locationIndex]);
+        int numParticipants = in.readInt();
+        for (int i = 0; i < numParticipants; i++) {
+            Member participant = Member.readFrom(in);
+            Member found = database.findMember(participant);
+            fitnessClass.participants.add(found != null ? found :
+                    participant);
+        }
+        int numGuests = in.readInt();
+        for (int i = 0; i < numGuests; i++) {
+            Member guest = Member.readFrom(in);
+            if (!(guest instanceof Family))
+                throw new IOException("Invalid guest in snapshot.");
+            Member found = database.findMember(guest);
+            if (found instanceof Family)
+                guest = found;
+            fitnessClass.guests.add((Family) guest);
+        }
+        return fitnessClass;
     }
 
     /**
@@ -180,28 +337,77 @@ public class FitnessClass {
         return true;
     }
 
+    /**
+     * Gets the members checked in to the class, in the order they checked in.
+     * @return the participants.
+     */
+    public Iterable<Member> getParticipants() {
+        return participants;
+    }
+
+    /**
+     * Gets the guests checked in to the class, as the family members who
+     * brought them, in the order they checked in.
+     * @return the guests.
+     */
+    public Iterable<Family> getGuests() {
+        return guests;
+    }
+
     /**
      * Gets the participants and guests of a class.
-     * Iterates through the list of participants and adds the information of
-     * each individual to body. If body has a length greater than 1, it is
-     * given a header. Then iterates through the guests array if the size of
-     * the array is greater than 0.
+     * Writes the participants and guests of the class to a String.
      * @return String of participant and guest information.
      */
     public String getClassParticipantsAndGuests(){
-        String body = "";
-        String header = "";
-        for(int i = 0; i < participants.toArray().length; i++)
-            body += "\n\t" + participants.toArray()[i];
-        if(body.length() > 0){
-            header += "- Participants -";
-            body += "\n";
+        StringBuilder roster = new StringBuilder();
+        try {
+            printClassParticipantsAndGuests(roster);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringBuilder
+        }
+        return roster.toString();
+    }
+
+    /**
+     * Writes the participants and guests of a class to the given output.
+     * Writes a header followed by each participant if there are any, and
+     * then a header followed by each guest if there are any.
+     * @param out the output the participants and guests are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printClassParticipantsAndGuests(Appendable out)
+            throws IOException {
+        if(!participants.isEmpty()) {
+            out.append("- Participants -");
+            participants.print(out);
+            out.append('\n');
+        }
+        if(!guests.isEmpty()) {
+            out.append("- Guests -");
+            guests.print(out);
+        }
+        out.append('\n');
+    }
+
+    /**
+     * Writes the fitness class attributes to the given output.
+     * Includes class name, instructor name, class time, and members.
+     * @param out the output the fitness class is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void print(Appendable out) throws IOException {
+        out.append(className).append(" - ").append(instructorName)
+                .append(", ").append(classTime.getTime()).append(", ")
+                .append(getLocation());
+        if(!participants.isEmpty()) {
+            out.append("\n- Participants -");
+            participants.print(out);
+        }
+        if(!guests.isEmpty()) {
+            out.append("\n- Guests -");
+            guests.print(out);
         }
-        if(guests.size() > 0)
-            body += "- Guests -";
-        for(int i = 0; i < guests.toArray().length; i++)
-            body += "\n\t" + guests.toArray()[i];
-        return (header + body + "\n");
     }
 
     /**
@@ -211,17 +417,12 @@ public class FitnessClass {
      */
     @Override
     public String toString() {
-        String header = (className + " - " + instructorName + ", "
-                + classTime.getTime() + ", " + getLocation());
-        String body = "";
-        for(int i = 0; i < participants.toArray().length; i++)
-            body += "\n\t" + participants.toArray()[i];
-        if(body.length() > 0)
-            header += "\n- Participants -";
-        if(guests.size() > 0)
-            body += "\n- Guests -";
-        for(int i = 0; i < guests.toArray().length; i++)
-            body += "\n\t" + guests.toArray()[i];
-        return (header + body);
+        StringBuilder fitnessClass = new StringBuilder();
+        try {
+            print(fitnessClass);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringBuilder
+        }
+        return fitnessClass.toString();
     }
 }
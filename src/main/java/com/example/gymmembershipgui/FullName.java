@@ -0,0 +1,55 @@
+package com.example.gymmembershipgui;
+
+import java.util.Comparator;
+
+/**
+ * FullName is a member's last and first name, used as the key of the index
+ * that keeps the members of a store in order by name. Names are
+ * ordered by last name and then first name, ignoring case, as
+ * Member.compareTo() orders them, so members sharing both names only need
+ * to be put in order by DOB among themselves.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+class FullName {
+    private final String lname;
+    private final String fname;
+
+    /**
+     * Orders names by last name and then first name, ignoring case.
+     */
+    static final Comparator<FullName> ORDER = (name, other) -> {
+        int compareLname = name.lname.compareToIgnoreCase(other.lname);
+        if (compareLname != 0)
+            return compareLname;
+        return name.fname.compareToIgnoreCase(other.fname);
+    };
+
+    /**
+     * Creates an instance of FullName.
+     * @param lname the last name.
+     * @param fname the first name.
+     */
+    FullName(String lname, String fname) {
+        this.lname = lname;
+        this.fname = fname;
+    }
+
+    /**
+     * Creates the name that comes before every name whose last name starts
+     * with a prefix, for finding them.
+     * @param prefix the start of the last name.
+     * @return the first name that could have the prefix.
+     */
+    static FullName first(String prefix) {
+        return new FullName(prefix, "");
+    }
+
+    /**
+     * Checks if the last name starts with a prefix, ignoring case.
+     * @param prefix the prefix it should start with.
+     * @return true if the last name starts with the prefix, false otherwise.
+     */
+    boolean hasPrefix(String prefix) {
+        return MemberDatabase.hasPrefix(lname, prefix);
+    }
+}
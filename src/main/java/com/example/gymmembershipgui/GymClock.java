@@ -0,0 +1,70 @@
+package com.example.gymmembershipgui;
+
+import java.time.Clock;
+import java.time.LocalDate;
+
+/**
+ * GymClock tells the gym what today's date is. Today's date is worked out
+ * once and the same Date is handed out until midnight, when it is worked out
+ * again, so checking every member's expiration date or age does no calendar
+ * work. Every date-relative check reads today's date from the shared clock,
+ * which can be replaced with a clock set to another date or time zone.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class GymClock {
+    private static volatile GymClock shared = new GymClock();
+
+    private final Clock clock;
+    private volatile Date today;
+    private volatile long tomorrow;
+
+    /**
+     * Creates an instance of GymClock that reads the system clock in the
+     * default time zone.
+     */
+    public GymClock() {
+        this(Clock.systemDefaultZone());
+    }
+
+    /**
+     * Creates an instance of GymClock that reads the given clock.
+     * @param clock the clock to read the current time and time zone from.
+     */
+    public GymClock(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * Gets the clock shared by the gym.
+     * @return the shared clock.
+     */
+    public static GymClock getShared() {
+        return shared;
+    }
+
+    /**
+     * Replaces the clock shared by the gym.
+     * @param clock the clock every date-relative check reads from.
+     */
+    public static void setShared(GymClock clock) {
+        shared = clock;
+    }
+
+    /**
+     * Gets today's date.
+     * The same Date is returned until midnight in the clock's time zone.
+     * @return today's date.
+     */
+    public Date getToday() {
+        Date current = today;
+        if (current == null || clock.millis() >= tomorrow) {
+            LocalDate todayDate = LocalDate.now(clock);
+            current = new Date(todayDate.getMonthValue(),
+                    todayDate.getDayOfMonth(), todayDate.getYear());
+            today = current;
+            tomorrow = todayDate.plusDays(1).atStartOfDay(clock.getZone())
+                    .toInstant().toEpochMilli();
+        }
+        return current;
+    }
+}
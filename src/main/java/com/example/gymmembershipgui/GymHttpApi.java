@@ -0,0 +1,579 @@
+package com.example.gymmembershipgui;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpHandler;
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * GymHttpApi gives kiosks and apps access to the members and classes of a
+ * GymServer's Gym Manager over HTTP, with JSON responses.
+ * Parameters are passed in the query string, or in a form body.
+ * <pre>
+ * GET    /members?first=&amp;last=&amp;dob=       find a member
+ * GET    /members?order=added|name|county|expiration|fee
+ *                                               list the members in order
+ *                                               (fee is by name, as the fee
+ *                                               report lists them)
+ * POST   /members first, last, dob, location, plan=standard|family|premium
+ *                                               add a member
+ * DELETE /members?first=&amp;last=&amp;dob=       remove a member
+ * POST   /checkins class, instructor, location, first, last, dob, guest
+ *                                               check in a member or guest
+ * DELETE /checkins (the same)                   check a member or guest out
+ * GET    /schedule                              list the classes
+ * </pre>
+ * Changes are made by handing the same command a desk would type to the
+ * Gym Manager, so they are checked and saved exactly as a desk's are. The
+ * response says whether the gym changed, with status 200, or not, with
+ * status 409, and holds the message the Gym Manager printed. The classes a
+ * response lists are copied out while no command can change them, and the
+ * members are too, unless they are kept in a ConcurrentMemberDatabase,
+ * which they are read from while commands change it. Only then are they
+ * written as JSON, in chunks sent as they fill, so desks are held up for
+ * the copy at most. A response that fails once it has started
+ * is cut off rather than ended, so the client can tell it is incomplete.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class GymHttpApi {
+    private final GymServer server;
+    private final GymManager manager;
+
+    private static final String MEMBERS = "/members";
+    private static final String CHECK_INS = "/checkins";
+    private static final String SCHEDULE = "/schedule";
+    private static final String GET = "GET";
+    private static final String POST = "POST";
+    private static final String DELETE = "DELETE";
+    private static final String FORM = "application/x-www-form-urlencoded";
+    private static final String JSON = "application/json";
+    private static final int OK = 200;
+    private static final int BAD_REQUEST = 400;
+    private static final int NOT_FOUND = 404;
+    private static final int METHOD_NOT_ALLOWED = 405;
+    private static final int CONFLICT = 409;
+    private static final int SERVER_ERROR = 500;
+    private static final int CHUNKED = 0;
+    private static final int NOT_STARTED = -1;
+    private static final int INITIAL_LENGTH = 16;
+    private static final int GROWTH_FACTOR = 2;
+
+    /**
+     * Endpoint handles the requests to one path.
+     */
+    private interface Endpoint {
+        /**
+         * Handles a request.
+         * @param exchange the request and its response.
+         * @param parameters the parameters of the request.
+         * @throws IOException if the response cannot be sent.
+         */
+        void handle(HttpExchange exchange, Map<String, String> parameters)
+                throws IOException;
+    }
+
+    /**
+     * Snapshot holds the members a response lists, copied out of the gym
+     * while no command can change it, with the guest passes each family had
+     * then, so they can be written once desks are free to change the gym
+     * again. For the schedule it also holds the classes, and where each
+     * class's participants and guests end.
+     */
+    private static class Snapshot {
+        private Member[] members = new Member[INITIAL_LENGTH];
+        private int[] passes = new int[INITIAL_LENGTH];
+        private int count;
+        private final ArrayList<FitnessClass> classes = new ArrayList<>();
+        private final ArrayList<Integer> ends = new ArrayList<>();
+
+        /**
+         * Copies a member and their guest passes into the snapshot.
+         * @param member the member.
+         */
+        private void add(Member member) {
+            if (count == members.length) {
+                members = Arrays.copyOf(members, count * GROWTH_FACTOR);
+                passes = Arrays.copyOf(passes, count * GROWTH_FACTOR);
+            }
+            members[count] = member;
+            passes[count] = member instanceof Family
+                    ? ((Family) member).getNumberOfPasses() : 0;
+            count++;
+        }
+
+        /**
+         * Copies members into the snapshot, in order.
+         * @param members the members.
+         */
+        private void addAll(Iterable<? extends Member> members) {
+            for (Member member : members)
+                add(member);
+        }
+
+        /**
+         * Copies a class into the snapshot, with its participants and then
+         * its guests.
+         * @param fitnessClass the class.
+         */
+        private void add(FitnessClass fitnessClass) {
+            classes.add(fitnessClass);
+            addAll(fitnessClass.getParticipants());
+            ends.add(count);
+            addAll(fitnessClass.getGuests());
+            ends.add(count);
+        }
+
+        /**
+         * Writes some of the members as JSON objects.
+         * @param json the writer.
+         * @param from the first member to write.
+         * @param to the member to stop before.
+         * @throws IOException if the response cannot be sent.
+         */
+        private void write(JsonWriter json, int from, int to)
+                throws IOException {
+            for (int i = from; i < to; i++)
+                GymHttpApi.write(json, members[i], passes[i]);
+        }
+    }
+
+    /**
+     * Creates an instance of GymHttpApi for a server.
+     * @param server the server whose lock the requests share with desks.
+     * @param manager the Gym Manager the requests are handled by.
+     */
+    public GymHttpApi(GymServer server, GymManager manager) {
+        this.server = server;
+        this.manager = manager;
+    }
+
+    /**
+     * Serves the API's paths on an HTTP server.
+     * @param http the HTTP server.
+     */
+    public void register(HttpServer http) {
+        http.createContext(MEMBERS, endpoint(MEMBERS, this::members));
+        http.createContext(CHECK_INS, endpoint(CHECK_INS, this::checkIns));
+        http.createContext(SCHEDULE, endpoint(SCHEDULE, this::schedule));
+    }
+
+    /**
+     * Wraps an endpoint so it only answers its own path, gets the parameters
+     * parsed for it, and answers a request it cannot handle with an error.
+     * A response that cannot be sent is left unfinished, and the HTTP server
+     * closes its connection.
+     * @param path the path the endpoint serves.
+     * @param endpoint the endpoint.
+     * @return the handler for the path.
+     */
+    private HttpHandler endpoint(String path, Endpoint endpoint) {
+        return exchange -> {
+            try {
+                if (!exchange.getRequestURI().getPath().equals(path))
+                    error(exchange, NOT_FOUND, "no such path");
+                else
+                    endpoint.handle(exchange, parameters(exchange));
+            } catch (IllegalArgumentException e) {
+                fail(exchange, e, BAD_REQUEST, e.getMessage());
+            } catch (RuntimeException e) {
+                fail(exchange, e, SERVER_ERROR,
+                        "unable to handle the request");
+            }
+            exchange.close();
+        };
+    }
+
+    /**
+     * Answers a request that could not be handled with an error, if its
+     * response has not started. Once the status has been sent an error can
+     * no longer be, so the response is cut off instead: it is left
+     * unfinished, and the HTTP server closes the connection, so the client
+     * sees it end early rather than as a whole response.
+     * @param exchange the request and its response.
+     * @param cause why the request could not be handled.
+     * @param status the HTTP status of the error.
+     * @param message what went wrong.
+     * @throws IOException if the response has started, or the error
+     * cannot be sent.
+     */
+    private static void fail(HttpExchange exchange, RuntimeException cause,
+                             int status, String message) throws IOException {
+        if (exchange.getResponseCode() != NOT_STARTED)
+            throw new IOException("response cut off", cause);
+        error(exchange, status, message);
+    }
+
+    /**
+     * Finds, lists, adds, or removes members.
+     * @param exchange the request and its response.
+     * @param parameters the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void members(HttpExchange exchange,
+                         Map<String, String> parameters) throws IOException {
+        switch (exchange.getRequestMethod()) {
+            case GET:
+                if (parameters.containsKey("first")
+                        || parameters.containsKey("last")
+                        || parameters.containsKey("dob"))
+                    find(exchange, parameters);
+                else
+                    list(exchange, parameters);
+                break;
+            case POST:
+                change(exchange, addCommand(parameters) + " "
+                        + member(parameters) + " "
+                        + token(parameters, "location"));
+                break;
+            case DELETE:
+                change(exchange, "R " + member(parameters));
+                break;
+            default:
+                notAllowed(exchange, GET + ", " + POST + ", " + DELETE);
+        }
+    }
+
+    /**
+     * Checks members or guests in to a class, or out of it.
+     * @param exchange the request and its response.
+     * @param parameters the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void checkIns(HttpExchange exchange,
+                          Map<String, String> parameters) throws IOException {
+        String method = exchange.getRequestMethod();
+        if (!method.equals(POST) && !method.equals(DELETE)) {
+            notAllowed(exchange, POST + ", " + DELETE);
+            return;
+        }
+        boolean guest = Boolean.parseBoolean(parameters.get("guest"));
+        String opcode = method.equals(POST) ? "C" : "D";
+        change(exchange, opcode + (guest ? "G " : " ")
+                + token(parameters, "class") + " "
+                + token(parameters, "instructor") + " "
+                + token(parameters, "location") + " " + member(parameters));
+    }
+
+    /**
+     * Lists the classes on the schedule, with the members and guests
+     * checked in to each. Each guest is listed as the member who brought
+     * them.
+     * @param exchange the request and its response.
+     * @param parameters the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void schedule(HttpExchange exchange,
+                          Map<String, String> parameters) throws IOException {
+        if (!exchange.getRequestMethod().equals(GET)) {
+            notAllowed(exchange, GET);
+            return;
+        }
+        Snapshot classes = server.read(() -> {
+            ClassSchedule schedule = manager.getSchedule();
+            Snapshot snapshot = new Snapshot();
+            for (int i = 0; i < schedule.getSize(); i++)
+                snapshot.add(schedule.getFitnessClass(i));
+            return snapshot;
+        });
+        JsonWriter json = respond(exchange, OK);
+        json.beginObject().name("classes").beginArray();
+        int from = 0;
+        for (int i = 0; i < classes.classes.size(); i++) {
+            FitnessClass fitnessClass = classes.classes.get(i);
+            int participants = classes.ends.get(2 * i);
+            int guests = classes.ends.get(2 * i + 1);
+            json.beginObject()
+                    .name("className").value(fitnessClass.getClassName())
+                    .name("instructor")
+                    .value(fitnessClass.getInstructorName())
+                    .name("time").value(fitnessClass.getTime())
+                    .name("location").value(fitnessClass.getLocation())
+                    .name("participants").beginArray();
+            classes.write(json, from, participants);
+            json.endArray().name("guests").beginArray();
+            classes.write(json, participants, guests);
+            json.endArray().endObject();
+            from = guests;
+        }
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    /**
+     * Finds a member by name and DOB.
+     * @param exchange the request and its response.
+     * @param parameters the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void find(HttpExchange exchange, Map<String, String> parameters)
+            throws IOException {
+        Member probe = new Member(token(parameters, "first"),
+                token(parameters, "last"), date(token(parameters, "dob")),
+                null, null);
+        Snapshot found = server.readMembers(() -> {
+            Snapshot snapshot = new Snapshot();
+            Member member = manager.getDatabase().findMember(probe);
+            if (member != null)
+                snapshot.add(member);
+            return snapshot;
+        });
+        if (found.count == 0) {
+            error(exchange, NOT_FOUND, probe.getFirstName() + " " +
+                    probe.getLastName() + " is not in the database.");
+            return;
+        }
+        JsonWriter json = respond(exchange, OK);
+        found.write(json, 0, found.count);
+        json.flush();
+    }
+
+    /**
+     * Lists the members in the order of one of the reports, in the order
+     * they were added if none is given.
+     * @param exchange the request and its response.
+     * @param parameters the parameters of the request.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void list(HttpExchange exchange, Map<String, String> parameters)
+            throws IOException {
+        MemberDatabase.Order order = order(parameters.get("order"));
+        Snapshot members = server.readMembers(() -> {
+            Snapshot snapshot = new Snapshot();
+            snapshot.addAll(manager.getDatabase().members(order));
+            return snapshot;
+        });
+        JsonWriter json = respond(exchange, OK);
+        json.beginObject().name("members").beginArray();
+        members.write(json, 0, members.count);
+        json.endArray().endObject();
+        json.flush();
+    }
+
+    /**
+     * Hands a command to the Gym Manager and answers with whether it changed
+     * the gym and what it printed.
+     * @param exchange the request and its response.
+     * @param line the command, as a desk would type it.
+     * @throws IOException if the response cannot be sent.
+     */
+    private void change(HttpExchange exchange, String line)
+            throws IOException {
+        CommandParser command = new CommandParser();
+        command.parse(line);
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        boolean changed = server.handle(command,
+                new PrintStream(output, false));
+        JsonWriter json = respond(exchange, changed ? OK : CONFLICT);
+        json.beginObject().name("changed").value(changed)
+                .name("message").value(output.toString().strip())
+                .endObject();
+        json.flush();
+    }
+
+    /**
+     * Writes a member as a JSON object.
+     * @param json the writer.
+     * @param member the member.
+     * @param passes the guest passes a family had when it was copied.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void write(JsonWriter json, Member member, int passes)
+            throws IOException {
+        Location location = member.getLocation();
+        json.beginObject()
+                .name("firstName").value(member.getFirstName())
+                .name("lastName").value(member.getLastName())
+                .name("dob").value(member.getDOB().toString())
+                .name("expires").value(member.getExpire().toString())
+                .name("location").value(location == null ? null
+                        : location.name())
+                .name("plan").value(plan(member))
+                .name("fee").value(member.membershipFee());
+        if (member instanceof Family)
+            json.name("guestPasses").value(passes);
+        json.endObject();
+    }
+
+    /**
+     * Gets the name of a member's plan.
+     * @param member the member.
+     * @return standard, family, or premium.
+     */
+    private static String plan(Member member) {
+        if (member instanceof Premium)
+            return "premium";
+        return member instanceof Family ? "family" : "standard";
+    }
+
+    /**
+     * Gets the opcode of the command that adds a member on a plan.
+     * @param parameters the parameters of the request.
+     * @return the opcode.
+     */
+    private static String addCommand(Map<String, String> parameters) {
+        String plan = parameters.getOrDefault("plan", "standard");
+        switch (plan) {
+            case "standard":
+                return "A";
+            case "family":
+                return "AF";
+            case "premium":
+                return "AP";
+            default:
+                throw new IllegalArgumentException("invalid plan: " + plan);
+        }
+    }
+
+    /**
+     * Gets the order the members are listed in.
+     * @param order the name of the order, null for none.
+     * @return the order.
+     */
+    private static MemberDatabase.Order order(String order) {
+        if (order == null)
+            return MemberDatabase.Order.ADDED;
+        switch (order) {
+            case "added":
+                return MemberDatabase.Order.ADDED;
+            case "name":
+            case "fee":
+                return MemberDatabase.Order.NAME;
+            case "county":
+                return MemberDatabase.Order.COUNTY;
+            case "expiration":
+                return MemberDatabase.Order.EXPIRATION_DATE;
+            default:
+                throw new IllegalArgumentException("invalid order: " + order);
+        }
+    }
+
+    /**
+     * Gets the first name, last name, and DOB of a member, as a command
+     * holds them. A DOB that is not a calendar date is rejected here, so the
+     * request fails as a bad request rather than as a conflict.
+     * @param parameters the parameters of the request.
+     * @return the name and DOB, separated by spaces.
+     */
+    private static String member(Map<String, String> parameters) {
+        String dob = token(parameters, "dob");
+        date(dob);
+        return token(parameters, "first") + " " + token(parameters, "last")
+                + " " + dob;
+    }
+
+    /**
+     * Gets a parameter that goes into a command as one token.
+     * @param parameters the parameters of the request.
+     * @param name the name of the parameter.
+     * @return the value of the parameter.
+     */
+    private static String token(Map<String, String> parameters, String name) {
+        String value = parameters.get(name);
+        if (value == null || value.isEmpty()
+                || value.chars().anyMatch(Character::isWhitespace))
+            throw new IllegalArgumentException("missing or invalid " + name);
+        return value;
+    }
+
+    /**
+     * Decodes a date in mm/dd/yyyy format, which must be a calendar date.
+     * @param text the date.
+     * @return the date.
+     */
+    private static Date date(String text) {
+        CommandParser parser = new CommandParser();
+        parser.parse(text);
+        int packed = parser.date(0);
+        Date date = packed == CommandParser.NOT_A_DATE ? null
+                : Date.fromPacked(packed);
+        if (date == null || !date.isValid())
+            throw new IllegalArgumentException("invalid date: " + text);
+        return date;
+    }
+
+    /**
+     * Gets the parameters of a request, from its query string and, if it
+     * has one, its form body.
+     * @param exchange the request.
+     * @return the parameters by name.
+     * @throws IOException if the body cannot be read.
+     */
+    private static Map<String, String> parameters(HttpExchange exchange)
+            throws IOException {
+        Map<String, String> parameters = new HashMap<>();
+        decode(exchange.getRequestURI().getRawQuery(), parameters);
+        String type = exchange.getRequestHeaders().getFirst("Content-Type");
+        if (type != null && type.startsWith(FORM))
+            decode(new String(exchange.getRequestBody().readAllBytes(),
+                    StandardCharsets.UTF_8), parameters);
+        return parameters;
+    }
+
+    /**
+     * Decodes URL encoded parameters.
+     * @param encoded the parameters, null if there are none.
+     * @param parameters the map the parameters are put in.
+     */
+    private static void decode(String encoded,
+                               Map<String, String> parameters) {
+        if (encoded == null || encoded.isEmpty())
+            return;
+        for (String pair : encoded.split("&")) {
+            int equals = pair.indexOf('=');
+            String name = equals < 0 ? pair : pair.substring(0, equals);
+            String value = equals < 0 ? "" : pair.substring(equals + 1);
+            parameters.put(URLDecoder.decode(name, StandardCharsets.UTF_8),
+                    URLDecoder.decode(value, StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Answers a request with a method the path does not handle.
+     * @param exchange the request and its response.
+     * @param allowed the methods the path handles.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void notAllowed(HttpExchange exchange, String allowed)
+            throws IOException {
+        exchange.getResponseHeaders().set("Allow", allowed);
+        error(exchange, METHOD_NOT_ALLOWED, "method not allowed");
+    }
+
+    /**
+     * Answers a request with an error.
+     * @param exchange the request and its response.
+     * @param status the HTTP status.
+     * @param message what went wrong.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static void error(HttpExchange exchange, int status,
+                              String message) throws IOException {
+        JsonWriter json = respond(exchange, status);
+        json.beginObject().name("error").value(message).endObject();
+        json.flush();
+    }
+
+    /**
+     * Starts a JSON response, whose body is sent in chunks as it is written,
+     * so its length need not be known first.
+     * @param exchange the request and its response.
+     * @param status the HTTP status.
+     * @return the writer the body is written with.
+     * @throws IOException if the response cannot be sent.
+     */
+    private static JsonWriter respond(HttpExchange exchange, int status)
+            throws IOException {
+        exchange.getResponseHeaders().set("Content-Type", JSON);
+        exchange.sendResponseHeaders(status, CHUNKED);
+        return new JsonWriter(exchange.getResponseBody());
+    }
+}
@@ -1,7 +1,12 @@
 package com.example.gymmembershipgui;
 
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.Reader;
 import java.util.Scanner;
 
 /**
@@ -13,12 +18,29 @@ import java.util.Scanner;
  * would like to. If a member's gym plan permits them, these functions
  * also apply to guests. GymManager's schedule can also check for time
  * conflicts between the classes a member is checked into and a class they
- * want to attend. The gym manager handles all these requests.
+ * want to attend. The gym manager handles all these requests. Every change
+ * to the members and class rosters is recorded in a mutation log, and the
+ * gym is restored from the last snapshot and the log when it starts again.
+ * Commands can also be run in a batch, from a file or standard input, or
+ * sent by many front desks at once to a GymServer.
  * @author Mahfuza Rahman, Arunima Tripathy
  */
 public class GymManager {
-    private MemberDatabase database;
+    private final MemberDatabase database;
     private ClassSchedule schedule;
+    private MutationLog log;
+    private NameDictionary names;
+    private boolean batch;
+    private CommandParser parser;
+    private long changes;
+
+    private static final String SNAPSHOT_FILE = "src/gym.snapshot";
+    private static final String LOG_FILE = "src/gym.log";
+    private static final long CHECKPOINT_SIZE = 1 << 22;
+    private static final int INPUT_BUFFER = 1 << 16;
+    private static final int OUTPUT_BUFFER = 1 << 16;
+    static final int BATCH_SYNC = 1024;
+    private static final double NANOS_PER_SECOND = 1_000_000_000.0;
 
     /**
      * Creates an instance of GymManager with a database and a class schedule.
@@ -26,138 +48,188 @@ public class GymManager {
      * a database that holds all the members of all the gyms.
      */
     public GymManager() {
-        database = new MemberDatabase();
+        this(new MemberDatabase());
+    }
+
+    /**
+     * Creates an instance of GymManager that keeps its members in the given
+     * database, such as a ConcurrentMemberDatabase when desks are served at
+     * once, and a new class schedule.
+     * @param database the empty database to keep the members in.
+     */
+    public GymManager(MemberDatabase database) {
+        this.database = database;
         schedule = new ClassSchedule();
+        names = new NameDictionary();
+        parser = new CommandParser();
     }
 
     /**
-     * Takes command line input to add a member to the member database.
+     * Takes a parsed command to add a member to the member database.
      * An instance of Member, Family, or Premium is created depending on the
-     * information provided. As long as the DOB is valid, not a future date,
+     * command. As long as the DOB is valid, not a future date,
      * and the member is 18 or older, the expiration date and location are
      * valid, and the member is not already in the database, member is added.
-     * @param input a String with member name, DOB, expiration, and location.
+     * Names are shared with the other members that have them. A name new to
+     * the dictionary is only added to it once the member is added, so
+     * commands that are rejected never grow it.
+     * @param command the parsed command, with member name, DOB, and location.
+     * @param out the stream the results are displayed on.
      */
-    public void add(String input) {
-        String[] arrInput = input.split(" ", 0);
+    public void add(CommandParser command, PrintStream out) {
+        Date dob = parseDOB(command, 3, out);
+        if(dob == null)
+            return;
+        String fname = command.name(1, names);
+        String lname = command.name(2, names);
+        Location location = command.location(4);
         Member addMember;
-        if(arrInput[0].equals("A")) {
-            addMember = new Member(arrInput[1], arrInput[2], arrInput[3],
-                    arrInput[4]);
+        if(command.getOpcode() == CommandParser.Opcode.ADD) {
+            addMember = new Member(fname, lname, dob, location);
         }
-        else if(arrInput[0].equals("AF")) {
-            addMember = new Family(arrInput[1], arrInput[2], arrInput[3],
-                    arrInput[4]);
+        else if(command.getOpcode() == CommandParser.Opcode.ADD_FAMILY) {
+            addMember = new Family(fname, lname, dob, location);
         }
         else{
-            Date today = new Date();
-            addMember = new Premium(arrInput[1], arrInput[2], arrInput[3],
-                    today.toString(), arrInput[4]);
+            addMember = new Premium(fname, lname, dob, Date.today(),
+                    location);
         }
-        if(!isDOBValid(addMember))
+        if(!isDOBValid(addMember, out))
             return;
-        if(!isExpirationDateValid(addMember))
+        if(!isExpirationDateValid(addMember, out))
             return;
         if(addMember.getLocation() == null) {
-            System.out.println(arrInput[4] + ": invalid location!");
+            out.println(command.token(4) + ": invalid location!");
             return;
         }
         if(!database.add(addMember)) {
-            System.out.println(addMember.getFirstName() + " " +
+            out.println(addMember.getFirstName() + " " +
                     addMember.getLastName() + " is already in the " +
                     "database.");
             return;
         }
-        System.out.println(addMember.getFirstName() + " " +
+        names.intern(fname); // keeps this member's copy if the name is new
+        names.intern(lname);
+        out.println(addMember.getFirstName() + " " +
                 addMember.getLastName() + " added.");
+        record(MutationLog.Type.ADD, null, addMember, out);
     }
 
     /**
-     * Takes command line input to remove a member from the member database.
+     * Takes a parsed command to remove a member from the member database.
      * If the member is present in the database, they are removed. Otherwise,
      * a message is sent to the user.
-     * @param input a String with member's first and last name, and DOB.
+     * @param command the parsed command, with member's first and last name,
+     *                and DOB.
+     * @param out the stream the results are displayed on.
      */
-    public void remove(String input) {
-        String[] arrInput = input.split(" ", 0);
-        Member removeThem = new Member(arrInput[1], arrInput[2], arrInput[3]);
+    public void remove(CommandParser command, PrintStream out) {
+        Member removeThem = toMember(command, 1, out);
+        if(removeThem == null)
+            return;
         if(!database.remove(removeThem)) {
-            System.out.println(removeThem.getFirstName() + " " +
+            out.println(removeThem.getFirstName() + " " +
                     removeThem.getLastName() + " is not in the database.");
             return;
         }
-        System.out.println(removeThem.getFirstName() + " " +
+        out.println(removeThem.getFirstName() + " " +
                 removeThem.getLastName() + " removed.");
+        record(MutationLog.Type.REMOVE, null, removeThem, out);
+    }
+
+    /**
+     * Takes a parsed command to display the members whose memberships
+     * expire within a number of days, for renewal reminders.
+     * If the number of days is missing or not a whole number of zero or more,
+     * a message is sent to the user.
+     * @param command the parsed command, with the number of days.
+     * @param out the stream the results are displayed on.
+     */
+    public void printExpiring(CommandParser command, PrintStream out) {
+        int days = command.getTokens() > 1 ? command.number(1)
+                : CommandParser.NOT_A_NUMBER;
+        if(days == CommandParser.NOT_A_NUMBER) {
+            out.println(command.getLine() +
+                    ": invalid number of days!");
+            return;
+        }
+        try {
+            database.printExpiringWithin(days, out);
+        } catch (IOException e) {
+            out.println("Unable to display the list of members.");
+        }
     }
 
     /**
-     * Takes command line input to review if a member can check in to a class.
+     * Takes a parsed command to review if a member can check in to a class.
      * Checks whether the inputted fitness class exists, if the instructor
      * exists, the location is valid, the membership has not expired,
      * the member is present in the database, and the member is checking into
      * their assigned gym location, if membership type has this restriction.
      * If all these requirements are fulfilled checkFitnessClass() is called.
-     * @param input a String with member's first and last name, class, DOB,
-     *              fitness class name, instructor, and location.
+     * @param command the parsed command, with fitness class name,
+     *                instructor, location, and member's first and last name
+     *                and DOB.
+     * @param out the stream the results are displayed on.
      */
-    public void checkIn(String input) {
-        String[] arrInput = input.split(" ", 0);
-        String fitnessClass = arrInput[1];
-        String instructor = arrInput[2];
-        String location = arrInput[3];
-
-        Member checkMember = new Member(arrInput[4], arrInput[5],
-                arrInput[6]);
-        Member findMember = database.findMember(checkMember);
-        if(!isClassValid(fitnessClass, instructor, location))
+    public void checkIn(CommandParser command, PrintStream out) {
+        if(!isClassValid(command, out))
             return;
-        if(!isDOBValid(checkMember))
+        Member checkMember = toMember(command, 4, out);
+        if(checkMember == null || !isDOBValid(checkMember, out))
             return;
-        if(!isMemberValid(findMember, checkMember))
+        Member findMember = database.findMember(checkMember);
+        if(!isMemberValid(findMember, checkMember, out))
             return;
-        if(!findMember.getLocation().name().equalsIgnoreCase(location) &&
+        Location tryCheckIn = command.location(3);
+        if(findMember.getLocation() != tryCheckIn &&
                 !(findMember instanceof Family)) {
-            Location tryCheckIn = Location.getLocation(location);
-            System.out.println(findMember.getFirstName() + " " +
+            out.println(findMember.getFirstName() + " " +
                     findMember.getLastName() + " checking in " +
                     tryCheckIn.name() + ", " + tryCheckIn.getZipCode() + ", "
                     + tryCheckIn.getCounty() + " - standard membership " +
                     "location restriction.");
             return;
         }
-        schedule.checkInMember
-                (fitnessClass, location, instructor, findMember);
+        String fitnessClass = command.token(1);
+        String instructor = command.token(2);
+        String location = command.token(3);
+        if(schedule.checkInMember
+                (fitnessClass, location, instructor, findMember, out))
+            record(MutationLog.Type.CHECK_IN,
+                    new FitnessClass(instructor, fitnessClass, location),
+                    findMember, out);
     }
 
     /**
-     * Takes command line input to review if a guest can check in to a class.
-     * Checks whether the guest is using the family or premium plan, if the
-     * class they want to attend is the same as the membership location, and
-     * if the member account has a spare guest pass to use. If these
-     * requirements are fulfilled, the guest is checked in.
-     * @param input a String with guest's first and last name, class, DOB,
-     *              fitness class name, instructor, and location.
+     * Takes a parsed command to review if a guest can check in to a class.
+     * Checks whether the inputted fitness class, instructor, and location
+     * exist, whether the guest is using the family or premium plan, if the
+     * class they want to attend is the same as the membership location, if
+     * the member account has a spare guest pass to use, and that the class
+     * is offered there. If these requirements are fulfilled, the guest is
+     * checked in.
+     * @param command the parsed command, with fitness class name,
+     *                instructor, location, and member's first and last name
+     *                and DOB.
+     * @param out the stream the results are displayed on.
      */
-    public void checkInGuest(String input) {
-        String[] arrInput = input.split(" ", 0);
-        String className = arrInput[1];
-        String instructor = arrInput[2];
-        String location = arrInput[3];
-        FitnessClass fitClass = new FitnessClass(instructor, className,
-                location);
-
-        Member checkMember = new Member(arrInput[4], arrInput[5],
-                arrInput[6]);
+    public void checkInGuest(CommandParser command, PrintStream out) {
+        if(!isClassValid(command, out))
+            return;
+        Member checkMember = toMember(command, 4, out);
+        if(checkMember == null)
+            return;
         Member findMember = database.findMember(checkMember);
 
         if(!(findMember instanceof Family)){
-            System.out.println("Standard membership - guest check-in is " +
+            out.println("Standard membership - guest check-in is " +
                     "not allowed.");
             return;
         }
-        if(!findMember.getLocation().name().equalsIgnoreCase(location)) {
-            Location tryCheckIn = Location.getLocation(location);
-            System.out.println(findMember.getFirstName() + " " +
+        Location tryCheckIn = command.location(3);
+        if(findMember.getLocation() != tryCheckIn) {
+            out.println(findMember.getFirstName() + " " +
                     findMember.getLastName() + " Guest checking in " +
                     tryCheckIn.name() + ", " + tryCheckIn.getZipCode() + ", "
                     + tryCheckIn.getCounty() + " - guest location " +
@@ -166,11 +238,61 @@ public class GymManager {
         }
 
         if(((Family) findMember).getNumberOfPasses() == 0){
-            System.out.println(findMember.getFirstName() + " " +
+            out.println(findMember.getFirstName() + " " +
                     findMember.getLastName() + " ran out of guest pass.");
             return;
         }
-        schedule.checkInGuest((Family) findMember, fitClass);
+        String fitnessClass = command.token(1);
+        String instructor = command.token(2);
+        String location = command.token(3);
+        FitnessClass fitClass = schedule.findFitnessClass(fitnessClass,
+                instructor, location);
+        if(fitClass == null) {
+            out.println(fitnessClass + " by " + instructor + " does " +
+                    "not exist at " + location);
+            return;
+        }
+        if(schedule.checkInGuest((Family) findMember, fitClass, out))
+            record(MutationLog.Type.CHECK_IN_GUEST, fitClass, findMember,
+                    out);
+    }
+
+    /**
+     * Decodes a date of birth from a command.
+     * If the token is not a date in mm/dd/yyyy format, a message is sent to
+     * the user.
+     * @param command the parsed command.
+     * @param token the position of the DOB in the command.
+     * @param out the stream messages are displayed on.
+     * @return the DOB, null if the token is not a date.
+     */
+    private Date parseDOB(CommandParser command, int token,
+                          PrintStream out) {
+        int dob = command.date(token);
+        if(dob == CommandParser.NOT_A_DATE) {
+            out.println("DOB " + command.token(token) +
+                    ": invalid calendar date!");
+            return null;
+        }
+        return Date.fromPacked(dob);
+    }
+
+    /**
+     * Creates a member to search the database for from the first and last
+     * name and DOB in a command, sharing names already in the dictionary.
+     * @param command the parsed command.
+     * @param first the position of the first name in the command, followed
+     *              by the last name and DOB.
+     * @param out the stream messages are displayed on.
+     * @return the member, null if the DOB is not a date.
+     */
+    private Member toMember(CommandParser command, int first,
+                            PrintStream out) {
+        Date dob = parseDOB(command, first + 2, out);
+        if(dob == null)
+            return null;
+        return new Member(command.name(first, names),
+                command.name(first + 1, names), dob, null, null);
     }
 
     /**
@@ -178,21 +300,22 @@ public class GymManager {
      * Checks if date is a valid, calendar date, not today or a future date,
      * and that the member is 18 years or older.
      * @param member the member that wants to be added or check in to a class.
+     * @param out the stream messages are displayed on.
      * @return true if the DOB is valid, false otherwise.
      */
-    private boolean isDOBValid(Member member){
+    private boolean isDOBValid(Member member, PrintStream out){
         if(!member.getDOB().isValid()) {
-            System.out.println("DOB " + member.getDOB().toString() +
+            out.println("DOB " + member.getDOB().toString() +
                     ": invalid calendar date!");
             return false;
         }
-        if(member.getDOB().compareTo(new Date()) >= 0) {
-            System.out.println("DOB " + member.getDOB().toString() +
+        if(member.getDOB().compareTo(Date.today()) >= 0) {
+            out.println("DOB " + member.getDOB().toString() +
                     ": cannot be today or a future date!");
             return false;
         }
         if(!member.aboveEighteen()) {
-            System.out.println("DOB " + member.getDOB().toString() +
+            out.println("DOB " + member.getDOB().toString() +
                     ": must be 18 or older to join!");
             return false;
         }
@@ -200,27 +323,28 @@ public class GymManager {
     }
 
     /**
-     * Checks if a given fitness class exists.
+     * Checks if the fitness class in a command exists.
      * Checks if class exists on the fitness schedule by checking if the
      * class name matches that of any on the schedule, if the instructor
      * is an existing instructor, and if the location is an existing location.
-     * @param fitnessClass the name of a fitness class.
-     * @param instructor the name of the instructor.
-     * @param location the location of the fitness class.
+     * @param command the parsed command, with the name of a fitness class,
+     *                the name of the instructor, and the location.
+     * @param out the stream messages are displayed on.
      * @return true if class is valid, false otherwise.
      */
-    private boolean isClassValid(String fitnessClass, String instructor,
-                                 String location){
+    private boolean isClassValid(CommandParser command, PrintStream out){
+        String fitnessClass = command.token(1);
         if(!schedule.findFitnessClass(fitnessClass)) {
-            System.out.println(fitnessClass + " - class does not exist.");
+            out.println(fitnessClass + " - class does not exist.");
             return false;
         }
-        if(!Instructors.isInstructor(instructor)) {
-            System.out.println(instructor + " - instructor does not exist.");
+        if(command.instructor(2) == null) {
+            out.println(command.token(2) +
+                    " - instructor does not exist.");
             return false;
         }
-        if(Location.getLocation(location) == null) {
-            System.out.println(location + " - invalid location.");
+        if(command.location(3) == null) {
+            out.println(command.token(3) + " - invalid location.");
             return false;
         }
         return true;
@@ -232,18 +356,20 @@ public class GymManager {
      * membership has expired.
      * @param findMember the member searched for through the database.
      * @param checkMember the member who must be found in the database.
+     * @param out the stream messages are displayed on.
      * @return true if the member is in the database or their membership
      * is not expired, false otherwise.
      */
-    private boolean isMemberValid(Member findMember, Member checkMember){
+    private boolean isMemberValid(Member findMember, Member checkMember,
+                                  PrintStream out){
         if(findMember == null) {
-            System.out.println(checkMember.getFirstName() + " " +
+            out.println(checkMember.getFirstName() + " " +
                     checkMember.getLastName() + " " + checkMember.getDOB() +
                     " is not in the database.");
             return false;
         }
         if(findMember.membershipExpired()) {
-            System.out.println(findMember.getFirstName() + " " +
+            out.println(findMember.getFirstName() + " " +
                     findMember.getLastName() + " " + findMember.getDOB() +
                     " membership expired.");
             return false;
@@ -256,11 +382,12 @@ public class GymManager {
      * Checks if the expiration is a valid date.
      * Checks if date is a calendar date and if membership is not expired.
      * @param member the member that wants to be added or check in to a class.
+     * @param out the stream messages are displayed on.
      * @return true if the expiration date is valid, false otherwise.
      */
-    private boolean isExpirationDateValid(Member member){
+    private boolean isExpirationDateValid(Member member, PrintStream out){
         if(!member.getExpire().isValid()) {
-            System.out.println("Expiration date " +
+            out.println("Expiration date " +
                     member.getExpire().toString() +
                     ": invalid calendar date!");
             return false;
@@ -270,9 +397,15 @@ public class GymManager {
 
     /**
      * Displays the fitness class schedule with class instructor and time.
+     * @param out the stream the results are displayed on.
      */
-    public void schedule() {
-        System.out.println(schedule + "-end of class list.\n");
+    public void schedule(PrintStream out) {
+        try {
+            schedule.print(out);
+        } catch (IOException e) {
+            out.println("Unable to display the schedule.");
+        }
+        out.println("-end of class list.\n");
     }
 
     /**
@@ -283,95 +416,174 @@ public class GymManager {
      * class, and the member checked into the class in the first place. If
      * these requirements are fulfilled, the member is removed from the
      * fitness class.
-     * @param input a String with member's first and last name, class, DOB,
-     *              fitness class name, instructor, and location.
+     * @param command the parsed command, with fitness class name,
+     *                instructor, location, and member's first and last name
+     *                and DOB.
+     * @param out the stream the results are displayed on.
      */
-    public void doneWithClass(String input) {
-        String[] arrInput = input.split(" ", 0);
-        String fitnessClass = arrInput[1];
-        String instructor = arrInput[2];
-        String location = arrInput[3];
-
-        Member checkMember = new Member(arrInput[4], arrInput[5],
-                arrInput[6]);
-        Member findMember = database.findMember(checkMember);
-
-        if(!isClassValid(fitnessClass, instructor, location))
+    public void doneWithClass(CommandParser command, PrintStream out) {
+        if(!isClassValid(command, out))
             return;
-        if(!isDOBValid(checkMember))
+        Member checkMember = toMember(command, 4, out);
+        if(checkMember == null || !isDOBValid(checkMember, out))
             return;
+        Member findMember = database.findMember(checkMember);
         if(findMember == null) {
-            System.out.println(checkMember.getFirstName() + " " +
+            out.println(checkMember.getFirstName() + " " +
                     checkMember.getLastName() + " " + checkMember.getDOB() +
                     " is not in the database.");
             return;
         }
-        FitnessClass foundFitClass = schedule.findFitnessClass
-                (new FitnessClass(instructor, fitnessClass, location));
+        String fitnessClass = command.token(1);
+        String instructor = command.token(2);
+        String location = command.token(3);
+        FitnessClass foundFitClass = schedule.findFitnessClass(fitnessClass,
+                instructor, location);
         if(foundFitClass == null) {
-            System.out.println(fitnessClass + " by " + instructor +
+            out.println(fitnessClass + " by " + instructor +
                     " does not exist at " + location);
             return;
         }
         if(foundFitClass.findMember(findMember) == null) {
-            System.out.println(findMember.getFirstName() + " " +
+            out.println(findMember.getFirstName() + " " +
                     findMember.getLastName() + " did not check in.");
             return;
         }
         foundFitClass.removeMember(findMember);
-        System.out.println(findMember.getFirstName() + " " +
+        out.println(findMember.getFirstName() + " " +
                 findMember.getLastName() + " done with the class.");
+        record(MutationLog.Type.DONE, foundFitClass, findMember, out);
     }
 
     /**
      * Checks a guest out of a class.
      * Checks whether the inputted class exists, the instructor exists,
-     * the location exists, that the membership is present in the database,
-     * and that the combination of the class, instructor, and location is a
-     * valid class. If these requirements are fulfilled, the guest is removed
-     * from the FitnessClass and the guest pass is incremented by one.
-     * @param input a String with member's first and last name, class, DOB,
-     *              fitness class name, instructor, and location.
-     */
-    public void doneWithGuestClass(String input) {
-        String[] arrInput = input.split(" ", 0);
-        String fitnessClass = arrInput[1];
-        String instructor = arrInput[2];
-        String location = arrInput[3];
-
-        Member checkMember = new Member(arrInput[4], arrInput[5],
-                arrInput[6]);
-        Member findMember = database.findMember(checkMember);
-
-        if(!isClassValid(fitnessClass, instructor, location))
+     * the location exists, that the membership is present in the database
+     * and is a family or premium one, and that the combination of the class,
+     * instructor, and location is a valid class. If these requirements are
+     * fulfilled, the guest is removed from the FitnessClass and the guest
+     * pass is incremented by one.
+     * @param command the parsed command, with fitness class name,
+     *                instructor, location, and member's first and last name
+     *                and DOB.
+     * @param out the stream the results are displayed on.
+     */
+    public void doneWithGuestClass(CommandParser command,
+                                   PrintStream out) {
+        if(!isClassValid(command, out))
             return;
-        if(!isDOBValid(checkMember))
+        Member checkMember = toMember(command, 4, out);
+        if(checkMember == null || !isDOBValid(checkMember, out))
             return;
+        Member findMember = database.findMember(checkMember);
         if(findMember == null) {
-            System.out.println(checkMember.getFirstName() + " " +
+            out.println(checkMember.getFirstName() + " " +
                     checkMember.getLastName() + " " + checkMember.getDOB() +
                     " is not in the database.");
             return;
         }
-        FitnessClass foundFitClass = schedule.findFitnessClass
-                (new FitnessClass(instructor, fitnessClass, location));
+        if(!(findMember instanceof Family)) {
+            out.println("Standard membership - guest check-in is " +
+                    "not allowed.");
+            return;
+        }
+        String fitnessClass = command.token(1);
+        String instructor = command.token(2);
+        String location = command.token(3);
+        FitnessClass foundFitClass = schedule.findFitnessClass(fitnessClass,
+                instructor, location);
         if(foundFitClass == null) {
-            System.out.println(fitnessClass + " by " + instructor + " does " +
+            out.println(fitnessClass + " by " + instructor + " does " +
                     "not exist at " + location);
             return;
         }
-        foundFitClass.removeGuest((Family) findMember);
-        System.out.println(findMember.getFirstName() + " " +
+        boolean removed = foundFitClass.removeGuest((Family) findMember);
+        out.println(findMember.getFirstName() + " " +
                 findMember.getLastName() + " Guest done with the class.");
+        if(removed)
+            record(MutationLog.Type.DONE_GUEST, foundFitClass, findMember,
+                    out);
+    }
+
+    /**
+     * Restores the gym from the last snapshot and the mutation log.
+     * Loads the snapshot if there is one, and then replays the changes
+     * recorded in the log since the snapshot was saved. If the gym cannot be
+     * restored, changes are not recorded.
+     * @param out the stream messages are displayed on.
+     */
+    private void restore(PrintStream out) {
+        try {
+            long sequence = 0;
+            if(new File(SNAPSHOT_FILE).exists())
+                sequence = Snapshot.load(SNAPSHOT_FILE, database, schedule);
+            log = new MutationLog(LOG_FILE);
+            int replayed = log.replay(database, schedule, sequence);
+            if(database.getSize() > 0 || schedule.getSize() > 0)
+                out.println("-gym restored with " +
+                        database.getSize() + " members and " +
+                        schedule.getSize() + " classes, " + replayed +
+                        " changes replayed-\n");
+        } catch (IOException e) {
+            log = null;
+            out.println("Unable to restore the gym, changes will " +
+                    "not be saved.");
+        }
+    }
+
+    /**
+     * Records a change to the members or class rosters in the mutation log,
+     * and counts it.
+     * Returns once the change is saved to disk, unless a batch is running or
+     * desks are being served, in which case the changes are saved together
+     * every so often, or once each desk's command is done. Once the
+     * log has grown large, a checkpoint is saved so the log can start over.
+     * @param type the type of change.
+     * @param fitnessClass the class the change applies to, null if none.
+     * @param member the member the change applies to.
+     * @param out the stream messages are displayed on.
+     */
+    private void record(MutationLog.Type type, FitnessClass fitnessClass,
+                        Member member, PrintStream out) {
+        changes++;
+        if(log == null)
+            return;
+        try {
+            if(batch)
+                log.appendDeferred(type, fitnessClass, member);
+            else
+                log.append(type, fitnessClass, member);
+            if(log.size() > CHECKPOINT_SIZE)
+                log.checkpoint(SNAPSHOT_FILE, database, schedule);
+        } catch (IOException e) {
+            out.println("Unable to save the change.");
+        }
+    }
+
+    /**
+     * Saves a snapshot of the gym and starts the mutation log over.
+     * Used after loading a schedule or member list, so the loaded classes
+     * and members are saved without recording each one in the log.
+     * @param out the stream messages are displayed on.
+     */
+    private void checkpoint(PrintStream out) {
+        if(log == null)
+            return;
+        try {
+            log.checkpoint(SNAPSHOT_FILE, database, schedule);
+        } catch (IOException e) {
+            out.println("Unable to save the gym.");
+        }
     }
 
     /**
      * Loads the classSchedule.txt file into the schedule.
      * If the file is found, each line in the file is read and used to add a
      * FitnessClass to schedule. If not, an exception is thrown.
+     * @param out the stream the results are displayed on.
      * @throws FileNotFoundException to inputCommand method.
      */
-    public void loadSchedule() throws FileNotFoundException {
+    public void loadSchedule(PrintStream out) throws FileNotFoundException {
         File file = new File("src/classSchedule.txt");
         Scanner infile = new Scanner(file);
         String input;
@@ -382,30 +594,40 @@ public class GymManager {
             schedule.addFitnessClass(arrInput[0], arrInput[1], arrInput[2],
                     arrInput[3]);
         }
-        System.out.println("\n-Fitness classes loaded-");
-        schedule();
+        out.println("\n-Fitness classes loaded-");
+        schedule(out);
     }
 
     /**
      * Loads the memberList.txt file into the database.
-     * If the file is found, each line in the file is read and used to add
-     * a member to the database. If not, an exception is thrown.
-     * @throws FileNotFoundException to inputCommand method.
+     * If the file is found, it is loaded in bulk by a MemberListLoader, and
+     * the members are displayed along with a summary of the load. If not, an
+     * exception is thrown.
+     * @param out the stream the results are displayed on.
+     * @throws IOException to inputCommand method.
      */
-    public void loadMembers() throws FileNotFoundException {
-        File file = new File("src/memberList.txt");
-        Scanner infile = new Scanner(file);
-        String input;
-
-        while(infile.hasNextLine()) {
-            input = infile.nextLine();
-            String[] arrInput = input.split("\\s+", 0);
-            Member addMember = new Member(arrInput[0], arrInput[1],
-                    arrInput[2], arrInput[3], arrInput[4]);
-            database.add(addMember);
+    public void loadMembers(PrintStream out) throws IOException {
+        MemberListLoader loader = new MemberListLoader(database, names);
+        loader.load("src/memberList.txt");
+        out.println("-list of members loaded-");
+        try {
+            database.printMembers(out);
+        } catch (IOException e) {
+            out.println("Unable to display the list of members.");
         }
-        System.out.println("-list of members loaded-");
-        System.out.println(database + "-end of list-\n");
+        out.println("-end of list-");
+        out.println(loader + "\n");
+    }
+
+    /**
+     * Handles a command line operation in the Gym Manager.
+     * The command is parsed in place and dispatched on its opcode, so no
+     * objects are created until it is handled.
+     * @param input the command line operation to perform.
+     */
+    public void inputCommand(String input) {
+        parser.parse(input);
+        execute(parser, System.out);
     }
 
     /**
@@ -414,92 +636,118 @@ public class GymManager {
      * database, and checked in or dropped from a fitness class.
      * Guests can also be checked in or dropped from a fitness class.
      * The database can be sorted by name, expiration date, DOB, or fee.
+     * The members expiring within a number of days, or who expired last
+     * month, can also be displayed.
      * It can also handle exceptions thrown by loadSchedule and
      * loadMember. It also terminates the Gym Manager.
-     * @param input the command line operation to perform.
+     * @param command the parsed command line operation to perform.
+     * @param out the stream the results are displayed on.
      */
-    public void inputCommand(String input) {
-        String command = input.length() == 1 ? input : input.substring(0, 2);
-        switch(command){
-            case "A ":
-                add(input);
-                break;
-            case "AF":
-                add(input);
-                break;
-            case "AP":
-                add(input);
-                break;
-            case "R ":
-                remove(input);
+    private void execute(CommandParser command, PrintStream out) {
+        switch(command.getOpcode()){
+            case ADD:
+            case ADD_FAMILY:
+            case ADD_PREMIUM:
+                add(command, out);
                 break;
-            case "P":
-                if(!isDatabaseEmptyMessage())
-                    database.print();
+            case REMOVE:
+                remove(command, out);
                 break;
-            case "PC":
-                if(!isDatabaseEmptyMessage())
-                    database.printByCounty();
+            case PRINT:
+            case PRINT_BY_COUNTY:
+            case PRINT_BY_NAME:
+            case PRINT_BY_EXPIRATION_DATE:
+            case PRINT_BY_MEMBERSHIP_FEE:
+            case PRINT_EXPIRED_LAST_MONTH:
+                if(!isDatabaseEmptyMessage(out))
+                    printMembers(command, out);
                 break;
-            case "PN":
-                if(!isDatabaseEmptyMessage())
-                    database.printByName();
+            case PRINT_EXPIRING:
+                if(!isDatabaseEmptyMessage(out))
+                    printExpiring(command, out);
                 break;
-            case "PD":
-                if(!isDatabaseEmptyMessage())
-                    database.printByExpirationDate();
+            case SCHEDULE:
+                if(!isScheduleEmptyMessage(out)){
+                    out.println("\n-Fitness classes-");
+                    schedule(out);}
                 break;
-            case "PF":
-                if(!isDatabaseEmptyMessage())
-                    database.printByMembershipFee();
+            case CHECK_IN:
+                checkIn(command, out);
                 break;
-            case "S":
-                if(!isScheduleEmptyMessage()){
-                    System.out.println("\n-Fitness classes-");
-                    schedule();}
+            case CHECK_IN_GUEST:
+                checkInGuest(command, out);
                 break;
-            case "C ":
-                checkIn(input);
+            case DONE:
+                doneWithClass(command, out);
                 break;
-            case "CG":
-                checkInGuest(input);
+            case DONE_GUEST:
+                doneWithGuestClass(command, out);
                 break;
-            case "D ":
-                doneWithClass(input);
+            case QUIT:
                 break;
-            case "DG":
-                doneWithGuestClass(input);
-                break;
-            case "Q":
-                break;
-            case "LS":
+            case LOAD_SCHEDULE:
                 try {
-                    loadSchedule();
+                    loadSchedule(out);
+                    checkpoint(out);
                 }
                 catch(FileNotFoundException e) {
-                    System.out.println("Schedule file not found");
+                    out.println("Schedule file not found");
                 }
                 break;
-            case "LM":
+            case LOAD_MEMBERS:
                 try {
-                    loadMembers();
+                    loadMembers(out);
+                    checkpoint(out);
                 }
-                catch(FileNotFoundException e) {
-                    System.out.println("Member list file not found");
+                catch(IOException e) {
+                    out.println("Member list file not found");
                 }
                 break;
             default:
-                System.out.println(input + " is an invalid command!");
+                out.println(command.getLine() +
+                        " is an invalid command!");
+        }
+    }
+
+    /**
+     * Displays the members in the order a print command asks for.
+     * @param command the parsed print command.
+     * @param out the stream the members are displayed on.
+     */
+    private void printMembers(CommandParser command, PrintStream out) {
+        try {
+            switch(command.getOpcode()) {
+                case PRINT_BY_COUNTY:
+                    database.printByCounty(out);
+                    break;
+                case PRINT_BY_NAME:
+                    database.printByName(out);
+                    break;
+                case PRINT_BY_EXPIRATION_DATE:
+                    database.printByExpirationDate(out);
+                    break;
+                case PRINT_BY_MEMBERSHIP_FEE:
+                    database.printByMembershipFee(out);
+                    break;
+                case PRINT_EXPIRED_LAST_MONTH:
+                    database.printExpiredLastMonth(out);
+                    break;
+                default:
+                    database.print(out);
+            }
+        } catch (IOException e) {
+            out.println("Unable to display the list of members.");
         }
     }
 
     /**
      * Displays a message informing the user if the database is empty.
+     * @param out the stream messages are displayed on.
      * @return true if database is empty, false otherwise.
     */
-    private boolean isDatabaseEmptyMessage() {
+    private boolean isDatabaseEmptyMessage(PrintStream out) {
         if(database.getSize() == 0) {
-            System.out.println("Member database is empty!");
+            out.println("Member database is empty!");
             return true;
         }
         return false;
@@ -507,11 +755,12 @@ public class GymManager {
 
     /**
      * Displays a message informing the user if the schedule is empty.
+     * @param out the stream messages are displayed on.
      * @return true if schedule is empty, false otherwise.
      */
-    private boolean isScheduleEmptyMessage() {
+    private boolean isScheduleEmptyMessage(PrintStream out) {
         if(schedule.getSize() == 0) {
-            System.out.println("Fitness class schedule is empty.");
+            out.println("Fitness class schedule is empty.");
             return true;
         }
         return false;
@@ -519,9 +768,12 @@ public class GymManager {
 
     /**
      * Reads and handles command line operations.
+     * Restores the gym before reading any operations, and saves a snapshot
+     * of the gym once the Gym Manager is terminated.
      */
     public void run() {
         System.out.println("Gym Manager running...");
+        restore(System.out);
         Scanner myScanner;
         String input = "";
 
@@ -529,14 +781,232 @@ public class GymManager {
             myScanner = new Scanner(System.in);
             while(myScanner.hasNextLine()) {
                 input = myScanner.nextLine();
-                if(input.length() > 0)
-                    inputCommand(input);
-                else
-                    System.out.println();
+                handle(input, System.out);
                 if(input.equals("Q"))
                     break;
             }
         } while(!input.equals("Q"));
-        System.out.println("Gym Manager terminated.");
+        terminate(System.out);
+    }
+
+    /**
+     * Reads and handles a batch of command line operations, such as a day's
+     * worth of front desk commands replayed from a file. The commands are
+     * read through a buffered reader, and everything printed while they are
+     * handled, by the database and schedule as well, goes through a single
+     * buffered stream that is written out a block at a time rather than a
+     * line at a time. Changes are saved to the mutation log together every
+     * so many commands, rather than one at a time, and the output buffered
+     * so far is written out after each save. If the gym stops in the middle
+     * of a batch, the changes made since the last save are lost, and those
+     * commands need to be run again. Stops at Q or at the end of the
+     * commands. Once done, prints the number of commands handled per second
+     * to standard error, so it is kept apart from the output of the commands.
+     * @param commands the operations to handle, one per line.
+     * @throws IOException if the operations cannot be read.
+     */
+    public void runBatch(Reader commands) throws IOException {
+        runBuffered(commands, false);
+    }
+
+    /**
+     * Reads and handles a batch of command line operations as runBatch
+     * does, but in a CommandPipeline, so reading and parsing the commands
+     * and writing out their output happen on their own threads while the
+     * commands are handled. The commands are still handled one at a time in
+     * order, so the output is the same as runBatch's. It can only be faster
+     * with more than one processor, as the stages otherwise take turns on
+     * the same one; on one processor runBatch is as fast or faster, and is
+     * what a batch runs with unless the pipeline is asked for.
+     * @param commands the operations to handle, one per line.
+     * @throws IOException if the operations cannot be read.
+     */
+    public void runPipelined(Reader commands) throws IOException {
+        runBuffered(commands, true);
+    }
+
+    /**
+     * Serves front desks over local TCP connections, and kiosks and apps
+     * over HTTP, with a GymServer until Q is entered on the console. The gym
+     * is restored before anyone is served, and a snapshot is saved once the
+     * server has stopped.
+     * @param port the port to listen on for desks.
+     * @param httpPort the port to serve the HTTP API on.
+     * @throws IOException if either port cannot be listened on.
+     */
+    public void runServer(int port, int httpPort) throws IOException {
+        System.out.println("Gym Manager running...");
+        restore(System.out);
+        batch = true;
+        try(GymServer server = new GymServer(this, port, httpPort)) {
+            server.start();
+            System.out.println("Serving front desks on port " +
+                    server.getPort() + " and HTTP on port " +
+                    server.getHttpPort() + ", enter Q to stop.");
+            Scanner myScanner = new Scanner(System.in);
+            while(myScanner.hasNextLine())
+                if(myScanner.nextLine().equals("Q"))
+                    break;
+        } finally {
+            batch = false;
+        }
+        terminate(System.out);
+    }
+
+    /**
+     * Runs a batch of command line operations with buffered output, then
+     * prints the number of commands handled per second to standard error.
+     * @param commands the operations to handle, one per line.
+     * @param pipelined true to handle them in a CommandPipeline, false to
+     *                  read, handle, and write each in turn.
+     * @throws IOException if the operations cannot be read.
+     */
+    private void runBuffered(Reader commands, boolean pipelined)
+            throws IOException {
+        PrintStream output = new PrintStream(
+                new BufferedOutputStream(System.out, OUTPUT_BUFFER), false);
+        long handled;
+        long start = System.nanoTime();
+        batch = true;
+        try(BufferedReader reader =
+                    new BufferedReader(commands, INPUT_BUFFER)) {
+            output.println("Gym Manager running...");
+            restore(output);
+            if(pipelined)
+                handled = new CommandPipeline(this, reader, output).run();
+            else
+                handled = runSerial(reader, output);
+            terminate(output);
+        } finally {
+            batch = false;
+            output.flush();
+        }
+        double seconds = (System.nanoTime() - start) / NANOS_PER_SECOND;
+        System.err.printf("%d commands in %.3f seconds, %.0f commands/sec%n",
+                handled, seconds, handled / seconds);
+    }
+
+    /**
+     * Reads, handles, and writes out the output of each command in a batch
+     * in turn, until Q or the end of the commands.
+     * @param reader the operations to handle, one per line.
+     * @param output the stream the output of the commands is buffered in.
+     * @return the number of commands handled.
+     * @throws IOException if the operations cannot be read.
+     */
+    private long runSerial(BufferedReader reader, PrintStream output)
+            throws IOException {
+        long handled = 0;
+        String input;
+        while((input = reader.readLine()) != null) {
+            handle(input, output);
+            if(input.length() > 0 && ++handled % BATCH_SYNC == 0) {
+                saveChanges(output);
+                output.flush();
+            }
+            if(input.equals("Q"))
+                break;
+        }
+        return handled;
+    }
+
+    /**
+     * Saves the changes made by the commands in a batch, or by the desks
+     * being served, so far to the mutation log.
+     * @param out the stream messages are displayed on.
+     */
+    void saveChanges(PrintStream out) {
+        try {
+            if(log != null)
+                log.sync();
+        } catch (IOException e) {
+            out.println("Unable to save the change.");
+        }
+    }
+
+    /**
+     * Handles one line of input, printing an empty line for an empty one.
+     * @param input the command line operation to perform.
+     * @param out the stream the results are displayed on.
+     */
+    private void handle(String input, PrintStream out) {
+        parser.parse(input);
+        handle(parser, out);
+    }
+
+    /**
+     * Handles one parsed line of input, printing an empty line for an empty
+     * one.
+     * @param command the parsed command line operation to perform.
+     * @param out the stream the results are displayed on.
+     */
+    void handle(CommandParser command, PrintStream out) {
+        if(command.getLine().length() > 0)
+            execute(command, out);
+        else
+            out.println();
+    }
+
+    /**
+     * Checks if a command only reports on the members, so it reads the
+     * member database and nothing else, and changes nothing.
+     * @param command the parsed command.
+     * @return true if the command is a member report, false otherwise.
+     */
+    boolean isMemberReport(CommandParser command) {
+        switch(command.getOpcode()) {
+            case PRINT:
+            case PRINT_BY_COUNTY:
+            case PRINT_BY_NAME:
+            case PRINT_BY_EXPIRATION_DATE:
+            case PRINT_BY_MEMBERSHIP_FEE:
+            case PRINT_EXPIRING:
+            case PRINT_EXPIRED_LAST_MONTH:
+                return true;
+            default:
+                return false;
+        }
+    }
+
+    /**
+     * Gets the number of changes made to the members and class rosters since
+     * the Gym Manager was created, so a caller can tell whether a command
+     * changed the gym.
+     * @param out the stream messages are displayed on.
+     * @return the number of changes.
+     */
+    long getChanges() {
+        return changes;
+    }
+
+    /**
+     * Gets the database of members, for reading it directly.
+     * @return the member database.
+     */
+    MemberDatabase getDatabase() {
+        return database;
+    }
+
+    /**
+     * Gets the schedule of fitness classes, for reading it directly.
+     * @return the class schedule.
+     */
+    ClassSchedule getSchedule() {
+        return schedule;
+    }
+
+    /**
+     * Saves a snapshot of the gym and closes the mutation log once the Gym
+     * Manager is terminated.
+     */
+    private void terminate(PrintStream out) {
+        checkpoint(out);
+        try {
+            if(log != null)
+                log.close();
+        } catch (IOException e) {
+            out.println("Unable to save the gym.");
+        }
+        out.println("Gym Manager terminated.");
     }
 }
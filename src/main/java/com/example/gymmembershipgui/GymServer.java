@@ -0,0 +1,279 @@
+package com.example.gymmembershipgui;
+
+import java.io.BufferedOutputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import com.sun.net.httpserver.HttpServer;
+
+/**
+ * GymServer lets many front desks and turnstiles share one Gym Manager over
+ * local TCP connections. Each desk sends the same commands that are typed
+ * into the Gym Manager, one per line, and gets back what the command printed
+ * followed by a line holding only END_OF_RESPONSE. Every connection is
+ * served by its own thread, which reads and parses the desk's commands and
+ * writes back the responses, so slow desks never hold up the others. The
+ * commands are handled one at a time under a single lock, since a check-in
+ * reads and changes the database, the schedule, and the mutation log
+ * together. Changes are appended to the log deferred while the lock is
+ * held, and each desk waits for them to be synced only after letting go of
+ * it, so the desks changing the gym at the same time share each sync.
+ * Whatever a command prints goes to the response of the desk that sent it.
+ * The server also serves a GymHttpApi on a second port, for kiosks and
+ * apps, sharing the same lock. When the Gym Manager keeps its members in a
+ * ConcurrentMemberDatabase, member reports and the API's member lookups
+ * and lists read it without the lock, while commands change it. The
+ * schedule has no such store, so check-ins and the API's schedule still
+ * take turns with every change.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class GymServer implements Closeable {
+    private final GymManager manager;
+    private final ServerSocket server;
+    private final HttpServer http;
+    private final ExecutorService connections;
+    private final Set<Socket> sockets;
+    private final ReentrantLock lock;
+    private final boolean concurrentMembers;
+    private Thread acceptor;
+
+    /**
+     * The port the server listens on when none is given.
+     */
+    public static final int DEFAULT_PORT = 7070;
+
+    /**
+     * The port the HTTP API is served on when none is given.
+     */
+    public static final int DEFAULT_HTTP_PORT = 8080;
+
+    /**
+     * The line that ends each response.
+     */
+    public static final String END_OF_RESPONSE = ".";
+
+    private static final String QUIT = "Q";
+    private static final int BACKLOG = 1024;
+    private static final int RESPONSE_BUFFER = 1 << 10;
+    private static final int MAX_RESPONSE_BUFFER = 1 << 20;
+    private static final int CLOSE_TIMEOUT_SECONDS = 10;
+    private static final byte[] END_OF_RESPONSE_LINE =
+            (END_OF_RESPONSE + System.lineSeparator()).getBytes();
+    private static final byte[] UNABLE_TO_HANDLE_LINE =
+            ("Unable to handle the command." + System.lineSeparator())
+                    .getBytes();
+
+    /**
+     * Creates an instance of GymServer listening on two local ports, one
+     * for desks and one for the HTTP API.
+     * No connections are accepted until the server is started.
+     * @param manager the Gym Manager the desks share.
+     * @param port the port to listen on for desks, 0 for any free port.
+     * @param httpPort the port to serve the HTTP API on, 0 for any free
+     *                 port.
+     * @throws IOException if either port cannot be listened on.
+     */
+    public GymServer(GymManager manager, int port, int httpPort)
+            throws IOException {
+        this.manager = manager;
+        server = new ServerSocket(port, BACKLOG,
+                InetAddress.getLoopbackAddress());
+        try {
+            http = HttpServer.create(new InetSocketAddress(
+                    InetAddress.getLoopbackAddress(), httpPort), BACKLOG);
+        } catch (IOException e) {
+            server.close();
+            throw e;
+        }
+        AtomicInteger connection = new AtomicInteger();
+        connections = Executors.newCachedThreadPool(task -> {
+            Thread thread = new Thread(task,
+                    "gym-connection-" + connection.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        sockets = ConcurrentHashMap.newKeySet();
+        lock = new ReentrantLock();
+        concurrentMembers =
+                manager.getDatabase() instanceof ConcurrentMemberDatabase;
+        http.setExecutor(connections);
+        new GymHttpApi(this, manager).register(http);
+    }
+
+    /**
+     * Gets the port the server is listening on for desks.
+     * @return the local port.
+     */
+    public int getPort() {
+        return server.getLocalPort();
+    }
+
+    /**
+     * Gets the port the HTTP API is served on.
+     * @return the local port.
+     */
+    public int getHttpPort() {
+        return http.getAddress().getPort();
+    }
+
+    /**
+     * Starts accepting connections.
+     */
+    public void start() {
+        acceptor = new Thread(this::accept, "gym-server");
+        acceptor.start();
+        http.start();
+    }
+
+    /**
+     * Accepts connections until the server is closed, serving each on its
+     * own thread.
+     */
+    private void accept() {
+        while (!server.isClosed()) {
+            try {
+                Socket socket = server.accept();
+                sockets.add(socket);
+                connections.execute(() -> serve(socket));
+            } catch (IOException e) {
+                if (!server.isClosed())
+                    System.out.println("Unable to accept a connection.");
+            }
+        }
+    }
+
+    /**
+     * Reads and handles the commands from one desk until it sends Q or
+     * disconnects, writing back the response to each. A command that fails
+     * gets an error line in place of the rest of its response, and the desk
+     * is served as before.
+     * @param socket the connection to the desk.
+     */
+    private void serve(Socket socket) {
+        CommandParser command = new CommandParser();
+        ByteArrayOutputStream response =
+                new ByteArrayOutputStream(RESPONSE_BUFFER);
+        PrintStream printer = new PrintStream(response, false);
+        try (socket; BufferedReader in = new BufferedReader(
+                new InputStreamReader(socket.getInputStream()));
+             OutputStream out = new BufferedOutputStream(
+                     socket.getOutputStream())) {
+            socket.setTcpNoDelay(true);
+            String line;
+            while ((line = in.readLine()) != null && !line.equals(QUIT)) {
+                try {
+                    command.parse(line);
+                    handle(command, printer);
+                } catch (RuntimeException e) {
+                    response.write(UNABLE_TO_HANDLE_LINE);
+                }
+                response.writeTo(out);
+                out.write(END_OF_RESPONSE_LINE);
+                out.flush();
+                if (response.size() > MAX_RESPONSE_BUFFER) {
+                    response = new ByteArrayOutputStream(RESPONSE_BUFFER);
+                    printer = new PrintStream(response, false);
+                } else
+                    response.reset();
+            }
+        } catch (IOException e) {
+            // The desk disconnected, so there is no one left to answer.
+        } finally {
+            sockets.remove(socket);
+        }
+    }
+
+    /**
+     * Handles one command under the lock, then waits for any change it made
+     * to be saved to the mutation log. A member report is handled without
+     * the lock if the members are kept in a ConcurrentMemberDatabase.
+     * @param command the parsed command.
+     * @param response the stream the output of the command is written to.
+     * @return true if the command changed the members or class rosters,
+     * false otherwise.
+     */
+    boolean handle(CommandParser command, PrintStream response) {
+        if (concurrentMembers && manager.isMemberReport(command)) {
+            manager.handle(command, response);
+            return false;
+        }
+        long changes;
+        lock.lock();
+        try {
+            changes = manager.getChanges();
+            manager.handle(command, response);
+            changes = manager.getChanges() - changes;
+        } finally {
+            lock.unlock();
+        }
+        if (changes > 0)
+            manager.saveChanges(response);
+        return changes > 0;
+    }
+
+    /**
+     * Runs a task that reads the gym under the lock, so no command changes
+     * the gym while it does.
+     * @param task the task.
+     * @param <T> the type of what the task reads.
+     * @return what the task read.
+     */
+    <T> T read(Supplier<T> task) {
+        lock.lock();
+        try {
+            return task.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Runs a task that reads only the members, without the lock if they are
+     * kept in a ConcurrentMemberDatabase, or under it otherwise.
+     * @param task the task.
+     * @param <T> the type of what the task reads.
+     * @return what the task read.
+     */
+    <T> T readMembers(Supplier<T> task) {
+        return concurrentMembers ? task.get() : read(task);
+    }
+
+    /**
+     * Stops accepting connections, disconnects every desk, and waits for
+     * the commands and requests being handled to finish.
+     * @throws IOException if the server cannot stop listening.
+     */
+    @Override
+    public void close() throws IOException {
+        http.stop(0);
+        server.close();
+        for (Socket socket : sockets)
+            socket.close();
+        connections.shutdown();
+        try {
+            if (acceptor != null)
+                acceptor.join();
+            connections.awaitTermination(CLOSE_TIMEOUT_SECONDS,
+                    TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * JsonWriter writes JSON a token at a time to a stream, without building
+ * the objects and arrays it writes first. Commas and colons are put between
+ * tokens as they are written. Every character outside printable ASCII is
+ * written as a Unicode escape, so the JSON is ASCII, and so also UTF-8,
+ * without encoding it. The bytes go into a small buffer of fixed size that
+ * is written to the stream each time it fills, so a document of any length
+ * is sent while it is written, and never held in memory whole.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+public class JsonWriter {
+    private final OutputStream out;
+    private final byte[] buffer;
+    private int count;
+    private final boolean[] first;
+    private int depth;
+    private boolean afterName;
+
+    private static final int MAX_DEPTH = 32;
+    private static final int BUFFER_SIZE = 1 << 12;
+    private static final int FIRST_PRINTABLE = 0x20;
+    private static final int LAST_ASCII = 0x7E;
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    /**
+     * Creates an instance of JsonWriter that writes to a stream.
+     * @param out the stream the JSON is written to.
+     */
+    public JsonWriter(OutputStream out) {
+        this.out = out;
+        buffer = new byte[BUFFER_SIZE];
+        first = new boolean[MAX_DEPTH + 1];
+        first[0] = true;
+    }
+
+    /**
+     * Starts an object.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter beginObject() throws IOException {
+        return open('{');
+    }
+
+    /**
+     * Ends the object being written.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter endObject() throws IOException {
+        return close('}');
+    }
+
+    /**
+     * Starts an array.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter beginArray() throws IOException {
+        return open('[');
+    }
+
+    /**
+     * Ends the array being written.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter endArray() throws IOException {
+        return close(']');
+    }
+
+    /**
+     * Writes the name of the next member of the object being written.
+     * @param name the name.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter name(String name) throws IOException {
+        separate();
+        string(name);
+        write(':');
+        afterName = true;
+        return this;
+    }
+
+    /**
+     * Writes a string, or null if there is none.
+     * @param value the string.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter value(String value) throws IOException {
+        separate();
+        if (value == null)
+            ascii("null");
+        else
+            string(value);
+        return this;
+    }
+
+    /**
+     * Writes a whole number.
+     * @param value the number.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter value(long value) throws IOException {
+        separate();
+        ascii(Long.toString(value));
+        return this;
+    }
+
+    /**
+     * Writes a number, or null if it is not finite, as JSON has no NaN or
+     * infinity.
+     * @param value the number.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter value(double value) throws IOException {
+        separate();
+        ascii(Double.isFinite(value) ? Double.toString(value) : "null");
+        return this;
+    }
+
+    /**
+     * Writes true or false.
+     * @param value the value.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public JsonWriter value(boolean value) throws IOException {
+        separate();
+        ascii(value ? "true" : "false");
+        return this;
+    }
+
+    /**
+     * Writes what is left in the buffer to the stream, and flushes it.
+     * @throws IOException if the stream cannot be written to.
+     */
+    public void flush() throws IOException {
+        out.write(buffer, 0, count);
+        count = 0;
+        out.flush();
+    }
+
+    /**
+     * Starts an object or array.
+     * @param bracket the character that starts it.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private JsonWriter open(char bracket) throws IOException {
+        if (depth == MAX_DEPTH)
+            throw new IllegalStateException("JSON nested too deeply");
+        separate();
+        write(bracket);
+        first[++depth] = true;
+        return this;
+    }
+
+    /**
+     * Ends an object or array.
+     * @param bracket the character that ends it.
+     * @return this writer.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private JsonWriter close(char bracket) throws IOException {
+        if (depth == 0)
+            throw new IllegalStateException("nothing to end");
+        write(bracket);
+        depth--;
+        return this;
+    }
+
+    /**
+     * Writes a comma before every value but the first in an object or
+     * array, and nothing after a name.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private void separate() throws IOException {
+        if (afterName) {
+            afterName = false;
+            return;
+        }
+        if (!first[depth])
+            write(',');
+        first[depth] = false;
+    }
+
+    /**
+     * Writes a quoted string, escaping quotes, backslashes, and every
+     * character that is not printable ASCII. New lines and tabs, which the
+     * Gym Manager's messages hold, get their short escapes.
+     * @param value the string.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private void string(String value) throws IOException {
+        write('"');
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == '"' || c == '\\') {
+                write('\\');
+                write(c);
+            } else if (c == '\n') {
+                ascii("\\n");
+            } else if (c == '\t') {
+                ascii("\\t");
+            } else if (c >= FIRST_PRINTABLE && c <= LAST_ASCII) {
+                write(c);
+            } else {
+                write('\\');
+                write('u');
+                write(HEX[c >> 12 & 0xF]);
+                write(HEX[c >> 8 & 0xF]);
+                write(HEX[c >> 4 & 0xF]);
+                write(HEX[c & 0xF]);
+            }
+        }
+        write('"');
+    }
+
+    /**
+     * Writes an ASCII character, first writing the buffer to the stream if
+     * it is full.
+     * @param c the character.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private void write(int c) throws IOException {
+        if (count == buffer.length) {
+            out.write(buffer, 0, count);
+            count = 0;
+        }
+        buffer[count++] = (byte) c;
+    }
+
+    /**
+     * Writes text known to be ASCII as it is.
+     * @param text the text.
+     * @throws IOException if the stream cannot be written to.
+     */
+    private void ascii(String text) throws IOException {
+        for (int i = 0; i < text.length(); i++)
+            write(text.charAt(i));
+    }
+}
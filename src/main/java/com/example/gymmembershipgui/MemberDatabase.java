@@ -1,228 +1,623 @@
 package com.example.gymmembershipgui;
 
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
 /**
  * MemberDatabase manages the members at a gym, or in a fitness class.
  * Each database is defined with an array of members as well as a size of the
- * database. Members can be found in the database by comparing each member in
- * the database to the member that needs to be found. Additionally, when the
- * database has reached capacity and more members need to be added, the
- * database can grow in size. If a member wants to join the gym, they can be
- * added to the database, and if a member would like to leave, they can be
- * removed. The database can also sort the members by name, location,
- * expiration date, fee and display the members in the database.
+ * database. Members are found in the database through a hash index keyed on
+ * their name and date of birth, which maps each member to the slot holding
+ * them in the array. Additionally, when the database has reached capacity and
+ * more members need to be added, the database can grow in size. If a member
+ * wants to join the gym, they can be added to the database, and if a member
+ * would like to leave, they can be removed. The database also keeps sorted
+ * views of the members by name, location, and expiration date, which are
+ * updated as members are added and removed, so the members can be displayed
+ * in any of these orders without changing the order they were added in.
  * @author Arunima Tripathy, Mahfuza Rahman
  */
 public class MemberDatabase {
     private Member[] mlist;
     private int size;
+    private int used;
+    private HashMap<Member, Integer> index;
+    private TreeSet<Member> byName;
+    private EnumMap<Location, LinkedHashSet<Member>> byCounty;
+    private TreeMap<Date, LinkedHashSet<Member>> byExpiration;
     private final static int NOT_FOUND = -1;
     private final static int INITIAL_LENGTH = 4;
     private final static int INITIAL_SIZE = 0;
+    private final static int GROWTH_FACTOR = 2;
+    private final static float LOAD_FACTOR = 0.75f;
 
     /**
      * Creates an instance of MemberDatabase with a list of members and size.
      * Creates an array of length four and sets the size of database to 0.
-     * The size represents the number of members in the array and the index
-     * the next member should be added to.
+     * The size represents the number of members in the array, and used
+     * represents the index the next member should be added to. Slots below
+     * used that hold null belong to members that have been removed.
      */
     public MemberDatabase() {
         mlist = new Member[INITIAL_LENGTH];
         size = INITIAL_SIZE;
+        used = INITIAL_SIZE;
+        index = new HashMap<>();
+        byName = new TreeSet<>();
+        byCounty = new EnumMap<>(Location.class);
+        byExpiration = new TreeMap<>();
     }
 
     /**
      * Finds the index number at which a member exists in the list of members.
-     * Iterates through array of members, and checks if an existing member
-     * equals the member passed as a parameter.
+     * Looks up the member in the hash index, which compares members by their
+     * first and last name and DOB.
      * @param member the member that must be found.
      * @return the index the member is at in list of members, -1 if not found.
      */
     private int find(Member member) {
-        for (int i = 0; i < size; i++) {
-            if (mlist[i].equals(member))
-                return i;
-        }
-        return NOT_FOUND;
+        Integer memberIndex = index.get(member);
+        if (memberIndex == null)
+            return NOT_FOUND;
+        return memberIndex;
     }
 
     /**
      * Increases the size of database when the array is filled to capacity.
-     * Creates a new array with the length of the list of members plus 4.
-     * Copies the members of the original array of members to the new array.
-     * Sets the old array of members to equal to the new array of members.
+     * Doubles the length of the list of members so that adding a member
+     * takes constant time on average.
      */
     private void grow() {
-        // create new member list of increased size to copy old member list
-        Member[] tempMList = new Member[mlist.length + 4];
-        for (int i = 0; i < size; i++) {
-            tempMList[i] = mlist[i];
+        relocate(mlist.length * GROWTH_FACTOR);
+    }
+
+    /**
+     * Makes room in the database for at least the given number of members.
+     * Used before loading many members at once, so that neither the list of
+     * members nor the hash index has to grow while they are being added.
+     * @param capacity the number of members the database should hold.
+     */
+    public void ensureCapacity(int capacity) {
+        if (capacity <= mlist.length)
+            return;
+        relocate(capacity);
+        HashMap<Member, Integer> presized =
+                new HashMap<>((int) (capacity / LOAD_FACTOR) + 1);
+        presized.putAll(index);
+        index = presized;
+    }
+
+    /**
+     * Closes the gaps left in the list of members by removed members.
+     * Keeps the length of the list of members the same.
+     */
+    private void compact() {
+        relocate(mlist.length);
+    }
+
+    /**
+     * Copies the members to a new array of the given length.
+     * Members keep their order but are moved to the left over any empty
+     * slots, and the hash index is updated for every member that moved.
+     * @param length the length of the new list of members.
+     */
+    private void relocate(int length) {
+        // create new member list to copy old member list without the gaps
+        Member[] tempMList = new Member[length];
+        int next = 0;
+        for (int i = 0; i < used; i++) {
+            if (mlist[i] == null)
+                continue;
+            if (next != i)
+                index.put(mlist[i], next);
+            tempMList[next++] = mlist[i];
         }
         mlist = tempMList;
+        used = next;
+    }
+
+    /**
+     * Builds the sorted views of the database if they have been dropped.
+     * Adds every member to the sorted views in the order they were added.
+     */
+    private void buildSortedViews() {
+        if (byName != null)
+            return;
+        byName = new TreeSet<>();
+        byCounty = new EnumMap<>(Location.class);
+        byExpiration = new TreeMap<>();
+        for (int i = 0; i < used; i++)
+            if (mlist[i] != null)
+                addToSortedViews(mlist[i]);
+    }
+
+    /**
+     * Drops the sorted views of the database until a report next needs them.
+     * Used before adding many members that may never be printed in order.
+     */
+    void dropSortedViews() {
+        byName = null;
+        byCounty = null;
+        byExpiration = null;
+    }
+
+    /**
+     * Adds a member to the sorted views of the database.
+     * The member is placed in order by last and first name, by location, and
+     * by expiration date. Members with the same location or expiration date
+     * are kept in the order they were added. Nothing is done while the
+     * sorted views are dropped.
+     * @param member the member that was added to the database.
+     */
+    private void addToSortedViews(Member member) {
+        if (byName == null)
+            return; // built when they are next needed
+        byName.add(member);
+        byCounty.computeIfAbsent(member.getLocation(),
+                location -> new LinkedHashSet<>()).add(member);
+        byExpiration.computeIfAbsent(member.getExpire(),
+                expire -> new LinkedHashSet<>()).add(member);
+    }
+
+    /**
+     * Removes a member from the sorted views of the database.
+     * Any location or expiration date left with no members is dropped.
+     * Nothing is done while the sorted views are dropped.
+     * @param member the member that was removed from the database.
+     */
+    private void removeFromSortedViews(Member member) {
+        if (byName == null)
+            return; // built when they are next needed
+        byName.remove(member);
+        LinkedHashSet<Member> sameLocation = byCounty.get(member.getLocation());
+        sameLocation.remove(member);
+        if (sameLocation.isEmpty())
+            byCounty.remove(member.getLocation());
+        LinkedHashSet<Member> sameExpire = byExpiration.get(member.getExpire());
+        sameExpire.remove(member);
+        if (sameExpire.isEmpty())
+            byExpiration.remove(member.getExpire());
     }
 
     /**
      * Adds a member to the database.
-     * If array of members is filled, database is grown. Checks if member
-     * already exists in the database. If member does not exist, then the
-     * member is added, and size is grown. Otherwise, member is not added.
+     * Checks if member already exists in the database. If member does not
+     * exist, then the member is added to the list of members and the sorted
+     * views, and size is grown. If array of members is filled, database is
+     * grown first. Otherwise, member is not added.
      * @param member the member that is being added to the database.
      * @return true if member is added, false if member in database already.
      */
     public boolean add(Member member) {
-        if (size == mlist.length)
-            grow();
         if(find(member) != NOT_FOUND)
             return false;
-        mlist[size++] = member;
+        if (used == mlist.length)
+            grow();
+        index.put(member, used);
+        mlist[used++] = member;
+        size++;
+        addToSortedViews(member);
         return true;
     }
 
     /**
      * Removes a member from the database.
      * Checks if member exists in the database. If member exists, the member
-     * is removed from the list of members, and following members are moved to
-     * left of list, and size is decreased.
+     * is removed from the list of members and the sorted views, leaving an
+     * empty slot so the order of the other members is kept, and size is
+     * decreased. Once more than half
+     * of the used slots are empty, the list of members is compacted.
      * @param member the member that must be removed.
      * @return true if member removed, false if the member is not in database.
      * */
     public boolean remove(Member member) {
-        int removalIndex = find(member); // find index of member to remove
-        if (removalIndex == NOT_FOUND)
+        Integer removalIndex = index.remove(member); // index of member
+        if (removalIndex == null)
             return false; // if the member is not in the list, invalid removal
-        if(removalIndex == size - 1) { // if member at end of list, remove end
-            mlist[removalIndex] = null;
-            size--;
-            return true;
-        }
-        // to maintain order of members in list, move each member to the left
-        for(int i = removalIndex; i < size - 1; i++)
-            mlist[i] = mlist[i+1];
-        mlist[--size] = null;
+        removeFromSortedViews(mlist[removalIndex]);
+        mlist[removalIndex] = null;
+        size--;
+        if (removalIndex == used - 1) // if member at end of list, remove end
+            used--;
+        // to maintain order of members in list, only close gaps in bulk
+        if (used - size > size)
+            compact();
         return true;
     }
 
     /**
      * Displays the list of members in database.
-     * Iterates through the list of members and prints each member.
+     * Streams the list of members to standard output.
      */
     public void print() {
-        System.out.println("\n-list of members-");
-        for(int i = 0; i < size; i++)
-            System.out.println(mlist[i].toString());
-        System.out.println("-end of list-\n");
+        try {
+            print(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
+        }
+    }
+
+    /**
+     * Writes the list of members in database to the given output.
+     * Iterates through the list of members and writes each member as a line.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void print(Appendable out) throws IOException {
+        out.append("\n-list of members-\n");
+        printMembers(out);
+        out.append("-end of list-\n\n");
     }
 
     /**
      * Displays the list of members in database ordered by county and zipcode.
-     * Sorts the list by county and zip code using in-place insertion sort.
-     * Iterates through the list of members and prints each member.
+     * Streams the list of members to standard output.
      */
     public void printByCounty() {
-        for(int i = 1; i < size; i++){
-            Member keyMember = mlist[i];
-            int j = i - 1;
-            // Move each location alphabetically ahead of key location up
-            while(j >= 0 && mlist[j].getLocation().ordinal() >
-                    keyMember.getLocation().ordinal())
-                mlist[j+1] = mlist[j--];
-            mlist[j + 1] = keyMember;
+        try {
+            printByCounty(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
         }
-        System.out.println("\n-list of members sorted by county and " +
-                "zipcode-");
-        for(int i = 0; i < size; i++)
-            System.out.println(mlist[i].toString());
-        System.out.println("-end of list-\n");
+    }
+
+    /**
+     * Writes the list of members ordered by county and zipcode to the output.
+     * Walks the locations in order and writes the members at each location.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printByCounty(Appendable out) throws IOException {
+        out.append("\n-list of members sorted by county and zipcode-\n");
+        buildSortedViews();
+        for(LinkedHashSet<Member> sameLocation : byCounty.values())
+            for(Member member : sameLocation)
+                out.append(member.toString()).append('\n');
+        out.append("-end of list-\n\n");
     }
 
     /**
      * Displays the list of members in database ordered by expiration date.
-     * Sorts the list by membership expiration using in-place insertion sort.
-     * Iterates through the list of members and prints each member.
+     * Streams the list of members to standard output.
      */
     public void printByExpirationDate() {
-        for(int i = 1; i < size; i++){
-            Member keyMember = mlist[i];
-            int j = i - 1;
-            // Move each member that has a future expiration date up
-            while(j >= 0 &&
-                    mlist[j].getExpire().compareTo(keyMember.getExpire()) > 0)
-                mlist[j+1] = mlist[j--];
-            mlist[j + 1] = keyMember;
+        try {
+            printByExpirationDate(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
+        }
+    }
+
+    /**
+     * Writes the list of members ordered by expiration date to the output.
+     * Walks the expiration dates in order and writes the members expiring on
+     * each date.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printByExpirationDate(Appendable out) throws IOException {
+        out.append("\n-list of members sorted by membership expiration " +
+                "date-\n");
+        buildSortedViews();
+        for(LinkedHashSet<Member> sameExpire : byExpiration.values())
+            for(Member member : sameExpire)
+                out.append(member.toString()).append('\n');
+        out.append("-end of list-\n\n");
+    }
+
+    /**
+     * Finds the members whose memberships expire on or after one date and
+     * before another, in order of expiration date.
+     * Only the dates in the range are visited in the expiration date view,
+     * so finding k members takes O(log n + k) time. Members expiring on the
+     * same date are in the order they were added.
+     * @param from the first expiration date to include.
+     * @param to the expiration date to stop before.
+     * @return the members found, empty if from is not before to.
+     */
+    public Member[] expiringBetween(Date from, Date to) {
+        if (from.compareTo(to) >= 0)
+            return new Member[0];
+        buildSortedViews();
+        Collection<LinkedHashSet<Member>> range =
+                byExpiration.subMap(from, true, to, false).values();
+        int count = 0;
+        for (LinkedHashSet<Member> sameExpire : range)
+            count += sameExpire.size();
+        Member[] found = new Member[count];
+        int next = 0;
+        for (LinkedHashSet<Member> sameExpire : range)
+            for (Member member : sameExpire)
+                found[next++] = member;
+        return found;
+    }
+
+    /**
+     * Displays the members whose memberships expire within a number of days.
+     * Streams the list of members to standard output.
+     * @param days the number of days from today.
+     */
+    public void printExpiringWithin(int days) {
+        try {
+            printExpiringWithin(days, System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
+        }
+    }
+
+    /**
+     * Writes the members whose memberships expire within a number of days to
+     * the output, in order of expiration date.
+     * Members expiring today count, while those that have already expired
+     * do not.
+     * @param days the number of days from today.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printExpiringWithin(int days, Appendable out)
+            throws IOException {
+        Date today = Date.today();
+        out.append("\n-list of members expiring within " + days +
+                " days-\n");
+        for (Member member : expiringBetween(today, today.plusDays(days + 1)))
+            out.append(member.toString()).append('\n');
+        out.append("-end of list-\n\n");
+    }
+
+    /**
+     * Displays the members whose memberships expired during last month.
+     * Streams the list of members to standard output.
+     */
+    public void printExpiredLastMonth() {
+        try {
+            printExpiredLastMonth(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
         }
-        System.out.println("\n-list of members sorted by membership " +
-                "expiration date-");
-        for(int i = 0; i < size; i++)
-            System.out.println(mlist[i].toString());
-        System.out.println("-end of list-\n");
+    }
+
+    /**
+     * Writes the members whose memberships expired during last month to the
+     * output, in order of expiration date.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printExpiredLastMonth(Appendable out) throws IOException {
+        Date thisMonth = Date.today().firstOfMonth();
+        out.append("\n-list of members who expired last month-\n");
+        for (Member member : expiringBetween(thisMonth.plusMonths(-1),
+                thisMonth))
+            out.append(member.toString()).append('\n');
+        out.append("-end of list-\n\n");
     }
 
     /**
      * Displays the list of members in database ordered last and first name.
-     * Sorts the list by last and then first name using in-place insertion
-     * sort. Iterates through the list of members and prints each member.
+     * Streams the list of members to standard output.
      */
     public void printByName() {
-        for(int i = 1; i < size; ++i){
-            Member keyMember = mlist[i];
-            int j = i - 1;
-            // Move each member alphabetically ahead of the key member up
-            while(j >= 0 && mlist[j].compareTo(keyMember) > 0)
-                mlist[j+1] = mlist[j--];
-            mlist[j + 1] = keyMember;
+        try {
+            printByName(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
         }
-        System.out.println("\n-list of members sorted by last name, and " +
-                "first name-");
-        for(int i = 0; i < size; i++)
-            System.out.println(mlist[i].toString());
-        System.out.println("-end of list-\n");
     }
 
     /**
-     * Displays the list of members in database ordered by membership fees.
-     * Sorts the list by membership fees using in-place insertion sort.
-     * Iterates through the list of members and prints each member.
+     * Writes the list of members ordered by last and first name to the output.
+     * Walks the members in order of last name, first name, and DOB and writes
+     * each member.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printByName(Appendable out) throws IOException {
+        out.append("\n-list of members sorted by last name, and first " +
+                "name-\n");
+        buildSortedViews();
+        for(Member member : byName)
+            out.append(member.toString()).append('\n');
+        out.append("-end of list-\n\n");
+    }
+
+    /**
+     * Displays the list of members in database with their membership fees.
+     * Streams the list of members to standard output.
      */
     public void printByMembershipFee(){
-        for(int i = 1; i < size; ++i){
-            Member keyMember = mlist[i];
-            int j = i - 1;
-            // Move each member alphabetically ahead of the key member up
-            while(j >= 0 && mlist[j].compareTo(keyMember) > 0)
-                mlist[j+1] = mlist[j--];
-            mlist[j + 1] = keyMember;
+        try {
+            printByMembershipFee(System.out);
+        } catch (IOException e) {
+            System.out.println("Unable to display the list of members.");
         }
-        System.out.println("\n-list of members with membership fees-");
-        for(int i = 0; i < size; i++){
-            String membershipInfo;
-            if(mlist[i] instanceof Premium){
-                membershipInfo = "Membership fee: $" +
-                        ((Premium) mlist[i]).membershipFee();
-            }
-            else if(mlist[i] instanceof Family){
-                membershipInfo = "Membership fee: $" +
-                        ((Family) mlist[i]).membershipFee();
-            }
-            else{
-                membershipInfo = "Membership fee: $" +
-                        mlist[i].membershipFee();
-            }
-            System.out.println(mlist[i].toString() + ", " + membershipInfo);
+    }
+
+    /**
+     * Writes the list of members with their membership fees to the output.
+     * Walks the members in order of last and first name and writes each
+     * member with their fee.
+     * @param out the output the list of members is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printByMembershipFee(Appendable out) throws IOException {
+        out.append("\n-list of members with membership fees-\n");
+        buildSortedViews();
+        for(Member member : byName) {
+            out.append(member.toString()).append(", Membership fee: $")
+                    .append(String.valueOf(member.membershipFee()))
+                    .append('\n');
+        }
+        out.append("-end of list-\n\n");
+    }
+
+    /**
+     * Order defines the orders the reports list the members in.
+     */
+    public enum Order {
+        ADDED, NAME, COUNTY, EXPIRATION_DATE
+    }
+
+    /**
+     * Lists the members in the database in the order a report lists them
+     * in, for output that formats each member itself rather than as a line.
+     * Members with the same location or expiration date are in the order
+     * they were added. The members are read from the database as they are
+     * listed, so it must not change until they have been.
+     * @param order the order to list the members in.
+     * @return the members, in order.
+     */
+    public Iterable<Member> members(Order order) {
+        if (order == Order.ADDED)
+            return () -> Arrays.stream(mlist, 0, used)
+                    .filter(Objects::nonNull).iterator();
+        buildSortedViews();
+        switch (order) {
+            case NAME:
+                return Collections.unmodifiableSet(byName);
+            case COUNTY:
+                return flatten(byCounty.values());
+            default:
+                return flatten(byExpiration.values());
+        }
+    }
+
+    /**
+     * Lists the members in groups of members one after another.
+     * @param groups the groups of members, in order.
+     * @return the members of each group in turn.
+     */
+    private static Iterable<Member> flatten(
+            Collection<LinkedHashSet<Member>> groups) {
+        return () -> groups.stream().flatMap(Collection::stream).iterator();
+    }
+
+    /**
+     * Writes each member in the database to the output, one per line.
+     * Members are written in the order they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void printMembers(Appendable out) throws IOException {
+        for(int i = 0; i < used; i++)
+            if(mlist[i] != null)
+                out.append(mlist[i].toString()).append('\n');
+    }
+
+    /**
+     * Writes the members in the database to a snapshot.
+     * Writes the number of members, followed by each member in the order
+     * they were added.
+     * @param out the output the members are written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    public void save(DataOutput out) throws IOException {
+        out.writeInt(size);
+        for(int i = 0; i < used; i++)
+            if(mlist[i] != null)
+                mlist[i].writeTo(out);
+    }
+
+    /**
+     * Replaces the members in the database with those in a snapshot.
+     * The members are read into a new database sized for all of them, which
+     * only replaces this one once every member has been read. The sorted
+     * views are dropped while restoring and built once every member has
+     * been read, so each member is only put in order once, and the first
+     * report or suggestion after restoring does not have to build them.
+     * @param in the input the members are read from.
+     * @throws IOException if the input cannot be read or is not valid.
+     */
+    public void load(DataInput in) throws IOException {
+        int count = in.readInt();
+        if (count < 0)
+            throw new IOException("Invalid number of members in snapshot.");
+        MemberDatabase restored = new MemberDatabase();
+        restored.ensureCapacity(count);
+        restored.dropSortedViews();
+        for (int i = 0; i < count; i++)
+            restored.add(Member.readFrom(in));
+        restored.buildSortedViews();
+        mlist = restored.mlist;
+        size = restored.size;
+        used = restored.used;
+        index = restored.index;
+        byName = restored.byName;
+        byCounty = restored.byCounty;
+        byExpiration = restored.byExpiration;
+    }
+
+    /**
+     * Suggests the members whose last names start with what has been typed,
+     * ordered by last and first name and DOB, for completing a name.
+     * Letters are matched ignoring case. Members are sorted by name in the
+     * name view, so the members with the prefix sit together and are found
+     * by seeking to the first of them, in O(log n + limit) time.
+     * @param prefix the start of the last name, as typed.
+     * @param limit the most members to suggest.
+     * @return the members suggested, empty if the prefix is empty.
+     */
+    public Member[] suggest(String prefix, int limit) {
+        if (prefix.isEmpty() || limit <= 0)
+            return new Member[0];
+        buildSortedViews();
+        Member first = new Member("", prefix, new Date(0, 0, 0), null,
+                null);
+        ArrayList<Member> found = new ArrayList<>();
+        for (Member member : byName.tailSet(first, true)) {
+            if (found.size() == limit
+                    || !hasPrefix(member.getLastName(), prefix))
+                break;
+            found.add(member);
         }
-        System.out.println("-end of list-\n");
+        return found.toArray(new Member[0]);
+    }
+
+    /**
+     * Checks if a name starts with a prefix, ignoring case.
+     * @param name the name to check.
+     * @param prefix the prefix it should start with.
+     * @return true if the name starts with the prefix, false otherwise.
+     */
+    static boolean hasPrefix(String name, String prefix) {
+        return name.regionMatches(true, 0, prefix, 0, prefix.length());
+    }
+
+    /**
+     * Orders the members matching a suggestion by last and first name and
+     * DOB, and keeps the first of them. Used by databases that find the
+     * matching members in parts, such as one stripe at a time.
+     * @param matches the members whose last names have the prefix.
+     * @param limit the most members to suggest.
+     * @return the members suggested.
+     */
+    static Member[] firstByName(ArrayList<Member> matches, int limit) {
+        Collections.sort(matches);
+        return matches.subList(0, Math.min(limit, matches.size()))
+                .toArray(new Member[0]);
     }
 
     /**
      * Finds a member in database given a member.
-     * Iterates through list of members and searches for corresponding member.
+     * Looks up the corresponding member through the hash index.
      * @param member the member that is being searched for.
      * @return the matching member in the database if found, null otherwise.
      */
     public Member findMember(Member member) {
-        for (int i = 0; i < size; i++) {
-            if (mlist[i].equals(member))
-                return mlist[i];
-        }
-        return null;
+        int memberIndex = find(member);
+        if (memberIndex == NOT_FOUND)
+            return null;
+        return mlist[memberIndex];
     }
 
     /**
@@ -239,9 +634,12 @@ public class MemberDatabase {
      */
     @Override
     public String toString(){
-        String members = "";
-        for(int i = 0; i < size; i++)
-            members += mlist[i].toString() + "\n";
-        return members;
+        StringBuilder members = new StringBuilder();
+        try {
+            printMembers(members);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e); // not thrown by StringBuilder
+        }
+        return members.toString();
     }
-}
\ No newline at end of file
+}
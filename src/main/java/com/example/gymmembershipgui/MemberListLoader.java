@@ -0,0 +1,425 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * MemberListLoader loads a member list file into a MemberDatabase in bulk.
+ * Each line of the file holds a member's first and last name, DOB,
+ * expiration date, and location separated by whitespace. The file is read
+ * through a FileChannel in large blocks, and each block is split into lines
+ * and fields by hand, with the dates and location parsed straight from the
+ * bytes of the file. The database is sized from the length of the file
+ * before any members are added. Blocks can also be parsed in parallel on a
+ * ForkJoinPool, while members are still added in the order of the file.
+ * Names are looked up in a NameDictionary straight from the bytes of the
+ * file, so members with the same name share one String and a String is only
+ * created for a name the first time it is seen.
+ * Lines that cannot be parsed are rejected, and lines for members already in
+ * the database are counted as duplicates.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class MemberListLoader {
+    private final MemberDatabase database;
+    private final NameDictionary names;
+    private int lines;
+    private int added;
+    private int rejected;
+    private int duplicates;
+    private long elapsedNanos;
+
+    private static final int BLOCK_SIZE = 1 << 20;
+    private static final int AVERAGE_LINE_LENGTH = 48;
+    private static final int MAX_PRESIZE = 1 << 27;
+    private static final int FIELDS = 5;
+    private static final int FNAME_FIELD = 0;
+    private static final int LNAME_FIELD = 1;
+    private static final int DOB_FIELD = 2;
+    private static final int EXPIRE_FIELD = 3;
+    private static final int LOCATION_FIELD = 4;
+    private static final int MONTH_PART = 0;
+    private static final int YEAR_PART = 2;
+    private static final int MAX_DIGITS = 4;
+    private static final int DECIMAL = 10;
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+    private static final Location[] LOCATIONS = Location.values();
+
+    /**
+     * Creates an instance of MemberListLoader for the given database, with a
+     * dictionary of names of its own.
+     * @param database the database members are loaded into.
+     */
+    public MemberListLoader(MemberDatabase database) {
+        this(database, new NameDictionary());
+    }
+
+    /**
+     * Creates an instance of MemberListLoader for the given database that
+     * shares names through the given dictionary.
+     * @param database the database members are loaded into.
+     * @param names the dictionary names are shared through, or null to
+     *              give each member their own copy of their name.
+     */
+    public MemberListLoader(MemberDatabase database, NameDictionary names) {
+        this.database = database;
+        this.names = names;
+    }
+
+    /**
+     * Loads a member list file into the database on the calling thread.
+     * @param fileName the name of the member list file.
+     * @throws IOException if the file cannot be read.
+     */
+    public void load(String fileName) throws IOException {
+        load(fileName, null);
+    }
+
+    /**
+     * Loads a member list file into the database.
+     * Reads the file in blocks that end at a line break. Each block is parsed
+     * on the given pool, or on the calling thread if there is no pool, and
+     * the members parsed from each block are added in the order of the file.
+     * @param fileName the name of the member list file.
+     * @param pool the pool to parse blocks on, or null to parse them on the
+     *             calling thread.
+     * @throws IOException if the file cannot be read.
+     */
+    public void load(String fileName, ForkJoinPool pool) throws IOException {
+        long start = System.nanoTime();
+        lines = 0;
+        added = 0;
+        rejected = 0;
+        duplicates = 0;
+        try (FileChannel channel = FileChannel.open(Path.of(fileName),
+                StandardOpenOption.READ)) {
+            long expectedLines = channel.size() / AVERAGE_LINE_LENGTH;
+            database.ensureCapacity(database.getSize() +
+                    (int) Math.min(expectedLines, MAX_PRESIZE));
+            ArrayDeque<ForkJoinTask<Block>> pending = new ArrayDeque<>();
+            ByteBuffer buffer = ByteBuffer.allocate(BLOCK_SIZE);
+            boolean endOfFile = false;
+            while (!endOfFile) {
+                endOfFile = channel.read(buffer) == -1;
+                if (!endOfFile && buffer.hasRemaining())
+                    continue; // fill the whole buffer before parsing
+                byte[] bytes = buffer.array();
+                int length = buffer.position();
+                int end = endOfFile ? length : endOfLastLine(bytes, length);
+                if (end == 0 && !endOfFile) {
+                    // a single line fills the buffer, so make room for more
+                    buffer = ByteBuffer.allocate(bytes.length * 2)
+                            .put(bytes, 0, length);
+                    continue;
+                }
+                if (pool == null) {
+                    addBlock(parse(bytes, 0, end, names));
+                } else {
+                    byte[] block = Arrays.copyOf(bytes, end);
+                    pending.add(pool.submit(() ->
+                            parse(block, 0, block.length, names)));
+                    while (pending.size() > pool.getParallelism() * 2)
+                        addBlock(pending.remove().join());
+                }
+                // move the unfinished line to the front of the buffer
+                System.arraycopy(bytes, end, bytes, 0, length - end);
+                buffer.position(length - end);
+            }
+            while (!pending.isEmpty())
+                addBlock(pending.remove().join());
+        }
+        elapsedNanos = System.nanoTime() - start;
+    }
+
+    /**
+     * Finds where the last complete line in the buffer ends.
+     * @param bytes the bytes read from the file.
+     * @param length the number of bytes read.
+     * @return the index just past the last line break, 0 if there is none.
+     */
+    private static int endOfLastLine(byte[] bytes, int length) {
+        for (int i = length - 1; i >= 0; i--) {
+            if (bytes[i] == '\n')
+                return i + 1;
+        }
+        return 0;
+    }
+
+    /**
+     * Adds the members parsed from a block to the database.
+     * @param block the members and counts parsed from a block of the file.
+     */
+    private void addBlock(Block block) {
+        lines += block.lines;
+        rejected += block.rejected;
+        for (int i = 0; i < block.count; i++) {
+            if (database.add(block.members[i]))
+                added++;
+            else
+                duplicates++;
+        }
+    }
+
+    /**
+     * Parses the lines of a block of the file into members.
+     * Blank lines are skipped. Lines that do not have exactly five fields,
+     * or whose dates or location cannot be parsed, are rejected.
+     * @param bytes the bytes of the block.
+     * @param from the index of the first byte of the block.
+     * @param to the index just past the last byte of the block.
+     * @param names the dictionary names are shared through, or null.
+     * @return the members and counts parsed from the block.
+     */
+    private static Block parse(byte[] bytes, int from, int to,
+                               NameDictionary names) {
+        Block block = new Block((to - from) / AVERAGE_LINE_LENGTH + 1);
+        int[] starts = new int[FIELDS];
+        int[] ends = new int[FIELDS];
+        int lineStart = from;
+        while (lineStart < to) {
+            int lineEnd = lineStart;
+            while (lineEnd < to && bytes[lineEnd] != '\n')
+                lineEnd++;
+            int fields = split(bytes, lineStart, lineEnd, starts, ends);
+            if (fields > 0) {
+                block.lines++;
+                Member member = null;
+                if (fields == FIELDS)
+                    member = toMember(bytes, starts, ends, names);
+                if (member == null)
+                    block.rejected++;
+                else
+                    block.add(member);
+            }
+            lineStart = lineEnd + 1;
+        }
+        return block;
+    }
+
+    /**
+     * Splits a line into fields separated by whitespace.
+     * Stores where each field starts and ends, and stops counting once
+     * there are more fields than a member list line has.
+     * @param bytes the bytes holding the line.
+     * @param from the index of the first byte of the line.
+     * @param to the index just past the last byte of the line.
+     * @param starts the array that receives the start of each field.
+     * @param ends the array that receives the end of each field.
+     * @return the number of fields, at most one more than a line should have.
+     */
+    private static int split(byte[] bytes, int from, int to, int[] starts,
+                             int[] ends) {
+        int fields = 0;
+        int i = from;
+        while (i < to) {
+            while (i < to && isWhitespace(bytes[i]))
+                i++;
+            if (i == to)
+                break;
+            if (fields == FIELDS)
+                return FIELDS + 1; // too many fields
+            starts[fields] = i;
+            while (i < to && !isWhitespace(bytes[i]))
+                i++;
+            ends[fields++] = i;
+        }
+        return fields;
+    }
+
+    /**
+     * Checks if a byte is a whitespace character that separates fields.
+     * @param b the byte to check.
+     * @return true if the byte is a space, tab, or carriage return.
+     */
+    private static boolean isWhitespace(byte b) {
+        return b == ' ' || b == '\t' || b == '\r' || b == '\f';
+    }
+
+    /**
+     * Creates a member from the fields of a line.
+     * @param bytes the bytes holding the line.
+     * @param starts the start of each field.
+     * @param ends the end of each field.
+     * @param names the dictionary names are shared through, or null.
+     * @return the member, null if the dates or location are invalid.
+     */
+    private static Member toMember(byte[] bytes, int[] starts, int[] ends,
+                                   NameDictionary names) {
+        Date dob = parseDate(bytes, starts[DOB_FIELD], ends[DOB_FIELD]);
+        Date expire = parseDate(bytes, starts[EXPIRE_FIELD],
+                ends[EXPIRE_FIELD]);
+        Location location = parseLocation(bytes, starts[LOCATION_FIELD],
+                ends[LOCATION_FIELD]);
+        if (dob == null || expire == null || location == null)
+            return null;
+        String fname = name(bytes, starts[FNAME_FIELD], ends[FNAME_FIELD],
+                names);
+        String lname = name(bytes, starts[LNAME_FIELD], ends[LNAME_FIELD],
+                names);
+        return new Member(fname, lname, dob, expire, location);
+    }
+
+    /**
+     * Gets a name from the bytes of a field.
+     * @param bytes the bytes holding the field.
+     * @param from the index of the first byte of the field.
+     * @param to the index just past the last byte of the field.
+     * @param names the dictionary names are shared through, or null to
+     *              create a new String for the name.
+     * @return the name.
+     */
+    private static String name(byte[] bytes, int from, int to,
+                               NameDictionary names) {
+        if (names == null)
+            return new String(bytes, from, to - from, StandardCharsets.UTF_8);
+        return names.intern(bytes, from, to);
+    }
+
+    /**
+     * Parses a date in mm/dd/yyyy format straight from the bytes of a field.
+     * @param bytes the bytes holding the field.
+     * @param from the index of the first byte of the field.
+     * @param to the index just past the last byte of the field.
+     * @return the date, null if the field is not in mm/dd/yyyy format.
+     */
+    private static Date parseDate(byte[] bytes, int from, int to) {
+        int month = 0;
+        int day = 0;
+        int value = 0;
+        int part = MONTH_PART;
+        int digits = 0;
+        for (int i = from; i < to; i++) {
+            byte b = bytes[i];
+            if (b == '/') {
+                if (digits == 0 || part == YEAR_PART)
+                    return null;
+                if (part == MONTH_PART)
+                    month = value;
+                else
+                    day = value;
+                part++;
+                value = 0;
+                digits = 0;
+            } else if (b >= '0' && b <= '9' && digits < MAX_DIGITS) {
+                value = value * DECIMAL + (b - '0');
+                digits++;
+            } else {
+                return null;
+            }
+        }
+        if (part != YEAR_PART || digits == 0)
+            return null;
+        return new Date(month, day, value);
+    }
+
+    /**
+     * Finds the Location named by a field, ignoring case.
+     * @param bytes the bytes holding the field.
+     * @param from the index of the first byte of the field.
+     * @param to the index just past the last byte of the field.
+     * @return the matching Location, null if none match.
+     */
+    private static Location parseLocation(byte[] bytes, int from, int to) {
+        for (Location location : LOCATIONS) {
+            String name = location.name();
+            if (name.length() != to - from)
+                continue;
+            int i = 0;
+            while (i < name.length() && Character.toUpperCase(
+                    (char) (bytes[from + i] & 0xFF)) == name.charAt(i))
+                i++;
+            if (i == name.length())
+                return location;
+        }
+        return null;
+    }
+
+    /**
+     * Gets the number of non-blank lines read by the last load.
+     * @return the number of lines as an integer.
+     */
+    public int getLines() {
+        return lines;
+    }
+
+    /**
+     * Gets the number of members added to the database by the last load.
+     * @return the number of members added as an integer.
+     */
+    public int getAdded() {
+        return added;
+    }
+
+    /**
+     * Gets the number of lines that could not be parsed by the last load.
+     * @return the number of rejected lines as an integer.
+     */
+    public int getRejected() {
+        return rejected;
+    }
+
+    /**
+     * Gets the number of lines for members already in the database.
+     * @return the number of duplicate lines as an integer.
+     */
+    public int getDuplicates() {
+        return duplicates;
+    }
+
+    /**
+     * Gets the number of lines the last load read per second.
+     * @return the lines per second as a long.
+     */
+    public long getLinesPerSecond() {
+        if (elapsedNanos == 0)
+            return 0;
+        return lines * NANOS_PER_SECOND / elapsedNanos;
+    }
+
+    /**
+     * Creates a String summarizing the last load.
+     * @return a String with the lines read, members added, rejected and
+     * duplicate lines, and lines per second.
+     */
+    @Override
+    public String toString() {
+        return lines + " lines read, " + added + " members added, " +
+                rejected + " rejected, " + duplicates + " duplicates, " +
+                getLinesPerSecond() + " lines/sec.";
+    }
+
+    /**
+     * Block holds the members and counts parsed from a block of the file.
+     */
+    private static class Block {
+        private Member[] members;
+        private int count;
+        private int lines;
+        private int rejected;
+
+        /**
+         * Creates an instance of Block with room for the given members.
+         * @param capacity the number of members expected in the block.
+         */
+        private Block(int capacity) {
+            members = new Member[capacity];
+        }
+
+        /**
+         * Adds a member parsed from the block, growing the array if needed.
+         * @param member the member parsed from a line of the block.
+         */
+        private void add(Member member) {
+            if (count == members.length)
+                members = Arrays.copyOf(members, count * 2);
+            members[count++] = member;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.example.gymmembershipgui;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * NameDictionary keeps one copy of each first and last name, so members
+ * with the same name share the same String instead of each holding their
+ * own. Each name also has a small integer id, given in the order names are
+ * first seen, for stores that keep ids in place of names. Names can be
+ * looked up from a String, or straight from the UTF-8 bytes of a file, in
+ * which case a String is only created the first time a name is seen. Names
+ * already in the dictionary can also be found from part of a command line.
+ * Names are kept exactly as given; "john" and "John" are different names.
+ * Every name is kept once, in an open-addressing table whose entries hold
+ * the name, its bytes, and its id. The dictionary can be shared by threads
+ * parsing at the same time: names are found without locking, and only
+ * adding a name takes the lock.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class NameDictionary {
+    private volatile Entry[] table;
+    private volatile Entry[] byId;
+    private int size;
+
+    private static final int INITIAL_CAPACITY = 64;
+    private static final int GROWTH_FACTOR = 2;
+    private static final int HASH_MULTIPLIER = 31;
+    private static final int HASH_SPREAD = 0x9E3779B9;
+    private static final int ASCII_LIMIT = 0x80;
+
+    /**
+     * Entry is a name in the dictionary. Its fields are final, so a thread
+     * that finds an entry in the table without locking sees all of it.
+     */
+    private static final class Entry {
+        private final String name;
+        private final byte[] encoded;
+        private final int hash;
+        private final int id;
+
+        /**
+         * Creates an instance of Entry.
+         * @param name the name.
+         * @param encoded the name encoded in UTF-8.
+         * @param hash the hash of the encoded name.
+         * @param id the id of the name.
+         */
+        private Entry(String name, byte[] encoded, int hash, int id) {
+            this.name = name;
+            this.encoded = encoded;
+            this.hash = hash;
+            this.id = id;
+        }
+    }
+
+    /**
+     * Creates an empty instance of NameDictionary.
+     */
+    public NameDictionary() {
+        table = new Entry[INITIAL_CAPACITY * GROWTH_FACTOR];
+        byId = new Entry[INITIAL_CAPACITY];
+    }
+
+    /**
+     * Gets the shared copy of a name, adding it if it is new.
+     * @param name the name to look up.
+     * @return the copy of the name kept in the dictionary.
+     */
+    public String intern(String name) {
+        return entry(name).name;
+    }
+
+    /**
+     * Gets the shared copy of a name held as UTF-8 bytes, adding it if it is
+     * new. No String is created if the name is already in the dictionary.
+     * @param bytes the bytes holding the name.
+     * @param from the index of the first byte of the name.
+     * @param to the index just past the last byte of the name.
+     * @return the copy of the name kept in the dictionary.
+     */
+    public String intern(byte[] bytes, int from, int to) {
+        int hash = hash(bytes, from, to);
+        Entry entry = find(table, bytes, from, to, hash);
+        if (entry != null)
+            return entry.name;
+        synchronized (this) {
+            entry = find(table, bytes, from, to, hash);
+            if (entry == null)
+                entry = add(new String(bytes, from, to - from,
+                        StandardCharsets.UTF_8),
+                        Arrays.copyOfRange(bytes, from, to), hash);
+        }
+        return entry.name;
+    }
+
+    /**
+     * Gets the shared copy of a name held in part of a String, without
+     * adding it if it is new. No String is created to look it up. A name
+     * being added by another thread at the same moment may not be found.
+     * @param text the text holding the name.
+     * @param from the index of the first character of the name.
+     * @param to the index just past the last character of the name.
+     * @return the copy of the name kept in the dictionary, null if the name
+     * is not in the dictionary or is not all ASCII.
+     */
+    public String find(String text, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++) {
+            char c = text.charAt(i);
+            if (c >= ASCII_LIMIT)
+                return null;
+            hash = HASH_MULTIPLIER * hash + c;
+        }
+        Entry entry = find(table, text, from, to, hash);
+        return entry == null ? null : entry.name;
+    }
+
+    /**
+     * Gets the id of a name, adding it if it is new.
+     * @param name the name to look up.
+     * @return the id of the name.
+     */
+    public int id(String name) {
+        return entry(name).id;
+    }
+
+    /**
+     * Gets the name with the given id.
+     * @param id the id of the name.
+     * @return the name.
+     */
+    public String name(int id) {
+        Entry[] entries = byId;
+        Entry entry = id < entries.length ? entries[id] : null;
+        if (entry != null)
+            return entry.name;
+        synchronized (this) {
+            return byId[id].name;
+        }
+    }
+
+    /**
+     * Gets the number of names in the dictionary.
+     * @return the number of names as an integer.
+     */
+    public synchronized int size() {
+        return size;
+    }
+
+    /**
+     * Gets the entry for a name, adding it if it is new. An ASCII name's
+     * bytes hash the same as the String, so it is first looked for with the
+     * hash the String keeps; any other name is found once it is encoded.
+     * @param name the name to look up.
+     * @return the entry for the name.
+     */
+    private Entry entry(String name) {
+        Entry entry = find(table, name);
+        if (entry != null)
+            return entry;
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int hash = hash(bytes, 0, bytes.length);
+        entry = find(table, bytes, 0, bytes.length, hash);
+        if (entry != null)
+            return entry;
+        synchronized (this) {
+            entry = find(table, bytes, 0, bytes.length, hash);
+            if (entry == null)
+                entry = add(name, bytes, hash);
+        }
+        return entry;
+    }
+
+    /**
+     * Finds the entry for an ASCII name in a table.
+     * @param entries the table to look in.
+     * @param name the name to look up.
+     * @return the entry for the name, null if it is not in the table or is
+     * not all ASCII.
+     */
+    private static Entry find(Entry[] entries, String name) {
+        int hash = name.hashCode();
+        int mask = entries.length - 1;
+        for (int slot = home(hash, mask); entries[slot] != null;
+                slot = (slot + 1) & mask) {
+            Entry entry = entries[slot];
+            if (entry.hash == hash && entry.name.equals(name))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the entry for a name held as UTF-8 bytes in a table.
+     * @param entries the table to look in.
+     * @param bytes the bytes holding the name.
+     * @param from the index of the first byte of the name.
+     * @param to the index just past the last byte of the name.
+     * @param hash the hash of the bytes.
+     * @return the entry for the name, null if it is not in the table.
+     */
+    private static Entry find(Entry[] entries, byte[] bytes, int from,
+                              int to, int hash) {
+        int mask = entries.length - 1;
+        for (int slot = home(hash, mask); entries[slot] != null;
+                slot = (slot + 1) & mask) {
+            Entry entry = entries[slot];
+            if (entry.hash == hash && Arrays.equals(entry.encoded, 0,
+                    entry.encoded.length, bytes, from, to))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Finds the entry for an ASCII name held in part of a String in a
+     * table. An ASCII name's characters are the same as its bytes.
+     * @param entries the table to look in.
+     * @param text the text holding the name.
+     * @param from the index of the first character of the name.
+     * @param to the index just past the last character of the name.
+     * @param hash the hash of the name.
+     * @return the entry for the name, null if it is not in the table.
+     */
+    private static Entry find(Entry[] entries, String text, int from, int to,
+                              int hash) {
+        int mask = entries.length - 1;
+        for (int slot = home(hash, mask); entries[slot] != null;
+                slot = (slot + 1) & mask) {
+            Entry entry = entries[slot];
+            if (entry.hash == hash && entry.name.length() == to - from &&
+                    entry.name.regionMatches(0, text, from, to - from))
+                return entry;
+        }
+        return null;
+    }
+
+    /**
+     * Adds a name that is not in the dictionary yet. Called with the lock
+     * held. A full table is replaced by a larger one rather than grown in
+     * place, so threads still looking in the old one are not disturbed.
+     * @param name the name to add.
+     * @param bytes the name encoded in UTF-8.
+     * @param hash the hash of the encoded name.
+     * @return the entry for the name.
+     */
+    private Entry add(String name, byte[] bytes, int hash) {
+        Entry entry = new Entry(name, bytes, hash, size);
+        if (size == byId.length)
+            byId = Arrays.copyOf(byId, size * GROWTH_FACTOR);
+        byId[size++] = entry;
+        if (size * GROWTH_FACTOR > table.length) {
+            Entry[] grown = new Entry[table.length * GROWTH_FACTOR];
+            for (int id = 0; id < size; id++)
+                addSlot(grown, byId[id]);
+            table = grown;
+        } else {
+            addSlot(table, entry);
+        }
+        return entry;
+    }
+
+    /**
+     * Puts an entry in the first empty slot it can go in.
+     * @param entries the table to put it in.
+     * @param entry the entry.
+     */
+    private static void addSlot(Entry[] entries, Entry entry) {
+        int mask = entries.length - 1;
+        int slot = home(entry.hash, mask);
+        while (entries[slot] != null)
+            slot = (slot + 1) & mask;
+        entries[slot] = entry;
+    }
+
+    /**
+     * Finds the slot a hash starts probing from in a table.
+     * @param hash the hash of the encoded name.
+     * @param mask the length of the table less one.
+     * @return the first slot to look in.
+     */
+    private static int home(int hash, int mask) {
+        return (hash * HASH_SPREAD) & mask;
+    }
+
+    /**
+     * Hashes the bytes of a name.
+     * @param bytes the bytes holding the name.
+     * @param from the index of the first byte of the name.
+     * @param to the index just past the last byte of the name.
+     * @return the hash of the bytes.
+     */
+    private static int hash(byte[] bytes, int from, int to) {
+        int hash = 0;
+        for (int i = from; i < to; i++)
+            hash = HASH_MULTIPLIER * hash + bytes[i];
+        return hash;
+    }
+}
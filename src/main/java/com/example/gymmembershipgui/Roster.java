@@ -0,0 +1,212 @@
+package com.example.gymmembershipgui;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Roster holds the members checked in to a fitness class, in the order they
+ * checked in. Members are found, added, and removed by their name and DOB
+ * through a hash map, without searching the roster. A member may be on a
+ * roster more than once, as a family member's guests are; removing them
+ * removes the earliest check-in, and the rest keep their place.
+ * Each check-in's line is rendered once and the roster keeps its printed
+ * form, so a check-in appends one line instead of printing every member.
+ * @param <T> the type of member on the roster.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+class Roster<T extends Member> implements Iterable<T> {
+    private final HashMap<Member, Entry<T>> earliest;
+    private Entry<T> first;
+    private Entry<T> last;
+    private int size;
+    private StringBuilder rendering;
+    private Date renderedOn;
+
+    /**
+     * One check-in on the roster.
+     * Entries are linked in check-in order, and each member's entries are
+     * also linked to each other, oldest first.
+     * @param <T> the type of member on the roster.
+     */
+    private static class Entry<T> {
+        private final T member;
+        private String line;
+        private Entry<T> previous;
+        private Entry<T> next;
+        private Entry<T> nextSame;
+        private Entry<T> lastSame;
+
+        /**
+         * Creates an entry for a check-in of a member.
+         * @param member the member that checked in.
+         */
+        private Entry(T member) {
+            this.member = member;
+        }
+    }
+
+    /**
+     * Creates an instance of Roster with no members.
+     */
+    Roster() {
+        earliest = new HashMap<>();
+        rendering = new StringBuilder();
+        renderedOn = Date.today();
+    }
+
+    /**
+     * Adds a check-in of a member to the end of the roster.
+     * @param member the member that checked in.
+     */
+    void add(T member) {
+        Entry<T> entry = new Entry<>(member);
+        entry.line = member.toString();
+        if (rendering != null)
+            rendering.append("\n\t").append(entry.line);
+        entry.previous = last;
+        if (last == null)
+            first = entry;
+        else
+            last.next = entry;
+        last = entry;
+        size++;
+        Entry<T> oldest = earliest.get(member);
+        if (oldest == null) {
+            entry.lastSame = entry;
+            earliest.put(member, entry);
+        } else {
+            oldest.lastSame.nextSame = entry;
+            oldest.lastSame = entry;
+        }
+    }
+
+    /**
+     * Checks if a member is on the roster.
+     * @param member the member to look for.
+     * @return true if the member is on the roster, false otherwise.
+     */
+    boolean contains(Member member) {
+        return earliest.containsKey(member);
+    }
+
+    /**
+     * Gets the member on the roster that is equal to the given member.
+     * @param member the member to look for.
+     * @return the member on the roster, null if not found.
+     */
+    T get(Member member) {
+        Entry<T> entry = earliest.get(member);
+        return entry == null ? null : entry.member;
+    }
+
+    /**
+     * Removes the earliest check-in of a member from the roster.
+     * @param member the member to remove.
+     * @return the member removed from the roster, null if not found.
+     */
+    T remove(Member member) {
+        Entry<T> entry = earliest.remove(member);
+        if (entry == null)
+            return null;
+        if (rendering != null && entry.next == null)
+            rendering.setLength(rendering.length() - entry.line.length() - 2);
+        else
+            rendering = null;
+        if (entry.nextSame != null) {
+            entry.nextSame.lastSame = entry.lastSame;
+            earliest.put(entry.member, entry.nextSame);
+        }
+        if (entry.previous == null)
+            first = entry.next;
+        else
+            entry.previous.next = entry.next;
+        if (entry.next == null)
+            last = entry.previous;
+        else
+            entry.next.previous = entry.previous;
+        size--;
+        return entry.member;
+    }
+
+    /**
+     * Renders the lines of a member again after their details changed, such
+     * as the guest passes they have left.
+     * @param member the member whose lines are rendered again.
+     */
+    void refresh(Member member) {
+        Entry<T> entry = earliest.get(member);
+        if (entry == null)
+            return;
+        for (; entry != null; entry = entry.nextSame)
+            entry.line = entry.member.toString();
+        rendering = null;
+    }
+
+    /**
+     * Writes each member on the roster to the given output in check-in
+     * order, each on a new line after a tab.
+     * The printed roster is only rebuilt if a member was removed or
+     * refreshed since it was last printed, and from the lines already
+     * rendered, unless the date has changed and memberships may have expired.
+     * @param out the output the roster is written to.
+     * @throws IOException if the output cannot be written to.
+     */
+    void print(Appendable out) throws IOException {
+        Date today = Date.today();
+        if (!today.equals(renderedOn)) {
+            for (Entry<T> entry = first; entry != null; entry = entry.next)
+                entry.line = entry.member.toString();
+            renderedOn = today;
+            rendering = null;
+        }
+        if (rendering == null) {
+            rendering = new StringBuilder();
+            for (Entry<T> entry = first; entry != null; entry = entry.next)
+                rendering.append("\n\t").append(entry.line);
+        }
+        out.append(rendering);
+    }
+
+    /**
+     * Gets the number of check-ins on the roster.
+     * @return the number of check-ins.
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the roster is empty.
+     * @return true if no one is checked in, false otherwise.
+     */
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Creates an iterator over the members on the roster in check-in order.
+     * @return the iterator.
+     */
+    @Override
+    public Iterator<T> iterator() {
+        return new Iterator<>() {
+            private Entry<T> entry = first;
+
+            @Override
+            public boolean hasNext() {
+                return entry != null;
+            }
+
+            @Override
+            public T next() {
+                if (entry == null)
+                    throw new NoSuchElementException();
+                T member = entry.member;
+                entry = entry.next;
+                return member;
+            }
+        };
+    }
+}
@@ -1,16 +1,85 @@
 package com.example.gymmembershipgui;
 
+import java.io.FileNotFoundException;
+import java.io.FileReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.Reader;
+
 /**
  * This is the driver class for the Gym Membership project.
  * It creates a Gym Manager to handle all the command line inputs.
+ * Run with no arguments to type commands one at a time, or with "batch" to
+ * run a batch of commands read from standard input, or from the file named
+ * after it. Run with "pipeline" in place of "batch" to run the batch in a
+ * CommandPipeline instead, which only pays off with more than one
+ * processor, or with "server" to serve front desks over local TCP
+ * connections, and the HTTP API, on the ports named after it.
  * @author Arunima Tripathy, Mahfuza Rahman
  */
 public class RunProject2 {
+    private static final String BATCH = "batch";
+    private static final String PIPELINE = "pipeline";
+    private static final String SERVER = "server";
+    private static final String USAGE = "Usage: RunProject2 " +
+            "[batch|pipeline [commandFile]|server [port [httpPort]]]";
+
     /**
      * Main method for the driver class that runs the Gym Manager.
      * @param args the array of characters passed to the command line.
      */
     public static void main(String[] args) {
-        new GymManager().run();
+        if(args.length == 0) {
+            new GymManager().run();
+            return;
+        }
+        if(args[0].equals(SERVER) && args.length <= 3) {
+            serve(args);
+            return;
+        }
+        boolean pipelined = args[0].equals(PIPELINE);
+        if(!(pipelined || args[0].equals(BATCH)) || args.length > 2) {
+            System.err.println(USAGE);
+            return;
+        }
+        try(Reader commands = args.length == 2 ? new FileReader(args[1])
+                : new InputStreamReader(System.in)) {
+            if(pipelined)
+                new GymManager().runPipelined(commands);
+            else
+                new GymManager().runBatch(commands);
+        } catch (FileNotFoundException e) {
+            System.err.println(args[1] + " - command file not found.");
+        } catch (IOException e) {
+            System.err.println("Unable to read the commands.");
+        }
+    }
+
+    /**
+     * Runs the Gym Manager as a server for front desks and the HTTP API.
+     * The members are kept in a ConcurrentMemberDatabase, so the desks'
+     * member reports and the API's member reads do not wait for each other.
+     * @param args the arguments passed to the command line, with the ports
+     *             to listen on after "server" if they are not the defaults.
+     */
+    private static void serve(String[] args) {
+        int port = GymServer.DEFAULT_PORT;
+        int httpPort = GymServer.DEFAULT_HTTP_PORT;
+        try {
+            if(args.length >= 2)
+                port = Integer.parseInt(args[1]);
+            if(args.length == 3)
+                httpPort = Integer.parseInt(args[2]);
+        } catch (NumberFormatException e) {
+            System.err.println(USAGE);
+            return;
+        }
+        try {
+            new GymManager(new ConcurrentMemberDatabase())
+                    .runServer(port, httpPort);
+        } catch (IOException e) {
+            System.err.println("Unable to listen on port " + port +
+                    " or " + httpPort + ".");
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+package com.example.gymmembershipgui;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+
+/**
+ * Snapshot saves the members and fitness classes of the gym to a binary file
+ * and restores them from it. A snapshot starts with a magic number and a
+ * format version, followed by the members in the database with their
+ * membership plans and guest passes, and then the classes on the schedule
+ * with their participants and guests. Since version 2, the header also
+ * holds the sequence number of the last MutationLog record the snapshot
+ * includes, so replaying the log skips those records. A snapshot is
+ * written to a temporary file that only replaces the previous snapshot once
+ * it has been written and synced to disk, so a crash while saving leaves the
+ * previous snapshot in place.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+public class Snapshot {
+    private static final int MAGIC = 0x47594D53; // "GYMS"
+    private static final int VERSION = 2;
+    private static final int FIRST_VERSION_WITH_SEQUENCE = 2;
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final String TEMP_SUFFIX = ".tmp";
+
+    /**
+     * Saves the database and schedule to a snapshot file.
+     * @param fileName the name of the snapshot file.
+     * @param database the database of members to save.
+     * @param schedule the schedule of fitness classes to save.
+     * @param sequence the sequence number of the last log record included.
+     * @throws IOException if the snapshot cannot be written.
+     */
+    public static void save(String fileName, MemberDatabase database,
+                            ClassSchedule schedule, long sequence)
+            throws IOException {
+        Path temp = Path.of(fileName + TEMP_SUFFIX);
+        try (FileOutputStream stream = new FileOutputStream(temp.toFile())) {
+            DataOutputStream out = new DataOutputStream(
+                    new BufferedOutputStream(stream, BUFFER_SIZE));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeLong(sequence);
+            database.save(out);
+            schedule.save(out);
+            out.flush();
+            stream.getFD().sync();
+        }
+        Files.move(temp, Path.of(fileName),
+                StandardCopyOption.REPLACE_EXISTING,
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Replaces the database and schedule with those in a snapshot file.
+     * @param fileName the name of the snapshot file.
+     * @param database the database of members to restore.
+     * @param schedule the schedule of fitness classes to restore.
+     * @return the sequence number of the last log record included, 0 if the
+     * snapshot was written before the sequence number was recorded.
+     * @throws IOException if the snapshot cannot be read, is not a snapshot,
+     * or was written in a version of the format that is not supported.
+     */
+    public static long load(String fileName, MemberDatabase database,
+                            ClassSchedule schedule) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                new FileInputStream(fileName), BUFFER_SIZE))) {
+            if (in.readInt() != MAGIC)
+                throw new IOException(fileName + " is not a snapshot.");
+            int version = in.readInt();
+            if (version < 1 || version > VERSION)
+                throw new IOException("Unsupported snapshot version " +
+                        version + ".");
+            long sequence = 0;
+            if (version >= FIRST_VERSION_WITH_SEQUENCE)
+                sequence = in.readLong();
+            database.load(in);
+            schedule.load(in, database);
+            return sequence;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 module com.example.gymmembershipgui {
     requires javafx.controls;
     requires javafx.fxml;
+    requires jdk.httpserver;
 
     requires org.controlsfx.controls;
     requires org.kordamp.bootstrapfx.core;
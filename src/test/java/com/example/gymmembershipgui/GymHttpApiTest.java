@@ -0,0 +1,194 @@
+package com.example.gymmembershipgui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GymHttpApiTest checks the status each kind of request is answered with:
+ * 200 for a change or a read, 400 for a request the API cannot make sense
+ * of, 404 for a member or path that is not there, 405 for a method a path
+ * does not handle, 409 for a change the Gym Manager turned down, and 500
+ * for a command that failed.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+class GymHttpApiTest {
+    private static final String FAILING = "R Failing Member 1/1/1990";
+
+    private GymServer server;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        GymManager manager = new GymManager(new ConcurrentMemberDatabase()) {
+            @Override
+            void handle(CommandParser command, PrintStream out) {
+                if (command.getLine().equals(FAILING))
+                    throw new IllegalStateException("failed on purpose");
+                super.handle(command, out);
+            }
+        };
+        manager.getSchedule().addFitnessClass("Pilates", "Jennifer",
+                "morning", "Bridgewater");
+        server = new GymServer(manager, 0, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Response is the status and body of a response.
+     */
+    private static final class Response {
+        private final int status;
+        private final String body;
+
+        /**
+         * Creates an instance of Response.
+         * @param status the HTTP status.
+         * @param body the body.
+         */
+        private Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+    }
+
+    /**
+     * Sends a request to the API and reads its response.
+     * @param method the HTTP method.
+     * @param target the path and query string.
+     * @param form the form body, null for none.
+     * @return the response.
+     * @throws IOException if the request cannot be sent.
+     */
+    private Response send(String method, String target, String form)
+            throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress()
+                .getHostAddress(), server.getHttpPort(), target);
+        HttpURLConnection connection =
+                (HttpURLConnection) url.openConnection();
+        try {
+            connection.setRequestMethod(method);
+            if (form != null) {
+                connection.setDoOutput(true);
+                connection.setRequestProperty("Content-Type",
+                        "application/x-www-form-urlencoded");
+                try (OutputStream out = connection.getOutputStream()) {
+                    out.write(form.getBytes(StandardCharsets.UTF_8));
+                }
+            }
+            int status = connection.getResponseCode();
+            InputStream in = status < HttpURLConnection.HTTP_BAD_REQUEST
+                    ? connection.getInputStream()
+                    : connection.getErrorStream();
+            try (in) {
+                return new Response(status, new String(in.readAllBytes(),
+                        StandardCharsets.UTF_8));
+            }
+        } finally {
+            connection.disconnect();
+        }
+    }
+
+    /**
+     * Adds John Doe, a standard member at Bridgewater.
+     * @return the response.
+     * @throws IOException if the request cannot be sent.
+     */
+    private Response addJohn() throws IOException {
+        return send("POST", "/members", "first=John&last=Doe"
+                + "&dob=1%2F20%2F1990&location=Bridgewater");
+    }
+
+    @Test
+    void addingAMemberIsOkOnceAndAConflictAfter() throws IOException {
+        Response added = addJohn();
+        assertEquals(200, added.status);
+        assertTrue(added.body.contains("\"changed\":true"));
+        Response again = addJohn();
+        assertEquals(409, again.status);
+        assertTrue(again.body.contains("is already in the database."));
+    }
+
+    @Test
+    void findingAMemberIsOkOrNotFound() throws IOException {
+        addJohn();
+        Response found = send("GET",
+                "/members?first=John&last=Doe&dob=1/20/1990", null);
+        assertEquals(200, found.status);
+        assertTrue(found.body.contains("\"firstName\":\"John\""));
+        assertEquals(404, send("GET",
+                "/members?first=Jane&last=Doe&dob=1/20/1990", null).status);
+    }
+
+    @Test
+    void impossibleDatesAreBadRequests() throws IOException {
+        assertEquals(400, send("GET",
+                "/members?first=John&last=Doe&dob=2/30/1990", null).status);
+        assertEquals(400, send("GET",
+                "/members?first=John&last=Doe&dob=13/1/1990", null).status);
+        assertEquals(400, send("POST", "/members", "first=John&last=Doe"
+                + "&dob=2%2F30%2F1990&location=Bridgewater").status);
+        assertEquals(400, send("DELETE",
+                "/members?first=John&last=Doe&dob=1/32/1990", null).status);
+    }
+
+    @Test
+    void unknownPlansOrdersAndMissingParametersAreBadRequests()
+            throws IOException {
+        assertEquals(400, send("POST", "/members", "first=John&last=Doe"
+                + "&dob=1%2F20%2F1990&location=Bridgewater&plan=gold")
+                .status);
+        assertEquals(400, send("GET", "/members?order=age", null).status);
+        assertEquals(400, send("POST", "/members",
+                "first=John&dob=1%2F20%2F1990&location=Bridgewater").status);
+        assertEquals(200, send("GET", "/members?order=county", null).status);
+    }
+
+    @Test
+    void guestCheckInForAStandardMemberIsAConflict() throws IOException {
+        addJohn();
+        String checkIn = "class=Pilates&instructor=Jennifer"
+                + "&location=Bridgewater&first=John&last=Doe"
+                + "&dob=1%2F20%2F1990";
+        assertEquals(409, send("POST", "/checkins",
+                checkIn + "&guest=true").status);
+        assertEquals(200, send("POST", "/checkins", checkIn).status);
+        assertEquals(200, send("DELETE", "/checkins?" + checkIn, null)
+                .status);
+        assertEquals(409, send("DELETE", "/checkins?" + checkIn
+                + "&guest=true", null).status);
+    }
+
+    @Test
+    void unknownPathsAndMethodsAreRefused() throws IOException {
+        assertEquals(404, send("GET", "/members/john", null).status);
+        assertEquals(405, send("PUT", "/schedule", "").status);
+        assertEquals(405, send("GET", "/checkins", null).status);
+        assertEquals(200, send("GET", "/schedule", null).status);
+    }
+
+    @Test
+    void failingCommandIsAServerError() throws IOException {
+        Response failed = send("DELETE",
+                "/members?first=Failing&last=Member&dob=1/1/1990", null);
+        assertEquals(500, failed.status);
+        assertTrue(failed.body.contains("unable to handle the request"));
+        assertEquals(200, addJohn().status);
+    }
+}
@@ -0,0 +1,171 @@
+package com.example.gymmembershipgui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.net.InetAddress;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * GymServerTest checks that each desk gets back what its own commands
+ * printed, framed by END_OF_RESPONSE, and that a command that fails is
+ * answered with an error line without ending the desk's connection.
+ * @author Mahfuza Rahman, Arunima Tripathy
+ */
+class GymServerTest {
+    private static final String FAILING = "FAIL";
+
+    private GymServer server;
+    private PrintStream console;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        console = System.out;
+        GymManager manager = new GymManager(new ConcurrentMemberDatabase()) {
+            @Override
+            void handle(CommandParser command, PrintStream out) {
+                if (command.getLine().equals(FAILING))
+                    throw new IllegalStateException("failed on purpose");
+                super.handle(command, out);
+            }
+        };
+        server = new GymServer(manager, 0, 0);
+        server.start();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        server.close();
+    }
+
+    /**
+     * Desk is one front desk's connection to the server.
+     */
+    private final class Desk implements AutoCloseable {
+        private final Socket socket;
+        private final PrintWriter out;
+        private final BufferedReader in;
+
+        /**
+         * Connects a desk to the server.
+         * @throws IOException if the desk cannot connect.
+         */
+        private Desk() throws IOException {
+            socket = new Socket(InetAddress.getLoopbackAddress(),
+                    server.getPort());
+            out = new PrintWriter(socket.getOutputStream(), true);
+            in = new BufferedReader(
+                    new InputStreamReader(socket.getInputStream()));
+        }
+
+        /**
+         * Sends a command and reads its response.
+         * @param command the command, as a desk would type it.
+         * @return the lines of the response, without END_OF_RESPONSE.
+         * @throws IOException if the response cannot be read.
+         */
+        private List<String> send(String command) throws IOException {
+            out.println(command);
+            List<String> lines = new ArrayList<>();
+            String line;
+            while (!(line = in.readLine()).equals(GymServer.END_OF_RESPONSE))
+                lines.add(line);
+            return lines;
+        }
+
+        @Override
+        public void close() throws IOException {
+            socket.close();
+        }
+    }
+
+    @Test
+    void eachResponseIsEndedByItsOwnLine() throws IOException {
+        try (Desk desk = new Desk()) {
+            assertEquals(List.of("John Doe added."),
+                    desk.send("A John Doe 1/20/1990 Edison"));
+            assertEquals(List.of("John Doe is already in the database."),
+                    desk.send("A John Doe 1/20/1990 Edison"));
+            assertEquals(List.of(""), desk.send(""));
+            assertEquals(List.of("XX is an invalid command!"),
+                    desk.send("XX"));
+            List<String> members = desk.send("P");
+            assertTrue(members.stream().anyMatch(
+                    line -> line.startsWith("John Doe")));
+        }
+    }
+
+    @Test
+    void failingCommandGetsAnErrorLineAndTheDeskIsStillServed()
+            throws IOException {
+        try (Desk desk = new Desk()) {
+            assertEquals(List.of("Unable to handle the command."),
+                    desk.send(FAILING));
+            assertEquals(List.of("Jane Doe added."),
+                    desk.send("A Jane Doe 5/1/1996 Edison"));
+        }
+    }
+
+    @Test
+    void quitClosesOnlyThatDesk() throws IOException {
+        try (Desk leaving = new Desk(); Desk staying = new Desk()) {
+            leaving.out.println("Q");
+            assertNull(leaving.in.readLine());
+            assertEquals(List.of("Jane Doe added."),
+                    staying.send("A Jane Doe 5/1/1996 Edison"));
+        }
+    }
+
+    @Test
+    void desksOnlySeeTheirOwnOutput() throws Exception {
+        int desks = 8;
+        int members = 50;
+        ExecutorService pool = Executors.newFixedThreadPool(desks);
+        try {
+            List<Future<Boolean>> results = new ArrayList<>();
+            for (int d = 0; d < desks; d++) {
+                String last = "Desk" + (char) ('a' + d);
+                results.add(pool.submit(() -> {
+                    try (Desk desk = new Desk()) {
+                        for (int m = 0; m < members; m++) {
+                            String first = "Member" + (char) ('a' + m % 26)
+                                    + (char) ('a' + m / 26);
+                            List<String> response = desk.send("A " + first
+                                    + " " + last + " 1/" + (m % 28 + 1)
+                                    + "/1990 Edison");
+                            if (!response.equals(List.of(
+                                    first + " " + last + " added.")))
+                                return false;
+                        }
+                        return true;
+                    }
+                }));
+            }
+            for (Future<Boolean> result : results)
+                assertTrue(result.get());
+        } finally {
+            pool.shutdownNow();
+        }
+        try (Desk desk = new Desk()) {
+            long listed = desk.send("P").stream()
+                    .filter(line -> line.contains("Desk")).count();
+            assertEquals(desks * members, listed);
+        }
+        assertEquals(console, System.out);
+    }
+}
@@ -0,0 +1,191 @@
+package com.example.gymmembershipgui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+/**
+ * MutationLogTest checks that the changes appended to a MutationLog are
+ * replayed on top of an empty gym or the last snapshot, that changes
+ * appended by many threads at once are all saved, and that a record cut
+ * short by a crash is dropped.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+class MutationLogTest {
+    @TempDir
+    Path directory;
+
+    private String logFile;
+    private String snapshotFile;
+    private Member standard;
+    private Family family;
+    private FitnessClass pilates;
+
+    @BeforeEach
+    void setUp() {
+        logFile = directory.resolve("gym.log").toString();
+        snapshotFile = directory.resolve("gym.snapshot").toString();
+        standard = new Member("John", "Doe", new Date("1/20/1990"),
+                Location.BRIDGEWATER);
+        family = new Family("Jane", "Doe", new Date("5/1/1996"),
+                Location.BRIDGEWATER);
+        pilates = new FitnessClass("Jennifer", "Pilates", "Bridgewater");
+    }
+
+    /**
+     * Creates a schedule holding the class the tests check in to.
+     * @return the schedule.
+     */
+    private static ClassSchedule schedule() {
+        ClassSchedule schedule = new ClassSchedule();
+        schedule.addFitnessClass("Pilates", "Jennifer", "morning",
+                "Bridgewater");
+        return schedule;
+    }
+
+    @Test
+    void replayAppliesEveryChangeToAnEmptyGym() throws IOException {
+        try (MutationLog log = new MutationLog(logFile)) {
+            log.replay(new MemberDatabase(), schedule(), 0);
+            log.append(MutationLog.Type.ADD, standard);
+            log.append(MutationLog.Type.ADD, family);
+            log.append(MutationLog.Type.CHECK_IN, pilates, standard);
+            log.append(MutationLog.Type.CHECK_IN_GUEST, pilates, family);
+            log.append(MutationLog.Type.REMOVE, standard);
+        }
+        MemberDatabase database = new MemberDatabase();
+        ClassSchedule schedule = schedule();
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(5, log.replay(database, schedule, 0));
+            assertEquals(5, log.getSequence());
+        }
+        assertEquals(1, database.getSize());
+        assertNull(database.findMember(standard));
+        Family restored = (Family) database.findMember(family);
+        assertNotNull(restored);
+        assertEquals(0, restored.getNumberOfPasses());
+        FitnessClass restoredClass = schedule.findFitnessClass(pilates);
+        assertNotNull(restoredClass.findMember(standard));
+        assertEquals(restored, restoredClass.getGuests().iterator().next());
+    }
+
+    @Test
+    void replaySkipsTheChangesHeldByTheSnapshot() throws IOException {
+        MemberDatabase database = new MemberDatabase();
+        ClassSchedule schedule = schedule();
+        try (MutationLog log = new MutationLog(logFile)) {
+            log.replay(database, schedule, 0);
+            database.add(standard);
+            log.append(MutationLog.Type.ADD, standard);
+            log.checkpoint(snapshotFile, database, schedule);
+            assertEquals(0, log.size());
+            log.append(MutationLog.Type.ADD, family);
+        }
+        MemberDatabase restored = new MemberDatabase();
+        ClassSchedule restoredSchedule = new ClassSchedule();
+        long sequence = Snapshot.load(snapshotFile, restored,
+                restoredSchedule);
+        assertEquals(1, sequence);
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(1, log.replay(restored, restoredSchedule,
+                    sequence));
+            assertEquals(2, log.getSequence());
+        }
+        assertEquals(2, restored.getSize());
+        assertNotNull(restored.findMember(standard));
+        assertNotNull(restored.findMember(family));
+    }
+
+    @Test
+    void deferredChangesAreSavedBySync() throws IOException {
+        try (MutationLog log = new MutationLog(logFile)) {
+            log.replay(new MemberDatabase(), schedule(), 0);
+            assertEquals(1, log.appendDeferred(MutationLog.Type.ADD, null,
+                    standard));
+            assertEquals(2, log.appendDeferred(MutationLog.Type.ADD, null,
+                    family));
+            log.sync();
+            assertEquals(Files.size(Path.of(logFile)), log.size());
+        }
+        MemberDatabase database = new MemberDatabase();
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(2, log.replay(database, schedule(), 0));
+        }
+        assertEquals(2, database.getSize());
+    }
+
+    @Test
+    void changesAppendedTogetherAreAllSaved() throws Exception {
+        int threads = 8;
+        int changes = 50;
+        try (MutationLog log = new MutationLog(logFile)) {
+            log.replay(new MemberDatabase(), schedule(), 0);
+            ExecutorService pool = Executors.newFixedThreadPool(threads);
+            try {
+                List<Future<?>> appends = new ArrayList<>();
+                for (int t = 0; t < threads; t++) {
+                    String lname = "Doe" + (char) ('a' + t);
+                    appends.add(pool.submit(() -> {
+                        for (int c = 0; c < changes; c++)
+                            log.append(MutationLog.Type.ADD, new Member(
+                                    "John" + (char) ('a' + c % 26)
+                                            + (char) ('a' + c / 26), lname,
+                                    new Date("1/20/1990"),
+                                    Location.BRIDGEWATER));
+                        return null;
+                    }));
+                }
+                for (Future<?> append : appends)
+                    append.get();
+            } finally {
+                pool.shutdownNow();
+            }
+            assertEquals(Files.size(Path.of(logFile)), log.size());
+        }
+        MemberDatabase database = new MemberDatabase();
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(threads * changes,
+                    log.replay(database, schedule(), 0));
+            assertEquals(threads * changes, log.getSequence());
+        }
+        assertEquals(threads * changes, database.getSize());
+    }
+
+    @Test
+    void recordCutShortByACrashIsDropped() throws IOException {
+        try (MutationLog log = new MutationLog(logFile)) {
+            log.replay(new MemberDatabase(), schedule(), 0);
+            log.append(MutationLog.Type.ADD, standard);
+            log.append(MutationLog.Type.ADD, family);
+        }
+        long complete = Files.size(Path.of(logFile));
+        Files.write(Path.of(logFile), new byte[] {0, 0, 0, 40, 1, 2, 3},
+                StandardOpenOption.APPEND);
+        MemberDatabase database = new MemberDatabase();
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(complete, Files.size(Path.of(logFile)));
+            assertEquals(2, log.replay(database, schedule(), 0));
+            log.append(MutationLog.Type.REMOVE, family);
+        }
+        database = new MemberDatabase();
+        try (MutationLog log = new MutationLog(logFile)) {
+            assertEquals(3, log.replay(database, schedule(), 0));
+        }
+        assertEquals(1, database.getSize());
+        assertNotNull(database.findMember(standard));
+    }
+}
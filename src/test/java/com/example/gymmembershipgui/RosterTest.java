@@ -0,0 +1,150 @@
+package com.example.gymmembershipgui;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+import java.io.IOException;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+/**
+ * RosterTest checks that a roster's printed form, which is kept between
+ * prints, always matches the members on it: after check-ins, removals from
+ * any place, details changing, and the date changing.
+ * @author Arunima Tripathy, Mahfuza Rahman
+ */
+class RosterTest {
+    private GymClock saved;
+    private Member john;
+    private Member jane;
+    private Family kate;
+
+    @BeforeEach
+    void setUp() {
+        saved = GymClock.getShared();
+        setToday(LocalDate.of(2026, 3, 10));
+        john = new Member("John", "Doe", new Date("1/20/1990"),
+                new Date("3/11/2026"), Location.EDISON);
+        jane = new Member("Jane", "Doe", new Date("5/1/1996"),
+                new Date("6/30/2026"), Location.EDISON);
+        kate = new Family("Kate", "Lindsey", new Date("7/15/1977"),
+                new Date("6/30/2026"), Location.EDISON, 1);
+    }
+
+    @AfterEach
+    void tearDown() {
+        GymClock.setShared(saved);
+    }
+
+    /**
+     * Sets the date the shared clock reads.
+     * @param date the date.
+     */
+    private static void setToday(LocalDate date) {
+        GymClock.setShared(new GymClock(Clock.fixed(
+                date.atStartOfDay().toInstant(ZoneOffset.UTC),
+                ZoneOffset.UTC)));
+    }
+
+    /**
+     * Prints a roster to a string.
+     * @param roster the roster.
+     * @return what was printed.
+     * @throws IOException if the roster cannot be printed.
+     */
+    private static String print(Roster<? extends Member> roster)
+            throws IOException {
+        StringBuilder out = new StringBuilder();
+        roster.print(out);
+        return out.toString();
+    }
+
+    /**
+     * Prints members as a roster prints them, in the given order.
+     * @param members the members.
+     * @return what a roster holding them prints.
+     */
+    private static String expected(Member... members) {
+        StringBuilder out = new StringBuilder();
+        for (Member member : members)
+            out.append("\n\t").append(member);
+        return out.toString();
+    }
+
+    @Test
+    void printsCheckInsInOrder() throws IOException {
+        Roster<Member> roster = new Roster<>();
+        assertEquals("", print(roster));
+        roster.add(john);
+        assertEquals(expected(john), print(roster));
+        roster.add(jane);
+        roster.add(kate);
+        assertEquals(expected(john, jane, kate), print(roster));
+        assertEquals(3, roster.size());
+    }
+
+    @Test
+    void removingFromAnyPlaceUpdatesThePrintedRoster() throws IOException {
+        Roster<Member> roster = new Roster<>();
+        roster.add(john);
+        roster.add(jane);
+        roster.add(kate);
+        print(roster);
+        assertSame(kate, roster.remove(kate));
+        assertEquals(expected(john, jane), print(roster));
+        assertSame(john, roster.remove(john));
+        assertEquals(expected(jane), print(roster));
+        roster.add(john);
+        assertEquals(expected(jane, john), print(roster));
+        assertNull(roster.remove(kate));
+        assertEquals(expected(jane, john), print(roster));
+    }
+
+    @Test
+    void removingAGuestRemovesTheEarliestCheckIn() throws IOException {
+        Roster<Family> roster = new Roster<>();
+        Family other = new Family("Roy", "Brooks", new Date("8/8/1977"),
+                new Date("6/30/2026"), Location.EDISON, 1);
+        roster.add(kate);
+        roster.add(other);
+        roster.add(kate);
+        print(roster);
+        roster.remove(kate);
+        assertEquals(expected(other, kate), print(roster));
+        roster.remove(kate);
+        assertEquals(expected(other), print(roster));
+    }
+
+    @Test
+    void refreshRendersAChangedMemberAgain() throws IOException {
+        Roster<Family> roster = new Roster<>();
+        roster.add(kate);
+        roster.add(kate);
+        String before = print(roster);
+        kate.useGuestPass();
+        roster.refresh(kate);
+        String after = print(roster);
+        assertNotEquals(before, after);
+        assertEquals(expected(kate, kate), after);
+    }
+
+    @Test
+    void newDayRendersExpiredMembersAgain() throws IOException {
+        Roster<Member> roster = new Roster<>();
+        roster.add(john);
+        roster.add(jane);
+        String before = print(roster);
+        setToday(LocalDate.of(2026, 3, 12));
+        String after = print(roster);
+        assertEquals(expected(john, jane), after);
+        assertEquals(before.replace("Membership expires 3/11/2026",
+                "Membership expired 3/11/2026"), after);
+    }
+}